@@ -0,0 +1,48 @@
+package hr.fer.zemris.java.simplecomp.benchmarks;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@code BenchmarkRunner} runs all benchmarks from this package.
+ * <p>
+ * Benchmarks must be compiled with {@code jmh-generator-annprocess} on the
+ * class path so the annotation processor generates the benchmark harness,
+ * for example:
+ * 
+ * <pre>
+ * javac -cp "bin:lib/*" -d bin benchmarks/hr/fer/zemris/java/simplecomp/benchmarks/*.java
+ * java -cp "bin:lib/*" hr.fer.zemris.java.simplecomp.benchmarks.BenchmarkRunner
+ * </pre>
+ * 
+ * Benchmarks are run from the project directory because programs are loaded
+ * from the {@code examples} directory. Optional argument is a regular
+ * expression selecting benchmarks which are run.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Starting point of a program.
+     * 
+     * @param args
+     *            Command-line argument
+     * @throws RunnerException
+     *             if benchmarks can't be run
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0
+                ? args[0]
+                : BenchmarkRunner.class.getPackage().getName() + ".*";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,104 @@
+package hr.fer.zemris.java.simplecomp.benchmarks;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.InstructionCreator;
+import hr.fer.zemris.java.simplecomp.parser.InstructionCreatorImpl;
+import hr.fer.zemris.java.simplecomp.parser.ProgramParser;
+import hr.fer.zemris.java.simplecomp.registry.RegistryInstructionCreator;
+
+/**
+ * {@code BenchmarkUtil} is a class used to help benchmarks with loading of
+ * programs and replacing of standard input and output.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+final class BenchmarkUtil {
+
+    /** Input given to programs, repeated forever */
+    private static final byte[] INPUT = "abc\n7\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    /** Package holding the instructions */
+    private static final String INSTRUCTIONS_PACKAGE =
+            "hr.fer.zemris.java.simplecomp.impl.instructions";
+
+    /**
+     * Private constructor. Class only holds static methods.
+     */
+    private BenchmarkUtil() {
+    }
+
+    /**
+     * Replaces standard input with an endless repetition of a line which
+     * isn't a number and a line which is, and discards standard output.
+     * <p>
+     * Must be called before the first program reads the input, because
+     * standard input is wrapped only once.
+     */
+    static void stubStandardStreams() {
+        System.setIn(new InputStream() {
+
+            private int position;
+
+            @Override
+            public int read() {
+                int value = INPUT[position];
+                position = (position + 1) % INPUT.length;
+                return value;
+            }
+        });
+
+        System.setOut(new PrintStream(new OutputStream() {
+
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+    }
+
+    /**
+     * Returns the instruction creator used by the simulator.
+     * 
+     * @return the instruction creator
+     */
+    static InstructionCreator creator() {
+        return new RegistryInstructionCreator();
+    }
+
+    /**
+     * Returns the instruction creator which finds instructions by reflection.
+     * 
+     * @return the reflective instruction creator
+     */
+    static InstructionCreator reflectiveCreator() {
+        return new InstructionCreatorImpl(INSTRUCTIONS_PACKAGE);
+    }
+
+    /**
+     * Loads the program from the file into the computer.
+     * 
+     * @param program
+     *            path to the program
+     * @param computer
+     *            the computer
+     */
+    static void load(String program, Computer computer) {
+        try {
+            ProgramParser.parse(program, computer, creator());
+        } catch (Exception e) {
+            throw new IllegalStateException(
+                    "Program " + program + " can't be parsed!",
+                    e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package hr.fer.zemris.java.simplecomp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.simplecomp.impl.ArrayMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.MemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.RegistersImpl;
+import hr.fer.zemris.java.simplecomp.impl.closure.ClosureExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.compiler.CompiledExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.compiler.TieredExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.encoded.SwitchExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.encoded.TrustedExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.stack.StackExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.trace.TraceExecutionUnit;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+import hr.fer.zemris.java.simplecomp.models.Memory;
+
+/**
+ * Benchmark of execution units running example programs.
+ * <p>
+ * Every program is parsed once; each invocation copies the parsed memory
+ * image and registers into a fresh computer and runs it. Standard input is an endless
+ * repetition of the lines {@code abc} and {@code 7}, standard output is
+ * discarded.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionUnitBenchmark {
+
+    /** Size of the memory */
+    private static final int MEMORY_SIZE = 256;
+
+    /** Number of registers */
+    private static final int REGISTERS = 16;
+
+    /** Path to the program */
+    @Param({
+            "examples/asmProgram1.txt",
+            "examples/asmProgram2.txt",
+            "examples/asmProgram3.txt",
+            "examples/asmProgram4.txt",
+            "examples/asmProgram5.txt",
+            "examples/prim1.txt",
+            "examples/prim2.txt",
+            "examples/prim3.txt" })
+    public String program;
+
+    /** Memory implementation: {@code map} or {@code array} */
+    @Param({ "map", "array" })
+    public String memory;
+
+    /** Name of the execution engine */
+    @Param({
+            "interpreter",
+            "closure",
+            "compiled",
+            "tiered",
+            "switch",
+            "trusted",
+            "stack",
+            "trace" })
+    public String engine;
+
+    /** Parsed memory image */
+    private Object[] image;
+
+    /** Registers after parsing */
+    private Object[] registers;
+
+    /** Execution unit */
+    private ExecutionUnit exec;
+
+    /**
+     * Parses the program and creates the execution unit.
+     */
+    @Setup
+    public void setup() {
+        BenchmarkUtil.stubStandardStreams();
+
+        Computer computer = createComputer();
+        BenchmarkUtil.load(program, computer);
+
+        image = new Object[MEMORY_SIZE];
+        for (int i = 0; i < MEMORY_SIZE; i++) {
+            image[i] = computer.getMemory().getLocation(i);
+        }
+
+        registers = new Object[REGISTERS];
+        for (int i = 0; i < REGISTERS; i++) {
+            registers[i] = computer.getRegisters().getRegisterValue(i);
+        }
+
+        switch (engine) {
+            case "interpreter":
+                exec = new ExecutionUnitImpl();
+                break;
+            case "closure":
+                exec = new ClosureExecutionUnit();
+                break;
+            case "compiled":
+                exec = new CompiledExecutionUnit();
+                break;
+            case "tiered":
+                exec = new TieredExecutionUnit();
+                break;
+            case "switch":
+                exec = new SwitchExecutionUnit();
+                break;
+            case "trusted":
+                exec = new TrustedExecutionUnit();
+                break;
+            case "stack":
+                exec = new StackExecutionUnit();
+                break;
+            case "trace":
+                exec = new TraceExecutionUnit();
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown execution engine " + engine);
+        }
+    }
+
+    /**
+     * Runs the program on a fresh computer.
+     * 
+     * @return the computer after the program halted
+     */
+    @Benchmark
+    public Computer go() {
+        Computer computer = createComputer();
+
+        Memory mem = computer.getMemory();
+        for (int i = 0; i < MEMORY_SIZE; i++) {
+            mem.setLocation(i, image[i]);
+        }
+        for (int i = 0; i < REGISTERS; i++) {
+            computer.getRegisters().setRegisterValue(i, registers[i]);
+        }
+
+        exec.go(computer);
+
+        return computer;
+    }
+
+    /**
+     * Creates a computer with selected memory implementation.
+     * 
+     * @return the computer
+     */
+    private Computer createComputer() {
+        Memory mem = memory.equals("map")
+                ? new MemoryImpl(MEMORY_SIZE)
+                : new ArrayMemoryImpl(MEMORY_SIZE);
+
+        return new ComputerImpl(mem, new RegistersImpl(REGISTERS));
+    }
+}
@@ -0,0 +1,104 @@
+package hr.fer.zemris.java.simplecomp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.simplecomp.impl.ArrayMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.MemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.PagedMemoryImpl;
+import hr.fer.zemris.java.simplecomp.models.Memory;
+
+/**
+ * Benchmark of {@link Memory#getLocation(int)} and
+ * {@link Memory#setLocation(int, Object)}.
+ * <p>
+ * Locations are visited in a pseudo-random order which is the same for every
+ * memory implementation.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryBenchmark {
+
+    /** Size of the memory */
+    private static final int MEMORY_SIZE = 256;
+
+    /** Memory implementation: {@code map}, {@code array} or {@code paged} */
+    @Param({ "map", "array", "paged" })
+    public String memory;
+
+    /** Tested memory */
+    private Memory mem;
+
+    /** Current location */
+    private int location;
+
+    /** Boxed values written to the memory */
+    private Integer[] values;
+
+    /**
+     * Creates the memory and fills it with integers.
+     */
+    @Setup
+    public void setup() {
+        if (memory.equals("map")) {
+            mem = new MemoryImpl(MEMORY_SIZE);
+        } else if (memory.equals("array")) {
+            mem = new ArrayMemoryImpl(MEMORY_SIZE);
+        } else {
+            mem = new PagedMemoryImpl(MEMORY_SIZE);
+        }
+
+        values = new Integer[MEMORY_SIZE];
+        for (int i = 0; i < MEMORY_SIZE; i++) {
+            values[i] = i * 1000;
+            mem.setLocation(i, values[i]);
+        }
+    }
+
+    /**
+     * Reads one location.
+     * 
+     * @return the value of the location
+     */
+    @Benchmark
+    public Object getLocation() {
+        return mem.getLocation(nextLocation());
+    }
+
+    /**
+     * Writes one location.
+     */
+    @Benchmark
+    public void setLocation() {
+        int i = nextLocation();
+        mem.setLocation(i, values[i]);
+    }
+
+    /**
+     * Returns the next visited location.
+     * 
+     * @return the next location
+     */
+    private int nextLocation() {
+        location = (location + 97) & (MEMORY_SIZE - 1);
+        return location;
+    }
+}
@@ -0,0 +1,140 @@
+package hr.fer.zemris.java.simplecomp.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.simplecomp.impl.ArrayMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.PagedMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.RegistersImpl;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.InstructionCreator;
+import hr.fer.zemris.java.simplecomp.parser.ProgramParser;
+
+/**
+ * Benchmark of {@link ProgramParser#parse(java.io.Reader, Computer,
+ * InstructionCreator)} on large generated programs.
+ * <p>
+ * Generated program is made of blocks using every instruction, labels,
+ * comments, numbers, strings and indirect addressing. Instructions are created
+ * either by the registry or by reflection. Parsing is compared with forking
+ * a computer on which the program is already loaded.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    /** Number of memory locations used by one block */
+    private static final int BLOCK_SIZE = 18;
+
+    /** Number of generated blocks */
+    @Param({ "100", "1000", "10000" })
+    public int blocks;
+
+    /** Creator of instructions */
+    @Param({ "registry", "reflection" })
+    public String creatorType;
+
+    /** Generated source */
+    private String source;
+
+    /** Instruction creator */
+    private InstructionCreator creator;
+
+    /** Computer with paged memory holding the parsed program */
+    private ComputerImpl loaded;
+
+    /**
+     * Generates and loads the source.
+     * 
+     * @throws Exception
+     *             if program can't be parsed
+     */
+    @Setup
+    public void setup() throws Exception {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < blocks; i++) {
+            sb.append("@block").append(i).append(":\tload r1, @num")
+                    .append(i).append("\t; loads the number\n");
+            sb.append("\t\tmove r2, r1\n");
+            sb.append("\t\tmove r3, 12345\n");
+            sb.append("\t\tmove [r15+1], r2\n");
+            sb.append("\t\tmove r4, [r15-1]\n");
+            sb.append("\t\tadd r5, r1, r2\n");
+            sb.append("\t\tmul r6, r5, r3\n");
+            sb.append("\t\tincrement r1\n");
+            sb.append("\t\tdecrement r2\n");
+            sb.append("\t\ttestEquals r1, r2\n");
+            sb.append("\t\tjumpIfTrue @block").append(i).append('\n');
+            sb.append("\t\tpush r1\n");
+            sb.append("\t\tpop r1\n");
+            sb.append("\t\techo r1\n");
+            sb.append("\t\tcall @block").append(i).append('\n');
+            sb.append("\t\tjump @num").append(i).append('\n');
+            sb.append("\n# comment line\n");
+            sb.append("@num").append(i).append(":\tDEFINT ").append(i)
+                    .append('\n');
+            sb.append("@str").append(i).append(":\tDEFSTR \"Text ")
+                    .append(i).append("\\n\"\n");
+        }
+        sb.append("\t\thalt\n");
+
+        source = sb.toString();
+        creator = creatorType.equals("registry")
+                ? BenchmarkUtil.creator()
+                : BenchmarkUtil.reflectiveCreator();
+
+        loaded = new ComputerImpl(
+                new PagedMemoryImpl(blocks * BLOCK_SIZE + 1),
+                new RegistersImpl(16));
+        ProgramParser.parse(new StringReader(source), loaded, creator);
+    }
+
+    /**
+     * Parses the generated source.
+     * 
+     * @return the computer holding the parsed program
+     * @throws Exception
+     *             if program can't be parsed
+     */
+    @Benchmark
+    public Computer parse() throws Exception {
+        Computer computer = new ComputerImpl(
+                new ArrayMemoryImpl(blocks * BLOCK_SIZE + 1),
+                new RegistersImpl(16));
+
+        ProgramParser.parse(new StringReader(source), computer, creator);
+
+        return computer;
+    }
+
+    /**
+     * Forks the computer holding the parsed program.
+     * 
+     * @return the fork
+     */
+    @Benchmark
+    public Computer fork() {
+        return loaded.fork();
+    }
+}
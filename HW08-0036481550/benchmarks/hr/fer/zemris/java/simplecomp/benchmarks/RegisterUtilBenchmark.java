@@ -0,0 +1,107 @@
+package hr.fer.zemris.java.simplecomp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.impl.ArrayMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.MemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.RegistersImpl;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.Memory;
+
+/**
+ * Benchmark of {@link RegisterUtil#getValue(Computer, int)} and
+ * {@link RegisterUtil#setValue(Computer, int, Object)} with direct and
+ * indirect register descriptors.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegisterUtilBenchmark {
+
+    /** Descriptor of register {@code r3} */
+    private static final int DIRECT = 3;
+
+    /** Descriptor of {@code [r4+2]} */
+    private static final int INDIRECT = 1 << 24 | 2 << 8 | 4;
+
+    /** Memory implementation: {@code map} or {@code array} */
+    @Param({ "map", "array" })
+    public String memory;
+
+    /** Tested computer */
+    private Computer computer;
+
+    /** Value written by setters */
+    private Integer value = 1234;
+
+    /**
+     * Creates the computer and initializes used registers and memory.
+     */
+    @Setup
+    public void setup() {
+        Memory mem = memory.equals("map")
+                ? new MemoryImpl(256)
+                : new ArrayMemoryImpl(256);
+        computer = new ComputerImpl(mem, new RegistersImpl(16));
+
+        computer.getRegisters().setRegisterValue(3, 42);
+        computer.getRegisters().setRegisterValue(4, 100);
+        computer.getMemory().setLocation(102, 7);
+    }
+
+    /**
+     * Reads the register.
+     * 
+     * @return the value of the register
+     */
+    @Benchmark
+    public Object getDirect() {
+        return RegisterUtil.getValue(computer, DIRECT);
+    }
+
+    /**
+     * Reads the memory location addressed by the register.
+     * 
+     * @return the value of the memory location
+     */
+    @Benchmark
+    public Object getIndirect() {
+        return RegisterUtil.getValue(computer, INDIRECT);
+    }
+
+    /**
+     * Writes the register.
+     */
+    @Benchmark
+    public void setDirect() {
+        RegisterUtil.setValue(computer, DIRECT, value);
+    }
+
+    /**
+     * Writes the memory location addressed by the register.
+     */
+    @Benchmark
+    public void setIndirect() {
+        RegisterUtil.setValue(computer, INDIRECT, value);
+    }
+}
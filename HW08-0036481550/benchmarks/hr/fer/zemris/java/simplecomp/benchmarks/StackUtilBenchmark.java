@@ -0,0 +1,141 @@
+package hr.fer.zemris.java.simplecomp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.simplecomp.impl.ArrayMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.MemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.RegistersImpl;
+import hr.fer.zemris.java.simplecomp.impl.instructions.StackUtil;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
+import hr.fer.zemris.java.simplecomp.models.Memory;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * Benchmark of {@link StackUtil} methods. Every benchmark method performs a
+ * balanced pair of operations ({@code push} and {@code pop}, {@code call} and
+ * {@code ret}) so the stack pointer doesn't move between invocations.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackUtilBenchmark {
+
+    /** Address of the top of the stack */
+    private static final int STACK_TOP = 255;
+
+    /** Memory implementation: {@code map} or {@code array} */
+    @Param({ "map", "array" })
+    public String memory;
+
+    /** Tested computer */
+    private Computer computer;
+
+    /** Argument of {@code push} and {@code pop} instructions */
+    private InstructionArgument register = new RegisterArgument(3);
+
+    /**
+     * Creates the computer and initializes the stack pointer.
+     */
+    @Setup
+    public void setup() {
+        Memory mem = memory.equals("map")
+                ? new MemoryImpl(256)
+                : new ArrayMemoryImpl(256);
+        computer = new ComputerImpl(mem, new RegistersImpl(16));
+
+        computer.getRegisters().setRegisterValue(
+                Registers.STACK_REGISTER_INDEX,
+                STACK_TOP);
+        computer.getRegisters().setRegisterValue(3, 42);
+        computer.getRegisters().setProgramCounter(10);
+    }
+
+    /**
+     * Pushes the register on the stack and pops it back.
+     * 
+     * @return the computer
+     */
+    @Benchmark
+    public Computer pushPop() {
+        StackUtil.push(computer, register);
+        StackUtil.pop(computer, register);
+
+        return computer;
+    }
+
+    /**
+     * Calls the subroutine and returns from it.
+     * 
+     * @return the computer
+     */
+    @Benchmark
+    public Computer callRet() {
+        StackUtil.call(computer, 100);
+        StackUtil.ret(computer);
+
+        return computer;
+    }
+
+    /**
+     * {@code RegisterArgument} is an instruction argument holding a direct
+     * register descriptor.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class RegisterArgument implements InstructionArgument {
+
+        /** Register descriptor */
+        private Integer descriptor;
+
+        /**
+         * Constructs a new {@code RegisterArgument}.
+         * 
+         * @param index
+         *            register index
+         */
+        RegisterArgument(int index) {
+            this.descriptor = index;
+        }
+
+        @Override
+        public boolean isRegister() {
+            return true;
+        }
+
+        @Override
+        public boolean isString() {
+            return false;
+        }
+
+        @Override
+        public boolean isNumber() {
+            return false;
+        }
+
+        @Override
+        public Object getValue() {
+            return descriptor;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package hr.fer.zemris.java.simplecomp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import hr.fer.zemris.java.simplecomp.batch.BatchResult;
+import hr.fer.zemris.java.simplecomp.batch.BatchRunner;
+import hr.fer.zemris.java.simplecomp.jfr.ProgramEvents;
+
+/**
+ * {@code BatchSimulator} runs many programs in parallel and reports the output
+ * and running time of every program and the total throughput.
+ * <p>
+ * The only argument is a path to a directory with programs or to a manifest
+ * listing one program per line. Options are:
+ * <ul>
+ * <li>{@code --engine=name} selects the execution unit like in
+ * {@link Simulator},</li>
+ * <li>{@code --fuse} fuses common instruction pairs,</li>
+ * <li>{@code --cache} loads programs from their binary images,</li>
+ * <li>{@code --jfr} records loading and running of programs as flight
+ * recorder events,</li>
+ * <li>{@code --threads=n} sets the number of threads (number of processors by
+ * default),</li>
+ * <li>{@code --input=path} sets the file whose content is the input of every
+ * program (empty by default).</li>
+ * </ul>
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BatchRunner
+ */
+public class BatchSimulator {
+
+    /** Option used to select the execution unit */
+    private static final String ENGINE_OPTION = "--engine=";
+
+    /** Option used to enable fusion of instruction pairs */
+    private static final String FUSE_OPTION = "--fuse";
+
+    /** Option used to enable binary program images */
+    private static final String CACHE_OPTION = "--cache";
+
+    /** Option used to enable flight recorder events */
+    private static final String JFR_OPTION = "--jfr";
+
+    /** Option used to set the number of threads */
+    private static final String THREADS_OPTION = "--threads=";
+
+    /** Option used to set the input of programs */
+    private static final String INPUT_OPTION = "--input=";
+
+    /**
+     * Starting point of a program.
+     * 
+     * @param args
+     *            Command-line argument
+     */
+    public static void main(String[] args) {
+        String engine = "interpreter";
+        boolean fuse = false;
+        boolean cache = false;
+        boolean jfr = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        byte[] input = new byte[0];
+
+        List<String> arguments = new ArrayList<>();
+        try {
+            for (String arg : args) {
+                if (arg.startsWith(ENGINE_OPTION)) {
+                    engine = arg.substring(ENGINE_OPTION.length());
+                } else if (arg.equals(FUSE_OPTION)) {
+                    fuse = true;
+                } else if (arg.equals(CACHE_OPTION)) {
+                    cache = true;
+                } else if (arg.equals(JFR_OPTION)) {
+                    jfr = true;
+                } else if (arg.startsWith(THREADS_OPTION)) {
+                    threads = Integer.parseInt(
+                            arg.substring(THREADS_OPTION.length()));
+                } else if (arg.startsWith(INPUT_OPTION)) {
+                    input = Files.readAllBytes(
+                            Paths.get(arg.substring(INPUT_OPTION.length())));
+                } else {
+                    arguments.add(arg);
+                }
+            }
+        } catch (NumberFormatException | IOException e) {
+            System.err.printf("Invalid option: %s%n", e.getMessage());
+            System.exit(1);
+        }
+
+        String name = engine;
+        if (Simulator.createExecutionUnit(name) == null) {
+            System.err.printf("Unknown execution engine '%s'!", engine);
+            System.exit(1);
+        }
+
+        if (arguments.size() != 1) {
+            System.err.printf(
+                    "You should provide 1 argument! You provided %d.",
+                    arguments.size());
+            System.exit(1);
+        }
+
+        List<Path> programs = null;
+        try {
+            programs = BatchRunner.listPrograms(Paths.get(arguments.get(0)));
+        } catch (IOException e) {
+            System.err.printf(
+                    "Programs can't be listed from '%s'!%n",
+                    arguments.get(0));
+            System.exit(2);
+        }
+
+        BatchRunner runner = new BatchRunner(
+                () -> Simulator.createExecutionUnit(name),
+                input,
+                threads,
+                fuse);
+        runner.setCached(cache);
+        if (jfr && !ProgramEvents.isAvailable()) {
+            System.err.print("Flight recorder isn't available!");
+            System.exit(1);
+        }
+        runner.setRecorded(jfr);
+
+        long start = System.nanoTime();
+        List<BatchResult> results = null;
+        try {
+            results = runner.run(programs);
+        } catch (InterruptedException e) {
+            System.exit(3);
+        }
+        long nanos = System.nanoTime() - start;
+
+        report(results, nanos, threads);
+    }
+
+    /**
+     * Prints the output and time of every program and the total throughput.
+     * 
+     * @param results
+     *            results of programs
+     * @param nanos
+     *            total time in nanoseconds
+     * @param threads
+     *            number of threads
+     */
+    private static void report(
+            List<BatchResult> results,
+            long nanos,
+            int threads) {
+        int failed = 0;
+        long busy = 0;
+
+        for (BatchResult result : results) {
+            System.out.printf(
+                    "=== %s (%.3f ms)%n",
+                    result.getProgram(),
+                    result.getNanos() / 1e6);
+            System.out.print(result.getOutput());
+
+            if (!result.isSuccessful()) {
+                System.out.printf("%n!!! Failed: %s%n", result.getError());
+                failed++;
+            }
+
+            System.out.println();
+            busy += result.getNanos();
+        }
+
+        double seconds = nanos / 1e9;
+        System.out.printf(
+                "Ran %d programs (%d failed) on %d threads in %.3f ms,"
+                        + " %.1f programs/s, %.3f ms total program time.%n",
+                results.size(),
+                failed,
+                threads,
+                nanos / 1e6,
+                results.size() / seconds,
+                busy / 1e6);
+    }
+
+}
@@ -1,6 +1,10 @@
 package hr.fer.zemris.java.simplecomp;
 
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
 import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.Memory;
+import hr.fer.zemris.java.simplecomp.models.Registers;
 
 /**
  * {@code RegisterUtil} is class that provides some static methods used when
@@ -20,6 +24,9 @@ public class RegisterUtil {
     /** Register offset mask */
     private static final int REGISTER_OFFSET_MASK = 0x00FFFF00;
 
+    /** Value of an empty register or memory location */
+    private static final Integer ZERO = 0;
+
     /**
      * Extracts register index(bits 0 to 7) from register descriptor.
      * 
@@ -72,13 +79,15 @@ public class RegisterUtil {
             Computer computer,
             int registerDescriptor) {
         int index = getRegisterIndex(registerDescriptor);
-        int baseAddress = (int) getValue(computer, index);
+        int baseAddress = getIntValue(computer, index);
 
         return baseAddress + getRegisterOffset(registerDescriptor);
     }
 
     /**
-     * Returns the value of a register.
+     * Returns the value of a register. Empty register or memory location is
+     * read as {@code 0} and stays empty, so reading never changes the state of
+     * the computer.
      * 
      * @param computer
      *            the computer on which we execute this instruction
@@ -92,24 +101,14 @@ public class RegisterUtil {
             int index = RegisterUtil.getRegisterIndex(registerDescriptor);
 
             value = computer.getRegisters().getRegisterValue(index);
-
-            if (value == null) { // if register is non-existent
-                computer.getRegisters().setRegisterValue(index, 0);
-                value = computer.getRegisters().getRegisterValue(index);
-            }
         } else {
             int location = RegisterUtil
                     .getIndirectAddress(computer, registerDescriptor);
 
             value = computer.getMemory().getLocation(location);
-
-            if (value == null) { // if memory location is non-existent
-                computer.getMemory().setLocation(location, 0);
-                value = computer.getMemory().getLocation(location);
-            }
         }
 
-        return value;
+        return value == null ? ZERO : value;
     }
 
     /**
@@ -137,4 +136,82 @@ public class RegisterUtil {
             computer.getMemory().setLocation(location, value);
         }
     }
+
+    /**
+     * Returns the integer value of a register.
+     * <p>
+     * If registers or memory of the computer implement
+     * {@link PrimitiveRegisters} or {@link PrimitiveMemory} the value is read
+     * without boxing, otherwise this method behaves like
+     * {@link #getValue(Computer, int)}.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @param registerDescriptor
+     *            register descriptor
+     * @return the integer value of a register
+     * @throws ClassCastException
+     *             if register or memory location doesn't hold an integer
+     */
+    public static int getIntValue(Computer computer, int registerDescriptor) {
+        if (!RegisterUtil.isIndirect(registerDescriptor)) {
+            int index = RegisterUtil.getRegisterIndex(registerDescriptor);
+            Registers registers = computer.getRegisters();
+
+            if (registers instanceof PrimitiveRegisters) {
+                return ((PrimitiveRegisters) registers).getIntOrZero(index);
+            }
+        } else {
+            int location = RegisterUtil
+                    .getIndirectAddress(computer, registerDescriptor);
+            Memory memory = computer.getMemory();
+
+            if (memory instanceof PrimitiveMemory) {
+                return ((PrimitiveMemory) memory).getIntOrZero(location);
+            }
+        }
+
+        return (Integer) getValue(computer, registerDescriptor);
+    }
+
+    /**
+     * Sets the new integer value of a register.
+     * <p>
+     * If registers or memory of the computer implement
+     * {@link PrimitiveRegisters} or {@link PrimitiveMemory} the value is
+     * written without boxing, otherwise this method behaves like
+     * {@link #setValue(Computer, int, Object)}.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @param registerDescriptor
+     *            register descriptor
+     * @param value
+     *            new value of a register
+     */
+    public static void setIntValue(
+            Computer computer,
+            int registerDescriptor,
+            int value) {
+        if (!RegisterUtil.isIndirect(registerDescriptor)) {
+            int index = RegisterUtil.getRegisterIndex(registerDescriptor);
+            Registers registers = computer.getRegisters();
+
+            if (registers instanceof PrimitiveRegisters) {
+                ((PrimitiveRegisters) registers).setInt(index, value);
+            } else {
+                registers.setRegisterValue(index, value);
+            }
+        } else {
+            int location = RegisterUtil
+                    .getIndirectAddress(computer, registerDescriptor);
+            Memory memory = computer.getMemory();
+
+            if (memory instanceof PrimitiveMemory) {
+                ((PrimitiveMemory) memory).setInt(location, value);
+            } else {
+                memory.setLocation(location, value);
+            }
+        }
+    }
 }
@@ -1,28 +1,107 @@
 package hr.fer.zemris.java.simplecomp;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import hr.fer.zemris.java.simplecomp.image.ProgramImageCache;
+import hr.fer.zemris.java.simplecomp.impl.ArrayMemoryImpl;
 import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
 import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.MappedInputChannel;
+import hr.fer.zemris.java.simplecomp.impl.RegistersImpl;
+import hr.fer.zemris.java.simplecomp.impl.closure.ClosureExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.compiler.CompiledExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.compiler.TieredExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.encoded.SwitchExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.encoded.TrustedExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.fusion.SuperinstructionFuser;
+import hr.fer.zemris.java.simplecomp.impl.stack.StackExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.trace.TraceExecutionUnit;
 import hr.fer.zemris.java.simplecomp.impl.instructions.InputStreamUtil;
+import hr.fer.zemris.java.simplecomp.impl.optimizer.ProgramOptimizer;
+import hr.fer.zemris.java.simplecomp.jfr.ProgramEvents;
 import hr.fer.zemris.java.simplecomp.models.Computer;
 import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
 import hr.fer.zemris.java.simplecomp.models.InstructionCreator;
-import hr.fer.zemris.java.simplecomp.parser.InstructionCreatorImpl;
 import hr.fer.zemris.java.simplecomp.parser.ProgramParser;
+import hr.fer.zemris.java.simplecomp.profiler.CallGraphProfiler;
+import hr.fer.zemris.java.simplecomp.profiler.ExecutionProfiler;
+import hr.fer.zemris.java.simplecomp.profiler.ProgramLabels;
+import hr.fer.zemris.java.simplecomp.registry.RegistryInstructionCreator;
+import hr.fer.zemris.java.simplecomp.server.SimulationClient;
+import hr.fer.zemris.java.simplecomp.server.SimulationServer;
 
 /**
  * {@code Simulator} simulates the compilation and running of a program.
  * <p>
  * If pat to source of a program isn't specified user will be prompted to enter
  * it during runtime.
+ * <p>
+ * Execution unit which runs the program can be selected with the
+ * {@code --engine=name} option. Supported engines are {@code interpreter}
+ * (default), {@code closure}, {@code compiled}, {@code tiered},
+ * {@code switch}, {@code trusted}, {@code stack} and {@code trace}. Option
+ * {@code --optimize} runs the {@link ProgramOptimizer} after the program is
+ * loaded and option {@code --fuse} then fuses common instruction pairs.
+ * Option {@code --cache} loads the program from its binary image when the
+ * image is fresh and writes the image otherwise. Option
+ * {@code --input=path} makes the program read its input from the file instead
+ * of standard input.
+ * <p>
+ * Option {@code --profile} runs the program in the interpreter with an
+ * {@link ExecutionProfiler} and prints the report of hot addresses to standard
+ * error when the program halts. Option {@code --profile=path} exports the
+ * counts to the CSV file instead. Option {@code --callgraph=path} runs the
+ * program with a {@link CallGraphProfiler}, prints the report of subroutines
+ * to standard error and writes folded call stacks to the file.
+ * <p>
+ * Option {@code --jfr} records loading and running of the program as flight
+ * recorder events, see {@link ProgramEvents}.
+ * <p>
+ * Option {@code --server=port} starts a {@link SimulationServer} on the port
+ * of the loopback address instead of running a program, and serves jobs sent
+ * by {@link SimulationClient} until the JVM is stopped. Jobs are run in the
+ * interpreter; {@code --fuse} is the only other option allowed with it.
  * 
  * @author Karlo Vrbić
  * @version 1.0
  */
 public class Simulator {
 
+    /** Option used to select the execution unit */
+    private static final String ENGINE_OPTION = "--engine=";
+
+    /** Option used to enable fusion of instruction pairs */
+    private static final String FUSE_OPTION = "--fuse";
+
+    /** Option used to enable the load-time optimizer */
+    private static final String OPTIMIZE_OPTION = "--optimize";
+
+    /** Option used to enable binary program images */
+    private static final String CACHE_OPTION = "--cache";
+
+    /** Option used to select the file with the input of the program */
+    private static final String INPUT_OPTION = "--input=";
+
+    /** Option used to enable profiling */
+    private static final String PROFILE_OPTION = "--profile";
+
+    /** Option used to enable profiling of subroutines */
+    private static final String CALLGRAPH_OPTION = "--callgraph=";
+
+    /** Option used to enable flight recorder events */
+    private static final String JFR_OPTION = "--jfr";
+
+    /** Option used to start the simulation server */
+    private static final String SERVER_OPTION = "--server=";
+
+    /** Number of addresses in the profiling report */
+    private static final int PROFILE_LIMIT = 20;
+
     /**
      * Starting point of a program.
      * 
@@ -32,15 +111,95 @@ public class Simulator {
     public static void main(String[] args) {
 
         Path path = null;
+        String engine = "interpreter";
+        boolean fuse = false;
+        boolean optimize = false;
+        boolean cache = false;
+        Path input = null;
+        boolean profile = false;
+        Path export = null;
+        Path folded = null;
+        boolean jfr = false;
+        String server = null;
+
+        List<String> arguments = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith(ENGINE_OPTION)) {
+                engine = arg.substring(ENGINE_OPTION.length());
+            } else if (arg.equals(FUSE_OPTION)) {
+                fuse = true;
+            } else if (arg.equals(OPTIMIZE_OPTION)) {
+                optimize = true;
+            } else if (arg.equals(CACHE_OPTION)) {
+                cache = true;
+            } else if (arg.startsWith(INPUT_OPTION)) {
+                input = Paths.get(arg.substring(INPUT_OPTION.length()));
+            } else if (arg.equals(PROFILE_OPTION)) {
+                profile = true;
+            } else if (arg.startsWith(PROFILE_OPTION + "=")) {
+                profile = true;
+                export = Paths.get(
+                        arg.substring(PROFILE_OPTION.length() + 1));
+            } else if (arg.startsWith(CALLGRAPH_OPTION)) {
+                folded = Paths.get(arg.substring(CALLGRAPH_OPTION.length()));
+            } else if (arg.equals(JFR_OPTION)) {
+                jfr = true;
+            } else if (arg.startsWith(SERVER_OPTION)) {
+                server = arg.substring(SERVER_OPTION.length());
+            } else {
+                arguments.add(arg);
+            }
+        }
+
+        if (server != null) {
+            if (!engine.equals("interpreter") || optimize || cache
+                    || input != null || profile || folded != null || jfr
+                    || !arguments.isEmpty()) {
+                System.err.print("Server only supports the --fuse option!");
+                System.exit(1);
+            }
 
-        if (args.length == 1) {
-            path = Paths.get(args[0]);
-        } else if (args.length == 0) {
+            serve(server, fuse);
+            return;
+        }
+
+        ExecutionUnit exec = createExecutionUnit(engine);
+        if (exec == null) {
+            System.err.printf("Unknown execution engine '%s'!", engine);
+            System.exit(1);
+        }
+
+        if ((profile || folded != null) && !engine.equals("interpreter")) {
+            System.err.print("Only the interpreter can be profiled!");
+            System.exit(1);
+        }
+        if (profile && folded != null) {
+            System.err.print("Only one profiler can be used!");
+            System.exit(1);
+        }
+        if (jfr && !ProgramEvents.isAvailable()) {
+            System.err.print("Flight recorder isn't available!");
+            System.exit(1);
+        }
+
+        ExecutionProfiler profiler = null;
+        CallGraphProfiler callGraph = null;
+        if (profile) {
+            profiler = new ExecutionProfiler();
+            exec = new ExecutionUnitImpl(profiler);
+        } else if (folded != null) {
+            callGraph = new CallGraphProfiler();
+            exec = new ExecutionUnitImpl(callGraph);
+        }
+
+        if (arguments.size() == 1) {
+            path = Paths.get(arguments.get(0));
+        } else if (arguments.size() == 0) {
             path = Paths.get(getArgument());
         } else {
             System.err.printf(
                     "You should provide 1 or 0 arguments! You provided %d.",
-                    args.length);
+                    arguments.size());
             System.exit(1);
         }
 
@@ -51,13 +210,28 @@ public class Simulator {
             System.exit(2);
         }
 
-        Computer comp = new ComputerImpl(256, 16);
+        ComputerImpl comp = new ComputerImpl(
+                new ArrayMemoryImpl(256),
+                new RegistersImpl(16));
 
-        InstructionCreator creator = new InstructionCreatorImpl(
-                "hr.fer.zemris.java.simplecomp.impl.instructions");
+        if (input != null) {
+            try {
+                comp.setInput(new MappedInputChannel(input));
+            } catch (IOException e) {
+                System.err.printf("Input file '%s' can't be read!", input);
+                System.exit(2);
+            }
+        }
 
         try {
-            ProgramParser.parse(path.toString(), comp, creator);
+            if (jfr) {
+                Path source = path;
+                boolean cached = cache;
+                ProgramEvents.load(comp, path, cache, 256,
+                        () -> load(source, comp, cached));
+            } else {
+                load(path, comp, cache);
+            }
         } catch (Exception e) {
             System.err.printf(
                     "Unknown exception occured while parsing a file %s!%n",
@@ -66,9 +240,158 @@ public class Simulator {
             System.exit(2);
         }
 
-        ExecutionUnit exec = new ExecutionUnitImpl();
+        if (optimize) {
+            ProgramOptimizer.optimize(comp, 256, 16);
+        }
+        if (fuse) {
+            SuperinstructionFuser.fuse(comp.getMemory(), 256);
+        }
+
+        if (jfr) {
+            ProgramEvents.go(exec, comp, path);
+        } else {
+            exec.go(comp);
+        }
 
-        exec.go(comp);
+        if (profiler != null) {
+            report(profiler, path, export);
+        } else if (callGraph != null) {
+            report(callGraph, path, folded);
+        }
+    }
+
+    /**
+     * Starts the simulation server and serves jobs until the JVM is stopped.
+     * 
+     * @param port
+     *            port of the server
+     * @param fuse
+     *            if common instruction pairs are fused before programs are run
+     */
+    private static void serve(String port, boolean fuse) {
+        try (SimulationServer server = new SimulationServer(
+                Integer.parseInt(port),
+                Runtime.getRuntime().availableProcessors(),
+                fuse)) {
+            System.out.printf("Listening on port %d.%n", server.getPort());
+            server.await();
+        } catch (NumberFormatException e) {
+            System.err.printf("Invalid port '%s'!", port);
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.printf("Server can't be started: %s", e.getMessage());
+            System.exit(2);
+        } catch (InterruptedException e) {
+            System.exit(3);
+        }
+    }
+
+    /**
+     * Parses the program or loads it from its binary image.
+     * 
+     * @param path
+     *            path to source of the program
+     * @param comp
+     *            the computer
+     * @param cache
+     *            if binary image of the program is used
+     * @throws Exception
+     *             if program can't be loaded
+     */
+    private static void load(Path path, Computer comp, boolean cache)
+            throws Exception {
+        InstructionCreator creator = new RegistryInstructionCreator();
+
+        if (cache) {
+            ProgramImageCache.load(path, comp, 256, 16, creator);
+        } else {
+            ProgramParser.parse(path.toString(), comp, creator);
+        }
+    }
+
+    /**
+     * Prints the report of subroutines to standard error and writes the
+     * folded call stacks to the file.
+     * 
+     * @param profiler
+     *            the profiler
+     * @param source
+     *            path to source of the program
+     * @param folded
+     *            path to the file with folded call stacks
+     */
+    private static void report(
+            CallGraphProfiler profiler,
+            Path source,
+            Path folded) {
+        try {
+            ProgramLabels labels = ProgramLabels.scan(source);
+
+            profiler.report(System.err, labels);
+            profiler.writeFolded(folded, labels);
+        } catch (IOException e) {
+            System.err.printf("Profile can't be written: %s%n", e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Prints the profiling report to standard error or exports it to the file.
+     * 
+     * @param profiler
+     *            the profiler
+     * @param source
+     *            path to source of the program
+     * @param export
+     *            path to the exported file or {@code null} to print the report
+     */
+    private static void report(
+            ExecutionProfiler profiler,
+            Path source,
+            Path export) {
+        try {
+            ProgramLabels labels = ProgramLabels.scan(source);
+
+            if (export == null) {
+                profiler.report(System.err, labels, PROFILE_LIMIT);
+            } else {
+                profiler.export(export, labels);
+            }
+        } catch (IOException e) {
+            System.err.printf("Profile can't be written: %s%n", e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Creates the execution unit with specified name.
+     * 
+     * @param name
+     *            name of the execution engine
+     * @return the execution unit or {@code null} if engine with specified name
+     *         doesn't exist
+     */
+    static ExecutionUnit createExecutionUnit(String name) {
+        switch (name) {
+            case "interpreter":
+                return new ExecutionUnitImpl();
+            case "closure":
+                return new ClosureExecutionUnit();
+            case "compiled":
+                return new CompiledExecutionUnit();
+            case "tiered":
+                return new TieredExecutionUnit();
+            case "switch":
+                return new SwitchExecutionUnit();
+            case "trusted":
+                return new TrustedExecutionUnit();
+            case "stack":
+                return new StackExecutionUnit();
+            case "trace":
+                return new TraceExecutionUnit();
+            default:
+                return null;
+        }
     }
 
     /**
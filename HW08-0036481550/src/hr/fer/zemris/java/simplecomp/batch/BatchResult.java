@@ -0,0 +1,96 @@
+package hr.fer.zemris.java.simplecomp.batch;
+
+import java.nio.file.Path;
+
+/**
+ * {@code BatchResult} holds the result of one program run by the
+ * {@link BatchRunner}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BatchRunner
+ */
+public class BatchResult {
+
+    /** Path to the program */
+    private Path program;
+
+    /** Everything the program printed */
+    private String output;
+
+    /** Time spent parsing and running the program in nanoseconds */
+    private long nanos;
+
+    /** Exception thrown while parsing or running the program */
+    private Throwable error;
+
+    /**
+     * Constructs a new {@code BatchResult}.
+     * 
+     * @param program
+     *            path to the program
+     * @param output
+     *            everything the program printed
+     * @param nanos
+     *            time spent parsing and running the program in nanoseconds
+     * @param error
+     *            exception thrown while parsing or running the program or
+     *            {@code null} if program halted normally
+     */
+    public BatchResult(
+            Path program,
+            String output,
+            long nanos,
+            Throwable error) {
+        this.program = program;
+        this.output = output;
+        this.nanos = nanos;
+        this.error = error;
+    }
+
+    /**
+     * Returns the path to the program.
+     * 
+     * @return the path to the program
+     */
+    public Path getProgram() {
+        return program;
+    }
+
+    /**
+     * Returns everything the program printed.
+     * 
+     * @return the output of the program
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * Returns the time spent parsing and running the program.
+     * 
+     * @return the time in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns the exception thrown while parsing or running the program.
+     * 
+     * @return the exception or {@code null} if program halted normally
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Checks if program halted normally.
+     * 
+     * @return {@code true} if program halted normally; {@code false}
+     *         otherwise
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
@@ -0,0 +1,387 @@
+package hr.fer.zemris.java.simplecomp.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import hr.fer.zemris.java.simplecomp.image.ProgramImageCache;
+import hr.fer.zemris.java.simplecomp.impl.ArrayMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.MemoryInputChannel;
+import hr.fer.zemris.java.simplecomp.impl.PagedMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.RegistersImpl;
+import hr.fer.zemris.java.simplecomp.impl.fusion.SuperinstructionFuser;
+import hr.fer.zemris.java.simplecomp.jfr.ProgramEvents;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+import hr.fer.zemris.java.simplecomp.models.InstructionCreator;
+import hr.fer.zemris.java.simplecomp.parser.ProgramParser;
+import hr.fer.zemris.java.simplecomp.registry.RegistryInstructionCreator;
+
+/**
+ * {@code BatchRunner} parses and runs many programs in parallel.
+ * <p>
+ * Every program is run on its own computer in a work-stealing
+ * {@link ForkJoinPool}. Every computer reads the same input and writes to its
+ * own output, so outputs of different programs are never mixed.
+ * <p>
+ * One program can also be run against many inputs. The program is then
+ * loaded only once and every input is run on a copy-on-write fork of the
+ * loaded computer.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BatchResult
+ */
+public class BatchRunner {
+
+    /** Size of the memory of every computer */
+    private static final int MEMORY_SIZE = 256;
+
+    /** Number of registers of every computer */
+    private static final int REGISTERS = 16;
+
+    /** Creates the execution unit for every program */
+    private Supplier<ExecutionUnit> units;
+
+    /** Input given to every program */
+    private byte[] input;
+
+    /** Number of threads */
+    private int parallelism;
+
+    /** If common instruction pairs are fused before programs are run */
+    private boolean fuse;
+
+    /** If programs are loaded from binary images */
+    private boolean cached;
+
+    /** If loading and running are recorded as flight recorder events */
+    private boolean recorded;
+
+    /**
+     * Constructs a new {@code BatchRunner}.
+     * 
+     * @param units
+     *            creates the execution unit for every program
+     * @param input
+     *            input given to every program
+     * @param parallelism
+     *            number of threads
+     * @param fuse
+     *            if common instruction pairs are fused before programs are run
+     * @throws IllegalArgumentException
+     *             if parallelism is less than 1
+     */
+    public BatchRunner(
+            Supplier<ExecutionUnit> units,
+            byte[] input,
+            int parallelism,
+            boolean fuse) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Parallelism must be greater than 0. You"
+                                    + " provided %d.",
+                            parallelism));
+        }
+
+        this.units = units;
+        this.input = input;
+        this.parallelism = parallelism;
+        this.fuse = fuse;
+    }
+
+    /**
+     * Sets if programs are loaded from binary images written next to their
+     * sources. Must be set before programs are run.
+     * 
+     * @param cached
+     *            {@code true} if binary images are used
+     * @see ProgramImageCache
+     */
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    /**
+     * Sets if loading and running of programs are recorded as flight recorder
+     * events. Must be set before programs are run.
+     * 
+     * @param recorded
+     *            {@code true} if events are recorded
+     * @throws IllegalStateException
+     *             if flight recorder isn't available
+     * @see ProgramEvents
+     */
+    public void setRecorded(boolean recorded) {
+        if (recorded && !ProgramEvents.isAvailable()) {
+            throw new IllegalStateException(
+                    "Flight recorder isn't available!");
+        }
+
+        this.recorded = recorded;
+    }
+
+    /**
+     * Runs all programs and waits until they halt.
+     * 
+     * @param programs
+     *            paths to the programs
+     * @return results in the same order as the programs
+     * @throws InterruptedException
+     *             if the waiting thread is interrupted
+     */
+    public List<BatchResult> run(List<Path> programs)
+            throws InterruptedException {
+        List<Callable<BatchResult>> jobs = new ArrayList<>();
+        for (Path program : programs) {
+            jobs.add(() -> run(program));
+        }
+
+        return runAll(jobs);
+    }
+
+    /**
+     * Loads the program once and runs it against every input on a fork of the
+     * loaded computer, waiting until all runs halt. If the program can't be
+     * loaded, every result holds the error.
+     * 
+     * @param program
+     *            path to the program
+     * @param inputs
+     *            inputs of the runs
+     * @return results in the same order as the inputs
+     * @throws InterruptedException
+     *             if the waiting thread is interrupted
+     * @see ComputerImpl#fork()
+     */
+    public List<BatchResult> run(Path program, List<byte[]> inputs)
+            throws InterruptedException {
+        ComputerImpl loaded = new ComputerImpl(
+                new PagedMemoryImpl(MEMORY_SIZE),
+                new RegistersImpl(REGISTERS));
+
+        Exception error = null;
+        try {
+            if (recorded) {
+                ProgramEvents.load(
+                        loaded,
+                        program,
+                        cached,
+                        MEMORY_SIZE,
+                        () -> load(program, loaded));
+            } else {
+                load(program, loaded);
+            }
+
+            if (fuse) {
+                SuperinstructionFuser.fuse(loaded.getMemory(), MEMORY_SIZE);
+            }
+        } catch (Exception e) {
+            error = e;
+        }
+
+        List<Callable<BatchResult>> jobs = new ArrayList<>();
+        for (byte[] in : inputs) {
+            if (error != null) {
+                Exception cause = error;
+                jobs.add(() -> new BatchResult(program, "", 0, cause));
+            } else {
+                ComputerImpl comp = loaded.fork();
+                jobs.add(() -> run(program, comp, in));
+            }
+        }
+
+        return runAll(jobs);
+    }
+
+    /**
+     * Runs all jobs in the pool and waits until they finish.
+     * 
+     * @param jobs
+     *            the jobs
+     * @return results in the same order as the jobs
+     * @throws InterruptedException
+     *             if the waiting thread is interrupted
+     */
+    private List<BatchResult> runAll(List<Callable<BatchResult>> jobs)
+            throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            List<Future<BatchResult>> futures = new ArrayList<>();
+            for (Callable<BatchResult> job : jobs) {
+                futures.add(pool.submit(job));
+            }
+
+            List<BatchResult> results = new ArrayList<>();
+            for (Future<BatchResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Parses and runs one program.
+     * 
+     * @param program
+     *            path to the program
+     * @return the result
+     */
+    public BatchResult run(Path program) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(bytes);
+
+        ComputerImpl comp = new ComputerImpl(
+                new ArrayMemoryImpl(MEMORY_SIZE),
+                new RegistersImpl(REGISTERS));
+        comp.setInput(new MemoryInputChannel(input));
+        comp.setOutput(output);
+
+        Throwable error = null;
+        long start = System.nanoTime();
+        try {
+            if (recorded) {
+                ProgramEvents.load(
+                        comp,
+                        program,
+                        cached,
+                        MEMORY_SIZE,
+                        () -> load(program, comp));
+            } else {
+                load(program, comp);
+            }
+
+            if (fuse) {
+                SuperinstructionFuser.fuse(comp.getMemory(), MEMORY_SIZE);
+            }
+
+            if (recorded) {
+                ProgramEvents.go(units.get(), comp, program);
+            } else {
+                units.get().go(comp);
+            }
+        } catch (Exception e) {
+            error = e;
+        }
+        long nanos = System.nanoTime() - start;
+
+        output.flush();
+        return new BatchResult(program, bytes.toString(), nanos, error);
+    }
+
+    /**
+     * Runs a loaded program on a fork of the computer.
+     * 
+     * @param program
+     *            path to the program
+     * @param comp
+     *            the fork
+     * @param in
+     *            input of the run
+     * @return the result
+     */
+    private BatchResult run(Path program, ComputerImpl comp, byte[] in) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(bytes);
+
+        comp.setInput(new MemoryInputChannel(in));
+        comp.setOutput(output);
+
+        Throwable error = null;
+        long start = System.nanoTime();
+        try {
+            if (recorded) {
+                ProgramEvents.go(units.get(), comp, program);
+            } else {
+                units.get().go(comp);
+            }
+        } catch (Exception e) {
+            error = e;
+        }
+        long nanos = System.nanoTime() - start;
+
+        output.flush();
+        return new BatchResult(program, bytes.toString(), nanos, error);
+    }
+
+    /**
+     * Parses the program or loads it from its binary image.
+     * 
+     * @param program
+     *            path to the program
+     * @param comp
+     *            the computer
+     * @throws Exception
+     *             if program can't be loaded
+     */
+    private void load(Path program, ComputerImpl comp) throws Exception {
+        InstructionCreator creator = new RegistryInstructionCreator();
+
+        if (cached) {
+            ProgramImageCache.load(
+                    program,
+                    comp,
+                    MEMORY_SIZE,
+                    REGISTERS,
+                    creator);
+        } else {
+            ProgramParser.parse(program.toString(), comp, creator);
+        }
+    }
+
+    /**
+     * Returns the paths to programs from a directory or a manifest.
+     * <p>
+     * If path points to a directory, all {@code .txt} files from it are
+     * returned in alphabetical order. Otherwise path points to a manifest
+     * with one path per line; empty lines and lines starting with {@code #}
+     * are skipped and relative paths are resolved against the directory of
+     * the manifest.
+     * 
+     * @param path
+     *            path to a directory or a manifest
+     * @return paths to programs
+     * @throws IOException
+     *             if directory or manifest can't be read
+     */
+    public static List<Path> listPrograms(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.list(path)) {
+                return files
+                        .filter(Files::isRegularFile)
+                        .filter(p -> p.toString().endsWith(".txt"))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        }
+
+        Path dir = path.toAbsolutePath().getParent();
+
+        return Files.readAllLines(path)
+                .stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .map(dir::resolve)
+                .collect(Collectors.toList());
+    }
+}
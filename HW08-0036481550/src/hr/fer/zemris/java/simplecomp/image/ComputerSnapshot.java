@@ -0,0 +1,255 @@
+package hr.fer.zemris.java.simplecomp.image;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import hr.fer.zemris.java.simplecomp.models.Computer;
+
+/**
+ * {@code ComputerSnapshot} is an immutable copy of the whole state of a
+ * computer: memory, registers, program counter and flag.
+ * <p>
+ * Snapshot can be restored into the same or any other computer with enough
+ * memory and registers, so a long computation can be checkpointed and resumed
+ * after the JVM restarts, or many computers can start from the state reached
+ * after a shared initialization. Input and output of the computer aren't part
+ * of the snapshot.
+ * <p>
+ * Snapshots are written in the same compact format as program images and
+ * are read through a memory-mapped buffer.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramImage
+ */
+public final class ComputerSnapshot {
+
+    /** Magic number at the start of every snapshot ("SCSN") */
+    private static final int MAGIC = 0x5343534E;
+
+    /** Version of the snapshot format */
+    private static final int VERSION = 1;
+
+    /** Values of memory locations */
+    private final Object[] memory;
+
+    /** Values of registers */
+    private final Object[] registers;
+
+    /** Value of the program counter */
+    private final int programCounter;
+
+    /** Value of the flag */
+    private final boolean flag;
+
+    /**
+     * Constructs a new {@code ComputerSnapshot} object.
+     * 
+     * @param memory
+     *            values of memory locations
+     * @param registers
+     *            values of registers
+     * @param programCounter
+     *            value of the program counter
+     * @param flag
+     *            value of the flag
+     */
+    private ComputerSnapshot(
+            Object[] memory,
+            Object[] registers,
+            int programCounter,
+            boolean flag) {
+        this.memory = memory;
+        this.registers = registers;
+        this.programCounter = programCounter;
+        this.flag = flag;
+    }
+
+    /**
+     * Takes a snapshot of the computer.
+     * 
+     * @param computer
+     *            the computer
+     * @param memorySize
+     *            size of the memory
+     * @param registers
+     *            number of registers
+     * @return snapshot of the computer
+     */
+    public static ComputerSnapshot take(
+            Computer computer,
+            int memorySize,
+            int registers) {
+        Object[] memory = new Object[memorySize];
+        for (int address = 0; address < memorySize; address++) {
+            memory[address] = computer.getMemory().getLocation(address);
+        }
+
+        Object[] regs = new Object[registers];
+        for (int i = 0; i < registers; i++) {
+            regs[i] = computer.getRegisters().getRegisterValue(i);
+        }
+
+        return new ComputerSnapshot(
+                memory,
+                regs,
+                computer.getRegisters().getProgramCounter(),
+                computer.getRegisters().getFlag());
+    }
+
+    /**
+     * Restores the snapshot into the computer. Every memory location and
+     * register covered by the snapshot is overwritten, including the empty
+     * ones.
+     * 
+     * @param computer
+     *            the computer
+     * @throws IndexOutOfBoundsException
+     *             if computer has less memory or registers than the snapshot
+     */
+    public void restore(Computer computer) {
+        for (int address = 0; address < memory.length; address++) {
+            computer.getMemory().setLocation(address, memory[address]);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            computer.getRegisters().setRegisterValue(i, registers[i]);
+        }
+
+        computer.getRegisters().setProgramCounter(programCounter);
+        computer.getRegisters().setFlag(flag);
+    }
+
+    /**
+     * Returns the size of the memory in the snapshot.
+     * 
+     * @return the size of the memory
+     */
+    public int getMemorySize() {
+        return memory.length;
+    }
+
+    /**
+     * Returns the number of registers in the snapshot.
+     * 
+     * @return the number of registers
+     */
+    public int getRegisterCount() {
+        return registers.length;
+    }
+
+    /**
+     * Returns the value of the program counter in the snapshot.
+     * 
+     * @return the program counter
+     */
+    public int getProgramCounter() {
+        return programCounter;
+    }
+
+    /**
+     * Returns the value of the flag in the snapshot.
+     * 
+     * @return the flag
+     */
+    public boolean getFlag() {
+        return flag;
+    }
+
+    /**
+     * Writes the snapshot to a file. Snapshot is written to a temporary file
+     * which is then moved over the old one, so a crash while writing never
+     * leaves a broken snapshot behind.
+     * 
+     * @param file
+     *            path to the file
+     * @throws IOException
+     *             if snapshot can't be written
+     * @throws IllegalArgumentException
+     *             if memory holds a value which can't be written
+     */
+    public void write(Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(memory.length);
+        out.writeInt(registers.length);
+        out.writeInt(programCounter);
+        out.writeBoolean(flag);
+
+        ProgramImage.writeEntries(out, registers.length, i -> registers[i]);
+        ProgramImage.writeEntries(out, memory.length, i -> memory[i]);
+
+        Path dir = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, ".snapshot", ".tmp");
+
+        try {
+            try (FileChannel channel = FileChannel
+                    .open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+
+            Files.move(
+                    temp,
+                    file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads a snapshot from a file.
+     * 
+     * @param file
+     *            path to the file
+     * @return the snapshot
+     * @throws IOException
+     *             if snapshot can't be read or isn't valid
+     */
+    public static ComputerSnapshot read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel
+                .open(file, StandardOpenOption.READ)) {
+            buffer = channel
+                    .map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException(file + " isn't a snapshot.");
+            }
+
+            Object[] memory = new Object[buffer.getInt()];
+            Object[] registers = new Object[buffer.getInt()];
+            int programCounter = buffer.getInt();
+            boolean flag = buffer.get() != 0;
+
+            ProgramImage.readEntries(buffer, registers);
+            ProgramImage.readEntries(buffer, memory);
+
+            return new ComputerSnapshot(
+                    memory,
+                    registers,
+                    programCounter,
+                    flag);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                | NegativeArraySizeException | IllegalArgumentException e) {
+            throw new IOException("Snapshot " + file + " is invalid.", e);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package hr.fer.zemris.java.simplecomp.image;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import hr.fer.zemris.java.simplecomp.impl.InstructionArgumentImpl;
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractArithmeticInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractUnaryInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrAdd;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrCall;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrDecrement;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrEcho;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrHalt;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrIncrement;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrInput;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJump;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJumpIfTrue;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrLoad;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMove;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMul;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPop;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPush;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrRet;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrTestEquals;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
+
+/**
+ * {@code InstructionCodec} translates instructions into opcodes and arguments
+ * and back.
+ * <p>
+ * Opcode of an instruction is the index of its mnemonic in the table of
+ * supported instructions. Arguments are the same arguments the parser would
+ * give to the constructor of the instruction, so decoded instructions are
+ * equal to parsed ones. Decoding calls constructors directly instead of
+ * looking them up by reflection.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramImage
+ */
+public final class InstructionCodec {
+
+    /** Mnemonics of supported instructions indexed by opcode */
+    private static final List<String> MNEMONICS = Arrays.asList(
+            "halt", "load", "move", "add", "mul", "increment", "decrement",
+            "testEquals", "jump", "jumpIfTrue", "call", "ret", "push", "pop",
+            "echo", "input");
+
+    /** Classes of supported instructions indexed by opcode */
+    private static final List<Class<?>> CLASSES = Arrays.asList(
+            InstrHalt.class, InstrLoad.class, InstrMove.class, InstrAdd.class,
+            InstrMul.class, InstrIncrement.class, InstrDecrement.class,
+            InstrTestEquals.class, InstrJump.class, InstrJumpIfTrue.class,
+            InstrCall.class, InstrRet.class, InstrPush.class, InstrPop.class,
+            InstrEcho.class, InstrInput.class);
+
+    /** Constructors of supported instructions indexed by opcode */
+    private static final List<Constructor> CONSTRUCTORS = Arrays.asList(
+            InstrHalt::new, InstrLoad::new, InstrMove::new, InstrAdd::new,
+            InstrMul::new, InstrIncrement::new, InstrDecrement::new,
+            InstrTestEquals::new, InstrJump::new, InstrJumpIfTrue::new,
+            InstrCall::new, InstrRet::new, InstrPush::new, InstrPop::new,
+            InstrEcho::new, InstrInput::new);
+
+    /**
+     * Private constructor. Class only holds static methods.
+     */
+    private InstructionCodec() {
+    }
+
+    /**
+     * Returns the opcode of the instruction.
+     * 
+     * @param instr
+     *            the instruction
+     * @return the opcode or -1 if instruction isn't supported
+     */
+    public static int getOpcode(Instruction instr) {
+        return CLASSES.indexOf(instr.getClass());
+    }
+
+    /**
+     * Returns the mnemonic of the opcode.
+     * 
+     * @param opcode
+     *            the opcode
+     * @return the mnemonic
+     * @throws IllegalArgumentException
+     *             if opcode doesn't exist
+     */
+    public static String getMnemonic(int opcode) {
+        checkOpcode(opcode);
+
+        return MNEMONICS.get(opcode);
+    }
+
+    /**
+     * Returns the arguments from which the instruction can be constructed
+     * again.
+     * 
+     * @param instr
+     *            the instruction
+     * @return the arguments of the instruction
+     * @throws IllegalArgumentException
+     *             if instruction isn't supported
+     */
+    public static List<InstructionArgument> getArguments(Instruction instr) {
+        List<InstructionArgument> args = new ArrayList<>();
+
+        if (instr instanceof InstrHalt || instr instanceof InstrRet) {
+            return Collections.emptyList();
+        } else if (instr instanceof InstrLoad) {
+            args.add(register(((InstrLoad) instr).getRegisterIndex()));
+            args.add(number(((InstrLoad) instr).getLocation()));
+        } else if (instr instanceof InstrMove) {
+            args.add(((InstrMove) instr).getDestination());
+            args.add(((InstrMove) instr).getSource());
+        } else if (instr instanceof AbstractArithmeticInstr) {
+            AbstractArithmeticInstr op = (AbstractArithmeticInstr) instr;
+            args.add(register(op.getResultDescriptor()));
+            args.add(register(op.getFirstOperandDescriptor()));
+            args.add(register(op.getSecondOperandDescriptor()));
+        } else if (instr instanceof AbstractUnaryInstr) {
+            args.add(register(((AbstractUnaryInstr) instr).getDescriptor()));
+        } else if (instr instanceof InstrTestEquals) {
+            args.add(register(((InstrTestEquals) instr).getFirstDescriptor()));
+            args.add(register(((InstrTestEquals) instr).getSecondDescriptor()));
+        } else if (instr instanceof InstrJump) {
+            args.add(number(((InstrJump) instr).getLocation()));
+        } else if (instr instanceof InstrJumpIfTrue) {
+            args.add(number(((InstrJumpIfTrue) instr).getLocation()));
+        } else if (instr instanceof InstrCall) {
+            args.add(number(((InstrCall) instr).getAddress()));
+        } else if (instr instanceof InstrPush) {
+            args.add(register(((InstrPush) instr).getDescriptor()));
+        } else if (instr instanceof InstrPop) {
+            args.add(register(((InstrPop) instr).getDescriptor()));
+        } else if (instr instanceof InstrEcho) {
+            args.add(register(((InstrEcho) instr).getDescriptor()));
+        } else if (instr instanceof InstrInput) {
+            args.add(number(((InstrInput) instr).getLocation()));
+        } else {
+            throw new IllegalArgumentException(
+                    "Unsupported instruction " + instr.getClass().getName());
+        }
+
+        return args;
+    }
+
+    /**
+     * Constructs the instruction from its opcode and arguments.
+     * 
+     * @param opcode
+     *            the opcode
+     * @param arguments
+     *            the arguments
+     * @return the instruction
+     * @throws IllegalArgumentException
+     *             if opcode doesn't exist or arguments are invalid
+     */
+    public static Instruction create(
+            int opcode,
+            List<InstructionArgument> arguments) {
+        checkOpcode(opcode);
+
+        return CONSTRUCTORS.get(opcode).apply(arguments);
+    }
+
+    /**
+     * Checks if opcode exists.
+     * 
+     * @param opcode
+     *            the opcode
+     * @throws IllegalArgumentException
+     *             if opcode doesn't exist
+     */
+    private static void checkOpcode(int opcode) {
+        if (opcode < 0 || opcode >= MNEMONICS.size()) {
+            throw new IllegalArgumentException(
+                    String.format("Unknown opcode %d!", opcode));
+        }
+    }
+
+    /**
+     * Creates a register argument.
+     * 
+     * @param descriptor
+     *            the register descriptor
+     * @return the argument
+     */
+    private static InstructionArgument register(int descriptor) {
+        return InstructionArgumentImpl.register(descriptor);
+    }
+
+    /**
+     * Creates a number argument.
+     * 
+     * @param number
+     *            the number
+     * @return the argument
+     */
+    private static InstructionArgument number(int number) {
+        return InstructionArgumentImpl.number(number);
+    }
+
+    /**
+     * {@code Constructor} constructs an instruction from its arguments.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    @FunctionalInterface
+    private interface Constructor {
+
+        /**
+         * Constructs the instruction.
+         * 
+         * @param arguments
+         *            the arguments
+         * @return the instruction
+         */
+        Instruction apply(List<InstructionArgument> arguments);
+    }
+}
@@ -0,0 +1,443 @@
+package hr.fer.zemris.java.simplecomp.image;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import hr.fer.zemris.java.simplecomp.impl.InstructionArgumentImpl;
+import hr.fer.zemris.java.simplecomp.impl.fusion.FusedInstruction;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
+
+/**
+ * {@code ProgramImage} writes a loaded program into a compact binary image and
+ * reads it back.
+ * <p>
+ * Image starts with a header holding the SHA-256 hash of the program source
+ * and the memory size, so an image of a changed source is recognized as
+ * stale. Header is followed by non-empty registers and memory locations.
+ * Integers, strings and instructions are written with a type tag; instructions
+ * as opcodes with resolved arguments, and fused instructions as their two
+ * instructions. Runs of zeros, which the parser writes for reserved locations,
+ * are written as one entry.
+ * <p>
+ * Images are read through a memory-mapped buffer and are applied to the
+ * computer only if the whole image is valid.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see InstructionCodec
+ * @see ProgramImageCache
+ */
+public final class ProgramImage {
+
+    /** Magic number at the start of every image ("SCIM") */
+    private static final int MAGIC = 0x5343494D;
+
+    /** Version of the image format */
+    private static final int VERSION = 1;
+
+    /** Tag of an integer */
+    private static final byte INTEGER = 0;
+
+    /** Tag of a string */
+    private static final byte STRING = 1;
+
+    /** Tag of an instruction */
+    private static final byte INSTRUCTION = 2;
+
+    /** Tag of a run of zeros */
+    private static final byte ZEROS = 3;
+
+    /** Tag of a register argument */
+    private static final byte REGISTER = 4;
+
+    /** Tag of a fused instruction */
+    private static final byte FUSED = 5;
+
+    /**
+     * Private constructor. Class only holds static methods.
+     */
+    private ProgramImage() {
+    }
+
+    /**
+     * Returns the SHA-256 hash of the program source.
+     * 
+     * @param source
+     *            bytes of the program source
+     * @return the hash
+     */
+    public static byte[] hash(byte[] source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source);
+        } catch (NoSuchAlgorithmException impossible) {
+            throw new IllegalStateException(impossible);
+        }
+    }
+
+    /**
+     * Writes the program loaded into the computer into an image.
+     * 
+     * @param computer
+     *            the computer holding the program
+     * @param hash
+     *            hash of the program source
+     * @param memorySize
+     *            size of the memory
+     * @param registers
+     *            number of registers
+     * @return bytes of the image
+     * @throws IllegalArgumentException
+     *             if memory holds an instruction which can't be written
+     */
+    public static byte[] write(
+            Computer computer,
+            byte[] hash,
+            int memorySize,
+            int registers) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(hash);
+            out.writeInt(memorySize);
+            out.writeInt(registers);
+
+            writeEntries(
+                    out,
+                    registers,
+                    computer.getRegisters()::getRegisterValue);
+            writeEntries(out, memorySize, computer.getMemory()::getLocation);
+        } catch (IOException impossible) {
+            throw new IllegalStateException(impossible);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the image into the computer. Nothing is written to the computer
+     * if image is stale or invalid.
+     * 
+     * @param image
+     *            path to the image
+     * @param computer
+     *            the computer
+     * @param hash
+     *            hash of the program source
+     * @param memorySize
+     *            size of the memory
+     * @param registers
+     *            number of registers
+     * @return {@code true} if image was read; {@code false} if image is stale
+     *         or invalid
+     * @throws IOException
+     *             if image can't be read
+     */
+    public static boolean read(
+            Path image,
+            Computer computer,
+            byte[] hash,
+            int memorySize,
+            int registers) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel
+                .open(image, StandardOpenOption.READ)) {
+            buffer = channel
+                    .map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        Object[] regs = new Object[registers];
+        Object[] memory = new Object[memorySize];
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return false;
+            }
+
+            byte[] imageHash = new byte[hash.length];
+            buffer.get(imageHash);
+            if (!Arrays.equals(hash, imageHash)
+                    || buffer.getInt() != memorySize
+                    || buffer.getInt() != registers) {
+                return false;
+            }
+
+            readEntries(buffer, regs);
+            readEntries(buffer, memory);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                | NegativeArraySizeException | IllegalArgumentException e) {
+            return false;
+        }
+
+        for (int i = 0; i < registers; i++) {
+            if (regs[i] != null) {
+                computer.getRegisters().setRegisterValue(i, regs[i]);
+            }
+        }
+        for (int address = 0; address < memorySize; address++) {
+            if (memory[address] != null) {
+                computer.getMemory().setLocation(address, memory[address]);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes non-empty values as entries of their indexes and values,
+     * terminated by {@code -1}. Runs of zeros are written as one entry.
+     * 
+     * @param out
+     *            the output
+     * @param size
+     *            number of values
+     * @param values
+     *            values mapped by indexes
+     * @throws IOException
+     *             if values can't be written
+     * @throws IllegalArgumentException
+     *             if a value can't be written
+     */
+    static void writeEntries(
+            DataOutputStream out,
+            int size,
+            IntFunction<Object> values) throws IOException {
+        for (int index = 0; index < size; index++) {
+            Object value = values.apply(index);
+            if (value == null) {
+                continue;
+            }
+
+            out.writeInt(index);
+            if (isZero(value)) {
+                int end = index + 1;
+                while (end < size && isZero(values.apply(end))) {
+                    end++;
+                }
+
+                out.writeByte(ZEROS);
+                out.writeInt(end - index);
+                index = end - 1;
+            } else {
+                writeValue(out, value);
+            }
+        }
+        out.writeInt(-1);
+    }
+
+    /**
+     * Reads entries written by
+     * {@link #writeEntries(DataOutputStream, int, IntFunction)} into the
+     * array.
+     * 
+     * @param buffer
+     *            the buffer
+     * @param values
+     *            array into which values are read
+     * @throws IllegalArgumentException
+     *             if a tag is invalid
+     * @throws IndexOutOfBoundsException
+     *             if an index is out of the array
+     */
+    static void readEntries(ByteBuffer buffer, Object[] values) {
+        int index;
+        while ((index = buffer.getInt()) != -1) {
+            if (buffer.get(buffer.position()) == ZEROS) {
+                buffer.get();
+                int count = buffer.getInt();
+                Arrays.fill(values, index, index + count, 0);
+            } else {
+                values[index] = readValue(buffer);
+            }
+        }
+    }
+
+    /**
+     * Writes a value with its type tag.
+     * 
+     * @param out
+     *            the output
+     * @param value
+     *            the value
+     * @throws IOException
+     *             if value can't be written
+     * @throws IllegalArgumentException
+     *             if value can't be written to an image
+     */
+    private static void writeValue(DataOutputStream out, Object value)
+            throws IOException {
+        if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof FusedInstruction) {
+            out.writeByte(FUSED);
+            writeValue(out, ((FusedInstruction) value).getFirst());
+            writeValue(out, ((FusedInstruction) value).getSecond());
+        } else if (value instanceof Instruction) {
+            Instruction instr = (Instruction) value;
+            int opcode = InstructionCodec.getOpcode(instr);
+            if (opcode < 0) {
+                throw new IllegalArgumentException(
+                        "Unsupported instruction "
+                                + instr.getClass().getName());
+            }
+
+            List<InstructionArgument> args = InstructionCodec
+                    .getArguments(instr);
+            out.writeByte(INSTRUCTION);
+            out.writeByte(opcode);
+            out.writeByte(args.size());
+            for (InstructionArgument arg : args) {
+                if (arg.isRegister()) {
+                    out.writeByte(REGISTER);
+                    out.writeInt((Integer) arg.getValue());
+                } else {
+                    writeValue(out, arg.getValue());
+                }
+            }
+        } else {
+            throw new IllegalArgumentException(
+                    "Unsupported value " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Reads a value with its type tag.
+     * 
+     * @param buffer
+     *            the buffer
+     * @return the value
+     * @throws IllegalArgumentException
+     *             if tag is invalid
+     */
+    private static Object readValue(ByteBuffer buffer) {
+        byte tag = buffer.get();
+
+        switch (tag) {
+            case INTEGER:
+                return buffer.getInt();
+            case STRING:
+                return readString(buffer);
+            case INSTRUCTION:
+                int opcode = buffer.get();
+                int count = buffer.get();
+
+                List<InstructionArgument> args = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    args.add(readArgument(buffer));
+                }
+
+                return InstructionCodec.create(opcode, args);
+            case FUSED:
+                return new FusedInstruction(
+                        readInstruction(buffer),
+                        readInstruction(buffer));
+            default:
+                throw new IllegalArgumentException("Invalid tag " + tag);
+        }
+    }
+
+    /**
+     * Reads an instruction with its type tag.
+     * 
+     * @param buffer
+     *            the buffer
+     * @return the instruction
+     * @throws IllegalArgumentException
+     *             if value isn't an instruction
+     */
+    private static Instruction readInstruction(ByteBuffer buffer) {
+        Object value = readValue(buffer);
+        if (!(value instanceof Instruction)) {
+            throw new IllegalArgumentException("Invalid instruction " + value);
+        }
+
+        return (Instruction) value;
+    }
+
+    /**
+     * Reads an instruction argument.
+     * 
+     * @param buffer
+     *            the buffer
+     * @return the argument
+     * @throws IllegalArgumentException
+     *             if tag is invalid
+     */
+    private static InstructionArgument readArgument(ByteBuffer buffer) {
+        if (buffer.get(buffer.position()) == REGISTER) {
+            buffer.get();
+            return InstructionArgumentImpl.register(buffer.getInt());
+        }
+
+        Object value = readValue(buffer);
+        if (value instanceof Integer) {
+            return InstructionArgumentImpl.number((Integer) value);
+        } else if (value instanceof String) {
+            return InstructionArgumentImpl.string((String) value);
+        }
+
+        throw new IllegalArgumentException("Invalid argument " + value);
+    }
+
+    /**
+     * Writes a string as its length and UTF-8 bytes.
+     * 
+     * @param out
+     *            the output
+     * @param value
+     *            the string
+     * @throws IOException
+     *             if string can't be written
+     */
+    private static void writeString(DataOutputStream out, String value)
+            throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+     * 
+     * @param buffer
+     *            the buffer
+     * @return the string
+     */
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks if value is integer zero.
+     * 
+     * @param value
+     *            the value
+     * @return {@code true} if value is zero; {@code false} otherwise
+     */
+    private static boolean isZero(Object value) {
+        return value instanceof Integer && (Integer) value == 0;
+    }
+}
@@ -0,0 +1,128 @@
+package hr.fer.zemris.java.simplecomp.image;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.InstructionCreator;
+import hr.fer.zemris.java.simplecomp.parser.ProgramParser;
+
+/**
+ * {@code ProgramImageCache} loads programs from binary images written next to
+ * their sources.
+ * <p>
+ * Image of the program {@code name.txt} is {@code name.txt.img}. If image is
+ * fresh (it was written from a source with the same content hash) program is
+ * read from it. Otherwise source is parsed and a new image is written. Images
+ * are written to a temporary file which is then moved over the old image, so
+ * concurrent loaders never read a partially written image. Failure to write
+ * the image isn't an error; the program is still loaded.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramImage
+ */
+public final class ProgramImageCache {
+
+    /** Extension appended to the name of the source */
+    public static final String EXTENSION = ".img";
+
+    /**
+     * Private constructor. Class only holds static methods.
+     */
+    private ProgramImageCache() {
+    }
+
+    /**
+     * Loads the program into the computer.
+     * 
+     * @param source
+     *            path to the program source
+     * @param computer
+     *            the computer
+     * @param memorySize
+     *            size of the memory
+     * @param registers
+     *            number of registers
+     * @param creator
+     *            instruction creator used if source is parsed
+     * @return {@code true} if program was read from the image; {@code false}
+     *         if source was parsed
+     * @throws Exception
+     *             if source can't be read or parsed
+     */
+    public static boolean load(
+            Path source,
+            Computer computer,
+            int memorySize,
+            int registers,
+            InstructionCreator creator) throws Exception {
+        byte[] hash = ProgramImage.hash(Files.readAllBytes(source));
+        Path image = getImagePath(source);
+
+        if (Files.isRegularFile(image)) {
+            try {
+                if (ProgramImage.read(
+                        image,
+                        computer,
+                        hash,
+                        memorySize,
+                        registers)) {
+                    return true;
+                }
+            } catch (IOException ignorable) {
+            }
+        }
+
+        ProgramParser.parse(source.toString(), computer, creator);
+
+        try {
+            byte[] bytes = ProgramImage
+                    .write(computer, hash, memorySize, registers);
+            writeAtomically(image, bytes);
+        } catch (IOException | IllegalArgumentException ignorable) {
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the path to the image of the program source.
+     * 
+     * @param source
+     *            path to the program source
+     * @return path to the image
+     */
+    public static Path getImagePath(Path source) {
+        return source.resolveSibling(source.getFileName() + EXTENSION);
+    }
+
+    /**
+     * Writes bytes to a temporary file and moves it to the target path.
+     * 
+     * @param target
+     *            the target path
+     * @param bytes
+     *            the bytes
+     * @throws IOException
+     *             if file can't be written
+     */
+    private static void writeAtomically(Path target, byte[] bytes)
+            throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, ".image", ".tmp");
+
+        try {
+            Files.write(temp, bytes);
+            Files.move(
+                    temp,
+                    target,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package hr.fer.zemris.java.simplecomp.impl;
+
+import hr.fer.zemris.java.simplecomp.models.Memory;
+
+/**
+ * {@code ArrayMemoryImpl} is a class that implements {@link Memory} interface
+ * that represents the computer's memory using arrays instead of a map.
+ * <p>
+ * Every location has a type tag which tells if the location is empty, if it
+ * holds an integer or if it holds some other object. Integers are kept
+ * unboxed in an {@code int} array and only strings and instructions are kept
+ * in the side array of objects. Empty memory at all locations have the value
+ * {@code null}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Memory
+ * @see PrimitiveMemory
+ */
+public class ArrayMemoryImpl implements PrimitiveMemory {
+
+    /** Type tag of an empty location */
+    private static final byte EMPTY = 0;
+
+    /** Type tag of a location holding an integer */
+    private static final byte INTEGER = 1;
+
+    /** Type tag of a location holding any other object */
+    private static final byte OBJECT = 2;
+
+    /**
+     * Size of the memory(number of objects that can be stored using this
+     * object.
+     */
+    private int size;
+
+    /**
+     * Type tags of all locations.
+     */
+    private byte[] types;
+
+    /**
+     * Values of locations holding integers.
+     */
+    private int[] integers;
+
+    /**
+     * Values of locations holding strings, instructions and other objects.
+     */
+    private Object[] objects;
+
+    /**
+     * Constructs a new {@code ArrayMemoryImpl} object with specified size.
+     * 
+     * @param size
+     *            size of the memory(number of objects that can be stored using
+     *            this object.
+     */
+    public ArrayMemoryImpl(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Size of memory must be greater than 0. You"
+                                    + " provided %d.",
+                            size));
+        }
+
+        this.size = size;
+
+        this.types = new byte[size];
+        this.integers = new int[size];
+        this.objects = new Object[size];
+    }
+
+    /**
+     * Sets the value to the specified location.
+     * 
+     * @param location
+     *            the memory address
+     * @param value
+     *            the object that needs to be saved to a specified address (can
+     *            be {@code null})
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist (less than 0 or greater than
+     *             last existing memory location)
+     */
+    @Override
+    public void setLocation(int location, Object value) {
+        checkLocationInBounds(location);
+
+        if (value instanceof Integer) {
+            types[location] = INTEGER;
+            integers[location] = (Integer) value;
+            objects[location] = null;
+        } else {
+            types[location] = value == null ? EMPTY : OBJECT;
+            integers[location] = 0;
+            objects[location] = value;
+        }
+    }
+
+    /**
+     * Returns the value from the specified location.
+     * 
+     * @param location
+     *            the memory address
+     * @return the object from specified address (can be {@code null})
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist (less than 0 or greater than
+     *             last existing memory location)
+     */
+    @Override
+    public Object getLocation(int location) {
+        checkLocationInBounds(location);
+
+        if (types[location] == INTEGER) {
+            return integers[location];
+        }
+
+        return objects[location];
+    }
+
+    /**
+     * Returns the size of the memory(number of objects that can be stored).
+     * 
+     * @return the size of the memory
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the value at the specified location is an integer.
+     * 
+     * @param location
+     *            the memory address
+     * @return {@code true} if location holds an integer; {@code false}
+     *         otherwise
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     */
+    @Override
+    public boolean isInteger(int location) {
+        checkLocationInBounds(location);
+
+        return types[location] == INTEGER;
+    }
+
+    /**
+     * Returns the integer value from the specified location without boxing it.
+     * 
+     * @param location
+     *            the memory address
+     * @return the integer stored at specified address
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     * @throws ClassCastException
+     *             if location doesn't hold an integer
+     */
+    @Override
+    public int getInt(int location) {
+        checkLocationInBounds(location);
+
+        if (types[location] != INTEGER) {
+            throw new ClassCastException(
+                    String.format(
+                            "Memory location '%d' doesn't hold an integer.",
+                            location));
+        }
+
+        return integers[location];
+    }
+
+    /**
+     * Returns the integer value from the specified location, or {@code 0} if
+     * location is empty. Type of the location is checked in a single array
+     * access and empty location stays empty.
+     * 
+     * @param location
+     *            the memory address
+     * @return the integer stored at specified address or {@code 0}
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     * @throws ClassCastException
+     *             if location holds a value which isn't an integer
+     */
+    @Override
+    public int getIntOrZero(int location) {
+        checkLocationInBounds(location);
+
+        switch (types[location]) {
+            case INTEGER:
+                return integers[location];
+            case EMPTY:
+                return 0;
+            default:
+                throw new ClassCastException(
+                        String.format(
+                                "Memory location '%d' doesn't hold an integer.",
+                                location));
+        }
+    }
+
+    /**
+     * Sets the integer value to the specified location without boxing it.
+     * 
+     * @param location
+     *            the memory address
+     * @param value
+     *            the integer that needs to be saved to a specified address
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     */
+    @Override
+    public void setInt(int location, int value) {
+        checkLocationInBounds(location);
+
+        types[location] = INTEGER;
+        integers[location] = value;
+        objects[location] = null;
+    }
+
+    /**
+     * Checks if specified memory address is in bounds of this memory.
+     * 
+     * @param location
+     *            the memory address
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exists (isn't in bounds of this
+     *             memory)
+     */
+    private void checkLocationInBounds(int location) {
+        if (location < 0 || location >= this.size)
+            throw new IndexOutOfBoundsException(
+                    String.format(
+                            "You tried to insert value at memory location '%d'. Valid"
+                                    + " locations are between '0'(inclusive) and '%d'"
+                                    + " (exclusive)",
+                            location,
+                            this.size));
+    }
+}
@@ -1,17 +1,22 @@
 package hr.fer.zemris.java.simplecomp.impl;
 
+import java.io.PrintStream;
+
 import hr.fer.zemris.java.simplecomp.models.Computer;
 import hr.fer.zemris.java.simplecomp.models.Memory;
 import hr.fer.zemris.java.simplecomp.models.Registers;
 
 /**
  * {@code ComputerImpl} is a class representing simulation of a computer.
+ * <p>
+ * Computer uses standard input and standard output unless its own input and
+ * output are set.
  * 
  * @author Karlo Vrbić
  * @version 1.0
  * @see Computer
  */
-public class ComputerImpl implements Computer {
+public class ComputerImpl implements InteractiveComputer {
 
     /**
      * Memory of this computer.
@@ -23,6 +28,21 @@ public class ComputerImpl implements Computer {
      */
     private Registers registers;
 
+    /**
+     * Input of this computer or {@code null} for standard input.
+     */
+    private InputChannel input;
+
+    /**
+     * Output of this computer or {@code null} for standard output.
+     */
+    private PrintStream output;
+
+    /**
+     * Output sink of this computer, created when it is first used.
+     */
+    private OutputSink sink;
+
     /**
      * Constructs a new {@code MemoryImpl} object with specified size.
      * 
@@ -32,8 +52,54 @@ public class ComputerImpl implements Computer {
      *            number of the registers
      */
     public ComputerImpl(int size, int regsLen) {
-        this.memory = new MemoryImpl(size);
-        this.registers = new RegistersImpl(regsLen);
+        this(new MemoryImpl(size), new RegistersImpl(regsLen));
+    }
+
+    /**
+     * Constructs a new {@code ComputerImpl} object with specified memory and
+     * registers.
+     * <p>
+     * This constructor is used to select the memory implementation, for example
+     * {@link ArrayMemoryImpl} instead of the default {@link MemoryImpl}.
+     * 
+     * @param memory
+     *            memory of this computer
+     * @param registers
+     *            registers of this computer
+     * @throws IllegalArgumentException
+     *             if memory or registers are {@code null}
+     */
+    public ComputerImpl(Memory memory, Registers registers) {
+        if (memory == null || registers == null) {
+            throw new IllegalArgumentException(
+                    "Memory and registers must not be null!");
+        }
+
+        this.memory = memory;
+        this.registers = registers;
+    }
+
+    /**
+     * Returns a fork of this computer. Fork has a copy of the registers and a
+     * copy-on-write fork of the memory, so a loaded program can be run many
+     * times without loading it again. Fork uses standard input and standard
+     * output until its own are set.
+     * 
+     * @return the fork of this computer
+     * @throws UnsupportedOperationException
+     *             if memory isn't a {@link PagedMemoryImpl} or registers
+     *             aren't a {@link RegistersImpl}
+     */
+    public ComputerImpl fork() {
+        if (!(memory instanceof PagedMemoryImpl)
+                || !(registers instanceof RegistersImpl)) {
+            throw new UnsupportedOperationException(
+                    "Only computers with paged memory can be forked!");
+        }
+
+        return new ComputerImpl(
+                ((PagedMemoryImpl) memory).fork(),
+                new RegistersImpl((RegistersImpl) registers));
     }
 
     /**
@@ -56,4 +122,66 @@ public class ComputerImpl implements Computer {
         return memory;
     }
 
+    /**
+     * Returns the input of this computer.
+     * 
+     * @return the input of this computer or {@code null} if computer reads
+     *         from standard input
+     */
+    @Override
+    public InputChannel getInput() {
+        return input;
+    }
+
+    /**
+     * Sets the input of this computer.
+     * 
+     * @param input
+     *            the input or {@code null} for standard input
+     */
+    public void setInput(InputChannel input) {
+        this.input = input;
+    }
+
+    /**
+     * Returns the output of this computer.
+     * 
+     * @return the output of this computer or {@code null} if computer writes
+     *         to standard output
+     */
+    @Override
+    public PrintStream getOutput() {
+        return output;
+    }
+
+    /**
+     * Sets the output of this computer. Everything printed to the previous
+     * output is flushed.
+     * 
+     * @param output
+     *            the output or {@code null} for standard output
+     */
+    public void setOutput(PrintStream output) {
+        if (sink != null) {
+            sink.flush();
+            sink = null;
+        }
+
+        this.output = output;
+    }
+
+    /**
+     * Returns the output sink of this computer which writes to its output.
+     * 
+     * @return the output sink of this computer
+     */
+    @Override
+    public OutputSink getOutputSink() {
+        if (sink == null) {
+            sink = new OutputSink(output == null ? System.out : output);
+        }
+
+        return sink;
+    }
+
 }
@@ -1,12 +1,17 @@
 package hr.fer.zemris.java.simplecomp.impl;
 
+import hr.fer.zemris.java.simplecomp.impl.instructions.OutputStreamUtil;
 import hr.fer.zemris.java.simplecomp.models.Computer;
 import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
 import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.profiler.Profiler;
 
 /**
  * {@code ExecutionUnitImpl} is a execution unit of a computer. This class is
  * "running" a program.
+ * <p>
+ * Execution unit created with a {@link Profiler} runs the program in a
+ * separate loop which reports every executed instruction to the profiler.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -14,8 +19,29 @@ import hr.fer.zemris.java.simplecomp.models.Instruction;
  */
 public class ExecutionUnitImpl implements ExecutionUnit {
 
+    /** Profiler of the program or {@code null} if profiling is off */
+    private Profiler profiler;
+
     /**
-     * Runs a program written in the computer's memory.
+     * Constructs a new {@code ExecutionUnitImpl} object without a profiler.
+     */
+    public ExecutionUnitImpl() {
+    }
+
+    /**
+     * Constructs a new {@code ExecutionUnitImpl} object which profiles the
+     * program.
+     * 
+     * @param profiler
+     *            the profiler or {@code null} to turn profiling off
+     */
+    public ExecutionUnitImpl(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Runs a program written in the computer's memory. Output of the computer
+     * is flushed when the program stops, even if it fails.
      * 
      * @param computer
      *            the computer on which we execute this instruction
@@ -23,6 +49,58 @@ public class ExecutionUnitImpl implements ExecutionUnit {
      */
     @Override
     public boolean go(Computer computer) {
+        try {
+            return profiler == null ? run(computer)
+                    : runProfiled(computer, profiler);
+        } finally {
+            OutputStreamUtil.flush(computer);
+        }
+    }
+
+    /**
+     * Continues the program from the current program counter and executes at
+     * most the specified number of instructions. If the program doesn't halt,
+     * program counter is left at the next instruction, so the computer can be
+     * snapshotted and resumed later. Profiler isn't used and output of the
+     * computer is flushed when this method returns.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @param steps
+     *            maximum number of instructions to execute
+     * @return {@code true} if program halted; {@code false} if it ran out of
+     *         steps
+     */
+    public boolean resume(Computer computer, long steps) {
+        try {
+            for (long i = 0; i < steps; i++) {
+                int pc = computer.getRegisters().getProgramCounter();
+
+                Instruction instr = (Instruction) computer
+                        .getMemory()
+                        .getLocation(pc);
+
+                if (instr.execute(computer)) {
+                    return true;
+                }
+
+                computer.getRegisters().incrementProgramCounter();
+            }
+
+            return false;
+        } finally {
+            OutputStreamUtil.flush(computer);
+        }
+    }
+
+    /**
+     * Runs a program written in the computer's memory.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    private boolean run(Computer computer) {
         computer.getRegisters().setProgramCounter(0);
 
         boolean exit = false;
@@ -46,4 +124,43 @@ public class ExecutionUnitImpl implements ExecutionUnit {
         return true;
     }
 
+    /**
+     * Runs a program written in the computer's memory and reports every
+     * executed instruction to the profiler.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @param profiler
+     *            the profiler
+     * @return {@code true} always
+     */
+    private static boolean runProfiled(
+            Computer computer,
+            Profiler profiler) {
+        computer.getRegisters().setProgramCounter(0);
+
+        profiler.start();
+        try {
+            while (true) {
+                int pc = computer.getRegisters().getProgramCounter();
+
+                Instruction instr = (Instruction) computer
+                        .getMemory()
+                        .getLocation(pc);
+
+                profiler.step(pc, instr);
+
+                if (instr.execute(computer)) {
+                    break;
+                }
+
+                computer.getRegisters().incrementProgramCounter();
+            }
+        } finally {
+            profiler.stop();
+        }
+
+        return true;
+    }
+
 }
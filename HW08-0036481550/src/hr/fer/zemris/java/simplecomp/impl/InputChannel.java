@@ -0,0 +1,200 @@
+package hr.fer.zemris.java.simplecomp.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * {@code InputChannel} is an input of a computer which reads lines from a
+ * byte buffer.
+ * <p>
+ * Lines end with {@code '\n'}, {@code '\r'} or {@code "\r\n"}, as in
+ * {@link java.io.BufferedReader#readLine()}. Integers are parsed directly
+ * from the bytes of a line, following the rules of
+ * {@link Integer#parseInt(String)}, so reading a number doesn't create a
+ * string.
+ * <p>
+ * Subclasses provide the bytes by refilling the {@link #buffer}. Channel isn't
+ * thread safe, every computer has its own.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see InteractiveComputer
+ */
+public abstract class InputChannel implements Closeable {
+
+    /** Value returned if line isn't a valid integer */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    /** Buffer holding bytes which aren't read yet */
+    protected ByteBuffer buffer;
+
+    /** Charset used to decode lines */
+    private Charset charset;
+
+    /** Bytes of the last read line */
+    private byte[] line = new byte[64];
+
+    /** Number of bytes of the last read line */
+    private int length;
+
+    /** Flag which tells if the next line feed should be skipped */
+    private boolean skipLineFeed;
+
+    /**
+     * Constructs a new {@code InputChannel} object.
+     * 
+     * @param buffer
+     *            buffer holding the first bytes
+     * @param charset
+     *            charset used to decode lines
+     */
+    protected InputChannel(ByteBuffer buffer, Charset charset) {
+        this.buffer = buffer;
+        this.charset = charset;
+    }
+
+    /**
+     * Refills the buffer with the next bytes of the input. Buffer is empty
+     * when this method is called and it must be ready for reading when it
+     * returns.
+     * 
+     * @return {@code true} if buffer holds new bytes; {@code false} at the end
+     *         of the input
+     * @throws IOException
+     *             if input can't be read
+     */
+    protected abstract boolean fill() throws IOException;
+
+    /**
+     * Returns the next line.
+     * 
+     * @return the next line or {@code null} at the end of the input
+     * @throws IOException
+     *             if input can't be read
+     */
+    public String readLine() throws IOException {
+        if (!nextLine()) {
+            return null;
+        }
+
+        return new String(line, 0, length, charset);
+    }
+
+    /**
+     * Reads the next line and parses it as an integer.
+     * 
+     * @return the integer or {@link #INVALID} if line isn't a valid integer or
+     *         if input has ended
+     * @throws IOException
+     *             if input can't be read
+     */
+    public long readInt() throws IOException {
+        if (!nextLine() || length == 0) {
+            return INVALID;
+        }
+
+        boolean negative = line[0] == '-';
+        int i = negative || line[0] == '+' ? 1 : 0;
+        if (i == length) {
+            return INVALID;
+        }
+
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = line[i] - '0';
+
+            if (digit < 0 || digit > 9) {
+                // non-ASCII digits are parsed by Integer.parseInt
+                return line[i] < 0 ? parseDecoded() : INVALID;
+            }
+
+            value = value * 10 + digit;
+            if (value > -(long) Integer.MIN_VALUE) {
+                return INVALID;
+            }
+        }
+
+        value = negative ? -value : value;
+
+        return value > Integer.MAX_VALUE ? INVALID : value;
+    }
+
+    /**
+     * Parses the decoded last read line.
+     * 
+     * @return the integer or {@link #INVALID} if line isn't a valid integer
+     */
+    private long parseDecoded() {
+        try {
+            return Integer.parseInt(new String(line, 0, length, charset));
+        } catch (NumberFormatException nfe) {
+            return INVALID;
+        }
+    }
+
+    /**
+     * Reads the next line into the line array.
+     * 
+     * @return {@code true} if line is read; {@code false} at the end of the
+     *         input
+     * @throws IOException
+     *             if input can't be read
+     */
+    private boolean nextLine() throws IOException {
+        length = 0;
+
+        int b = next();
+        if (skipLineFeed) {
+            skipLineFeed = false;
+
+            if (b == '\n') {
+                b = next();
+            }
+        }
+
+        if (b == -1) {
+            return false;
+        }
+
+        while (b != -1 && b != '\n' && b != '\r') {
+            if (length == line.length) {
+                line = Arrays.copyOf(line, length * 2);
+            }
+
+            line[length++] = (byte) b;
+            b = next();
+        }
+
+        skipLineFeed = b == '\r';
+
+        return true;
+    }
+
+    /**
+     * Returns the next byte.
+     * 
+     * @return the next byte or {@code -1} at the end of the input
+     * @throws IOException
+     *             if input can't be read
+     */
+    private int next() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Closes the input. This implementation does nothing.
+     * 
+     * @throws IOException
+     *             if input can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+    }
+}
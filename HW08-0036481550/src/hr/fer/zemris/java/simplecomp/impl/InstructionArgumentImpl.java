@@ -0,0 +1,109 @@
+package hr.fer.zemris.java.simplecomp.impl;
+
+import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
+
+/**
+ * {@code InstructionArgumentImpl} is a class that implements
+ * {@link InstructionArgument} interface. It is used to construct instructions
+ * without parsing their source, for example when a program is loaded from a
+ * binary image.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see InstructionArgument
+ */
+public class InstructionArgumentImpl implements InstructionArgument {
+
+    /** Value of a register argument is a register descriptor */
+    private boolean register;
+
+    /** Value of the argument */
+    private Object value;
+
+    /**
+     * Constructs a new {@code InstructionArgumentImpl}.
+     * 
+     * @param register
+     *            {@code true} if argument is a register
+     * @param value
+     *            value of the argument
+     */
+    private InstructionArgumentImpl(boolean register, Object value) {
+        this.register = register;
+        this.value = value;
+    }
+
+    /**
+     * Creates a register argument.
+     * 
+     * @param descriptor
+     *            the register descriptor
+     * @return the argument
+     */
+    public static InstructionArgumentImpl register(int descriptor) {
+        return new InstructionArgumentImpl(true, descriptor);
+    }
+
+    /**
+     * Creates a number argument.
+     * 
+     * @param number
+     *            the number
+     * @return the argument
+     */
+    public static InstructionArgumentImpl number(int number) {
+        return new InstructionArgumentImpl(false, number);
+    }
+
+    /**
+     * Creates a string argument.
+     * 
+     * @param string
+     *            the string
+     * @return the argument
+     */
+    public static InstructionArgumentImpl string(String string) {
+        return new InstructionArgumentImpl(false, string);
+    }
+
+    /**
+     * Checks if this argument is a register.
+     * 
+     * @return {@code true} if argument is a register; {@code false} otherwise
+     */
+    @Override
+    public boolean isRegister() {
+        return register;
+    }
+
+    /**
+     * Checks if this argument is a string.
+     * 
+     * @return {@code true} if argument is a string; {@code false} otherwise
+     */
+    @Override
+    public boolean isString() {
+        return value instanceof String;
+    }
+
+    /**
+     * Checks if this argument is a number.
+     * 
+     * @return {@code true} if argument is a number; {@code false} otherwise
+     */
+    @Override
+    public boolean isNumber() {
+        return !register && value instanceof Integer;
+    }
+
+    /**
+     * Returns the value of this argument. Value of a register argument is the
+     * register descriptor.
+     * 
+     * @return the value of this argument
+     */
+    @Override
+    public Object getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,46 @@
+package hr.fer.zemris.java.simplecomp.impl;
+
+import java.io.PrintStream;
+
+import hr.fer.zemris.java.simplecomp.models.Computer;
+
+/**
+ * {@code InteractiveComputer} is an extension of the {@link Computer} interface
+ * which gives every computer its own input and output.
+ * <p>
+ * Computers which don't implement this interface, or return {@code null} from
+ * its methods, use standard input and standard output. Computers with their
+ * own input and output can run programs concurrently.
+ * <p>
+ * Programs print through the {@link OutputSink} of the computer, which
+ * buffers the output until it is flushed.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Computer
+ */
+public interface InteractiveComputer extends Computer {
+
+    /**
+     * Returns the input of this computer.
+     * 
+     * @return the input of this computer or {@code null} if computer reads
+     *         from standard input
+     */
+    public InputChannel getInput();
+
+    /**
+     * Returns the output of this computer.
+     * 
+     * @return the output of this computer or {@code null} if computer writes
+     *         to standard output
+     */
+    public PrintStream getOutput();
+
+    /**
+     * Returns the output sink of this computer which writes to its output.
+     * 
+     * @return the output sink of this computer
+     */
+    public OutputSink getOutputSink();
+}
@@ -0,0 +1,94 @@
+package hr.fer.zemris.java.simplecomp.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@code MappedInputChannel} is an {@link InputChannel} which reads a file
+ * mapped into memory. Large files are mapped in chunks, one at a time.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see InputChannel
+ */
+public class MappedInputChannel extends InputChannel {
+
+    /** Size of one mapped chunk */
+    private static final long CHUNK_SIZE = 1L << 26;
+
+    /** Channel of the file */
+    private FileChannel channel;
+
+    /** Position of the next chunk in the file */
+    private long position;
+
+    /** Size of the file */
+    private long size;
+
+    /**
+     * Constructs a new {@code MappedInputChannel} object which decodes lines
+     * with the default charset.
+     * 
+     * @param file
+     *            path to the file
+     * @throws IOException
+     *             if file can't be opened
+     */
+    public MappedInputChannel(Path file) throws IOException {
+        this(file, Charset.defaultCharset());
+    }
+
+    /**
+     * Constructs a new {@code MappedInputChannel} object.
+     * 
+     * @param file
+     *            path to the file
+     * @param charset
+     *            charset used to decode lines
+     * @throws IOException
+     *             if file can't be opened
+     */
+    public MappedInputChannel(Path file, Charset charset) throws IOException {
+        super(ByteBuffer.allocate(0), charset);
+
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    /**
+     * Maps the next chunk of the file.
+     * 
+     * @return {@code true} if buffer holds new bytes; {@code false} at the end
+     *         of the file
+     * @throws IOException
+     *             if file can't be mapped
+     */
+    @Override
+    protected boolean fill() throws IOException {
+        if (position >= size) {
+            return false;
+        }
+
+        long length = Math.min(CHUNK_SIZE, size - position);
+        buffer = channel.map(MapMode.READ_ONLY, position, length);
+        position += length;
+
+        return true;
+    }
+
+    /**
+     * Closes the file.
+     * 
+     * @throws IOException
+     *             if file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
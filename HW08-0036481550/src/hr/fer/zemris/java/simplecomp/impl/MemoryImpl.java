@@ -17,8 +17,9 @@ import hr.fer.zemris.java.simplecomp.models.Memory;
  * @author Karlo Vrbić
  * @version 1.0
  * @see Memory
+ * @see PrimitiveMemory
  */
-public class MemoryImpl implements Memory {
+public class MemoryImpl implements PrimitiveMemory {
 
     /**
      * Size of the memory(number of objects that can be stored using this
@@ -88,6 +89,100 @@ public class MemoryImpl implements Memory {
         return memory.get(location);
     }
 
+    /**
+     * Returns the size of the memory(number of objects that can be stored).
+     * 
+     * @return the size of the memory
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the value at the specified location is an integer.
+     * 
+     * @param location
+     *            the memory address
+     * @return {@code true} if location holds an integer; {@code false}
+     *         otherwise
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     */
+    @Override
+    public boolean isInteger(int location) {
+        return getLocation(location) instanceof Integer;
+    }
+
+    /**
+     * Returns the integer value from the specified location.
+     * 
+     * @param location
+     *            the memory address
+     * @return the integer stored at specified address
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     * @throws ClassCastException
+     *             if location doesn't hold an integer
+     */
+    @Override
+    public int getInt(int location) {
+        Object value = getLocation(location);
+
+        if (!(value instanceof Integer)) {
+            throw new ClassCastException(
+                    String.format(
+                            "Memory location '%d' doesn't hold an integer.",
+                            location));
+        }
+
+        return (Integer) value;
+    }
+
+    /**
+     * Returns the integer value from the specified location, or {@code 0} if
+     * location is empty. Empty location stays empty.
+     * 
+     * @param location
+     *            the memory address
+     * @return the integer stored at specified address or {@code 0}
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     * @throws ClassCastException
+     *             if location holds a value which isn't an integer
+     */
+    @Override
+    public int getIntOrZero(int location) {
+        Object value = getLocation(location);
+
+        if (value == null) {
+            return 0;
+        }
+        if (!(value instanceof Integer)) {
+            throw new ClassCastException(
+                    String.format(
+                            "Memory location '%d' doesn't hold an integer.",
+                            location));
+        }
+
+        return (Integer) value;
+    }
+
+    /**
+     * Sets the integer value to the specified location.
+     * 
+     * @param location
+     *            the memory address
+     * @param value
+     *            the integer that needs to be saved to a specified address
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     */
+    @Override
+    public void setInt(int location, int value) {
+        setLocation(location, value);
+    }
+
     /**
      * Checks if specified memory address is in bounds of this memory.
      * 
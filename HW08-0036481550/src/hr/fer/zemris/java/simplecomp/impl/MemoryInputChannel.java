@@ -0,0 +1,48 @@
+package hr.fer.zemris.java.simplecomp.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * {@code MemoryInputChannel} is an {@link InputChannel} which reads bytes from
+ * an array. Array isn't copied, so many channels can read the same array.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see InputChannel
+ */
+public class MemoryInputChannel extends InputChannel {
+
+    /**
+     * Constructs a new {@code MemoryInputChannel} object which decodes lines
+     * with the default charset.
+     * 
+     * @param bytes
+     *            bytes of the input
+     */
+    public MemoryInputChannel(byte[] bytes) {
+        this(bytes, Charset.defaultCharset());
+    }
+
+    /**
+     * Constructs a new {@code MemoryInputChannel} object.
+     * 
+     * @param bytes
+     *            bytes of the input
+     * @param charset
+     *            charset used to decode lines
+     */
+    public MemoryInputChannel(byte[] bytes, Charset charset) {
+        super(ByteBuffer.wrap(bytes), charset);
+    }
+
+    /**
+     * Returns {@code false} since all bytes are in the buffer.
+     * 
+     * @return {@code false} always
+     */
+    @Override
+    protected boolean fill() {
+        return false;
+    }
+}
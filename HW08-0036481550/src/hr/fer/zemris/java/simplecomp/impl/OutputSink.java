@@ -0,0 +1,255 @@
+package hr.fer.zemris.java.simplecomp.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * {@code OutputSink} is a buffered output of a computer.
+ * <p>
+ * Integers are formatted directly into a reusable byte buffer and strings are
+ * encoded only once, the first time they are printed, so printing doesn't
+ * allocate. Buffer is written to the channel when it is full or when
+ * {@link #flush()} is called, which happens when the program halts and before
+ * the program reads its input.
+ * <p>
+ * Sink isn't thread safe, every computer has its own.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see InteractiveComputer
+ */
+public class OutputSink {
+
+    /** Default capacity of the buffer */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /** Maximum number of cached encoded strings */
+    private static final int CACHE_SIZE = 1024;
+
+    /** Maximum number of characters of a formatted integer */
+    private static final int INT_LENGTH = 11;
+
+    /** Bytes of a formatted {@code Integer.MIN_VALUE} */
+    private static final byte[] MIN_VALUE = Integer
+            .toString(Integer.MIN_VALUE)
+            .getBytes(Charset.defaultCharset());
+
+    /** Channel to which the buffer is written */
+    private WritableByteChannel channel;
+
+    /** Stream flushed after the buffer is written or {@code null} */
+    private OutputStream stream;
+
+    /** Charset used to encode strings */
+    private Charset charset;
+
+    /** Buffer holding the output which isn't written yet */
+    private ByteBuffer buffer;
+
+    /** Encoded strings mapped by identities of strings */
+    private Map<String, byte[]> encoded = new IdentityHashMap<>();
+
+    /**
+     * Constructs a new {@code OutputSink} object which writes to the stream.
+     * Strings are encoded with the default charset, as in
+     * {@link java.io.PrintStream}.
+     * 
+     * @param stream
+     *            the stream
+     */
+    public OutputSink(OutputStream stream) {
+        this(Channels.newChannel(stream), Charset.defaultCharset(),
+                DEFAULT_CAPACITY);
+
+        this.stream = stream;
+    }
+
+    /**
+     * Constructs a new {@code OutputSink} object which writes to the channel.
+     * 
+     * @param channel
+     *            the channel
+     * @param charset
+     *            charset used to encode strings
+     * @param capacity
+     *            capacity of the buffer
+     * @throws IllegalArgumentException
+     *             if capacity is less than the length of a formatted integer
+     */
+    public OutputSink(
+            WritableByteChannel channel,
+            Charset charset,
+            int capacity) {
+        if (capacity < INT_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Capacity must be at least " + INT_LENGTH + "!");
+        }
+
+        this.channel = channel;
+        this.charset = charset;
+        this.buffer = ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * Prints the value. Integers and strings are printed without allocation,
+     * any other value is printed as its string representation.
+     * 
+     * @param value
+     *            the value (can be {@code null})
+     */
+    public void print(Object value) {
+        if (value instanceof Integer) {
+            print(((Integer) value).intValue());
+        } else if (value instanceof String) {
+            print((String) value);
+        } else {
+            write(String.valueOf(value).getBytes(charset));
+        }
+    }
+
+    /**
+     * Prints the integer.
+     * 
+     * @param value
+     *            the integer
+     */
+    public void print(int value) {
+        if (value == Integer.MIN_VALUE) {
+            write(MIN_VALUE);
+            return;
+        }
+
+        if (buffer.remaining() < INT_LENGTH) {
+            flushBuffer();
+        }
+
+        byte[] bytes = buffer.array();
+        int position = buffer.position();
+
+        if (value < 0) {
+            bytes[position++] = '-';
+            value = -value;
+        }
+
+        int end = position + digits(value);
+        for (int i = end - 1; i >= position; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+
+        buffer.position(end);
+    }
+
+    /**
+     * Prints the string. String is encoded the first time it is printed.
+     * 
+     * @param value
+     *            the string
+     */
+    public void print(String value) {
+        byte[] bytes = encoded.get(value);
+
+        if (bytes == null) {
+            if (encoded.size() == CACHE_SIZE) {
+                encoded.clear();
+            }
+
+            bytes = value.getBytes(charset);
+            encoded.put(value, bytes);
+        }
+
+        write(bytes);
+    }
+
+    /**
+     * Writes the buffer to the channel and flushes the underlying stream.
+     * 
+     * @throws UncheckedIOException
+     *             if output can't be written
+     */
+    public void flush() {
+        flushBuffer();
+
+        if (stream != null) {
+            try {
+                stream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the bytes to the buffer. Bytes which don't fit into an empty
+     * buffer are written directly to the channel.
+     * 
+     * @param bytes
+     *            the bytes
+     */
+    private void write(byte[] bytes) {
+        if (buffer.remaining() < bytes.length) {
+            flushBuffer();
+
+            if (buffer.remaining() < bytes.length) {
+                writeFully(ByteBuffer.wrap(bytes));
+                return;
+            }
+        }
+
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes the buffer to the channel and clears it.
+     */
+    private void flushBuffer() {
+        if (buffer.position() == 0) {
+            return;
+        }
+
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Writes all remaining bytes to the channel.
+     * 
+     * @param bytes
+     *            the bytes
+     * @throws UncheckedIOException
+     *             if output can't be written
+     */
+    private void writeFully(ByteBuffer bytes) {
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of digits of the non-negative integer.
+     * 
+     * @param value
+     *            the integer
+     * @return the number of digits
+     */
+    private static int digits(int value) {
+        int digits = 1;
+        for (int limit = 10; digits < 10 && value >= limit; limit *= 10) {
+            digits++;
+        }
+
+        return digits;
+    }
+}
@@ -0,0 +1,299 @@
+package hr.fer.zemris.java.simplecomp.impl;
+
+import java.util.Arrays;
+
+import hr.fer.zemris.java.simplecomp.models.Memory;
+
+/**
+ * {@code PagedMemoryImpl} is a class that implements {@link Memory} interface
+ * that keeps the computer's memory in fixed-size pages which can be shared
+ * between forks of the memory.
+ * <p>
+ * Memory returned by {@link #fork()} shares all pages with the original. A
+ * shared page is never written to; it is copied on the first write to one of
+ * its locations, so every fork only pays for the pages it changes. Pages
+ * which were never written to aren't allocated at all.
+ * <p>
+ * Shared pages are only read, so forks can be run on different threads. A
+ * memory must not be written to while it is being forked.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Memory
+ * @see ComputerImpl#fork()
+ */
+public class PagedMemoryImpl implements PrimitiveMemory {
+
+    /** Number of bits of the address which select the location in a page */
+    private static final int PAGE_BITS = 6;
+
+    /** Number of locations in a page */
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    /** Mask which selects the location in a page */
+    private static final int OFFSET_MASK = PAGE_SIZE - 1;
+
+    /**
+     * Size of the memory(number of objects that can be stored using this
+     * object.
+     */
+    private int size;
+
+    /**
+     * Pages of the memory; {@code null} page has only empty locations.
+     */
+    private Object[][] pages;
+
+    /**
+     * Flags of pages shared with other forks.
+     */
+    private boolean[] shared;
+
+    /**
+     * Constructs a new {@code PagedMemoryImpl} object with specified size.
+     * 
+     * @param size
+     *            size of the memory(number of objects that can be stored using
+     *            this object.
+     */
+    public PagedMemoryImpl(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Size of memory must be greater than 0. You"
+                                    + " provided %d.",
+                            size));
+        }
+
+        int count = (size + PAGE_SIZE - 1) >>> PAGE_BITS;
+
+        this.size = size;
+        this.pages = new Object[count][];
+        this.shared = new boolean[count];
+    }
+
+    /**
+     * Constructs a new {@code PagedMemoryImpl} object which shares all pages
+     * with the original.
+     * 
+     * @param original
+     *            the original memory
+     */
+    private PagedMemoryImpl(PagedMemoryImpl original) {
+        this.size = original.size;
+        this.pages = original.pages.clone();
+        this.shared = new boolean[pages.length];
+
+        Arrays.fill(shared, true);
+    }
+
+    /**
+     * Returns a fork of this memory. Fork and this memory share all pages
+     * until they are written to.
+     * 
+     * @return the fork of this memory
+     */
+    public PagedMemoryImpl fork() {
+        Arrays.fill(shared, true);
+
+        return new PagedMemoryImpl(this);
+    }
+
+    /**
+     * Returns the number of pages this memory has copied or allocated and
+     * doesn't share with any other fork.
+     * 
+     * @return the number of private pages
+     */
+    public int getPrivatePages() {
+        int count = 0;
+        for (int i = 0; i < pages.length; i++) {
+            if (pages[i] != null && !shared[i]) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Sets the value to the specified location.
+     * 
+     * @param location
+     *            the memory address
+     * @param value
+     *            the object that needs to be saved to a specified address (can
+     *            be {@code null})
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist (less than 0 or greater than
+     *             last existing memory location)
+     */
+    @Override
+    public void setLocation(int location, Object value) {
+        checkLocationInBounds(location);
+
+        int index = location >>> PAGE_BITS;
+        if (value == null && pages[index] == null) {
+            return;
+        }
+
+        writablePage(index)[location & OFFSET_MASK] = value;
+    }
+
+    /**
+     * Returns the value from the specified location.
+     * 
+     * @param location
+     *            the memory address
+     * @return the object from specified address (can be {@code null})
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist (less than 0 or greater than
+     *             last existing memory location)
+     */
+    @Override
+    public Object getLocation(int location) {
+        checkLocationInBounds(location);
+
+        Object[] page = pages[location >>> PAGE_BITS];
+
+        return page == null ? null : page[location & OFFSET_MASK];
+    }
+
+    /**
+     * Returns the size of the memory(number of objects that can be stored).
+     * 
+     * @return the size of the memory
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the value at the specified location is an integer.
+     * 
+     * @param location
+     *            the memory address
+     * @return {@code true} if location holds an integer; {@code false}
+     *         otherwise
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     */
+    @Override
+    public boolean isInteger(int location) {
+        return getLocation(location) instanceof Integer;
+    }
+
+    /**
+     * Returns the integer value from the specified location.
+     * 
+     * @param location
+     *            the memory address
+     * @return the integer stored at specified address
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     * @throws ClassCastException
+     *             if location doesn't hold an integer
+     */
+    @Override
+    public int getInt(int location) {
+        Object value = getLocation(location);
+
+        if (!(value instanceof Integer)) {
+            throw new ClassCastException(
+                    String.format(
+                            "Memory location '%d' doesn't hold an integer.",
+                            location));
+        }
+
+        return (Integer) value;
+    }
+
+    /**
+     * Returns the integer value from the specified location, or {@code 0} if
+     * location is empty. Empty location stays empty.
+     * 
+     * @param location
+     *            the memory address
+     * @return the integer stored at specified address or {@code 0}
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     * @throws ClassCastException
+     *             if location holds a value which isn't an integer
+     */
+    @Override
+    public int getIntOrZero(int location) {
+        Object value = getLocation(location);
+
+        if (value == null) {
+            return 0;
+        }
+        if (!(value instanceof Integer)) {
+            throw new ClassCastException(
+                    String.format(
+                            "Memory location '%d' doesn't hold an integer.",
+                            location));
+        }
+
+        return (Integer) value;
+    }
+
+    /**
+     * Sets the integer value to the specified location.
+     * 
+     * @param location
+     *            the memory address
+     * @param value
+     *            the integer that needs to be saved to a specified address
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     */
+    @Override
+    public void setInt(int location, int value) {
+        setLocation(location, value);
+    }
+
+    /**
+     * Returns the page which can be written to, copying it if it is shared or
+     * allocating it if it doesn't exist.
+     * 
+     * @param index
+     *            index of the page
+     * @return the page
+     */
+    private Object[] writablePage(int index) {
+        Object[] page = pages[index];
+
+        if (page == null) {
+            page = new Object[PAGE_SIZE];
+        } else if (shared[index]) {
+            page = page.clone();
+        } else {
+            return page;
+        }
+
+        pages[index] = page;
+        shared[index] = false;
+        return page;
+    }
+
+    /**
+     * Checks if specified memory address is in bounds of this memory.
+     * 
+     * @param location
+     *            the memory address
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exists (isn't in bounds of this
+     *             memory)
+     */
+    private void checkLocationInBounds(int location) {
+        if (location < 0 || location >= this.size)
+            throw new IndexOutOfBoundsException(
+                    String.format(
+                            "You tried to insert value at memory location '%d'. Valid"
+                                    + " locations are between '0'(inclusive) and '%d'"
+                                    + " (exclusive)",
+                            location,
+                            this.size));
+    }
+}
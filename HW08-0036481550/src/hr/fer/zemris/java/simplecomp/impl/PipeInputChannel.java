@@ -0,0 +1,244 @@
+package hr.fer.zemris.java.simplecomp.impl;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * {@code PipeInputChannel} is an {@link InputChannel} whose bytes are written
+ * by another thread while the computer runs.
+ * <p>
+ * Reading blocks until the writer provides the bytes or closes the pipe.
+ * {@link #isReady()} tells if the next line can be read without blocking and
+ * a listener is notified whenever the pipe may have become ready, so a
+ * scheduler can park the computer instead of blocking its thread. Lines
+ * written to a pipe must end with {@code '\n'} or {@code "\r\n"}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see InputChannel
+ */
+public class PipeInputChannel extends InputChannel {
+
+    /** Charset used to encode written lines */
+    private Charset charset;
+
+    /** Written chunks which aren't in the buffer yet */
+    private Deque<ByteBuffer> chunks = new ArrayDeque<>();
+
+    /** Number of complete lines written and not read yet */
+    private int lines;
+
+    /** Flag which tells if the writer has closed the pipe */
+    private boolean closed;
+
+    /** Listener notified when pipe may have become ready */
+    private Runnable listener;
+
+    /**
+     * Constructs a new {@code PipeInputChannel} object which decodes lines
+     * with the default charset.
+     */
+    public PipeInputChannel() {
+        this(Charset.defaultCharset());
+    }
+
+    /**
+     * Constructs a new {@code PipeInputChannel} object.
+     * 
+     * @param charset
+     *            charset used to decode lines
+     */
+    public PipeInputChannel(Charset charset) {
+        super(ByteBuffer.allocate(0), charset);
+
+        this.charset = charset;
+    }
+
+    /**
+     * Writes bytes to the pipe. Bytes are copied.
+     * 
+     * @param bytes
+     *            the bytes
+     * @throws IllegalStateException
+     *             if pipe is closed
+     */
+    public void write(byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes a part of the array to the pipe. Bytes are copied.
+     * 
+     * @param bytes
+     *            the bytes
+     * @param offset
+     *            index of the first written byte
+     * @param length
+     *            number of written bytes
+     * @throws IllegalStateException
+     *             if pipe is closed
+     * @throws IndexOutOfBoundsException
+     *             if part isn't in the array
+     */
+    public void write(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException(
+                    String.format(
+                            "Part at %d of length %d isn't in the array.",
+                            offset,
+                            length));
+        }
+
+        byte[] copy = Arrays.copyOfRange(bytes, offset, offset + length);
+
+        int count = 0;
+        for (byte b : copy) {
+            if (b == '\n') {
+                count++;
+            }
+        }
+
+        Runnable toNotify;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Pipe is closed!");
+            }
+
+            chunks.add(ByteBuffer.wrap(copy));
+            lines += count;
+            notifyAll();
+
+            toNotify = listener;
+        }
+
+        if (toNotify != null && count > 0) {
+            toNotify.run();
+        }
+    }
+
+    /**
+     * Writes a line to the pipe.
+     * 
+     * @param line
+     *            the line without its line terminator
+     * @throws IllegalStateException
+     *             if pipe is closed
+     */
+    public void writeLine(String line) {
+        write((line + "\n").getBytes(charset));
+    }
+
+    /**
+     * Checks if the next line can be read without blocking.
+     * 
+     * @return {@code true} if a complete line is written or pipe is closed;
+     *         {@code false} otherwise
+     */
+    public synchronized boolean isReady() {
+        return lines > 0 || closed;
+    }
+
+    /**
+     * Sets the listener which is notified, on the writer's thread, when the
+     * pipe may have become ready.
+     * 
+     * @param listener
+     *            the listener or {@code null} to remove it
+     */
+    public synchronized void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the next line, blocking until it is written.
+     * 
+     * @return the next line or {@code null} at the end of the input
+     * @throws IOException
+     *             if waiting thread is interrupted
+     */
+    @Override
+    public String readLine() throws IOException {
+        String line = super.readLine();
+        consumeLine();
+
+        return line;
+    }
+
+    /**
+     * Reads the next line, blocking until it is written, and parses it as an
+     * integer.
+     * 
+     * @return the integer or {@link #INVALID} if line isn't a valid integer or
+     *         if input has ended
+     * @throws IOException
+     *             if waiting thread is interrupted
+     */
+    @Override
+    public long readInt() throws IOException {
+        long value = super.readInt();
+        consumeLine();
+
+        return value;
+    }
+
+    /**
+     * Moves the next written chunk into the buffer, waiting until it is
+     * written or pipe is closed.
+     * 
+     * @return {@code true} if buffer holds new bytes; {@code false} if pipe is
+     *         closed
+     * @throws IOException
+     *             if waiting thread is interrupted
+     */
+    @Override
+    protected synchronized boolean fill() throws IOException {
+        while (chunks.isEmpty() && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted reading pipe!");
+            }
+        }
+
+        if (chunks.isEmpty()) {
+            return false;
+        }
+
+        buffer = chunks.poll();
+        return true;
+    }
+
+    /**
+     * Closes the pipe. Lines already written can still be read; after them
+     * the input ends.
+     */
+    @Override
+    public void close() {
+        Runnable toNotify;
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+
+            toNotify = listener;
+        }
+
+        if (toNotify != null) {
+            toNotify.run();
+        }
+    }
+
+    /**
+     * Marks one complete line as read.
+     */
+    private synchronized void consumeLine() {
+        if (lines > 0) {
+            lines--;
+        }
+    }
+}
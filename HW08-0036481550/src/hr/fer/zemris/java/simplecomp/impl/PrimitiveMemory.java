@@ -0,0 +1,81 @@
+package hr.fer.zemris.java.simplecomp.impl;
+
+import hr.fer.zemris.java.simplecomp.models.Memory;
+
+/**
+ * {@code PrimitiveMemory} is an extension of the {@link Memory} interface which
+ * allows integer values to be stored and read without boxing them into
+ * {@code Integer} objects.
+ * <p>
+ * Methods {@link #setLocation(int, Object)} and {@link #getLocation(int)} must
+ * still work for every kind of value, so a value stored with
+ * {@link #setInt(int, int)} is visible as an {@code Integer} through
+ * {@link #getLocation(int)} and vice versa.
+ * <p>
+ * Empty locations are read as {@code 0} by {@link #getIntOrZero(int)}, so a
+ * program can read memory it never wrote without changing it.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Memory
+ */
+public interface PrimitiveMemory extends Memory {
+
+    /**
+     * Returns the size of the memory(number of objects that can be stored).
+     * 
+     * @return the size of the memory
+     */
+    public int getSize();
+
+    /**
+     * Checks if the value at the specified location is an integer.
+     * 
+     * @param location
+     *            the memory address
+     * @return {@code true} if location holds an integer; {@code false}
+     *         otherwise
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     */
+    public boolean isInteger(int location);
+
+    /**
+     * Returns the integer value from the specified location.
+     * 
+     * @param location
+     *            the memory address
+     * @return the integer stored at specified address
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     * @throws ClassCastException
+     *             if location doesn't hold an integer
+     */
+    public int getInt(int location);
+
+    /**
+     * Returns the integer value from the specified location, or {@code 0} if
+     * location is empty. Empty location stays empty.
+     * 
+     * @param location
+     *            the memory address
+     * @return the integer stored at specified address or {@code 0}
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     * @throws ClassCastException
+     *             if location holds a value which isn't an integer
+     */
+    public int getIntOrZero(int location);
+
+    /**
+     * Sets the integer value to the specified location.
+     * 
+     * @param location
+     *            the memory address
+     * @param value
+     *            the integer that needs to be saved to a specified address
+     * @throws IndexOutOfBoundsException
+     *             if memory address doesn't exist
+     */
+    public void setInt(int location, int value);
+}
@@ -0,0 +1,82 @@
+package hr.fer.zemris.java.simplecomp.impl;
+
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * {@code PrimitiveRegisters} is an extension of the {@link Registers} interface
+ * which allows integer values to be stored in general-purpose registers and read
+ * from them without boxing them into {@code Integer} objects.
+ * <p>
+ * Methods {@link #setRegisterValue(int, Object)} and
+ * {@link #getRegisterValue(int)} must still work for every kind of value, so a
+ * value stored with {@link #setInt(int, int)} is visible as an {@code Integer}
+ * through {@link #getRegisterValue(int)} and vice versa.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Registers
+ */
+public interface PrimitiveRegisters extends Registers {
+
+    /**
+     * Returns the number of general-purpose registers.
+     * 
+     * @return the number of registers
+     */
+    public int getSize();
+
+    /**
+     * Checks if the general-purpose register with specified {@code index}
+     * holds an integer.
+     * 
+     * @param index
+     *            register index (starting from 0)
+     * @return {@code true} if register holds an integer; {@code false}
+     *         otherwise
+     * @throws IndexOutOfBoundsException
+     *             if register with specified {@code index} doesn't exist
+     */
+    public boolean isInteger(int index);
+
+    /**
+     * Returns the integer value of the general-purpose register with specified
+     * {@code index}.
+     * 
+     * @param index
+     *            register index (starting from 0)
+     * @return the integer value of the register
+     * @throws IndexOutOfBoundsException
+     *             if register with specified {@code index} doesn't exist
+     * @throws ClassCastException
+     *             if register doesn't hold an integer
+     */
+    public int getInt(int index);
+
+    /**
+     * Returns the integer value of the general-purpose register with specified
+     * {@code index}, or {@code 0} if register is empty. Empty register stays
+     * empty.
+     * 
+     * @param index
+     *            register index (starting from 0)
+     * @return the integer value of the register or {@code 0}
+     * @throws IndexOutOfBoundsException
+     *             if register with specified {@code index} doesn't exist
+     * @throws ClassCastException
+     *             if register holds a value which isn't an integer
+     */
+    public int getIntOrZero(int index);
+
+    /**
+     * Sets the integer value of the general-purpose register with specified
+     * {@code index}.
+     * 
+     * @param index
+     *            register index (starting from 0)
+     * @param value
+     *            new value of the register
+     * @throws IndexOutOfBoundsException
+     *             if register with specified {@code index} doesn't exist
+     */
+    public void setInt(int index, int value);
+}
@@ -1,8 +1,5 @@
 package hr.fer.zemris.java.simplecomp.impl;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import hr.fer.zemris.java.simplecomp.models.Registers;
 
 /**
@@ -20,12 +17,27 @@ import hr.fer.zemris.java.simplecomp.models.Registers;
  * {@link #incrementProgramCounter()} and {@link #setProgramCounter(int)}. <br>
  * Flag register can only store one {@code boolean} value and is used with
  * methods {@link #getFlag()} and {@link #setFlag(boolean)}.
+ * <p>
+ * General-purpose registers are kept in arrays: every register has a type tag,
+ * integers are kept unboxed in an {@code int} array and all other objects are
+ * kept in the side array of objects. Integer values can be accessed without
+ * boxing through {@link #getInt(int)} and {@link #setInt(int, int)}.
  * 
  * @author Karlo Vrbić
  * @version 1.0
  * @see Registers
+ * @see PrimitiveRegisters
  */
-public class RegistersImpl implements Registers {
+public class RegistersImpl implements PrimitiveRegisters {
+
+    /** Type tag of an empty register */
+    private static final byte EMPTY = 0;
+
+    /** Type tag of a register holding an integer */
+    private static final byte INTEGER = 1;
+
+    /** Type tag of a register holding any other object */
+    private static final byte OBJECT = 2;
 
     /**
      * Number of registers.
@@ -43,9 +55,19 @@ public class RegistersImpl implements Registers {
     private int programCounter;
 
     /**
-     * General-purpose registers.
+     * Type tags of general-purpose registers.
+     */
+    private byte[] types;
+
+    /**
+     * Values of general-purpose registers holding integers.
+     */
+    private int[] integers;
+
+    /**
+     * Values of general-purpose registers holding other objects.
      */
-    private Map<Integer, Object> registers;
+    private Object[] objects;
 
     /**
      * Constructs a new {@code RegistersImpl} object with specified number of
@@ -64,7 +86,27 @@ public class RegistersImpl implements Registers {
         }
 
         this.regsLen = regsLen;
-        this.registers = new HashMap<>(Math.max(8, this.regsLen / 8));
+
+        this.types = new byte[regsLen];
+        this.integers = new int[regsLen];
+        this.objects = new Object[regsLen];
+    }
+
+    /**
+     * Constructs a new {@code RegistersImpl} object which is a copy of the
+     * specified registers, including program counter and flag.
+     * 
+     * @param original
+     *            registers which are copied
+     */
+    public RegistersImpl(RegistersImpl original) {
+        this.regsLen = original.regsLen;
+        this.flag = original.flag;
+        this.programCounter = original.programCounter;
+
+        this.types = original.types.clone();
+        this.integers = original.integers.clone();
+        this.objects = original.objects.clone();
     }
 
     /**
@@ -82,7 +124,11 @@ public class RegistersImpl implements Registers {
     public Object getRegisterValue(int index) {
         checkLocationInBounds(index);
 
-        return registers.get(index);
+        if (types[index] == INTEGER) {
+            return integers[index];
+        }
+
+        return objects[index];
     }
 
     /**
@@ -101,7 +147,113 @@ public class RegistersImpl implements Registers {
     public void setRegisterValue(int index, Object value) {
         checkLocationInBounds(index);
 
-        registers.put(index, value);
+        if (value instanceof Integer) {
+            types[index] = INTEGER;
+            integers[index] = (Integer) value;
+            objects[index] = null;
+        } else {
+            types[index] = value == null ? EMPTY : OBJECT;
+            integers[index] = 0;
+            objects[index] = value;
+        }
+    }
+
+    /**
+     * Checks if the general-purpose register with specified {@code index}
+     * holds an integer.
+     * 
+     * @param index
+     *            register index (starting from 0)
+     * @return {@code true} if register holds an integer; {@code false}
+     *         otherwise
+     * @throws IndexOutOfBoundsException
+     *             if {@code index} is less than 0 (exclusive) or greater than
+     *             number of registers (inclusive)
+     */
+    @Override
+    public boolean isInteger(int index) {
+        checkLocationInBounds(index);
+
+        return types[index] == INTEGER;
+    }
+
+    /**
+     * Returns the integer value of the general-purpose register with specified
+     * {@code index} without boxing it.
+     * 
+     * @param index
+     *            register index (starting from 0)
+     * @return the integer value of the register
+     * @throws IndexOutOfBoundsException
+     *             if {@code index} is less than 0 (exclusive) or greater than
+     *             number of registers (inclusive)
+     * @throws ClassCastException
+     *             if register doesn't hold an integer
+     */
+    @Override
+    public int getInt(int index) {
+        checkLocationInBounds(index);
+
+        if (types[index] != INTEGER) {
+            throw new ClassCastException(
+                    String.format(
+                            "Register '%d' doesn't hold an integer.",
+                            index));
+        }
+
+        return integers[index];
+    }
+
+    /**
+     * Returns the integer value of the general-purpose register with specified
+     * {@code index}, or {@code 0} if register is empty. Empty register stays
+     * empty.
+     * 
+     * @param index
+     *            register index (starting from 0)
+     * @return the integer value of the register or {@code 0}
+     * @throws IndexOutOfBoundsException
+     *             if {@code index} is less than 0 (exclusive) or greater than
+     *             number of registers (inclusive)
+     * @throws ClassCastException
+     *             if register holds a value which isn't an integer
+     */
+    @Override
+    public int getIntOrZero(int index) {
+        checkLocationInBounds(index);
+
+        switch (types[index]) {
+            case INTEGER:
+                return integers[index];
+            case EMPTY:
+                return 0;
+            default:
+                throw new ClassCastException(
+                        String.format(
+                                "Register '%d' doesn't hold an integer.",
+                                index));
+        }
+    }
+
+    /**
+     * Sets the integer value of the general-purpose register with specified
+     * {@code index} without boxing it.
+     * 
+     * @param index
+     *            register index (starting from 0)
+     * @param value
+     *            new value of the register
+     * @throws IndexOutOfBoundsException
+     *             if {@code index} is less than 0 (exclusive) or greater than
+     *             number of registers (inclusive)
+     */
+    @Override
+    public void setInt(int index, int value) {
+        checkLocationInBounds(index);
+
+        types[index] = INTEGER;
+        integers[index] = value;
+        objects[index] = null;
     }
 
     /**
@@ -164,6 +316,16 @@ public class RegistersImpl implements Registers {
         flag = value;
     }
 
+    /**
+     * Returns the number of general-purpose registers.
+     * 
+     * @return the number of registers
+     */
+    @Override
+    public int getSize() {
+        return regsLen;
+    }
+
     /**
      * Checks if specified general-purpose register index exists.
      * 
@@ -173,7 +335,7 @@ public class RegistersImpl implements Registers {
      *             if general-purpose register index doesn't exists
      */
     private void checkLocationInBounds(int index) {
-        if (index < 0 && index >= this.regsLen)
+        if (index < 0 || index >= this.regsLen)
             throw new IndexOutOfBoundsException(
                     String.format(
                             "You tried to insert value at memory location '%d'. Valid"
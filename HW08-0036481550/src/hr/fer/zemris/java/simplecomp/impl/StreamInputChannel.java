@@ -0,0 +1,114 @@
+package hr.fer.zemris.java.simplecomp.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@code StreamInputChannel} is an {@link InputChannel} which reads bytes from
+ * a stream, a file or any other readable channel into a reusable buffer.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see InputChannel
+ */
+public class StreamInputChannel extends InputChannel {
+
+    /** Default capacity of the buffer */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /** Channel from which bytes are read */
+    private ReadableByteChannel channel;
+
+    /**
+     * Constructs a new {@code StreamInputChannel} object which reads from the
+     * stream and decodes lines with the default charset.
+     * 
+     * @param stream
+     *            the stream
+     */
+    public StreamInputChannel(InputStream stream) {
+        this(Channels.newChannel(stream), Charset.defaultCharset());
+    }
+
+    /**
+     * Constructs a new {@code StreamInputChannel} object which reads from the
+     * file and decodes lines with the default charset.
+     * 
+     * @param file
+     *            path to the file
+     * @throws IOException
+     *             if file can't be opened
+     */
+    public StreamInputChannel(Path file) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.READ),
+                Charset.defaultCharset());
+    }
+
+    /**
+     * Constructs a new {@code StreamInputChannel} object which reads from the
+     * channel.
+     * 
+     * @param channel
+     *            the channel
+     * @param charset
+     *            charset used to decode lines
+     */
+    public StreamInputChannel(ReadableByteChannel channel, Charset charset) {
+        super(emptyBuffer(), charset);
+
+        this.channel = channel;
+    }
+
+    /**
+     * Reads the next bytes from the channel. Channel is read at most once, so
+     * interactive input doesn't block after a line is available.
+     * 
+     * @return {@code true} if buffer holds new bytes; {@code false} at the end
+     *         of the input
+     * @throws IOException
+     *             if channel can't be read
+     */
+    @Override
+    protected boolean fill() throws IOException {
+        buffer.clear();
+
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+
+        buffer.flip();
+
+        return read > 0;
+    }
+
+    /**
+     * Closes the channel.
+     * 
+     * @throws IOException
+     *             if channel can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Returns a new empty buffer ready for reading.
+     * 
+     * @return the buffer
+     */
+    private static ByteBuffer emptyBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_CAPACITY);
+        buffer.flip();
+
+        return buffer;
+    }
+}
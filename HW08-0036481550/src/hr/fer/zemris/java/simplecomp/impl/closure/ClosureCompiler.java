@@ -0,0 +1,458 @@
+package hr.fer.zemris.java.simplecomp.impl.closure;
+
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractArithmeticInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractUnaryInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrAdd;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrCall;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrDecrement;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrHalt;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrIncrement;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJump;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJumpIfTrue;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrLoad;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMove;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMul;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPop;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPush;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrRet;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrTestEquals;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * {@code ClosureCompiler} translates a program written in the computer's memory
+ * into an array of {@link Node} objects, one node for every memory location.
+ * <p>
+ * Register descriptors are split into register indexes and offsets and every
+ * addressing mode gets its own node, so for example {@code move rX, rY} and
+ * {@code move rX, [rY+offset]} are executed by two different nodes. Jump and
+ * call targets are resolved into addresses of nodes.
+ * <p>
+ * Instructions unknown to this compiler, as well as {@code echo} and
+ * {@code input}, are executed by calling the original instruction.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Node
+ * @see ClosureExecutionUnit
+ */
+public class ClosureCompiler {
+
+    /** Index of the stack register */
+    private static final int STACK_INDEX = Registers.STACK_REGISTER_INDEX;
+
+    /** Computer whose program is compiled */
+    private Computer computer;
+
+    /** Registers of the computer */
+    private PrimitiveRegisters regs;
+
+    /** Memory of the computer */
+    private PrimitiveMemory mem;
+
+    /**
+     * Constructs a new {@code ClosureCompiler} for the specified computer.
+     * 
+     * @param computer
+     *            the computer whose program is compiled
+     * @throws IllegalArgumentException
+     *             if registers or memory of the computer don't support
+     *             primitive access
+     */
+    public ClosureCompiler(Computer computer) {
+        if (!(computer.getRegisters() instanceof PrimitiveRegisters)
+                || !(computer.getMemory() instanceof PrimitiveMemory)) {
+            throw new IllegalArgumentException(
+                    "Computer must have primitive registers and memory!");
+        }
+
+        this.computer = computer;
+        this.regs = (PrimitiveRegisters) computer.getRegisters();
+        this.mem = (PrimitiveMemory) computer.getMemory();
+    }
+
+    /**
+     * Compiles every memory location into a node.
+     * 
+     * @return array of nodes indexed by memory address
+     */
+    public Node[] compile() {
+        Node[] nodes = new Node[mem.getSize()];
+
+        for (int address = 0; address < nodes.length; address++) {
+            nodes[address] = compile(address);
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Compiles the memory location with specified address into a node.
+     * 
+     * @param address
+     *            the memory address
+     * @return the node executing the instruction at specified address
+     */
+    public Node compile(int address) {
+        Object value = mem.getLocation(address);
+
+        if (!(value instanceof Instruction)) {
+            return () -> {
+                throw new ClassCastException(
+                        String.format(
+                                "Memory location '%d' doesn't hold an"
+                                        + " instruction.",
+                                address));
+            };
+        }
+
+        return compile((Instruction) value, address);
+    }
+
+    /**
+     * Compiles the instruction into a node as if it was written at specified
+     * address.
+     * 
+     * @param instr
+     *            the instruction
+     * @param address
+     *            address of the instruction
+     * @return the node executing the instruction
+     */
+    public Node compile(Instruction instr, int address) {
+        int next = address + 1;
+
+        if (instr instanceof InstrHalt) {
+            return () -> Node.HALT;
+        } else if (instr instanceof InstrJump) {
+            int target = ((InstrJump) instr).getLocation();
+            return () -> target;
+        } else if (instr instanceof InstrJumpIfTrue) {
+            int target = ((InstrJumpIfTrue) instr).getLocation();
+            return () -> regs.getFlag() ? target : next;
+        } else if (instr instanceof InstrLoad) {
+            return compileLoad((InstrLoad) instr, next);
+        } else if (instr instanceof InstrMove) {
+            return compileMove((InstrMove) instr, next);
+        } else if (instr instanceof AbstractArithmeticInstr) {
+            return compileArithmetic((AbstractArithmeticInstr) instr, next);
+        } else if (instr instanceof AbstractUnaryInstr) {
+            return compileUnary((AbstractUnaryInstr) instr, next);
+        } else if (instr instanceof InstrTestEquals) {
+            return compileTestEquals((InstrTestEquals) instr, next);
+        } else if (instr instanceof InstrPush) {
+            return compilePush((InstrPush) instr, next);
+        } else if (instr instanceof InstrPop) {
+            return compilePop((InstrPop) instr, next);
+        } else if (instr instanceof InstrCall) {
+            int target = ((InstrCall) instr).getAddress();
+            return () -> {
+                int sp = regs.getInt(STACK_INDEX);
+                mem.setInt(sp, address);
+                regs.setInt(STACK_INDEX, sp - 1);
+                return target;
+            };
+        } else if (instr instanceof InstrRet) {
+            return () -> {
+                int sp = regs.getInt(STACK_INDEX) + 1;
+                regs.setInt(STACK_INDEX, sp);
+                return mem.getInt(sp) + 1;
+            };
+        }
+
+        return compileInstruction(instr, address);
+    }
+
+    /**
+     * Compiles a node which executes the original instruction.
+     * 
+     * @param instr
+     *            the instruction
+     * @param address
+     *            address of the instruction
+     * @return the node executing the instruction
+     */
+    private Node compileInstruction(Instruction instr, int address) {
+        return () -> {
+            regs.setProgramCounter(address);
+
+            if (instr.execute(computer)) {
+                return Node.HALT;
+            }
+
+            return regs.getProgramCounter() + 1;
+        };
+    }
+
+    /**
+     * Compiles the {@code load} instruction.
+     * 
+     * @param instr
+     *            the instruction
+     * @param next
+     *            address of the next instruction
+     * @return the node executing the instruction
+     */
+    private Node compileLoad(InstrLoad instr, int next) {
+        int index = instr.getRegisterIndex();
+        int location = instr.getLocation();
+
+        return () -> {
+            if (mem.isInteger(location)) {
+                regs.setInt(index, mem.getInt(location));
+            } else {
+                regs.setRegisterValue(index, mem.getLocation(location));
+            }
+            return next;
+        };
+    }
+
+    /**
+     * Compiles the {@code move} instruction. Every combination of destination
+     * and source addressing modes gets its own node.
+     * 
+     * @param instr
+     *            the instruction
+     * @param next
+     *            address of the next instruction
+     * @return the node executing the instruction
+     */
+    private Node compileMove(InstrMove instr, int next) {
+        int destDescriptor = (int) instr.getDestination().getValue();
+        InstructionArgument src = instr.getSource();
+
+        int dest = RegisterUtil.getRegisterIndex(destDescriptor);
+        int destOffset = RegisterUtil.getRegisterOffset(destDescriptor);
+        boolean destIndirect = RegisterUtil.isIndirect(destDescriptor);
+
+        if (src.isNumber()) {
+            int number = (int) src.getValue();
+
+            if (!destIndirect) {
+                return () -> {
+                    regs.setInt(dest, number);
+                    return next;
+                };
+            }
+            return () -> {
+                mem.setInt(readInt(dest) + destOffset, number);
+                return next;
+            };
+        } else if (!src.isRegister()) {
+            return () -> {
+                throw new IllegalArgumentException(
+                        "You can't move string literal to register!");
+            };
+        }
+
+        int srcDescriptor = (int) src.getValue();
+        int source = RegisterUtil.getRegisterIndex(srcDescriptor);
+        int srcOffset = RegisterUtil.getRegisterOffset(srcDescriptor);
+
+        if (!RegisterUtil.isIndirect(srcDescriptor)) {
+            if (!destIndirect) {
+                return () -> {
+                    regs.setInt(dest, readInt(source));
+                    return next;
+                };
+            }
+            return () -> {
+                int location = readInt(dest) + destOffset;
+                mem.setInt(location, readInt(source));
+                return next;
+            };
+        }
+
+        if (!destIndirect) {
+            return () -> {
+                regs.setInt(dest, readInt(source, srcOffset));
+                return next;
+            };
+        }
+        return () -> {
+            int location = readInt(dest) + destOffset;
+            mem.setInt(location, readInt(source, srcOffset));
+            return next;
+        };
+    }
+
+    /**
+     * Compiles arithmetic instructions. Addition and multiplication have their
+     * own nodes, all other operations are applied through the operation of the
+     * instruction.
+     * 
+     * @param instr
+     *            the instruction
+     * @param next
+     *            address of the next instruction
+     * @return the node executing the instruction
+     */
+    private Node compileArithmetic(AbstractArithmeticInstr instr, int next) {
+        int result = RegisterUtil.getRegisterIndex(instr.getResultDescriptor());
+        int first = RegisterUtil
+                .getRegisterIndex(instr.getFirstOperandDescriptor());
+        int second = RegisterUtil
+                .getRegisterIndex(instr.getSecondOperandDescriptor());
+
+        if (instr instanceof InstrAdd) {
+            return () -> {
+                regs.setInt(result, readInt(first) + readInt(second));
+                return next;
+            };
+        } else if (instr instanceof InstrMul) {
+            return () -> {
+                regs.setInt(result, readInt(first) * readInt(second));
+                return next;
+            };
+        }
+
+        IntBinaryOperator operation = instr.getOperation();
+        return () -> {
+            int val1 = readInt(first);
+            int val2 = readInt(second);
+            regs.setInt(result, operation.applyAsInt(val1, val2));
+            return next;
+        };
+    }
+
+    /**
+     * Compiles instructions with only one operand. Increment and decrement
+     * have their own nodes, all other operations are applied through the
+     * operation of the instruction.
+     * 
+     * @param instr
+     *            the instruction
+     * @param next
+     *            address of the next instruction
+     * @return the node executing the instruction
+     */
+    private Node compileUnary(AbstractUnaryInstr instr, int next) {
+        int index = RegisterUtil.getRegisterIndex(instr.getDescriptor());
+
+        if (instr instanceof InstrIncrement) {
+            return () -> {
+                regs.setInt(index, readInt(index) + 1);
+                return next;
+            };
+        } else if (instr instanceof InstrDecrement) {
+            return () -> {
+                regs.setInt(index, readInt(index) - 1);
+                return next;
+            };
+        }
+
+        IntUnaryOperator operation = instr.getOperation();
+        return () -> {
+            regs.setInt(index, operation.applyAsInt(readInt(index)));
+            return next;
+        };
+    }
+
+    /**
+     * Compiles the {@code testEquals} instruction.
+     * 
+     * @param instr
+     *            the instruction
+     * @param next
+     *            address of the next instruction
+     * @return the node executing the instruction
+     */
+    private Node compileTestEquals(InstrTestEquals instr, int next) {
+        int first = RegisterUtil.getRegisterIndex(instr.getFirstDescriptor());
+        int second = RegisterUtil.getRegisterIndex(instr.getSecondDescriptor());
+
+        return () -> {
+            if (regs.isInteger(first) && regs.isInteger(second)) {
+                regs.setFlag(regs.getInt(first) == regs.getInt(second));
+            } else {
+                Object value1 = RegisterUtil.getValue(computer, first);
+                Object value2 = RegisterUtil.getValue(computer, second);
+                regs.setFlag(value1.equals(value2));
+            }
+            return next;
+        };
+    }
+
+    /**
+     * Compiles the {@code push} instruction.
+     * 
+     * @param instr
+     *            the instruction
+     * @param next
+     *            address of the next instruction
+     * @return the node executing the instruction
+     */
+    private Node compilePush(InstrPush instr, int next) {
+        int index = RegisterUtil.getRegisterIndex(instr.getDescriptor());
+
+        return () -> {
+            int sp = regs.getInt(STACK_INDEX);
+            if (regs.isInteger(index)) {
+                mem.setInt(sp, regs.getInt(index));
+            } else {
+                mem.setLocation(sp, RegisterUtil.getValue(computer, index));
+            }
+            regs.setInt(STACK_INDEX, sp - 1);
+            return next;
+        };
+    }
+
+    /**
+     * Compiles the {@code pop} instruction.
+     * 
+     * @param instr
+     *            the instruction
+     * @param next
+     *            address of the next instruction
+     * @return the node executing the instruction
+     */
+    private Node compilePop(InstrPop instr, int next) {
+        int index = RegisterUtil.getRegisterIndex(instr.getDescriptor());
+
+        return () -> {
+            int sp = regs.getInt(STACK_INDEX) + 1;
+            regs.setInt(STACK_INDEX, sp);
+            if (mem.isInteger(sp)) {
+                regs.setInt(index, mem.getInt(sp));
+            } else {
+                regs.setRegisterValue(index, mem.getLocation(sp));
+            }
+            return next;
+        };
+    }
+
+    /**
+     * Returns the integer value of the register with specified index.
+     * 
+     * @param index
+     *            register index
+     * @return the integer value of the register
+     */
+    private int readInt(int index) {
+        return regs.getIntOrZero(index);
+    }
+
+    /**
+     * Returns the integer value from the memory location addressed by the
+     * register with specified index and offset.
+     * 
+     * @param index
+     *            register index
+     * @param offset
+     *            register offset
+     * @return the integer value from the memory location
+     */
+    private int readInt(int index, int offset) {
+        int location = readInt(index) + offset;
+
+        return mem.getIntOrZero(location);
+    }
+}
@@ -0,0 +1,80 @@
+package hr.fer.zemris.java.simplecomp.impl.closure;
+
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
+import hr.fer.zemris.java.simplecomp.impl.instructions.OutputStreamUtil;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+
+/**
+ * {@code ClosureExecutionUnit} is a execution unit of a computer which
+ * pre-decodes the whole program before running it.
+ * <p>
+ * Every instruction in the memory is translated by {@link ClosureCompiler}
+ * into a specialized {@link Node} exactly once so register descriptors,
+ * addressing modes and jump targets aren't decoded again while the program is
+ * running. Program is expected not to modify its own instructions.
+ * <p>
+ * Pre-decoding requires registers and memory which implement
+ * {@link PrimitiveRegisters} and {@link PrimitiveMemory}. Other computers are
+ * run by the {@link ExecutionUnitImpl}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExecutionUnit
+ * @see ClosureCompiler
+ */
+public class ClosureExecutionUnit implements ExecutionUnit {
+
+    /**
+     * Runs a program written in the computer's memory. Output of the computer
+     * is flushed when the program stops, even if it fails.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    @Override
+    public boolean go(Computer computer) {
+        try {
+            return run(computer);
+        } finally {
+            OutputStreamUtil.flush(computer);
+        }
+    }
+
+    /**
+     * Runs a program written in the computer's memory.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    private boolean run(Computer computer) {
+        if (!(computer.getRegisters() instanceof PrimitiveRegisters)
+                || !(computer.getMemory() instanceof PrimitiveMemory)) {
+            return new ExecutionUnitImpl().go(computer);
+        }
+
+        computer.getRegisters().setProgramCounter(0);
+
+        Node[] nodes = new ClosureCompiler(computer).compile();
+
+        int pc = 0;
+        while (true) {
+            int next = nodes[pc].execute();
+
+            if (next == Node.HALT) {
+                break;
+            }
+
+            pc = next;
+        }
+
+        computer.getRegisters().setProgramCounter(pc);
+
+        return true;
+    }
+
+}
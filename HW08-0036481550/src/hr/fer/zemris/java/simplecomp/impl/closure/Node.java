@@ -0,0 +1,25 @@
+package hr.fer.zemris.java.simplecomp.impl.closure;
+
+/**
+ * {@code Node} is a pre-decoded instruction of a program. Every node already
+ * knows its operands, addressing modes and jump targets so executing it
+ * doesn't require any decoding.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ClosureCompiler
+ */
+@FunctionalInterface
+public interface Node {
+
+    /** Address returned by nodes which halt the processor */
+    public static final int HALT = -1;
+
+    /**
+     * Executes this node.
+     * 
+     * @return the address of the next node that needs to be executed or
+     *         {@link #HALT} if processor needs to be halted
+     */
+    public int execute();
+}
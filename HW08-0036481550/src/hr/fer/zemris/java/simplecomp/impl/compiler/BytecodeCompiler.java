@@ -0,0 +1,1170 @@
+package hr.fer.zemris.java.simplecomp.impl.compiler;
+
+import static hr.fer.zemris.java.simplecomp.impl.compiler.CodeBuilder.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractArithmeticInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractUnaryInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrAdd;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrCall;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrDecrement;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrHalt;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrIncrement;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJump;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJumpIfTrue;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrLoad;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMove;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMul;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPop;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPush;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrRet;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrTestEquals;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * {@code BytecodeCompiler} translates a program written in the computer's
+ * memory into JVM bytecode.
+ * <p>
+ * Memory is split into regions of {@link #REGION_SIZE} addresses and every
+ * region is compiled into one class implementing {@link CompiledCode}. Regions
+ * are kept small so generated methods stay below the size limit above which
+ * the JIT compiler refuses to compile a method.
+ * <p>
+ * The generated method starts with a {@code tableswitch} over the program
+ * counter which jumps to the code of the instruction at that address. Code of
+ * every instruction falls through to the code of the next instruction, jumps
+ * and calls inside the region are translated into JVM branches and jumps
+ * leaving the region return the target address. Memory is accessed through
+ * {@link CompiledRuntime} so compiled code has exactly the same effects on the
+ * computer as interpreted code.
+ * <p>
+ * Registers which the region uses as integers are kept in local variables of
+ * the generated method. They are loaded when the region is entered and stored
+ * back to the computer before the region is left, before an instruction is
+ * executed by calling it and before {@code push} and {@code testEquals} read
+ * them, so the computer sees the same registers as in interpreted code. While
+ * one of them holds a value other than an integer, instructions of the region
+ * are executed one by one by calling them.
+ * <p>
+ * Instructions unknown to this compiler, as well as {@code echo},
+ * {@code input} and arithmetic other than addition and multiplication, are
+ * executed by calling the original instruction.
+ * <p>
+ * A trace, a path through a loop recorded by the interpreter, is compiled into
+ * one straight-line method which repeats the path until a {@code jumpIfTrue}
+ * goes the other way.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see CompiledCode
+ * @see CompiledExecutionUnit
+ */
+public class BytecodeCompiler {
+
+    /** Number of memory addresses compiled into one class */
+    public static final int REGION_SIZE = 128;
+
+    /** Internal name of the {@link CompiledRuntime} class */
+    private static final String RUNTIME =
+            "hr/fer/zemris/java/simplecomp/impl/compiler/CompiledRuntime";
+
+    /** Internal name of the {@link CompiledCode} interface */
+    private static final String CODE =
+            "hr/fer/zemris/java/simplecomp/impl/compiler/CompiledCode";
+
+    /** Prefix of names of generated classes */
+    private static final String PREFIX =
+            "hr/fer/zemris/java/simplecomp/impl/compiler/Generated";
+
+    /** Local variable holding the runtime */
+    private static final int RT = 1;
+
+    /** Local variable holding the program counter */
+    private static final int PC = 2;
+
+    /** Local variable holding the mask of registers holding an integer */
+    private static final int INTS = 3;
+
+    /** Local variable holding the register with index {@code 0} */
+    private static final int FIRST_REGISTER = 4;
+
+    /** Maximum depth of the operand stack of generated code */
+    private static final int MAX_STACK = 8;
+
+    /** Counter used for names of generated classes */
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    /** Memory of the computer */
+    private PrimitiveMemory mem;
+
+    /**
+     * Constructs a new {@code BytecodeCompiler} for the specified computer.
+     * 
+     * @param computer
+     *            the computer whose program is compiled
+     * @throws IllegalArgumentException
+     *             if registers or memory of the computer don't support
+     *             primitive access
+     */
+    public BytecodeCompiler(Computer computer) {
+        if (!(computer.getRegisters() instanceof PrimitiveRegisters)
+                || !(computer.getMemory() instanceof PrimitiveMemory)) {
+            throw new IllegalArgumentException(
+                    "Computer must have primitive registers and memory!");
+        }
+
+        this.mem = (PrimitiveMemory) computer.getMemory();
+    }
+
+    /**
+     * Constructs a new {@code BytecodeCompiler} which reads instructions from
+     * the specified memory.
+     * 
+     * @param mem
+     *            memory holding the program
+     */
+    BytecodeCompiler(PrimitiveMemory mem) {
+        this.mem = mem;
+    }
+
+    /**
+     * Compiles every region of the memory which holds at least one
+     * instruction.
+     * 
+     * @return array of compiled regions indexed by memory address; addresses
+     *         of regions without instructions hold {@code null}
+     */
+    public CompiledCode[] compile() {
+        int size = mem.getSize();
+        CompiledCode[] code = new CompiledCode[size];
+
+        for (int start = 0; start < size; start += REGION_SIZE) {
+            int end = Math.min(size, start + REGION_SIZE);
+            if (!hasInstructions(start, end)) {
+                continue;
+            }
+
+            CompiledCode region = compile(start, end);
+            for (int address = start; address < end; address++) {
+                code[address] = region;
+            }
+        }
+
+        return code;
+    }
+
+    /**
+     * Compiles instructions with addresses from {@code start} (inclusive) to
+     * {@code end} (exclusive) into one class.
+     * 
+     * @param start
+     *            address of the first instruction
+     * @param end
+     *            address after the last instruction
+     * @return the compiled region
+     * @throws IllegalArgumentException
+     *             if the range is empty or not inside the memory
+     */
+    public CompiledCode compile(int start, int end) {
+        if (start < 0 || end > mem.getSize() || start >= end) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid region [%d, %d)!", start, end));
+        }
+
+        String name = PREFIX + COUNTER.incrementAndGet();
+        ClassBuilder cls = newClass(name);
+
+        CodeBuilder code = new CodeBuilder(cls);
+        Region region = new Region(code, start, end);
+        region.emitEntry();
+        for (int address = start; address < end; address++) {
+            region.emitAddress(address);
+        }
+        region.emitExits();
+
+        return define(name, cls, code);
+    }
+
+    /**
+     * Compiles the trace into one class. Method of the class executes the
+     * trace repeatedly, starting with its first instruction, and returns the
+     * address of the next instruction when a {@code jumpIfTrue} goes the
+     * other way than it went while the trace was recorded, or when an
+     * instruction executed by calling it continues elsewhere. Unconditional
+     * jumps are left out.
+     * 
+     * @param addresses
+     *            addresses of instructions of the trace
+     * @param instructions
+     *            instructions of the trace
+     * @param successors
+     *            addresses which followed the instructions while the trace
+     *            was recorded
+     * @return the compiled trace, which is run with the address of its first
+     *         instruction
+     * @throws IllegalArgumentException
+     *             if the trace is empty, its arrays have different lengths or
+     *             an instruction which needs to be called is not in the
+     *             memory at its address
+     */
+    public CompiledCode compileTrace(
+            int[] addresses,
+            Instruction[] instructions,
+            int[] successors) {
+        if (addresses.length == 0
+                || addresses.length != instructions.length
+                || addresses.length != successors.length) {
+            throw new IllegalArgumentException("Invalid trace!");
+        }
+
+        String name = PREFIX + COUNTER.incrementAndGet();
+        ClassBuilder cls = newClass(name);
+
+        CodeBuilder code = new CodeBuilder(cls);
+        new Trace(code, addresses, instructions, successors).emit();
+
+        return define(name, cls, code);
+    }
+
+    /**
+     * Creates the builder of a generated class with the default constructor.
+     * 
+     * @param name
+     *            internal name of the class
+     * @return the builder of the class
+     */
+    private static ClassBuilder newClass(String name) {
+        ClassBuilder cls = new ClassBuilder(name, "java/lang/Object", CODE);
+
+        CodeBuilder init = new CodeBuilder(cls);
+        init.aload(0);
+        init.invoke(INVOKESPECIAL, "java/lang/Object", "<init>", "()V");
+        init.op(RETURN);
+        cls.addMethod("<init>", "()V", 1, 1, init);
+
+        return cls;
+    }
+
+    /**
+     * Adds the {@code run} method to the generated class, defines the class
+     * and creates its instance.
+     * 
+     * @param name
+     *            internal name of the class
+     * @param cls
+     *            the builder of the class
+     * @param code
+     *            code of the {@code run} method
+     * @return the instance of generated class
+     */
+    private static CompiledCode define(
+            String name,
+            ClassBuilder cls,
+            CodeBuilder code) {
+        cls.addMethod(
+                "run",
+                "(L" + RUNTIME + ";I)I",
+                MAX_STACK,
+                FIRST_REGISTER + Integer.SIZE,
+                code);
+
+        return instantiate(name.replace('/', '.'), cls.toByteArray());
+    }
+
+    /**
+     * Checks if any memory location in specified range holds an instruction.
+     * 
+     * @param start
+     *            first address (inclusive)
+     * @param end
+     *            last address (exclusive)
+     * @return {@code true} if range holds an instruction; {@code false}
+     *         otherwise
+     */
+    private boolean hasInstructions(int start, int end) {
+        for (int address = start; address < end; address++) {
+            if (mem.getLocation(address) instanceof Instruction) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the mask of registers which the instruction reads or writes as
+     * integers. The stack register and registers whose index doesn't fit
+     * into the mask are left out.
+     * 
+     * @param value
+     *            content of the memory location
+     * @return mask of registers used as integers
+     */
+    private static int integerRegisters(Object value) {
+        int[] descriptors;
+
+        if (value instanceof InstrMove) {
+            InstrMove move = (InstrMove) value;
+            InstructionArgument src = move.getSource();
+            if (!src.isNumber() && !src.isRegister()) {
+                return 0;
+            }
+
+            int dest = (int) move.getDestination().getValue();
+            descriptors = src.isRegister()
+                    ? new int[] { dest, (int) src.getValue() }
+                    : new int[] { dest };
+        } else if (value instanceof InstrAdd || value instanceof InstrMul) {
+            AbstractArithmeticInstr arithmetic =
+                    (AbstractArithmeticInstr) value;
+            descriptors = new int[] {
+                    arithmetic.getResultDescriptor(),
+                    arithmetic.getFirstOperandDescriptor(),
+                    arithmetic.getSecondOperandDescriptor() };
+        } else if (value instanceof InstrIncrement
+                || value instanceof InstrDecrement) {
+            descriptors = new int[] {
+                    ((AbstractUnaryInstr) value).getDescriptor() };
+        } else if (value instanceof InstrTestEquals) {
+            InstrTestEquals test = (InstrTestEquals) value;
+            descriptors = new int[] {
+                    test.getFirstDescriptor(),
+                    test.getSecondDescriptor() };
+        } else {
+            return 0;
+        }
+
+        int mask = 0;
+        for (int descriptor : descriptors) {
+            int index = RegisterUtil.getRegisterIndex(descriptor);
+            if (index != Registers.STACK_REGISTER_INDEX
+                    && index < Integer.SIZE) {
+                mask |= 1 << index;
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * Returns the register indexes from the mask in ascending order.
+     * 
+     * @param mask
+     *            mask of register indexes
+     * @return the register indexes
+     */
+    private static int[] indexes(int mask) {
+        int[] indexes = new int[Integer.bitCount(mask)];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+
+        return indexes;
+    }
+
+    /**
+     * Defines the generated class and creates its instance.
+     * 
+     * @param name
+     *            binary name of the class
+     * @param bytes
+     *            bytes of the class file
+     * @return the instance of generated class
+     */
+    private static CompiledCode instantiate(String name, byte[] bytes) {
+        try {
+            Class<?> cls = new CodeLoader().define(name, bytes);
+            return (CompiledCode) cls.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException(
+                    "Generated code can't be loaded: " + e.getMessage(),
+                    e);
+        }
+    }
+
+    /**
+     * Returns the contents of memory locations in specified range.
+     * 
+     * @param start
+     *            first address (inclusive)
+     * @param end
+     *            last address (exclusive)
+     * @return contents of memory locations
+     */
+    private Object[] locations(int start, int end) {
+        Object[] locations = new Object[end - start];
+        for (int address = start; address < end; address++) {
+            locations[address - start] = mem.getLocation(address);
+        }
+
+        return locations;
+    }
+
+    /**
+     * {@code Emitter} emits the code of instructions which don't change the
+     * control flow and keeps registers used as integers in local variables.
+     * <p>
+     * Local variable {@link #INTS} holds the mask of cached registers whose
+     * local variable holds the integer value of the register. Other cached
+     * registers are empty and their local variables hold {@code 0}, so only
+     * registers from the mask are stored back to the computer.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private abstract class Emitter {
+
+        /** Code of the method */
+        final CodeBuilder code;
+
+        /** Mask of registers kept in local variables */
+        final int cached;
+
+        /** Label of the code which loads the cached registers */
+        final Label entry = new Label();
+
+        /** Label of the code which returns {@link #PC} */
+        final Label exit = new Label();
+
+        /**
+         * Constructs a new {@code Emitter}.
+         * 
+         * @param code
+         *            code of the method
+         * @param instructions
+         *            contents of memory locations whose code is emitted
+         */
+        Emitter(CodeBuilder code, Object[] instructions) {
+            int cached = 0;
+            for (Object instr : instructions) {
+                cached |= integerRegisters(instr);
+            }
+
+            this.code = code;
+            this.cached = cached;
+        }
+
+        /**
+         * Emits the code which initializes local variables of cached
+         * registers and places the {@link #entry} label after it.
+         */
+        void emitLocals() {
+            code.iconst(0);
+            code.istore(INTS);
+            for (int index : indexes(cached)) {
+                code.iconst(0);
+                code.istore(FIRST_REGISTER + index);
+            }
+
+            code.mark(entry);
+        }
+
+        /**
+         * Emits the code which loads the cached registers.
+         * 
+         * @param uncached
+         *            label to which the code jumps if a cached register holds
+         *            a value other than an integer
+         */
+        void emitLoad(Label uncached) {
+            if (cached == 0) {
+                return;
+            }
+
+            code.aload(RT);
+            code.iconst(cached);
+            invoke("uncached", "(I)I");
+            code.branch(IFNE, uncached);
+
+            for (int index : indexes(cached)) {
+                code.aload(RT);
+                code.iconst(index);
+                invoke("readInt", "(I)I");
+                code.istore(FIRST_REGISTER + index);
+            }
+            code.aload(RT);
+            code.iconst(cached);
+            invoke("integers", "(I)I");
+            code.istore(INTS);
+        }
+
+        /**
+         * Emits the code which returns {@link #PC} and the handler which
+         * stores the cached registers before an exception leaves the method.
+         */
+        void emitExit() {
+            code.mark(exit);
+            storeRegisters();
+            code.iload(PC);
+            code.op(IRETURN);
+
+            Label handler = new Label();
+            code.mark(handler);
+            storeRegisters();
+            code.op(ATHROW);
+            code.handler(entry, handler, handler);
+        }
+
+        /**
+         * Emits the code of an instruction which doesn't change the control
+         * flow.
+         * 
+         * @param instr
+         *            the instruction
+         * @param address
+         *            address of the instruction
+         * @return {@code true} if code was emitted; {@code false} if
+         *         instruction needs to be executed by calling it
+         */
+        boolean emitData(Instruction instr, int address) {
+            if (instr instanceof InstrLoad) {
+                InstrLoad load = (InstrLoad) instr;
+                int index = load.getRegisterIndex();
+                forget(index);
+                code.aload(RT);
+                code.iconst(index);
+                code.iconst(load.getLocation());
+                invoke("load", "(II)V");
+                reload(index, address);
+            } else if (instr instanceof InstrMove) {
+                return emitMove((InstrMove) instr);
+            } else if (instr instanceof InstrAdd || instr instanceof InstrMul) {
+                emitArithmetic((AbstractArithmeticInstr) instr);
+            } else if (instr instanceof InstrIncrement
+                    || instr instanceof InstrDecrement) {
+                int index = register(
+                        ((AbstractUnaryInstr) instr).getDescriptor());
+                beginWrite(index);
+                readInt(index);
+                code.iconst(1);
+                code.op(instr instanceof InstrIncrement ? IADD : ISUB);
+                endWrite(index);
+            } else if (instr instanceof InstrTestEquals) {
+                InstrTestEquals test = (InstrTestEquals) instr;
+                emitTestEquals(
+                        register(test.getFirstDescriptor()),
+                        register(test.getSecondDescriptor()));
+            } else if (instr instanceof InstrPush) {
+                int index = register(((InstrPush) instr).getDescriptor());
+                storeRegister(index);
+                code.aload(RT);
+                code.iconst(index);
+                invoke("push", "(I)V");
+            } else if (instr instanceof InstrPop) {
+                int index = register(((InstrPop) instr).getDescriptor());
+                forget(index);
+                code.aload(RT);
+                code.iconst(index);
+                invoke("pop", "(I)V");
+                reload(index, address);
+            } else {
+                return false;
+            }
+
+            return true;
+        }
+
+        /**
+         * Emits the code which stores the cached registers and calls the
+         * instruction at {@link #PC}. Address of the next instruction is left
+         * in {@link #PC}.
+         */
+        void emitCall() {
+            storeRegisters();
+            code.iconst(0);
+            code.istore(INTS);
+            code.aload(RT);
+            code.iload(PC);
+            invoke("execute", "(I)I");
+            code.istore(PC);
+        }
+
+        /**
+         * Emits the {@code move} instruction.
+         * 
+         * @param instr
+         *            the instruction
+         * @return {@code true} if code was emitted; {@code false} if source
+         *         operand is neither a number nor a register
+         */
+        boolean emitMove(InstrMove instr) {
+            InstructionArgument src = instr.getSource();
+            if (!src.isNumber() && !src.isRegister()) {
+                return false;
+            }
+
+            int destDescriptor = (int) instr.getDestination().getValue();
+            int dest = register(destDescriptor);
+            boolean destIndirect = RegisterUtil.isIndirect(destDescriptor);
+
+            if (destIndirect) {
+                code.aload(RT);
+                emitLocation(destDescriptor);
+            } else {
+                beginWrite(dest);
+            }
+
+            if (src.isNumber()) {
+                code.iconst((int) src.getValue());
+            } else {
+                int srcDescriptor = (int) src.getValue();
+                if (RegisterUtil.isIndirect(srcDescriptor)) {
+                    code.aload(RT);
+                    emitLocation(srcDescriptor);
+                    invoke("readMemory", "(I)I");
+                } else {
+                    readInt(register(srcDescriptor));
+                }
+            }
+
+            if (destIndirect) {
+                invoke("storeInt", "(II)V");
+            } else {
+                endWrite(dest);
+            }
+
+            return true;
+        }
+
+        /**
+         * Emits the addition or multiplication.
+         * 
+         * @param instr
+         *            the instruction
+         */
+        void emitArithmetic(AbstractArithmeticInstr instr) {
+            int result = register(instr.getResultDescriptor());
+            beginWrite(result);
+            readInt(register(instr.getFirstOperandDescriptor()));
+            readInt(register(instr.getSecondOperandDescriptor()));
+            code.op(instr instanceof InstrAdd ? IADD : IMUL);
+            endWrite(result);
+        }
+
+        /**
+         * Emits the {@code testEquals} instruction. Two cached registers
+         * holding integers are compared without storing them; otherwise they
+         * are stored and compared by the runtime.
+         * 
+         * @param first
+         *            index of the first register
+         * @param second
+         *            index of the second register
+         */
+        void emitTestEquals(int first, int second) {
+            Label done = new Label();
+
+            if (isCached(first) && isCached(second)) {
+                int mask = (1 << first) | (1 << second);
+                Label slow = new Label();
+                code.iload(INTS);
+                code.iconst(mask);
+                code.op(IAND);
+                code.iconst(mask);
+                code.branch(IF_ICMPNE, slow);
+                code.aload(RT);
+                code.iload(FIRST_REGISTER + first);
+                code.iload(FIRST_REGISTER + second);
+                invoke("testInts", "(II)V");
+                code.jump(done);
+                code.mark(slow);
+            }
+
+            storeRegister(first);
+            storeRegister(second);
+            code.aload(RT);
+            code.iconst(first);
+            code.iconst(second);
+            invoke("testEquals", "(II)V");
+            code.mark(done);
+        }
+
+        /**
+         * Emits the code which pushes the memory address addressed by the
+         * register and offset on the operand stack.
+         * 
+         * @param descriptor
+         *            descriptor of the indirect register
+         */
+        void emitLocation(int descriptor) {
+            readInt(register(descriptor));
+            code.iconst(RegisterUtil.getRegisterOffset(descriptor));
+            code.op(IADD);
+        }
+
+        /**
+         * Emits the code which pushes the integer value of the register on the
+         * operand stack.
+         * 
+         * @param index
+         *            register index
+         */
+        void readInt(int index) {
+            if (isCached(index)) {
+                code.iload(FIRST_REGISTER + index);
+            } else {
+                code.aload(RT);
+                code.iconst(index);
+                invoke("readInt", "(I)I");
+            }
+        }
+
+        /**
+         * Emits the code which precedes the new integer value of the register
+         * when the register is not cached.
+         * 
+         * @param index
+         *            register index
+         */
+        void beginWrite(int index) {
+            if (!isCached(index)) {
+                code.aload(RT);
+                code.iconst(index);
+            }
+        }
+
+        /**
+         * Emits the code which sets the register to the integer value from
+         * the operand stack.
+         * 
+         * @param index
+         *            register index
+         */
+        void endWrite(int index) {
+            if (isCached(index)) {
+                code.istore(FIRST_REGISTER + index);
+                code.iload(INTS);
+                code.iconst(1 << index);
+                code.op(IOR);
+                code.istore(INTS);
+            } else {
+                invoke("setInt", "(II)V");
+            }
+        }
+
+        /**
+         * Emits the code which removes the cached register from the mask of
+         * registers holding an integer before the runtime changes it.
+         * 
+         * @param index
+         *            register index
+         */
+        void forget(int index) {
+            if (isCached(index)) {
+                code.iload(INTS);
+                code.iconst(~(1 << index));
+                code.op(IAND);
+                code.istore(INTS);
+            }
+        }
+
+        /**
+         * Emits the code which loads the cached register after the runtime
+         * changed it. If register can't be cached any more, the region is left
+         * at the next address.
+         * 
+         * @param index
+         *            register index
+         * @param address
+         *            address of the instruction which changed the register
+         */
+        void reload(int index, int address) {
+            if (!isCached(index)) {
+                return;
+            }
+
+            Label keep = new Label();
+            code.aload(RT);
+            code.iconst(1 << index);
+            invoke("uncached", "(I)I");
+            code.branch(IFEQ, keep);
+            code.iconst(address + 1);
+            code.istore(PC);
+            code.jump(exit);
+
+            code.mark(keep);
+            code.aload(RT);
+            code.iconst(index);
+            invoke("readInt", "(I)I");
+            code.istore(FIRST_REGISTER + index);
+            code.iload(INTS);
+            code.aload(RT);
+            code.iconst(1 << index);
+            invoke("integers", "(I)I");
+            code.op(IOR);
+            code.istore(INTS);
+        }
+
+        /**
+         * Emits the code which stores all cached registers holding an integer
+         * to the computer.
+         */
+        void storeRegisters() {
+            for (int index : indexes(cached)) {
+                storeRegister(index);
+            }
+        }
+
+        /**
+         * Emits the code which stores the register to the computer if it is
+         * cached and holds an integer.
+         * 
+         * @param index
+         *            register index
+         */
+        void storeRegister(int index) {
+            if (!isCached(index)) {
+                return;
+            }
+
+            Label skip = new Label();
+            code.iload(INTS);
+            code.iconst(1 << index);
+            code.op(IAND);
+            code.branch(IFEQ, skip);
+            code.aload(RT);
+            code.iconst(index);
+            code.iload(FIRST_REGISTER + index);
+            invoke("setInt", "(II)V");
+            code.mark(skip);
+        }
+
+        /**
+         * Checks if the register is kept in a local variable.
+         * 
+         * @param index
+         *            register index
+         * @return {@code true} if register is cached; {@code false} otherwise
+         */
+        boolean isCached(int index) {
+            return index < Integer.SIZE && (cached & (1 << index)) != 0;
+        }
+
+        /**
+         * Returns the register index from the register descriptor.
+         * 
+         * @param descriptor
+         *            the register descriptor
+         * @return the register index
+         */
+        int register(int descriptor) {
+            return RegisterUtil.getRegisterIndex(descriptor);
+        }
+
+        /**
+         * Emits the invocation of the runtime method.
+         * 
+         * @param method
+         *            name of the method
+         * @param descriptor
+         *            descriptor of the method
+         */
+        void invoke(String method, String descriptor) {
+            code.invoke(INVOKEVIRTUAL, RUNTIME, method, descriptor);
+        }
+    }
+
+    /**
+     * {@code Region} emits the code of instructions of one region.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private class Region extends Emitter {
+
+        /** Address of the first instruction */
+        private int start;
+
+        /** Address after the last instruction */
+        private int end;
+
+        /** Labels of instructions and the label after the last one */
+        private Label[] labels;
+
+        /** Label of the dispatching {@code tableswitch} */
+        private Label dispatch = new Label();
+
+        /** Label of the code which calls the instruction at {@link #PC} */
+        private Label execute = new Label();
+
+        /**
+         * Label of the code which calls the instruction at {@link #PC} if it
+         * is in the region, or leaves the region otherwise
+         */
+        private Label step = new Label();
+
+        /**
+         * Constructs a new {@code Region}.
+         * 
+         * @param code
+         *            code of the region
+         * @param start
+         *            address of the first instruction
+         * @param end
+         *            address after the last instruction
+         */
+        Region(CodeBuilder code, int start, int end) {
+            super(code, locations(start, end));
+            this.start = start;
+            this.end = end;
+            this.labels = new Label[end - start + 1];
+
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = new Label();
+            }
+        }
+
+        /**
+         * Emits the code which loads the cached registers and the dispatching
+         * {@code tableswitch}. If a cached register can't be loaded, the
+         * instruction at the address is executed by calling it.
+         */
+        void emitEntry() {
+            emitLocals();
+            emitLoad(step);
+
+            code.mark(dispatch);
+            code.iload(PC);
+            code.tableswitch(
+                    start,
+                    Arrays.copyOf(labels, end - start),
+                    exit);
+        }
+
+        /**
+         * Emits the code of the memory location with specified address.
+         * 
+         * @param address
+         *            the memory address
+         */
+        void emitAddress(int address) {
+            code.mark(labels[address - start]);
+            emit(address);
+        }
+
+        /**
+         * Emits the code which leaves the region after the last instruction,
+         * the code which calls an instruction and the code which returns the
+         * next address.
+         */
+        void emitExits() {
+            code.mark(labels[end - start]);
+            emitJump(end);
+
+            if (cached != 0) {
+                code.mark(step);
+                code.iload(PC);
+                code.iconst(start);
+                code.branch(IF_ICMPLT, exit);
+                code.iload(PC);
+                code.iconst(end);
+                code.branch(IF_ICMPGE, exit);
+            }
+
+            code.mark(execute);
+            emitCall();
+            code.jump(entry);
+
+            emitExit();
+        }
+
+        /**
+         * Emits the code of the memory location with specified address.
+         * 
+         * @param address
+         *            the memory address
+         */
+        private void emit(int address) {
+            Object value = mem.getLocation(address);
+            if (!(value instanceof Instruction)) {
+                emitInstruction(address);
+                return;
+            }
+
+            Instruction instr = (Instruction) value;
+
+            if (instr instanceof InstrHalt) {
+                code.aload(RT);
+                code.iconst(address);
+                invoke("halt", "(I)I");
+                code.istore(PC);
+                code.jump(exit);
+            } else if (instr instanceof InstrJump) {
+                emitJump(((InstrJump) instr).getLocation());
+            } else if (instr instanceof InstrJumpIfTrue) {
+                code.aload(RT);
+                invoke("getFlag", "()Z");
+                code.branch(IFEQ, labels[address + 1 - start]);
+                emitJump(((InstrJumpIfTrue) instr).getLocation());
+            } else if (instr instanceof InstrCall) {
+                code.aload(RT);
+                code.iconst(address);
+                invoke("call", "(I)V");
+                emitJump(((InstrCall) instr).getAddress());
+            } else if (instr instanceof InstrRet) {
+                code.aload(RT);
+                invoke("ret", "()I");
+                code.istore(PC);
+                code.jump(dispatch);
+            } else if (!emitData(instr, address)) {
+                emitInstruction(address);
+            }
+        }
+
+        /**
+         * Emits the code which executes the original instruction. Cached
+         * registers are stored before and loaded again after the call, which
+         * continues at the dispatching {@code tableswitch}.
+         * 
+         * @param address
+         *            address of the instruction
+         */
+        private void emitInstruction(int address) {
+            code.iconst(address);
+            code.istore(PC);
+            code.jump(execute);
+        }
+
+        /**
+         * Emits the jump to specified address.
+         * 
+         * @param target
+         *            address of the jump target
+         */
+        private void emitJump(int target) {
+            if (target >= start && target < end) {
+                code.jump(labels[target - start]);
+            } else {
+                code.iconst(target);
+                code.istore(PC);
+                code.jump(exit);
+            }
+        }
+
+    }
+
+    /**
+     * {@code Trace} emits the code of a trace: instructions of one iteration
+     * of a loop in the order in which they were executed, repeated in an
+     * endless loop. Only {@code jumpIfTrue} and instructions executed by
+     * calling them are followed by a guard which leaves the trace when the
+     * program goes elsewhere than it went while the trace was recorded.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private class Trace extends Emitter {
+
+        /** Addresses of instructions */
+        private int[] addresses;
+
+        /** Instructions of the trace */
+        private Instruction[] instructions;
+
+        /** Addresses which followed the instructions */
+        private int[] successors;
+
+        /**
+         * Constructs a new {@code Trace}.
+         * 
+         * @param code
+         *            code of the trace
+         * @param addresses
+         *            addresses of instructions
+         * @param instructions
+         *            instructions of the trace
+         * @param successors
+         *            addresses which followed the instructions
+         */
+        Trace(
+                CodeBuilder code,
+                int[] addresses,
+                Instruction[] instructions,
+                int[] successors) {
+            super(code, instructions);
+            this.addresses = addresses;
+            this.instructions = instructions;
+            this.successors = successors;
+        }
+
+        /**
+         * Emits the code of the trace. If a cached register can't be loaded
+         * when the trace is entered, only the first instruction is executed
+         * by calling it.
+         */
+        void emit() {
+            Label uncached = new Label();
+            Label loop = new Label();
+            List<Label> guards = new ArrayList<>();
+            List<Integer> targets = new ArrayList<>();
+
+            emitLocals();
+            emitLoad(uncached);
+
+            code.mark(loop);
+            for (int i = 0; i < instructions.length; i++) {
+                Instruction instr = instructions[i];
+                int address = addresses[i];
+
+                if (instr instanceof InstrJumpIfTrue) {
+                    int target = ((InstrJumpIfTrue) instr).getLocation();
+                    if (target == address + 1) {
+                        continue;
+                    }
+
+                    boolean taken = successors[i] == target;
+                    Label guard = new Label();
+                    code.aload(RT);
+                    invoke("getFlag", "()Z");
+                    code.branch(taken ? IFEQ : IFNE, guard);
+                    guards.add(guard);
+                    targets.add(taken ? address + 1 : target);
+                } else if (!(instr instanceof InstrJump)
+                        && !emitData(instr, address)) {
+                    if (mem.getLocation(address) != instr) {
+                        throw new IllegalArgumentException(
+                                "Instruction at address " + address
+                                        + " can't be called!");
+                    }
+
+                    code.iconst(address);
+                    code.istore(PC);
+                    emitCall();
+                    emitLoad(exit);
+                    code.iload(PC);
+                    code.iconst(successors[i]);
+                    code.branch(IF_ICMPNE, exit);
+                }
+            }
+            code.jump(loop);
+
+            for (int i = 0; i < guards.size(); i++) {
+                code.mark(guards.get(i));
+                code.iconst(targets.get(i));
+                code.istore(PC);
+                code.jump(exit);
+            }
+
+            emitExit();
+
+            if (cached != 0) {
+                code.mark(uncached);
+                code.aload(RT);
+                code.iload(PC);
+                invoke("execute", "(I)I");
+                code.op(IRETURN);
+            }
+        }
+    }
+}
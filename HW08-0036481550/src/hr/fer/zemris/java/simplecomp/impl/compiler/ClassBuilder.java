@@ -0,0 +1,301 @@
+package hr.fer.zemris.java.simplecomp.impl.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code ClassBuilder} is a minimal writer of JVM class files. It supports
+ * only what {@link BytecodeCompiler} needs: a constant pool, interfaces and
+ * public methods whose exception handlers catch every exception.
+ * <p>
+ * Classes are written as version 49 class files which are verified without
+ * stack map frames, so generated code doesn't need to describe them.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see CodeBuilder
+ */
+final class ClassBuilder {
+
+    /** Major version of the written class files (Java 5) */
+    private static final int MAJOR_VERSION = 49;
+
+    /** Access flags of public methods */
+    private static final int ACC_PUBLIC = 0x0001;
+
+    /** Access flags of the generated class (public, final, super) */
+    private static final int ACC_CLASS = 0x0001 | 0x0010 | 0x0020;
+
+    /** Entries of the constant pool */
+    private ByteArrayOutputStream pool = new ByteArrayOutputStream();
+
+    /** Writer of the constant pool */
+    private DataOutputStream poolOut = new DataOutputStream(pool);
+
+    /** Number of constant pool entries plus one */
+    private int poolCount = 1;
+
+    /** Indexes of already written constant pool entries */
+    private Map<String, Integer> poolIndexes = new HashMap<>();
+
+    /** Internal name of the class */
+    private String name;
+
+    /** Internal name of the super class */
+    private String superName;
+
+    /** Internal names of implemented interfaces */
+    private String[] interfaces;
+
+    /** Written methods */
+    private List<byte[]> methods = new ArrayList<>();
+
+    /**
+     * Constructs a new {@code ClassBuilder} for a class with specified name.
+     * 
+     * @param name
+     *            internal name of the class
+     * @param superName
+     *            internal name of the super class
+     * @param interfaces
+     *            internal names of implemented interfaces
+     */
+    ClassBuilder(String name, String superName, String... interfaces) {
+        this.name = name;
+        this.superName = superName;
+        this.interfaces = interfaces;
+    }
+
+    /**
+     * Returns the index of the UTF-8 constant.
+     * 
+     * @param value
+     *            the string
+     * @return the index of the constant
+     */
+    int utf8(String value) {
+        Integer index = poolIndexes.get("U" + value);
+        if (index != null) {
+            return index;
+        }
+
+        try {
+            poolOut.writeByte(1);
+            poolOut.writeUTF(value);
+        } catch (IOException impossible) {
+            throw new IllegalStateException(impossible);
+        }
+
+        return register("U" + value);
+    }
+
+    /**
+     * Returns the index of the class constant.
+     * 
+     * @param internalName
+     *            internal name of the class
+     * @return the index of the constant
+     */
+    int classRef(String internalName) {
+        Integer index = poolIndexes.get("C" + internalName);
+        if (index != null) {
+            return index;
+        }
+
+        int nameIndex = utf8(internalName);
+        write(7, nameIndex);
+
+        return register("C" + internalName);
+    }
+
+    /**
+     * Returns the index of the integer constant.
+     * 
+     * @param value
+     *            the integer
+     * @return the index of the constant
+     */
+    int integer(int value) {
+        Integer index = poolIndexes.get("I" + value);
+        if (index != null) {
+            return index;
+        }
+
+        try {
+            poolOut.writeByte(3);
+            poolOut.writeInt(value);
+        } catch (IOException impossible) {
+            throw new IllegalStateException(impossible);
+        }
+
+        return register("I" + value);
+    }
+
+    /**
+     * Returns the index of the method reference constant.
+     * 
+     * @param owner
+     *            internal name of the class declaring the method
+     * @param method
+     *            name of the method
+     * @param descriptor
+     *            descriptor of the method
+     * @return the index of the constant
+     */
+    int methodRef(String owner, String method, String descriptor) {
+        String key = "M" + owner + "." + method + descriptor;
+        Integer index = poolIndexes.get(key);
+        if (index != null) {
+            return index;
+        }
+
+        int classIndex = classRef(owner);
+        int nameIndex = utf8(method);
+        int descriptorIndex = utf8(descriptor);
+
+        write(12, nameIndex, descriptorIndex);
+        int nameAndType = register("N" + key);
+
+        write(10, classIndex, nameAndType);
+
+        return register(key);
+    }
+
+    /**
+     * Adds a public method to the class.
+     * 
+     * @param method
+     *            name of the method
+     * @param descriptor
+     *            descriptor of the method
+     * @param maxStack
+     *            maximum depth of the operand stack
+     * @param maxLocals
+     *            number of local variables including parameters
+     * @param builder
+     *            code of the method
+     */
+    void addMethod(
+            String method,
+            String descriptor,
+            int maxStack,
+            int maxLocals,
+            CodeBuilder builder) {
+        byte[] code = builder.toByteArray();
+        int[] handlers = builder.exceptionTable();
+        int nameIndex = utf8(method);
+        int descriptorIndex = utf8(descriptor);
+        int codeIndex = utf8("Code");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(ACC_PUBLIC);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+            out.writeShort(1); // attributes count
+
+            out.writeShort(codeIndex);
+            out.writeInt(12 + code.length + handlers.length / 3 * 8);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(handlers.length / 3);
+            for (int i = 0; i < handlers.length; i += 3) {
+                out.writeShort(handlers[i]);
+                out.writeShort(handlers[i + 1]);
+                out.writeShort(handlers[i + 2]);
+                out.writeShort(0); // catches every exception
+            }
+            out.writeShort(0); // attributes count
+        } catch (IOException impossible) {
+            throw new IllegalStateException(impossible);
+        }
+
+        methods.add(bytes.toByteArray());
+    }
+
+    /**
+     * Returns the bytes of the class file.
+     * 
+     * @return the bytes of the class file
+     */
+    byte[] toByteArray() {
+        int thisIndex = classRef(name);
+        int superIndex = classRef(superName);
+        int[] interfaceIndexes = new int[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceIndexes[i] = classRef(interfaces[i]);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(poolCount);
+            pool.writeTo(out);
+            out.writeShort(ACC_CLASS);
+            out.writeShort(thisIndex);
+            out.writeShort(superIndex);
+            out.writeShort(interfaceIndexes.length);
+            for (int index : interfaceIndexes) {
+                out.writeShort(index);
+            }
+            out.writeShort(0); // fields count
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            out.writeShort(0); // attributes count
+        } catch (IOException impossible) {
+            throw new IllegalStateException(impossible);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a constant pool entry consisting of a tag and 2 byte indexes.
+     * 
+     * @param tag
+     *            tag of the entry
+     * @param indexes
+     *            indexes written after the tag
+     */
+    private void write(int tag, int... indexes) {
+        try {
+            poolOut.writeByte(tag);
+            for (int index : indexes) {
+                poolOut.writeShort(index);
+            }
+        } catch (IOException impossible) {
+            throw new IllegalStateException(impossible);
+        }
+    }
+
+    /**
+     * Registers the last written constant pool entry.
+     * 
+     * @param key
+     *            key of the entry
+     * @return the index of the entry
+     */
+    private int register(String key) {
+        int index = poolCount++;
+
+        if (poolCount > 0xFFFF) {
+            throw new IllegalStateException("Constant pool is too large!");
+        }
+
+        poolIndexes.put(key, index);
+        return index;
+    }
+}
@@ -0,0 +1,387 @@
+package hr.fer.zemris.java.simplecomp.impl.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@code CodeBuilder} writes the bytecode of one method.
+ * <p>
+ * All branches are written with 4 byte offsets ({@code goto_w}) so methods can
+ * be as large as the class file format allows. Conditional branches are
+ * written as an inverted condition which skips over a {@code goto_w}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ClassBuilder
+ */
+final class CodeBuilder {
+
+    /** Opcode {@code iconst_0} */
+    static final int ICONST_0 = 0x03;
+
+    /** Opcode {@code bipush} */
+    static final int BIPUSH = 0x10;
+
+    /** Opcode {@code sipush} */
+    static final int SIPUSH = 0x11;
+
+    /** Opcode {@code ldc_w} */
+    static final int LDC_W = 0x13;
+
+    /** Opcode {@code iload} */
+    static final int ILOAD = 0x15;
+
+    /** Opcode {@code aload} */
+    static final int ALOAD = 0x19;
+
+    /** Opcode {@code istore} */
+    static final int ISTORE = 0x36;
+
+    /** Opcode {@code iand} */
+    static final int IAND = 0x7E;
+
+    /** Opcode {@code ior} */
+    static final int IOR = 0x80;
+
+    /** Opcode {@code iadd} */
+    static final int IADD = 0x60;
+
+    /** Opcode {@code isub} */
+    static final int ISUB = 0x64;
+
+    /** Opcode {@code imul} */
+    static final int IMUL = 0x68;
+
+    /** Opcode {@code ifeq} */
+    static final int IFEQ = 0x99;
+
+    /** Opcode {@code ifne} */
+    static final int IFNE = 0x9A;
+
+    /** Opcode {@code if_icmpeq} */
+    static final int IF_ICMPEQ = 0x9F;
+
+    /** Opcode {@code if_icmpne} */
+    static final int IF_ICMPNE = 0xA0;
+
+    /** Opcode {@code if_icmplt} */
+    static final int IF_ICMPLT = 0xA1;
+
+    /** Opcode {@code if_icmpge} */
+    static final int IF_ICMPGE = 0xA2;
+
+    /** Opcode {@code tableswitch} */
+    static final int TABLESWITCH = 0xAA;
+
+    /** Opcode {@code ireturn} */
+    static final int IRETURN = 0xAC;
+
+    /** Opcode {@code return} */
+    static final int RETURN = 0xB1;
+
+    /** Opcode {@code invokevirtual} */
+    static final int INVOKEVIRTUAL = 0xB6;
+
+    /** Opcode {@code invokespecial} */
+    static final int INVOKESPECIAL = 0xB7;
+
+    /** Opcode {@code athrow} */
+    static final int ATHROW = 0xBF;
+
+    /** Opcode {@code goto_w} */
+    static final int GOTO_W = 0xC8;
+
+    /** Class whose constant pool is used by this code */
+    private ClassBuilder owner;
+
+    /** Written bytecode */
+    private byte[] code = new byte[256];
+
+    /** Number of written bytes */
+    private int length;
+
+    /** Start, end and handler labels of exception handlers */
+    private List<Label[]> handlers = new ArrayList<>();
+
+    /**
+     * Constructs a new {@code CodeBuilder} which uses the constant pool of
+     * specified class.
+     * 
+     * @param owner
+     *            class whose constant pool is used
+     */
+    CodeBuilder(ClassBuilder owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Returns the number of written bytes.
+     * 
+     * @return the number of written bytes
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Returns the written bytecode.
+     * 
+     * @return the written bytecode
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(code, length);
+    }
+
+    /**
+     * Returns the exception table of the method. Every handler is described
+     * by three positions: start of the protected code (inclusive), end of the
+     * protected code (exclusive) and start of the handler.
+     * 
+     * @return positions of exception handlers
+     */
+    int[] exceptionTable() {
+        int[] table = new int[handlers.size() * 3];
+        for (int i = 0; i < handlers.size(); i++) {
+            Label[] handler = handlers.get(i);
+            for (int j = 0; j < 3; j++) {
+                table[i * 3 + j] = handler[j].position;
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Adds an exception handler which catches every exception thrown by the
+     * code between two labels. All labels need to be placed before the
+     * exception table is read.
+     * 
+     * @param start
+     *            start of the protected code (inclusive)
+     * @param end
+     *            end of the protected code (exclusive)
+     * @param handler
+     *            start of the handler
+     */
+    void handler(Label start, Label end, Label handler) {
+        handlers.add(new Label[] { start, end, handler });
+    }
+
+    /**
+     * Writes an instruction without operands.
+     * 
+     * @param opcode
+     *            the opcode
+     */
+    void op(int opcode) {
+        u1(opcode);
+    }
+
+    /**
+     * Writes an instruction which pushes the integer constant on the stack.
+     * 
+     * @param value
+     *            the integer constant
+     */
+    void iconst(int value) {
+        if (value >= -1 && value <= 5) {
+            u1(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            u1(BIPUSH);
+            u1(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            u1(SIPUSH);
+            u2(value);
+        } else {
+            u1(LDC_W);
+            u2(owner.integer(value));
+        }
+    }
+
+    /**
+     * Writes an instruction which loads the reference from local variable.
+     * 
+     * @param index
+     *            index of the local variable
+     */
+    void aload(int index) {
+        u1(ALOAD);
+        u1(index);
+    }
+
+    /**
+     * Writes an instruction which loads the integer from local variable.
+     * 
+     * @param index
+     *            index of the local variable
+     */
+    void iload(int index) {
+        u1(ILOAD);
+        u1(index);
+    }
+
+    /**
+     * Writes an instruction which stores the integer to local variable.
+     * 
+     * @param index
+     *            index of the local variable
+     */
+    void istore(int index) {
+        u1(ISTORE);
+        u1(index);
+    }
+
+    /**
+     * Writes the method invocation.
+     * 
+     * @param opcode
+     *            {@link #INVOKEVIRTUAL} or {@link #INVOKESPECIAL}
+     * @param owner
+     *            internal name of the class declaring the method
+     * @param method
+     *            name of the method
+     * @param descriptor
+     *            descriptor of the method
+     */
+    void invoke(int opcode, String owner, String method, String descriptor) {
+        u1(opcode);
+        u2(this.owner.methodRef(owner, method, descriptor));
+    }
+
+    /**
+     * Writes an unconditional branch to the label.
+     * 
+     * @param label
+     *            target of the branch
+     */
+    void jump(Label label) {
+        int position = length;
+        u1(GOTO_W);
+        offset(position, label);
+    }
+
+    /**
+     * Writes a conditional branch to the label.
+     * 
+     * @param opcode
+     *            opcode of the condition, for example {@link #IFNE}
+     * @param label
+     *            target of the branch
+     */
+    void branch(int opcode, Label label) {
+        int inverted = ((opcode - IFEQ) & 1) == 0 ? opcode + 1 : opcode - 1;
+
+        u1(inverted);
+        u2(3 + 5); // skips itself and goto_w
+        jump(label);
+    }
+
+    /**
+     * Writes a {@code tableswitch} instruction.
+     * 
+     * @param low
+     *            key of the first target
+     * @param targets
+     *            targets for keys starting with {@code low}
+     * @param defaultTarget
+     *            target for all other keys
+     */
+    void tableswitch(int low, Label[] targets, Label defaultTarget) {
+        int position = length;
+        u1(TABLESWITCH);
+        while (length % 4 != 0) {
+            u1(0);
+        }
+
+        offset(position, defaultTarget);
+        u4(low);
+        u4(low + targets.length - 1);
+        for (Label target : targets) {
+            offset(position, target);
+        }
+    }
+
+    /**
+     * Places the label at the current position.
+     * 
+     * @param label
+     *            the label
+     */
+    void mark(Label label) {
+        label.position = length;
+
+        for (int[] fixup : label.fixups) {
+            patch(fixup[1], label.position - fixup[0]);
+        }
+        label.fixups.clear();
+    }
+
+    /**
+     * Writes a 4 byte branch offset to the label.
+     * 
+     * @param position
+     *            position of the branch instruction
+     * @param label
+     *            target of the branch
+     */
+    private void offset(int position, Label label) {
+        if (label.position >= 0) {
+            u4(label.position - position);
+        } else {
+            label.fixups.add(new int[] { position, length });
+            u4(0);
+        }
+    }
+
+    /**
+     * Overwrites 4 bytes at specified position.
+     * 
+     * @param position
+     *            position of the first byte
+     * @param value
+     *            the value
+     */
+    private void patch(int position, int value) {
+        code[position] = (byte) (value >>> 24);
+        code[position + 1] = (byte) (value >>> 16);
+        code[position + 2] = (byte) (value >>> 8);
+        code[position + 3] = (byte) value;
+    }
+
+    /**
+     * Writes one byte.
+     * 
+     * @param value
+     *            the byte
+     */
+    private void u1(int value) {
+        if (length == code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+
+        code[length++] = (byte) value;
+    }
+
+    /**
+     * Writes two bytes.
+     * 
+     * @param value
+     *            the value
+     */
+    private void u2(int value) {
+        u1(value >>> 8);
+        u1(value);
+    }
+
+    /**
+     * Writes four bytes.
+     * 
+     * @param value
+     *            the value
+     */
+    private void u4(int value) {
+        u2(value >>> 16);
+        u2(value);
+    }
+}
@@ -0,0 +1,34 @@
+package hr.fer.zemris.java.simplecomp.impl.compiler;
+
+/**
+ * {@code CodeLoader} is a class loader which defines exactly one generated
+ * class. Every generated class has its own loader so the class can be unloaded
+ * as soon as it isn't used anymore.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BytecodeCompiler
+ */
+final class CodeLoader extends ClassLoader {
+
+    /**
+     * Constructs a new {@code CodeLoader} which delegates to the loader of the
+     * compiler.
+     */
+    CodeLoader() {
+        super(CodeLoader.class.getClassLoader());
+    }
+
+    /**
+     * Defines the class from specified bytes.
+     * 
+     * @param name
+     *            binary name of the class
+     * @param bytes
+     *            bytes of the class file
+     * @return the defined class
+     */
+    Class<?> define(String name, byte[] bytes) {
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
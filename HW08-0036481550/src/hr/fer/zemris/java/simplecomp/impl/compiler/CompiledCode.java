@@ -0,0 +1,30 @@
+package hr.fer.zemris.java.simplecomp.impl.compiler;
+
+/**
+ * {@code CompiledCode} is implemented by classes generated by the
+ * {@link BytecodeCompiler}. Every generated class executes one region of the
+ * program: a range of memory addresses whose instructions were translated into
+ * JVM bytecode, or one trace: a path through a loop.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BytecodeCompiler
+ */
+public interface CompiledCode {
+
+    /** Address returned when the processor needs to be halted */
+    public static final int HALT = -1;
+
+    /**
+     * Executes the region starting with the instruction at specified address.
+     * Execution continues until the control leaves the region.
+     * 
+     * @param runtime
+     *            runtime of the computer on which the code is executed
+     * @param address
+     *            address of the first executed instruction
+     * @return address of the next instruction outside of this region or
+     *         {@link #HALT} if processor needs to be halted
+     */
+    public int run(CompiledRuntime runtime, int address);
+}
@@ -0,0 +1,76 @@
+package hr.fer.zemris.java.simplecomp.impl.compiler;
+
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
+import hr.fer.zemris.java.simplecomp.impl.instructions.OutputStreamUtil;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+
+/**
+ * {@code CompiledExecutionUnit} is a execution unit of a computer which
+ * translates the whole program into JVM bytecode before running it.
+ * <p>
+ * Program is compiled by {@link BytecodeCompiler} into one class per region of
+ * the memory and the JIT compiler of the JVM then compiles those classes into
+ * machine code. Program is expected not to modify its own instructions.
+ * <p>
+ * Compilation requires registers and memory which implement
+ * {@link PrimitiveRegisters} and {@link PrimitiveMemory}. Other computers are
+ * run by the {@link ExecutionUnitImpl}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExecutionUnit
+ * @see BytecodeCompiler
+ */
+public class CompiledExecutionUnit implements ExecutionUnit {
+
+    /**
+     * Runs a program written in the computer's memory. Output of the computer
+     * is flushed when the program stops, even if it fails.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    @Override
+    public boolean go(Computer computer) {
+        try {
+            return run(computer);
+        } finally {
+            OutputStreamUtil.flush(computer);
+        }
+    }
+
+    /**
+     * Runs a program written in the computer's memory.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    private boolean run(Computer computer) {
+        if (!(computer.getRegisters() instanceof PrimitiveRegisters)
+                || !(computer.getMemory() instanceof PrimitiveMemory)) {
+            return new ExecutionUnitImpl().go(computer);
+        }
+
+        computer.getRegisters().setProgramCounter(0);
+
+        CompiledCode[] code = new BytecodeCompiler(computer).compile();
+        CompiledRuntime runtime = new CompiledRuntime(computer);
+
+        int pc = 0;
+        while (pc != CompiledCode.HALT) {
+            if (pc >= 0 && pc < code.length && code[pc] != null) {
+                pc = code[pc].run(runtime, pc);
+            } else {
+                pc = runtime.execute(pc);
+            }
+        }
+
+        return true;
+    }
+
+}
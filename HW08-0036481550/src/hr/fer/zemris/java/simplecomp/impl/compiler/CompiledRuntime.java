@@ -0,0 +1,306 @@
+package hr.fer.zemris.java.simplecomp.impl.compiler;
+
+import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * {@code CompiledRuntime} is the interface between the generated code and the
+ * computer. Generated code calls methods of this class for every access to
+ * memory and to registers which it doesn't keep in its local variables, so
+ * compiled programs have exactly the same effects on the computer as
+ * interpreted ones.
+ * <p>
+ * All methods are small and this class is final so the JIT compiler inlines
+ * them into the generated code.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BytecodeCompiler
+ */
+public final class CompiledRuntime {
+
+    /** Index of the stack register */
+    private static final int STACK_INDEX = Registers.STACK_REGISTER_INDEX;
+
+    /** Computer on which the code is executed */
+    private final Computer computer;
+
+    /** Registers of the computer */
+    private final PrimitiveRegisters regs;
+
+    /** Memory of the computer */
+    private final PrimitiveMemory mem;
+
+    /**
+     * Constructs a new {@code CompiledRuntime} for specified computer.
+     * 
+     * @param computer
+     *            the computer on which the code is executed
+     * @throws IllegalArgumentException
+     *             if registers or memory of the computer don't support
+     *             primitive access
+     */
+    public CompiledRuntime(Computer computer) {
+        if (!(computer.getRegisters() instanceof PrimitiveRegisters)
+                || !(computer.getMemory() instanceof PrimitiveMemory)) {
+            throw new IllegalArgumentException(
+                    "Computer must have primitive registers and memory!");
+        }
+
+        this.computer = computer;
+        this.regs = (PrimitiveRegisters) computer.getRegisters();
+        this.mem = (PrimitiveMemory) computer.getMemory();
+    }
+
+    /**
+     * Returns the computer on which the code is executed.
+     * 
+     * @return the computer
+     */
+    public Computer getComputer() {
+        return computer;
+    }
+
+    /**
+     * Returns the integer value of the register.
+     * 
+     * @param index
+     *            register index
+     * @return the integer value of the register
+     */
+    public int readInt(int index) {
+        return regs.getIntOrZero(index);
+    }
+
+    /**
+     * Sets the integer value of the register.
+     * 
+     * @param index
+     *            register index
+     * @param value
+     *            new value of the register
+     */
+    public void setInt(int index, int value) {
+        regs.setInt(index, value);
+    }
+
+    /**
+     * Returns the registers from the mask which can't be kept in local
+     * variables of the generated code: registers which don't exist or hold a
+     * value which is not an integer. Empty registers are read as {@code 0},
+     * so they can be kept.
+     * 
+     * @param mask
+     *            mask of register indexes
+     * @return mask of registers which can't be kept
+     */
+    public int uncached(int mask) {
+        int uncached = 0;
+
+        for (int index = 0; index < Integer.SIZE; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) == 0) {
+                continue;
+            }
+
+            if (index >= regs.getSize()
+                    || !regs.isInteger(index)
+                            && regs.getRegisterValue(index) != null) {
+                uncached |= bit;
+            }
+        }
+
+        return uncached;
+    }
+
+    /**
+     * Returns the registers from the mask which hold an integer.
+     * 
+     * @param mask
+     *            mask of register indexes
+     * @return mask of registers holding an integer
+     */
+    public int integers(int mask) {
+        int integers = 0;
+
+        for (int index = 0; index < Integer.SIZE; index++) {
+            int bit = 1 << index;
+            if ((mask & bit) != 0 && index < regs.getSize()
+                    && regs.isInteger(index)) {
+                integers |= bit;
+            }
+        }
+
+        return integers;
+    }
+
+    /**
+     * Returns the integer value from the memory location.
+     * 
+     * @param location
+     *            the memory address
+     * @return the integer value from the memory location
+     */
+    public int readMemory(int location) {
+        return mem.getIntOrZero(location);
+    }
+
+    /**
+     * Stores the integer value to the memory location.
+     * 
+     * @param location
+     *            the memory address
+     * @param value
+     *            the value
+     */
+    public void storeInt(int location, int value) {
+        mem.setInt(location, value);
+    }
+
+    /**
+     * Loads the value from the memory location to the register.
+     * 
+     * @param index
+     *            register index
+     * @param location
+     *            the memory address
+     */
+    public void load(int index, int location) {
+        if (mem.isInteger(location)) {
+            regs.setInt(index, mem.getInt(location));
+        } else {
+            regs.setRegisterValue(index, mem.getLocation(location));
+        }
+    }
+
+    /**
+     * Sets the flag to {@code true} if two registers hold equal values.
+     * 
+     * @param first
+     *            index of the first register
+     * @param second
+     *            index of the second register
+     */
+    public void testEquals(int first, int second) {
+        if (regs.isInteger(first) && regs.isInteger(second)) {
+            regs.setFlag(regs.getInt(first) == regs.getInt(second));
+        } else {
+            Object value1 = RegisterUtil.getValue(computer, first);
+            Object value2 = RegisterUtil.getValue(computer, second);
+            regs.setFlag(value1.equals(value2));
+        }
+    }
+
+    /**
+     * Sets the flag to {@code true} if two integers are equal.
+     * 
+     * @param first
+     *            the first integer
+     * @param second
+     *            the second integer
+     */
+    public void testInts(int first, int second) {
+        regs.setFlag(first == second);
+    }
+
+    /**
+     * Returns the value of the flag register.
+     * 
+     * @return the value of the flag register
+     */
+    public boolean getFlag() {
+        return regs.getFlag();
+    }
+
+    /**
+     * Pushes the value of the register on the stack.
+     * 
+     * @param index
+     *            register index
+     */
+    public void push(int index) {
+        int sp = regs.getInt(STACK_INDEX);
+        if (regs.isInteger(index)) {
+            mem.setInt(sp, regs.getInt(index));
+        } else {
+            mem.setLocation(sp, RegisterUtil.getValue(computer, index));
+        }
+        regs.setInt(STACK_INDEX, sp - 1);
+    }
+
+    /**
+     * Pops the value from the stack to the register.
+     * 
+     * @param index
+     *            register index
+     */
+    public void pop(int index) {
+        int sp = regs.getInt(STACK_INDEX) + 1;
+        regs.setInt(STACK_INDEX, sp);
+        if (mem.isInteger(sp)) {
+            regs.setInt(index, mem.getInt(sp));
+        } else {
+            regs.setRegisterValue(index, mem.getLocation(sp));
+        }
+    }
+
+    /**
+     * Pushes the address of the {@code call} instruction on the stack.
+     * 
+     * @param address
+     *            address of the {@code call} instruction
+     */
+    public void call(int address) {
+        int sp = regs.getInt(STACK_INDEX);
+        mem.setInt(sp, address);
+        regs.setInt(STACK_INDEX, sp - 1);
+    }
+
+    /**
+     * Pops the address of the {@code call} instruction from the stack.
+     * 
+     * @return address of the instruction after the {@code call}
+     */
+    public int ret() {
+        int sp = regs.getInt(STACK_INDEX) + 1;
+        regs.setInt(STACK_INDEX, sp);
+        return mem.getInt(sp) + 1;
+    }
+
+    /**
+     * Sets the program counter to the address of the {@code halt}
+     * instruction.
+     * 
+     * @param address
+     *            address of the {@code halt} instruction
+     * @return {@link CompiledCode#HALT}
+     */
+    public int halt(int address) {
+        regs.setProgramCounter(address);
+        return CompiledCode.HALT;
+    }
+
+    /**
+     * Executes the instruction from specified address by calling the
+     * instruction itself.
+     * 
+     * @param address
+     *            address of the instruction
+     * @return address of the next instruction or {@link CompiledCode#HALT} if
+     *         processor needs to be halted
+     */
+    public int execute(int address) {
+        regs.setProgramCounter(address);
+
+        Instruction instr = (Instruction) mem.getLocation(address);
+        if (instr.execute(computer)) {
+            return CompiledCode.HALT;
+        }
+
+        return regs.getProgramCounter() + 1;
+    }
+}
@@ -0,0 +1,26 @@
+package hr.fer.zemris.java.simplecomp.impl.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code Label} represents a position in the generated bytecode which is used
+ * as a target of branch instructions. Branches to a label can be emitted
+ * before the label is placed; their offsets are patched when the label is
+ * placed.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see CodeBuilder
+ */
+final class Label {
+
+    /** Position of this label in the code or -1 if not placed yet */
+    int position = -1;
+
+    /**
+     * Pairs of branch instruction position and position of its 4 byte offset
+     * which need to be patched when this label is placed.
+     */
+    List<int[]> fixups = new ArrayList<>();
+}
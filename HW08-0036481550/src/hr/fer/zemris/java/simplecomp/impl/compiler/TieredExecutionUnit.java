@@ -0,0 +1,422 @@
+package hr.fer.zemris.java.simplecomp.impl.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrCall;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrHalt;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJump;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJumpIfTrue;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrRet;
+import hr.fer.zemris.java.simplecomp.impl.instructions.OutputStreamUtil;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+
+/**
+ * {@code TieredExecutionUnit} is a execution unit of a computer which starts
+ * running the program in the interpreter and compiles frequently executed
+ * basic blocks in the background.
+ * <p>
+ * Basic blocks start at address {@code 0}, at targets of {@code jump},
+ * {@code jumpIfTrue} and {@code call} instructions and after every
+ * {@code jump}, {@code jumpIfTrue}, {@code call}, {@code ret} and
+ * {@code halt} instruction. Every block counts how many times it was entered
+ * and the block which reaches the threshold is compiled by the
+ * {@link BytecodeCompiler} on a background thread while the interpreter keeps
+ * running it. Compiled code is used from the next time the block is entered.
+ * <p>
+ * Short programs therefore never wait for the compiler, while long programs
+ * spend most of their time in compiled code. Program is expected not to
+ * modify its own instructions. Unit can also be constructed to compile blocks
+ * on the interpreter's thread, which makes the moment from which compiled
+ * code is used deterministic.
+ * <p>
+ * Compilation requires registers and memory which implement
+ * {@link PrimitiveRegisters} and {@link PrimitiveMemory}. Other computers are
+ * run by the {@link ExecutionUnitImpl}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BytecodeCompiler
+ * @see CompiledExecutionUnit
+ */
+public class TieredExecutionUnit implements ExecutionUnit {
+
+    /** Default number of entries after which a block is compiled */
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    /** Count of a block whose compiled code is in use */
+    private static final int COMPILED = -1;
+
+    /** Thread which compiles blocks of all tiered execution units */
+    private static final ExecutorService COMPILER = Executors
+            .newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "compiler");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /** Number of entries after which a block is compiled */
+    private final int threshold;
+
+    /** Flag which tells if blocks are compiled on the compiler thread */
+    private final boolean background;
+
+    /** Number of blocks whose compiled code was used in the last run */
+    private volatile int compiledBlocks;
+
+    /**
+     * Constructs a new {@code TieredExecutionUnit} which compiles blocks after
+     * {@link #DEFAULT_THRESHOLD} entries.
+     */
+    public TieredExecutionUnit() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructs a new {@code TieredExecutionUnit} which compiles blocks in
+     * the background.
+     * 
+     * @param threshold
+     *            number of entries after which a block is compiled
+     * @throws IllegalArgumentException
+     *             if threshold is less than 1
+     */
+    public TieredExecutionUnit(int threshold) {
+        this(threshold, true);
+    }
+
+    /**
+     * Constructs a new {@code TieredExecutionUnit}.
+     * 
+     * @param threshold
+     *            number of entries after which a block is compiled
+     * @param background
+     *            {@code true} if blocks are compiled on the compiler thread
+     *            while the interpreter keeps running; {@code false} if the
+     *            interpreter compiles the block and runs its compiled code
+     *            from the next entry
+     * @throws IllegalArgumentException
+     *             if threshold is less than 1
+     */
+    public TieredExecutionUnit(int threshold, boolean background) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException(
+                    "Threshold must be positive: " + threshold);
+        }
+
+        this.threshold = threshold;
+        this.background = background;
+    }
+
+    /**
+     * Runs a program written in the computer's memory. Output of the computer
+     * is flushed when the program stops, even if it fails.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    @Override
+    public boolean go(Computer computer) {
+        try {
+            return run(computer);
+        } finally {
+            OutputStreamUtil.flush(computer);
+        }
+    }
+
+    /**
+     * Returns the number of blocks whose compiled code was used in the last
+     * run.
+     * 
+     * @return the number of compiled blocks
+     */
+    public int getCompiledBlocks() {
+        return compiledBlocks;
+    }
+
+    /**
+     * Runs a program written in the computer's memory.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    private boolean run(Computer computer) {
+        if (!(computer.getRegisters() instanceof PrimitiveRegisters)
+                || !(computer.getMemory() instanceof PrimitiveMemory)) {
+            return new ExecutionUnitImpl().go(computer);
+        }
+
+        computer.getRegisters().setProgramCounter(0);
+
+        PrimitiveMemory mem = (PrimitiveMemory) computer.getMemory();
+        int size = mem.getSize();
+        int[] ends = findBlocks(mem);
+        int[] counts = new int[size];
+        AtomicReferenceArray<CompiledCode> code =
+                new AtomicReferenceArray<>(size);
+        List<Future<?>> jobs = new ArrayList<>();
+        CompiledRuntime runtime = new CompiledRuntime(computer);
+        int compiled = 0;
+
+        try {
+            int pc = 0;
+            while (pc != CompiledCode.HALT) {
+                if (pc >= 0 && pc < size && ends[pc] > pc) {
+                    if (counts[pc] == COMPILED) {
+                        pc = code.get(pc).run(runtime, pc);
+                        continue;
+                    }
+
+                    CompiledCode block = code.get(pc);
+                    if (block != null) {
+                        counts[pc] = COMPILED;
+                        compiled++;
+                        pc = block.run(runtime, pc);
+                        continue;
+                    }
+
+                    if (counts[pc] < threshold && ++counts[pc] == threshold) {
+                        if (background) {
+                            jobs.add(submit(mem, pc, ends[pc], code));
+                        } else {
+                            code.set(
+                                    pc,
+                                    new BytecodeCompiler(mem)
+                                            .compile(pc, ends[pc]));
+                        }
+                    }
+                }
+
+                pc = runtime.execute(pc);
+            }
+        } finally {
+            compiledBlocks = compiled;
+            for (Future<?> job : jobs) {
+                job.cancel(false);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Finds basic blocks of the program.
+     * 
+     * @param mem
+     *            memory holding the program
+     * @return array which holds the address after the last instruction of the
+     *         block for the first address of every block and {@code 0} for
+     *         all other addresses
+     */
+    private static int[] findBlocks(PrimitiveMemory mem) {
+        int size = mem.getSize();
+        boolean[] leaders = new boolean[size + 1];
+        leaders[0] = true;
+
+        for (int address = 0; address < size; address++) {
+            Object value = mem.getLocation(address);
+
+            int target = -1;
+            if (value instanceof InstrJump) {
+                target = ((InstrJump) value).getLocation();
+            } else if (value instanceof InstrJumpIfTrue) {
+                target = ((InstrJumpIfTrue) value).getLocation();
+            } else if (value instanceof InstrCall) {
+                target = ((InstrCall) value).getAddress();
+            } else if (!(value instanceof InstrRet)
+                    && !(value instanceof InstrHalt)) {
+                continue;
+            }
+
+            if (target >= 0 && target < size) {
+                leaders[target] = true;
+            }
+            leaders[address + 1] = true;
+        }
+
+        int[] ends = new int[size];
+        int start = -1;
+        for (int address = 0; address <= size; address++) {
+            boolean instruction = address < size
+                    && mem.getLocation(address) instanceof Instruction;
+
+            if (start >= 0 && (leaders[address] || !instruction)) {
+                ends[start] = address;
+                start = -1;
+            }
+            if (start < 0 && leaders[address] && instruction) {
+                start = address;
+            }
+        }
+
+        return ends;
+    }
+
+    /**
+     * Submits the block to the compiler thread. Instructions of the block are
+     * copied first, so the compiler never reads memory which the program is
+     * writing.
+     * 
+     * @param mem
+     *            memory holding the program
+     * @param start
+     *            address of the first instruction of the block
+     * @param end
+     *            address after the last instruction of the block
+     * @param code
+     *            compiled code of blocks indexed by their first address
+     * @return the compilation job
+     */
+    private static Future<?> submit(
+            PrimitiveMemory mem,
+            int start,
+            int end,
+            AtomicReferenceArray<CompiledCode> code) {
+        BlockMemory block = new BlockMemory(mem, start, end);
+
+        return COMPILER.submit(() -> {
+            code.set(start, new BytecodeCompiler(block).compile(start, end));
+        });
+    }
+
+    /**
+     * {@code BlockMemory} is a read-only copy of the instructions of one
+     * block, which the compiler reads instead of the memory of the computer.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static final class BlockMemory implements PrimitiveMemory {
+
+        /** Size of the copied memory */
+        private final int size;
+
+        /** Address of the first instruction */
+        private final int start;
+
+        /** Instructions of the block */
+        private final Object[] values;
+
+        /**
+         * Constructs a new {@code BlockMemory} by copying the block.
+         * 
+         * @param mem
+         *            memory holding the program
+         * @param start
+         *            address of the first instruction of the block
+         * @param end
+         *            address after the last instruction of the block
+         */
+        BlockMemory(PrimitiveMemory mem, int start, int end) {
+            this.size = mem.getSize();
+            this.start = start;
+            this.values = new Object[end - start];
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = mem.getLocation(start + i);
+            }
+        }
+
+        /**
+         * Returns the copied value, or {@code null} outside of the block.
+         * 
+         * @param location
+         *            the memory address
+         * @return the copied value
+         */
+        @Override
+        public Object getLocation(int location) {
+            int i = location - start;
+
+            return i >= 0 && i < values.length ? values[i] : null;
+        }
+
+        /**
+         * Throws {@link UnsupportedOperationException} because the copy is
+         * read-only.
+         * 
+         * @param location
+         *            the memory address
+         * @param value
+         *            the value
+         */
+        @Override
+        public void setLocation(int location, Object value) {
+            throw new UnsupportedOperationException("Block is read-only.");
+        }
+
+        /**
+         * Returns the size of the copied memory.
+         * 
+         * @return the size of the memory
+         */
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Checks if the copied value is an integer.
+         * 
+         * @param location
+         *            the memory address
+         * @return {@code true} if location holds an integer; {@code false}
+         *         otherwise
+         */
+        @Override
+        public boolean isInteger(int location) {
+            return getLocation(location) instanceof Integer;
+        }
+
+        /**
+         * Returns the copied integer value.
+         * 
+         * @param location
+         *            the memory address
+         * @return the integer value
+         */
+        @Override
+        public int getInt(int location) {
+            return (Integer) getLocation(location);
+        }
+
+        /**
+         * Returns the copied integer value, or {@code 0} if location is empty.
+         * 
+         * @param location
+         *            the memory address
+         * @return the integer value or {@code 0}
+         */
+        @Override
+        public int getIntOrZero(int location) {
+            Object value = getLocation(location);
+
+            return value == null ? 0 : (Integer) value;
+        }
+
+        /**
+         * Throws {@link UnsupportedOperationException} because the copy is
+         * read-only.
+         * 
+         * @param location
+         *            the memory address
+         * @param value
+         *            the value
+         */
+        @Override
+        public void setInt(int location, int value) {
+            throw new UnsupportedOperationException("Block is read-only.");
+        }
+    }
+}
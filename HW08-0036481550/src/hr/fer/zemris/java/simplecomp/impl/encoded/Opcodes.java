@@ -0,0 +1,175 @@
+package hr.fer.zemris.java.simplecomp.impl.encoded;
+
+/**
+ * {@code Opcodes} defines the compact integer encoding of programs used by
+ * {@link SwitchExecutionUnit}.
+ * <p>
+ * Every memory address is encoded as {@link #WIDTH} consecutive integers: the
+ * opcode followed by up to three operands. Register operands are register
+ * indexes. Memory operands (registers used for indirect addressing) are
+ * encoded as {@code index | offset << 8} and decoded with
+ * {@link #index(int)} and {@link #offset(int)}. Jump targets and memory
+ * locations are plain addresses.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramEncoder
+ */
+public final class Opcodes {
+
+    /** Number of integers used to encode one memory address */
+    public static final int WIDTH = 4;
+
+    /** Memory location which doesn't hold an instruction */
+    public static final int NONE = 0;
+
+    /** Instruction executed by calling the original instruction */
+    public static final int EXEC = 1;
+
+    /** {@code halt} */
+    public static final int HALT = 2;
+
+    /** {@code load register, location} */
+    public static final int LOAD = 3;
+
+    /** {@code move register, number} */
+    public static final int MOVE_RN = 4;
+
+    /** {@code move register, register} */
+    public static final int MOVE_RR = 5;
+
+    /** {@code move register, memory} */
+    public static final int MOVE_RM = 6;
+
+    /** {@code move memory, number} */
+    public static final int MOVE_MN = 7;
+
+    /** {@code move memory, register} */
+    public static final int MOVE_MR = 8;
+
+    /** {@code move memory, memory} */
+    public static final int MOVE_MM = 9;
+
+    /** {@code add result, first, second} */
+    public static final int ADD = 10;
+
+    /** {@code mul result, first, second} */
+    public static final int MUL = 11;
+
+    /** {@code increment register} */
+    public static final int INCREMENT = 12;
+
+    /** {@code decrement register} */
+    public static final int DECREMENT = 13;
+
+    /** {@code testEquals first, second} */
+    public static final int TEST_EQUALS = 14;
+
+    /** {@code jump target} */
+    public static final int JUMP = 15;
+
+    /** {@code jumpIfTrue target} */
+    public static final int JUMP_IF_TRUE = 16;
+
+    /** {@code call target} */
+    public static final int CALL = 17;
+
+    /** {@code ret} */
+    public static final int RET = 18;
+
+    /** {@code push register} */
+    public static final int PUSH = 19;
+
+    /** {@code pop register} */
+    public static final int POP = 20;
+
+    /** {@code echo register} */
+    public static final int ECHO = 21;
+
+    /** {@code input location} */
+    public static final int INPUT = 22;
+
+    /**
+     * {@code testEquals first, second} fused with {@code jumpIfTrue target}
+     */
+    public static final int TEST_JUMP = 23;
+
+    /** {@code increment register} fused with {@code jump target} */
+    public static final int INCREMENT_JUMP = 24;
+
+    /** {@code decrement register} fused with {@code jump target} */
+    public static final int DECREMENT_JUMP = 25;
+
+    /** {@code push register} fused with {@code call target} */
+    public static final int PUSH_CALL = 26;
+
+    /** {@code pop register} fused with {@code ret} */
+    public static final int POP_RET = 27;
+
+    /** Names of opcodes indexed by opcode */
+    private static final String[] NAMES = {
+            "none", "exec", "halt", "load", "move_rn", "move_rr", "move_rm",
+            "move_mn", "move_mr", "move_mm", "add", "mul", "increment",
+            "decrement", "testEquals", "jump", "jumpIfTrue", "call", "ret",
+            "push", "pop", "echo", "input", "testJump", "incrementJump",
+            "decrementJump", "pushCall", "popRet" };
+
+    /**
+     * Private constructor. Class only holds constants.
+     */
+    private Opcodes() {
+    }
+
+    /**
+     * Returns the name of the opcode.
+     * 
+     * @param opcode
+     *            the opcode
+     * @return the name of the opcode
+     * @throws IllegalArgumentException
+     *             if opcode doesn't exist
+     */
+    public static String getName(int opcode) {
+        if (opcode < 0 || opcode >= NAMES.length) {
+            throw new IllegalArgumentException(
+                    String.format("Unknown opcode %d!", opcode));
+        }
+
+        return NAMES[opcode];
+    }
+
+    /**
+     * Encodes a memory operand.
+     * 
+     * @param index
+     *            register index
+     * @param offset
+     *            register offset
+     * @return the encoded memory operand
+     */
+    public static int memory(int index, int offset) {
+        return index | offset << 8;
+    }
+
+    /**
+     * Returns the register index of the memory operand.
+     * 
+     * @param operand
+     *            the encoded memory operand
+     * @return the register index
+     */
+    public static int index(int operand) {
+        return operand & 0xFF;
+    }
+
+    /**
+     * Returns the register offset of the memory operand.
+     * 
+     * @param operand
+     *            the encoded memory operand
+     * @return the register offset
+     */
+    public static int offset(int operand) {
+        return operand >> 8;
+    }
+}
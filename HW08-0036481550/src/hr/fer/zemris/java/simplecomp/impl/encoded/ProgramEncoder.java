@@ -0,0 +1,263 @@
+package hr.fer.zemris.java.simplecomp.impl.encoded;
+
+import static hr.fer.zemris.java.simplecomp.impl.encoded.Opcodes.*;
+
+import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.impl.fusion.FusedInstruction;
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractArithmeticInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractUnaryInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrAdd;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrCall;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrDecrement;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrEcho;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrHalt;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrIncrement;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrInput;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJump;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJumpIfTrue;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrLoad;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMove;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMul;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPop;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPush;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrRet;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrTestEquals;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
+import hr.fer.zemris.java.simplecomp.models.Memory;
+
+/**
+ * {@code ProgramEncoder} encodes a program written in the computer's memory
+ * into a dense array of integers described by {@link Opcodes}.
+ * <p>
+ * Every instruction class from the
+ * {@code hr.fer.zemris.java.simplecomp.impl.instructions} package has its own
+ * opcode; {@code move} has one opcode for every combination of addressing
+ * modes. Instructions of other classes are encoded as {@link Opcodes#EXEC}
+ * and are executed by calling the original instruction.
+ * <p>
+ * Pairs fused into a {@link FusedInstruction} have their own opcodes which
+ * execute both instructions with one dispatch. The second instruction of the
+ * pair is encoded at its own address as well.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Opcodes
+ * @see SwitchExecutionUnit
+ */
+public class ProgramEncoder {
+
+    /** Memory holding the program */
+    private Memory memory;
+
+    /** Size of the memory */
+    private int size;
+
+    /**
+     * Constructs a new {@code ProgramEncoder} for the specified memory.
+     * 
+     * @param memory
+     *            memory holding the program
+     * @param size
+     *            size of the memory
+     */
+    public ProgramEncoder(Memory memory, int size) {
+        this.memory = memory;
+        this.size = size;
+    }
+
+    /**
+     * Encodes every memory location.
+     * 
+     * @return the encoded program
+     */
+    public int[] encode() {
+        int[] code = new int[size * WIDTH];
+
+        for (int address = 0; address < size; address++) {
+            encode(memory.getLocation(address), code, address * WIDTH);
+        }
+
+        return code;
+    }
+
+    /**
+     * Encodes the value of one memory location.
+     * 
+     * @param value
+     *            value of the memory location
+     * @param code
+     *            the encoded program
+     * @param i
+     *            index of the opcode in the encoded program
+     */
+    private static void encode(Object value, int[] code, int i) {
+        if (!(value instanceof Instruction)) {
+            code[i] = NONE;
+            return;
+        }
+
+        Instruction instr = (Instruction) value;
+
+        if (instr instanceof InstrHalt) {
+            code[i] = HALT;
+        } else if (instr instanceof InstrLoad) {
+            code[i] = LOAD;
+            code[i + 1] = ((InstrLoad) instr).getRegisterIndex();
+            code[i + 2] = ((InstrLoad) instr).getLocation();
+        } else if (instr instanceof InstrMove) {
+            encodeMove((InstrMove) instr, code, i);
+        } else if (instr instanceof InstrAdd || instr instanceof InstrMul) {
+            AbstractArithmeticInstr op = (AbstractArithmeticInstr) instr;
+            code[i] = instr instanceof InstrAdd ? ADD : MUL;
+            code[i + 1] = register(op.getResultDescriptor());
+            code[i + 2] = register(op.getFirstOperandDescriptor());
+            code[i + 3] = register(op.getSecondOperandDescriptor());
+        } else if (instr instanceof InstrIncrement
+                || instr instanceof InstrDecrement) {
+            code[i] = instr instanceof InstrIncrement ? INCREMENT : DECREMENT;
+            code[i + 1] = register(
+                    ((AbstractUnaryInstr) instr).getDescriptor());
+        } else if (instr instanceof InstrTestEquals) {
+            InstrTestEquals test = (InstrTestEquals) instr;
+            code[i] = TEST_EQUALS;
+            code[i + 1] = register(test.getFirstDescriptor());
+            code[i + 2] = register(test.getSecondDescriptor());
+        } else if (instr instanceof InstrJump) {
+            code[i] = JUMP;
+            code[i + 1] = ((InstrJump) instr).getLocation();
+        } else if (instr instanceof InstrJumpIfTrue) {
+            code[i] = JUMP_IF_TRUE;
+            code[i + 1] = ((InstrJumpIfTrue) instr).getLocation();
+        } else if (instr instanceof InstrCall) {
+            code[i] = CALL;
+            code[i + 1] = ((InstrCall) instr).getAddress();
+        } else if (instr instanceof InstrRet) {
+            code[i] = RET;
+        } else if (instr instanceof InstrPush) {
+            code[i] = PUSH;
+            code[i + 1] = register(((InstrPush) instr).getDescriptor());
+        } else if (instr instanceof InstrPop) {
+            code[i] = POP;
+            code[i + 1] = register(((InstrPop) instr).getDescriptor());
+        } else if (instr instanceof InstrEcho) {
+            code[i] = ECHO;
+            code[i + 1] = ((InstrEcho) instr).getDescriptor();
+        } else if (instr instanceof InstrInput) {
+            code[i] = INPUT;
+            code[i + 1] = ((InstrInput) instr).getLocation();
+        } else if (instr instanceof FusedInstruction) {
+            encodeFused((FusedInstruction) instr, code, i);
+        } else {
+            code[i] = EXEC;
+        }
+    }
+
+    /**
+     * Encodes the {@code move} instruction. Source operand which is neither a
+     * number nor a register is encoded as {@link Opcodes#EXEC}.
+     * 
+     * @param instr
+     *            the instruction
+     * @param code
+     *            the encoded program
+     * @param i
+     *            index of the opcode in the encoded program
+     */
+    private static void encodeMove(InstrMove instr, int[] code, int i) {
+        InstructionArgument src = instr.getSource();
+        if (!src.isNumber() && !src.isRegister()) {
+            code[i] = EXEC;
+            return;
+        }
+
+        int dest = (int) instr.getDestination().getValue();
+        boolean destIndirect = RegisterUtil.isIndirect(dest);
+        code[i + 1] = destIndirect ? memory(dest) : register(dest);
+
+        if (src.isNumber()) {
+            code[i] = destIndirect ? MOVE_MN : MOVE_RN;
+            code[i + 2] = (int) src.getValue();
+            return;
+        }
+
+        int source = (int) src.getValue();
+        if (RegisterUtil.isIndirect(source)) {
+            code[i] = destIndirect ? MOVE_MM : MOVE_RM;
+            code[i + 2] = memory(source);
+        } else {
+            code[i] = destIndirect ? MOVE_MR : MOVE_RR;
+            code[i + 2] = register(source);
+        }
+    }
+
+    /**
+     * Encodes the fused pair of instructions. Pairs without their own opcode
+     * are encoded as {@link Opcodes#EXEC}.
+     *
+     * @param instr
+     *            the fused instruction
+     * @param code
+     *            the encoded program
+     * @param i
+     *            index of the opcode in the encoded program
+     */
+    private static void encodeFused(
+            FusedInstruction instr,
+            int[] code,
+            int i) {
+        Instruction first = instr.getFirst();
+        Instruction second = instr.getSecond();
+
+        if (first instanceof InstrTestEquals
+                && second instanceof InstrJumpIfTrue) {
+            InstrTestEquals test = (InstrTestEquals) first;
+            code[i] = TEST_JUMP;
+            code[i + 1] = register(test.getFirstDescriptor());
+            code[i + 2] = register(test.getSecondDescriptor());
+            code[i + 3] = ((InstrJumpIfTrue) second).getLocation();
+        } else if ((first instanceof InstrIncrement
+                || first instanceof InstrDecrement)
+                && second instanceof InstrJump) {
+            code[i] = first instanceof InstrIncrement
+                    ? INCREMENT_JUMP
+                    : DECREMENT_JUMP;
+            code[i + 1] = register(
+                    ((AbstractUnaryInstr) first).getDescriptor());
+            code[i + 2] = ((InstrJump) second).getLocation();
+        } else if (first instanceof InstrPush && second instanceof InstrCall) {
+            code[i] = PUSH_CALL;
+            code[i + 1] = register(((InstrPush) first).getDescriptor());
+            code[i + 2] = ((InstrCall) second).getAddress();
+        } else if (first instanceof InstrPop && second instanceof InstrRet) {
+            code[i] = POP_RET;
+            code[i + 1] = register(((InstrPop) first).getDescriptor());
+        } else {
+            code[i] = EXEC;
+        }
+    }
+
+    /**
+     * Returns the register operand from the register descriptor.
+     * 
+     * @param descriptor
+     *            the register descriptor
+     * @return the register index
+     */
+    private static int register(int descriptor) {
+        return RegisterUtil.getRegisterIndex(descriptor);
+    }
+
+    /**
+     * Returns the memory operand from the register descriptor.
+     * 
+     * @param descriptor
+     *            the register descriptor
+     * @return the encoded memory operand
+     */
+    private static int memory(int descriptor) {
+        return Opcodes.memory(
+                RegisterUtil.getRegisterIndex(descriptor),
+                RegisterUtil.getRegisterOffset(descriptor));
+    }
+}
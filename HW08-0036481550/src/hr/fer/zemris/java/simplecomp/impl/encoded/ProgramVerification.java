@@ -0,0 +1,89 @@
+package hr.fer.zemris.java.simplecomp.impl.encoded;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@code ProgramVerification} is the result of the {@link ProgramVerifier}:
+ * errors which prevent the program from running without checks and the
+ * instructions whose integer operands are proven.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramVerifier
+ */
+public class ProgramVerification {
+
+    /** Errors found in the program */
+    private final List<String> errors;
+
+    /** Flags of locations reachable as instructions */
+    private final boolean[] reachable;
+
+    /** Flags of instructions whose integer operands are proven */
+    private final boolean[] proven;
+
+    /**
+     * Constructs a new {@code ProgramVerification} object.
+     * 
+     * @param errors
+     *            errors found in the program
+     * @param reachable
+     *            flags of locations reachable as instructions
+     * @param proven
+     *            flags of instructions whose integer operands are proven
+     */
+    ProgramVerification(
+            List<String> errors,
+            boolean[] reachable,
+            boolean[] proven) {
+        this.errors = Collections.unmodifiableList(errors);
+        this.reachable = reachable;
+        this.proven = proven;
+    }
+
+    /**
+     * Checks if the program is verified and can be run without checks.
+     * 
+     * @return {@code true} if no errors are found; {@code false} otherwise
+     */
+    public boolean isVerified() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * Returns the errors found in the program.
+     * 
+     * @return unmodifiable list of errors
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Checks if every register which the instruction reads as an integer is
+     * proven to hold an integer or nothing whenever the instruction runs.
+     * 
+     * @param address
+     *            address of the instruction
+     * @return {@code true} if operands are proven; {@code false} otherwise
+     * @throws IndexOutOfBoundsException
+     *             if address isn't in the memory
+     */
+    public boolean isProven(int address) {
+        return proven[address];
+    }
+
+    /**
+     * Checks if the memory location can be executed as an instruction.
+     * 
+     * @param address
+     *            the memory address
+     * @return {@code true} if location is reachable; {@code false} otherwise
+     * @throws IndexOutOfBoundsException
+     *             if address isn't in the memory
+     */
+    public boolean isReachable(int address) {
+        return reachable[address];
+    }
+}
@@ -0,0 +1,645 @@
+package hr.fer.zemris.java.simplecomp.impl.encoded;
+
+import static hr.fer.zemris.java.simplecomp.impl.encoded.Opcodes.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.Memory;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * {@code ProgramVerifier} checks a loaded program before it is run, so that
+ * {@link TrustedExecutionUnit} can skip the checks which the verifier has
+ * proven unnecessary.
+ * <p>
+ * Verifier follows every path of execution from address {@code 0} through
+ * the program encoded by {@link ProgramEncoder} and proves that:
+ * <ul>
+ * <li>every executed location holds an instruction with its own opcode,</li>
+ * <li>execution never falls out of the memory,</li>
+ * <li>every jump and call target is inside the memory,</li>
+ * <li>every register index is a valid register,</li>
+ * <li>every direct memory address is inside the memory and no instruction is
+ * overwritten by {@code input}.</li>
+ * </ul>
+ * Indirect memory accesses and return addresses depend on values computed at
+ * run time and are left to be checked while the program runs.
+ * <p>
+ * Verifier also infers which registers hold integers, or nothing, before
+ * every instruction. Instructions which read only such registers as integers
+ * are marked as proven, so their operands are read without type checks. A
+ * location pushed on the stack, popped from it or reached by a return address
+ * isn't known at verification, so {@code pop} loads a value of any type,
+ * {@code ret} may continue at any verified instruction and a {@code push} of
+ * a register which may hold an object widens every memory location.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramVerification
+ */
+public final class ProgramVerifier {
+
+    /** Encoded program */
+    private final int[] code;
+
+    /** Size of the memory */
+    private final int size;
+
+    /** Number of registers */
+    private final int registers;
+
+    /** Memory holding the program */
+    private final Memory memory;
+
+    /** Errors found in the program */
+    private final List<String> errors = new ArrayList<>();
+
+    /** Flags of locations reachable as instructions */
+    private final boolean[] reachable;
+
+    /** Addresses which still have to be verified */
+    private final int[] pending;
+
+    /** Number of addresses which still have to be verified */
+    private int count;
+
+    /** Masks of registers holding integers before instructions */
+    private final long[] states;
+
+    /** Flags of instructions whose state is known */
+    private final boolean[] seen;
+
+    /** Flags of instructions waiting to be visited again */
+    private final boolean[] queued;
+
+    /** Mask of registers holding integers after every {@code ret} */
+    private long returned;
+
+    /** Flag which tells if some {@code ret} has been visited */
+    private boolean returns;
+
+    /**
+     * Constructs a new {@code ProgramVerifier} object.
+     * 
+     * @param code
+     *            the encoded program
+     * @param memory
+     *            memory holding the program
+     * @param size
+     *            size of the memory
+     * @param registers
+     *            number of registers
+     */
+    private ProgramVerifier(
+            int[] code,
+            Memory memory,
+            int size,
+            int registers) {
+        this.code = code;
+        this.memory = memory;
+        this.size = size;
+        this.registers = registers;
+        this.reachable = new boolean[size];
+        this.pending = new int[size];
+        this.states = new long[size];
+        this.seen = new boolean[size];
+        this.queued = new boolean[size];
+    }
+
+    /**
+     * Verifies the program written in the memory. Registers are expected to
+     * hold values of any type when the program starts.
+     * 
+     * @param memory
+     *            memory holding the program
+     * @param size
+     *            size of the memory
+     * @param registers
+     *            number of registers
+     * @return the result of the verification
+     */
+    public static ProgramVerification verify(
+            Memory memory,
+            int size,
+            int registers) {
+        return verify(
+                new ProgramEncoder(memory, size).encode(),
+                memory,
+                0,
+                size,
+                registers);
+    }
+
+    /**
+     * Verifies the encoded program.
+     * 
+     * @param code
+     *            the program encoded by {@link ProgramEncoder}
+     * @param memory
+     *            memory holding the program
+     * @param entry
+     *            mask of registers holding integers or nothing when the
+     *            program starts
+     * @param size
+     *            size of the memory
+     * @param registers
+     *            number of registers
+     * @return the result of the verification
+     */
+    static ProgramVerification verify(
+            int[] code,
+            Memory memory,
+            long entry,
+            int size,
+            int registers) {
+        ProgramVerifier verifier = new ProgramVerifier(
+                code,
+                memory,
+                size,
+                registers);
+
+        if (registers > Long.SIZE) {
+            verifier.error(
+                    "Verifier can't track more than %d registers.",
+                    Long.SIZE);
+        }
+
+        verifier.visit(0);
+        while (verifier.count > 0) {
+            verifier.verifyAt(verifier.pending[--verifier.count]);
+        }
+
+        boolean[] proven = new boolean[size];
+        if (verifier.errors.isEmpty()) {
+            verifier.infer(entry, proven);
+        }
+
+        return new ProgramVerification(
+                verifier.errors,
+                verifier.reachable,
+                proven);
+    }
+
+    /**
+     * Returns the mask of registers which the instruction reads as integers.
+     * Instruction fails if one of them holds an object.
+     * 
+     * @param code
+     *            the encoded program
+     * @param pc
+     *            address of the instruction
+     * @return the mask of registers
+     */
+    static long integerReads(int[] code, int pc) {
+        int i = pc * WIDTH;
+
+        switch (code[i]) {
+            case MOVE_RR:
+                return bit(code[i + 2]);
+            case MOVE_RM:
+                return bit(index(code[i + 2]));
+            case MOVE_MN:
+                return bit(index(code[i + 1]));
+            case MOVE_MR:
+                return bit(index(code[i + 1])) | bit(code[i + 2]);
+            case MOVE_MM:
+                return bit(index(code[i + 1])) | bit(index(code[i + 2]));
+            case ADD:
+            case MUL:
+                return bit(code[i + 2]) | bit(code[i + 3]);
+            case INCREMENT:
+            case DECREMENT:
+            case INCREMENT_JUMP:
+            case DECREMENT_JUMP:
+                return bit(code[i + 1]);
+            case CALL:
+            case RET:
+            case PUSH:
+            case POP:
+            case PUSH_CALL:
+            case POP_RET:
+                return bit(Registers.STACK_REGISTER_INDEX);
+            case ECHO:
+                return RegisterUtil.isIndirect(code[i + 1])
+                        ? bit(RegisterUtil.getRegisterIndex(code[i + 1]))
+                        : 0;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Verifies the instruction at the address.
+     * 
+     * @param pc
+     *            the address
+     */
+    private void verifyAt(int pc) {
+        int i = pc * WIDTH;
+
+        switch (code[i]) {
+            case NONE:
+                error("Execution reaches data at address %d.", pc);
+                break;
+            case EXEC:
+                error("Instruction at address %d can't be verified.", pc);
+                break;
+            case HALT:
+                break;
+            case LOAD:
+                register(pc, code[i + 1]);
+                address(pc, code[i + 2]);
+                next(pc, 1);
+                break;
+            case MOVE_RN:
+            case INCREMENT:
+            case DECREMENT:
+                register(pc, code[i + 1]);
+                next(pc, 1);
+                break;
+            case MOVE_RR:
+            case TEST_EQUALS:
+                register(pc, code[i + 1]);
+                register(pc, code[i + 2]);
+                next(pc, 1);
+                break;
+            case MOVE_RM:
+                register(pc, code[i + 1]);
+                register(pc, index(code[i + 2]));
+                next(pc, 1);
+                break;
+            case MOVE_MN:
+                register(pc, index(code[i + 1]));
+                next(pc, 1);
+                break;
+            case MOVE_MR:
+                register(pc, index(code[i + 1]));
+                register(pc, code[i + 2]);
+                next(pc, 1);
+                break;
+            case MOVE_MM:
+                register(pc, index(code[i + 1]));
+                register(pc, index(code[i + 2]));
+                next(pc, 1);
+                break;
+            case ADD:
+            case MUL:
+                register(pc, code[i + 1]);
+                register(pc, code[i + 2]);
+                register(pc, code[i + 3]);
+                next(pc, 1);
+                break;
+            case JUMP:
+                target(pc, code[i + 1]);
+                break;
+            case JUMP_IF_TRUE:
+                target(pc, code[i + 1]);
+                next(pc, 1);
+                break;
+            case CALL:
+                register(pc, Registers.STACK_REGISTER_INDEX);
+                target(pc, code[i + 1]);
+                next(pc, 1);
+                break;
+            case RET:
+                register(pc, Registers.STACK_REGISTER_INDEX);
+                break;
+            case PUSH:
+            case POP:
+                register(pc, Registers.STACK_REGISTER_INDEX);
+                register(pc, code[i + 1]);
+                next(pc, 1);
+                break;
+            case ECHO:
+                register(pc, RegisterUtil.getRegisterIndex(code[i + 1]));
+                next(pc, 1);
+                break;
+            case INPUT:
+                if (address(pc, code[i + 1])
+                        && memory.getLocation(code[i + 1])
+                                instanceof Instruction) {
+                    error(
+                            "Input at address %d overwrites instruction at"
+                                    + " address %d.",
+                            pc,
+                            code[i + 1]);
+                }
+                next(pc, 1);
+                break;
+            case TEST_JUMP:
+                register(pc, code[i + 1]);
+                register(pc, code[i + 2]);
+                target(pc, code[i + 3]);
+                next(pc, 2);
+                break;
+            case INCREMENT_JUMP:
+            case DECREMENT_JUMP:
+                register(pc, code[i + 1]);
+                target(pc, code[i + 2]);
+                break;
+            case PUSH_CALL:
+                register(pc, Registers.STACK_REGISTER_INDEX);
+                register(pc, code[i + 1]);
+                target(pc, code[i + 2]);
+                next(pc, 2);
+                break;
+            case POP_RET:
+                register(pc, Registers.STACK_REGISTER_INDEX);
+                register(pc, code[i + 1]);
+                break;
+            default:
+                error("Unknown opcode %d at address %d.", code[i], pc);
+        }
+    }
+
+    /**
+     * Verifies that the register exists.
+     * 
+     * @param pc
+     *            address of the instruction
+     * @param index
+     *            register index
+     */
+    private void register(int pc, int index) {
+        if (index < 0 || index >= registers) {
+            error("Register r%d at address %d doesn't exist.", index, pc);
+        }
+    }
+
+    /**
+     * Verifies that the direct memory address is inside the memory.
+     * 
+     * @param pc
+     *            address of the instruction
+     * @param location
+     *            the memory address
+     * @return {@code true} if address is inside the memory; {@code false}
+     *         otherwise
+     */
+    private boolean address(int pc, int location) {
+        if (location < 0 || location >= size) {
+            error(
+                    "Address %d at address %d is outside of memory.",
+                    location,
+                    pc);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Verifies that the jump target is inside the memory and schedules it
+     * for verification.
+     * 
+     * @param pc
+     *            address of the instruction
+     * @param location
+     *            the jump target
+     */
+    private void target(int pc, int location) {
+        if (location < 0 || location >= size) {
+            error(
+                    "Jump target %d at address %d is outside of memory.",
+                    location,
+                    pc);
+            return;
+        }
+
+        visit(location);
+    }
+
+    /**
+     * Schedules the instruction following the instruction at the address for
+     * verification.
+     * 
+     * @param pc
+     *            address of the instruction
+     * @param length
+     *            number of locations the instruction takes
+     */
+    private void next(int pc, int length) {
+        if (pc + length >= size) {
+            error("Execution leaves the memory after address %d.", pc);
+            return;
+        }
+
+        visit(pc + length);
+    }
+
+    /**
+     * Schedules the address for verification if it isn't scheduled yet.
+     * 
+     * @param pc
+     *            the address
+     */
+    private void visit(int pc) {
+        if (!reachable[pc]) {
+            reachable[pc] = true;
+            pending[count++] = pc;
+        }
+    }
+
+    /**
+     * Adds an error.
+     * 
+     * @param format
+     *            format of the message
+     * @param args
+     *            arguments of the message
+     */
+    private void error(String format, Object... args) {
+        errors.add(String.format(format, args));
+    }
+
+    /**
+     * Infers the registers holding integers before every instruction and marks
+     * the instructions whose integer operands are proven.
+     * <p>
+     * Inference first assumes that no object is pushed on the stack. If that
+     * turns out to be wrong, it is repeated with every memory location
+     * holding a value of any type.
+     * 
+     * @param entry
+     *            mask of registers holding integers when the program starts
+     * @param proven
+     *            flags of proven instructions, filled by this method
+     */
+    private void infer(long entry, boolean[] proven) {
+        boolean objects = false;
+        while (flow(entry, objects) && !objects) {
+            objects = true;
+        }
+
+        for (int pc = 0; pc < size; pc++) {
+            long reads = integerReads(code, pc);
+            proven[pc] = seen[pc] && (states[pc] & reads) == reads;
+        }
+    }
+
+    /**
+     * Propagates the masks of registers holding integers from the first
+     * instruction until nothing changes.
+     * 
+     * @param entry
+     *            mask of registers holding integers when the program starts
+     * @param objects
+     *            flag which tells if objects can be pushed on the stack
+     * @return {@code true} if a register which may hold an object is pushed;
+     *         {@code false} otherwise
+     */
+    private boolean flow(long entry, boolean objects) {
+        Arrays.fill(seen, false);
+        returned = -1L;
+        returns = false;
+
+        boolean pushes = false;
+        enter(0, entry);
+        while (count > 0) {
+            int pc = pending[--count];
+            queued[pc] = false;
+
+            int i = pc * WIDTH;
+            long state = states[pc] | integerReads(code, pc);
+
+            switch (code[i]) {
+                case HALT:
+                    break;
+                case LOAD:
+                    state = isInteger(code[i + 2], objects)
+                            ? state | bit(code[i + 1])
+                            : state & ~bit(code[i + 1]);
+                    enter(pc + 1, state);
+                    break;
+                case MOVE_RN:
+                case MOVE_RR:
+                case MOVE_RM:
+                case ADD:
+                case MUL:
+                case INCREMENT:
+                case DECREMENT:
+                    enter(pc + 1, state | bit(code[i + 1]));
+                    break;
+                case JUMP:
+                    enter(code[i + 1], state);
+                    break;
+                case JUMP_IF_TRUE:
+                    enter(code[i + 1], state);
+                    enter(pc + 1, state);
+                    break;
+                case CALL:
+                    enter(code[i + 1], state);
+                    enter(pc + 1, state);
+                    break;
+                case RET:
+                    leave(state);
+                    break;
+                case PUSH:
+                    pushes |= (state & bit(code[i + 1])) == 0;
+                    enter(pc + 1, state);
+                    break;
+                case POP:
+                    enter(pc + 1, state & ~bit(code[i + 1]));
+                    break;
+                case TEST_JUMP:
+                    enter(code[i + 3], state);
+                    enter(pc + 2, state);
+                    break;
+                case INCREMENT_JUMP:
+                case DECREMENT_JUMP:
+                    enter(code[i + 2], state);
+                    break;
+                case PUSH_CALL:
+                    pushes |= (state & bit(code[i + 1])) == 0;
+                    enter(code[i + 2], state);
+                    enter(pc + 2, state);
+                    break;
+                case POP_RET:
+                    leave(state & ~bit(code[i + 1]));
+                    break;
+                default:
+                    enter(pc + 1, state);
+            }
+        }
+
+        return pushes;
+    }
+
+    /**
+     * Merges the state into the instruction at the address and schedules
+     * the instruction if its state has changed.
+     * 
+     * @param pc
+     *            address of the instruction
+     * @param state
+     *            mask of registers holding integers
+     */
+    private void enter(int pc, long state) {
+        if (seen[pc]) {
+            state &= states[pc];
+            if (state == states[pc]) {
+                return;
+            }
+        }
+
+        seen[pc] = true;
+        states[pc] = state;
+        if (!queued[pc]) {
+            queued[pc] = true;
+            pending[count++] = pc;
+        }
+    }
+
+    /**
+     * Merges the state after a {@code ret} into every verified instruction,
+     * since a return address is only known at run time.
+     * 
+     * @param state
+     *            mask of registers holding integers after the {@code ret}
+     */
+    private void leave(long state) {
+        if (returns && (returned & state) == returned) {
+            return;
+        }
+
+        returns = true;
+        returned &= state;
+        for (int pc = 0; pc < size; pc++) {
+            if (reachable[pc]) {
+                enter(pc, returned);
+            }
+        }
+    }
+
+    /**
+     * Checks if the memory location holds an integer or nothing whenever it
+     * is loaded. Only {@code push} writes objects to the memory.
+     * 
+     * @param location
+     *            the memory address
+     * @param objects
+     *            flag which tells if objects can be pushed on the stack
+     * @return {@code true} if location holds an integer or nothing;
+     *         {@code false} otherwise
+     */
+    private boolean isInteger(int location, boolean objects) {
+        Object value = memory.getLocation(location);
+
+        return !objects && (value == null || value instanceof Integer);
+    }
+
+    /**
+     * Returns the mask with the bit of the register.
+     * 
+     * @param index
+     *            register index
+     * @return the mask
+     */
+    private static long bit(int index) {
+        return 1L << index;
+    }
+}
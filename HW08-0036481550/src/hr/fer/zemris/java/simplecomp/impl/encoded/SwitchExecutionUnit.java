@@ -0,0 +1,405 @@
+package hr.fer.zemris.java.simplecomp.impl.encoded;
+
+import static hr.fer.zemris.java.simplecomp.impl.encoded.Opcodes.*;
+
+import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.InputChannel;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InputStreamUtil;
+import hr.fer.zemris.java.simplecomp.impl.instructions.OutputStreamUtil;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * {@code SwitchExecutionUnit} is a execution unit of a computer which encodes
+ * the program into an array of integers and interprets it with a single
+ * {@code switch} statement.
+ * <p>
+ * Program is encoded by {@link ProgramEncoder} exactly once so instruction
+ * objects aren't visited while the program is running, except for
+ * instructions encoded as {@link Opcodes#EXEC}. Program is expected not to
+ * modify its own instructions.
+ * <p>
+ * Encoded execution requires registers and memory which implement
+ * {@link PrimitiveRegisters} and {@link PrimitiveMemory}. Other computers are
+ * run by the {@link ExecutionUnitImpl}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExecutionUnit
+ * @see Opcodes
+ */
+public class SwitchExecutionUnit implements ExecutionUnit {
+
+    /** Index of the stack register */
+    private static final int STACK_INDEX = Registers.STACK_REGISTER_INDEX;
+
+    /**
+     * Runs a program written in the computer's memory. Output of the computer
+     * is flushed when the program stops, even if it fails.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    @Override
+    public boolean go(Computer computer) {
+        try {
+            return run(computer);
+        } finally {
+            OutputStreamUtil.flush(computer);
+        }
+    }
+
+    /**
+     * Runs a program written in the computer's memory.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    private boolean run(Computer computer) {
+        if (!(computer.getRegisters() instanceof PrimitiveRegisters)
+                || !(computer.getMemory() instanceof PrimitiveMemory)) {
+            return new ExecutionUnitImpl().go(computer);
+        }
+
+        PrimitiveRegisters regs = (PrimitiveRegisters) computer.getRegisters();
+        PrimitiveMemory mem = (PrimitiveMemory) computer.getMemory();
+
+        regs.setProgramCounter(0);
+
+        int[] code = new ProgramEncoder(mem, mem.getSize()).encode();
+
+        int pc = 0;
+        while (true) {
+            int i = pc * WIDTH;
+
+            switch (code[i]) {
+                case HALT:
+                    regs.setProgramCounter(pc);
+                    return true;
+                case LOAD:
+                    load(regs, mem, code[i + 1], code[i + 2]);
+                    pc++;
+                    break;
+                case MOVE_RN:
+                    regs.setInt(code[i + 1], code[i + 2]);
+                    pc++;
+                    break;
+                case MOVE_RR:
+                    regs.setInt(code[i + 1], readInt(computer, code[i + 2]));
+                    pc++;
+                    break;
+                case MOVE_RM:
+                    regs.setInt(
+                            code[i + 1],
+                            readMemory(computer, code[i + 2]));
+                    pc++;
+                    break;
+                case MOVE_MN:
+                    mem.setInt(address(computer, code[i + 1]), code[i + 2]);
+                    pc++;
+                    break;
+                case MOVE_MR: {
+                    int location = address(computer, code[i + 1]);
+                    mem.setInt(location, readInt(computer, code[i + 2]));
+                    pc++;
+                    break;
+                }
+                case MOVE_MM: {
+                    int location = address(computer, code[i + 1]);
+                    mem.setInt(location, readMemory(computer, code[i + 2]));
+                    pc++;
+                    break;
+                }
+                case ADD:
+                    regs.setInt(
+                            code[i + 1],
+                            readInt(computer, code[i + 2])
+                                    + readInt(computer, code[i + 3]));
+                    pc++;
+                    break;
+                case MUL:
+                    regs.setInt(
+                            code[i + 1],
+                            readInt(computer, code[i + 2])
+                                    * readInt(computer, code[i + 3]));
+                    pc++;
+                    break;
+                case INCREMENT:
+                    regs.setInt(
+                            code[i + 1],
+                            readInt(computer, code[i + 1]) + 1);
+                    pc++;
+                    break;
+                case DECREMENT:
+                    regs.setInt(
+                            code[i + 1],
+                            readInt(computer, code[i + 1]) - 1);
+                    pc++;
+                    break;
+                case TEST_EQUALS:
+                    testEquals(computer, code[i + 1], code[i + 2]);
+                    pc++;
+                    break;
+                case JUMP:
+                    pc = code[i + 1];
+                    break;
+                case JUMP_IF_TRUE:
+                    pc = regs.getFlag() ? code[i + 1] : pc + 1;
+                    break;
+                case CALL: {
+                    int sp = regs.getInt(STACK_INDEX);
+                    mem.setInt(sp, pc);
+                    regs.setInt(STACK_INDEX, sp - 1);
+                    pc = code[i + 1];
+                    break;
+                }
+                case RET: {
+                    int sp = regs.getInt(STACK_INDEX) + 1;
+                    regs.setInt(STACK_INDEX, sp);
+                    pc = mem.getInt(sp) + 1;
+                    break;
+                }
+                case PUSH:
+                    push(computer, code[i + 1]);
+                    pc++;
+                    break;
+                case POP:
+                    pop(regs, mem, code[i + 1]);
+                    pc++;
+                    break;
+                case ECHO:
+                    echo(computer, code[i + 1]);
+                    pc++;
+                    break;
+                case INPUT:
+                    input(computer, code[i + 1]);
+                    pc++;
+                    break;
+                case TEST_JUMP:
+                    testEquals(computer, code[i + 1], code[i + 2]);
+                    pc = regs.getFlag() ? code[i + 3] : pc + 2;
+                    break;
+                case INCREMENT_JUMP:
+                    regs.setInt(
+                            code[i + 1],
+                            readInt(computer, code[i + 1]) + 1);
+                    pc = code[i + 2];
+                    break;
+                case DECREMENT_JUMP:
+                    regs.setInt(
+                            code[i + 1],
+                            readInt(computer, code[i + 1]) - 1);
+                    pc = code[i + 2];
+                    break;
+                case PUSH_CALL: {
+                    push(computer, code[i + 1]);
+                    int sp = regs.getInt(STACK_INDEX);
+                    mem.setInt(sp, pc + 1);
+                    regs.setInt(STACK_INDEX, sp - 1);
+                    pc = code[i + 2];
+                    break;
+                }
+                case POP_RET: {
+                    pop(regs, mem, code[i + 1]);
+                    int sp = regs.getInt(STACK_INDEX) + 1;
+                    regs.setInt(STACK_INDEX, sp);
+                    pc = mem.getInt(sp) + 1;
+                    break;
+                }
+                case EXEC:
+                    regs.setProgramCounter(pc);
+                    if (((Instruction) mem.getLocation(pc)).execute(computer)) {
+                        return true;
+                    }
+                    pc = regs.getProgramCounter() + 1;
+                    break;
+                default:
+                    throw new ClassCastException(
+                            String.format(
+                                    "Memory location '%d' doesn't hold an"
+                                            + " instruction.",
+                                    pc));
+            }
+        }
+    }
+
+    /**
+     * Returns the integer value of the register with specified index.
+     * 
+     * @param computer
+     *            the computer
+     * @param index
+     *            register index
+     * @return the integer value of the register
+     */
+    private static int readInt(Computer computer, int index) {
+        return ((PrimitiveRegisters) computer.getRegisters())
+                .getIntOrZero(index);
+    }
+
+    /**
+     * Returns the memory address of the encoded memory operand.
+     * 
+     * @param computer
+     *            the computer
+     * @param operand
+     *            the encoded memory operand
+     * @return the memory address
+     */
+    private static int address(Computer computer, int operand) {
+        return readInt(computer, index(operand)) + offset(operand);
+    }
+
+    /**
+     * Returns the integer value from the memory location addressed by the
+     * encoded memory operand.
+     * 
+     * @param computer
+     *            the computer
+     * @param operand
+     *            the encoded memory operand
+     * @return the integer value from the memory location
+     */
+    private static int readMemory(Computer computer, int operand) {
+        PrimitiveMemory mem = (PrimitiveMemory) computer.getMemory();
+        int location = address(computer, operand);
+
+        return mem.getIntOrZero(location);
+    }
+
+    /**
+     * Loads the value from the memory location to the register.
+     * 
+     * @param regs
+     *            registers of the computer
+     * @param mem
+     *            memory of the computer
+     * @param index
+     *            register index
+     * @param location
+     *            the memory address
+     */
+    private static void load(
+            PrimitiveRegisters regs,
+            PrimitiveMemory mem,
+            int index,
+            int location) {
+        if (mem.isInteger(location)) {
+            regs.setInt(index, mem.getInt(location));
+        } else {
+            regs.setRegisterValue(index, mem.getLocation(location));
+        }
+    }
+
+    /**
+     * Sets the flag to {@code true} if two registers hold equal values.
+     * 
+     * @param computer
+     *            the computer
+     * @param first
+     *            index of the first register
+     * @param second
+     *            index of the second register
+     */
+    private static void testEquals(Computer computer, int first, int second) {
+        PrimitiveRegisters regs = (PrimitiveRegisters) computer.getRegisters();
+
+        if (regs.isInteger(first) && regs.isInteger(second)) {
+            regs.setFlag(regs.getInt(first) == regs.getInt(second));
+        } else {
+            Object value1 = RegisterUtil.getValue(computer, first);
+            Object value2 = RegisterUtil.getValue(computer, second);
+            regs.setFlag(value1.equals(value2));
+        }
+    }
+
+    /**
+     * Prints the value addressed by the register descriptor. Integers held
+     * directly in registers are printed without boxing them.
+     * 
+     * @param computer
+     *            the computer
+     * @param descriptor
+     *            the register descriptor
+     */
+    private static void echo(Computer computer, int descriptor) {
+        PrimitiveRegisters regs = (PrimitiveRegisters) computer.getRegisters();
+        int index = RegisterUtil.getRegisterIndex(descriptor);
+
+        if (!RegisterUtil.isIndirect(descriptor) && regs.isInteger(index)) {
+            OutputStreamUtil.print(computer, regs.getInt(index));
+        } else {
+            OutputStreamUtil.print(
+                    computer,
+                    RegisterUtil.getValue(computer, descriptor));
+        }
+    }
+
+    /**
+     * Pushes the value of the register on the stack.
+     * 
+     * @param computer
+     *            the computer
+     * @param index
+     *            register index
+     */
+    private static void push(Computer computer, int index) {
+        PrimitiveRegisters regs = (PrimitiveRegisters) computer.getRegisters();
+        PrimitiveMemory mem = (PrimitiveMemory) computer.getMemory();
+
+        int sp = regs.getInt(STACK_INDEX);
+        if (regs.isInteger(index)) {
+            mem.setInt(sp, regs.getInt(index));
+        } else {
+            mem.setLocation(sp, RegisterUtil.getValue(computer, index));
+        }
+        regs.setInt(STACK_INDEX, sp - 1);
+    }
+
+    /**
+     * Pops the value from the stack to the register.
+     * 
+     * @param regs
+     *            registers of the computer
+     * @param mem
+     *            memory of the computer
+     * @param index
+     *            register index
+     */
+    private static void pop(
+            PrimitiveRegisters regs,
+            PrimitiveMemory mem,
+            int index) {
+        int sp = regs.getInt(STACK_INDEX) + 1;
+        regs.setInt(STACK_INDEX, sp);
+        load(regs, mem, index, sp);
+    }
+
+    /**
+     * Reads an integer from standard input into the memory location. Flag is
+     * set to {@code true} if the line holds an integer.
+     * 
+     * @param computer
+     *            the computer
+     * @param location
+     *            the memory address
+     */
+    private static void input(Computer computer, int location) {
+        long number = InputStreamUtil.readInt(computer);
+
+        if (number == InputChannel.INVALID) {
+            computer.getRegisters().setFlag(false);
+            return;
+        }
+
+        computer.getRegisters().setFlag(true);
+        ((PrimitiveMemory) computer.getMemory()).setInt(location, (int) number);
+    }
+}
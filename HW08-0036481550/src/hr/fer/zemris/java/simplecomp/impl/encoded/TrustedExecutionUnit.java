@@ -0,0 +1,664 @@
+package hr.fer.zemris.java.simplecomp.impl.encoded;
+
+import static hr.fer.zemris.java.simplecomp.impl.encoded.Opcodes.*;
+
+import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.InputChannel;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InputStreamUtil;
+import hr.fer.zemris.java.simplecomp.impl.instructions.OutputStreamUtil;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * {@code TrustedExecutionUnit} is a execution unit of a computer which runs
+ * programs proven safe by the {@link ProgramVerifier} without the checks the
+ * verifier has made unnecessary.
+ * <p>
+ * Registers and memory are copied into plain arrays before the program runs
+ * and are written back when it stops, so register indices, direct addresses
+ * and jump targets are used without bounds checks and instructions are never
+ * cast. Registers of instructions proven by the verifier are read as integers
+ * without checking their types. Registers of other instructions, indirect
+ * memory accesses and return addresses are still checked.
+ * Returning to an address which the verifier hasn't proven to be an
+ * instruction stops the program with an {@link IllegalStateException}.
+ * <p>
+ * Programs which aren't verified are run by the {@link SwitchExecutionUnit}
+ * and computers without {@link PrimitiveRegisters} and
+ * {@link PrimitiveMemory} by the {@link ExecutionUnitImpl}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramVerifier
+ */
+public class TrustedExecutionUnit implements ExecutionUnit {
+
+    /**
+     * Runs a program written in the computer's memory. Output of the computer
+     * is flushed when the program stops, even if it fails.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    @Override
+    public boolean go(Computer computer) {
+        try {
+            return run(computer);
+        } finally {
+            OutputStreamUtil.flush(computer);
+        }
+    }
+
+    /**
+     * Verifies and runs a program written in the computer's memory.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    private boolean run(Computer computer) {
+        if (!(computer.getRegisters() instanceof PrimitiveRegisters)
+                || !(computer.getMemory() instanceof PrimitiveMemory)) {
+            return new ExecutionUnitImpl().go(computer);
+        }
+
+        PrimitiveRegisters regs = (PrimitiveRegisters) computer.getRegisters();
+        PrimitiveMemory mem = (PrimitiveMemory) computer.getMemory();
+
+        long entry = 0;
+        for (int i = 0; i < regs.getSize() && i < Long.SIZE; i++) {
+            if (regs.isInteger(i) || regs.getRegisterValue(i) == null) {
+                entry |= 1L << i;
+            }
+        }
+
+        int[] code = new ProgramEncoder(mem, mem.getSize()).encode();
+        ProgramVerification verification = ProgramVerifier
+                .verify(code, mem, entry, mem.getSize(), regs.getSize());
+
+        if (!verification.isVerified()) {
+            return new SwitchExecutionUnit().go(computer);
+        }
+
+        Machine machine = new Machine(computer, verification);
+        try {
+            machine.run(code);
+        } finally {
+            machine.store();
+        }
+
+        return true;
+    }
+
+    /**
+     * {@code Machine} holds the registers and memory of a computer in plain
+     * arrays while a verified program runs.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static final class Machine {
+
+        /** Type tag of an empty location */
+        private static final byte EMPTY = 0;
+
+        /** Type tag of a location holding an integer */
+        private static final byte INTEGER = 1;
+
+        /** Type tag of a location holding any other object */
+        private static final byte OBJECT = 2;
+
+        /** Index of the stack register */
+        private static final int STACK_INDEX = Registers.STACK_REGISTER_INDEX;
+
+        /** The computer */
+        private final Computer computer;
+
+        /** Result of the verification of the program */
+        private final ProgramVerification verification;
+
+        /** Flags of instructions whose integer operands are proven */
+        private final boolean[] proven;
+
+        /** Size of the memory */
+        private final int size;
+
+        /** Type tags of registers */
+        private final byte[] regTypes;
+
+        /** Integer values of registers */
+        private final int[] regInts;
+
+        /** Other values of registers */
+        private final Object[] regObjects;
+
+        /** Type tags of memory locations */
+        private final byte[] memTypes;
+
+        /** Integer values of memory locations */
+        private final int[] memInts;
+
+        /** Other values of memory locations */
+        private final Object[] memObjects;
+
+        /** The flag */
+        private boolean flag;
+
+        /** Address of the current instruction */
+        private int pc;
+
+        /**
+         * Constructs a new {@code Machine} and copies registers and memory of
+         * the computer.
+         * 
+         * @param computer
+         *            the computer
+         * @param verification
+         *            result of the verification of the program
+         */
+        Machine(Computer computer, ProgramVerification verification) {
+            PrimitiveRegisters regs = (PrimitiveRegisters) computer
+                    .getRegisters();
+            PrimitiveMemory mem = (PrimitiveMemory) computer.getMemory();
+
+            this.computer = computer;
+            this.verification = verification;
+            this.size = mem.getSize();
+            this.flag = regs.getFlag();
+
+            this.proven = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                proven[i] = verification.isProven(i);
+            }
+
+            int count = regs.getSize();
+            this.regTypes = new byte[count];
+            this.regInts = new int[count];
+            this.regObjects = new Object[count];
+            for (int i = 0; i < count; i++) {
+                if (regs.isInteger(i)) {
+                    regTypes[i] = INTEGER;
+                    regInts[i] = regs.getInt(i);
+                } else {
+                    regObjects[i] = regs.getRegisterValue(i);
+                    regTypes[i] = regObjects[i] == null ? EMPTY : OBJECT;
+                }
+            }
+
+            this.memTypes = new byte[size];
+            this.memInts = new int[size];
+            this.memObjects = new Object[size];
+            for (int i = 0; i < size; i++) {
+                if (mem.isInteger(i)) {
+                    memTypes[i] = INTEGER;
+                    memInts[i] = mem.getInt(i);
+                } else {
+                    memObjects[i] = mem.getLocation(i);
+                    memTypes[i] = memObjects[i] == null ? EMPTY : OBJECT;
+                }
+            }
+        }
+
+        /**
+         * Writes registers, flag, program counter and changed memory
+         * locations back to the computer.
+         */
+        void store() {
+            PrimitiveRegisters regs = (PrimitiveRegisters) computer
+                    .getRegisters();
+            PrimitiveMemory mem = (PrimitiveMemory) computer.getMemory();
+
+            for (int i = 0; i < regTypes.length; i++) {
+                if (regTypes[i] == INTEGER) {
+                    regs.setInt(i, regInts[i]);
+                } else {
+                    regs.setRegisterValue(i, regObjects[i]);
+                }
+            }
+
+            // unchanged locations aren't written, so shared pages stay shared
+            for (int i = 0; i < size; i++) {
+                if (memTypes[i] == INTEGER) {
+                    if (!mem.isInteger(i) || mem.getInt(i) != memInts[i]) {
+                        mem.setInt(i, memInts[i]);
+                    }
+                } else if (mem.isInteger(i)
+                        || mem.getLocation(i) != memObjects[i]) {
+                    mem.setLocation(i, memObjects[i]);
+                }
+            }
+
+            regs.setFlag(flag);
+            regs.setProgramCounter(pc);
+        }
+
+        /**
+         * Runs the verified program from address {@code 0}.
+         * 
+         * @param code
+         *            the encoded program
+         */
+        void run(int[] code) {
+            pc = 0;
+            while (true) {
+                int i = pc * WIDTH;
+
+                if (!proven[pc]) {
+                    check(ProgramVerifier.integerReads(code, pc));
+                }
+
+                switch (code[i]) {
+                    case HALT:
+                        return;
+                    case LOAD:
+                        copyFromMemory(code[i + 1], code[i + 2]);
+                        pc++;
+                        break;
+                    case MOVE_RN:
+                        setInt(code[i + 1], code[i + 2]);
+                        pc++;
+                        break;
+                    case MOVE_RR:
+                        setInt(code[i + 1], readInt(code[i + 2]));
+                        pc++;
+                        break;
+                    case MOVE_RM:
+                        setInt(code[i + 1], readMemory(address(code[i + 2])));
+                        pc++;
+                        break;
+                    case MOVE_MN:
+                        setMemoryInt(address(code[i + 1]), code[i + 2]);
+                        pc++;
+                        break;
+                    case MOVE_MR: {
+                        int location = address(code[i + 1]);
+                        setMemoryInt(location, readInt(code[i + 2]));
+                        pc++;
+                        break;
+                    }
+                    case MOVE_MM: {
+                        int location = address(code[i + 1]);
+                        setMemoryInt(
+                                location,
+                                readMemory(address(code[i + 2])));
+                        pc++;
+                        break;
+                    }
+                    case ADD:
+                        setInt(
+                                code[i + 1],
+                                readInt(code[i + 2]) + readInt(code[i + 3]));
+                        pc++;
+                        break;
+                    case MUL:
+                        setInt(
+                                code[i + 1],
+                                readInt(code[i + 2]) * readInt(code[i + 3]));
+                        pc++;
+                        break;
+                    case INCREMENT:
+                        setInt(code[i + 1], readInt(code[i + 1]) + 1);
+                        pc++;
+                        break;
+                    case DECREMENT:
+                        setInt(code[i + 1], readInt(code[i + 1]) - 1);
+                        pc++;
+                        break;
+                    case TEST_EQUALS:
+                        testEquals(code[i + 1], code[i + 2]);
+                        pc++;
+                        break;
+                    case JUMP:
+                        pc = code[i + 1];
+                        break;
+                    case JUMP_IF_TRUE:
+                        pc = flag ? code[i + 1] : pc + 1;
+                        break;
+                    case CALL:
+                        call(pc, code[i + 1]);
+                        break;
+                    case RET:
+                        ret();
+                        break;
+                    case PUSH:
+                        push(code[i + 1]);
+                        pc++;
+                        break;
+                    case POP:
+                        pop(code[i + 1]);
+                        pc++;
+                        break;
+                    case ECHO:
+                        echo(code[i + 1]);
+                        pc++;
+                        break;
+                    case INPUT:
+                        input(code[i + 1]);
+                        pc++;
+                        break;
+                    case TEST_JUMP:
+                        testEquals(code[i + 1], code[i + 2]);
+                        pc = flag ? code[i + 3] : pc + 2;
+                        break;
+                    case INCREMENT_JUMP:
+                        setInt(code[i + 1], readInt(code[i + 1]) + 1);
+                        pc = code[i + 2];
+                        break;
+                    case DECREMENT_JUMP:
+                        setInt(code[i + 1], readInt(code[i + 1]) - 1);
+                        pc = code[i + 2];
+                        break;
+                    case PUSH_CALL:
+                        push(code[i + 1]);
+                        call(pc + 1, code[i + 2]);
+                        break;
+                    case POP_RET:
+                        pop(code[i + 1]);
+                        ret();
+                        break;
+                    default:
+                        throw new IllegalStateException(
+                                String.format(
+                                        "Address %d isn't verified.",
+                                        pc));
+                }
+            }
+        }
+
+        /**
+         * Checks that the registers which the unproven instruction reads as
+         * integers don't hold objects.
+         * 
+         * @param reads
+         *            mask of registers read as integers
+         * @throws ClassCastException
+         *             if one of registers holds an object
+         */
+        private void check(long reads) {
+            for (int index = 0; reads != 0; index++, reads >>>= 1) {
+                if ((reads & 1) != 0 && regTypes[index] == OBJECT) {
+                    throw new ClassCastException(
+                            String.format(
+                                    "Register '%d' doesn't hold an integer.",
+                                    index));
+                }
+            }
+        }
+
+        /**
+         * Returns the integer value of the register. Register must be proven
+         * or checked not to hold an object. Empty register is read as
+         * {@code 0}, since its integer value is never set.
+         * 
+         * @param index
+         *            register index
+         * @return the integer value
+         */
+        private int readInt(int index) {
+            return regInts[index];
+        }
+
+        /**
+         * Sets the integer value of the register.
+         * 
+         * @param index
+         *            register index
+         * @param value
+         *            the value
+         */
+        private void setInt(int index, int value) {
+            regTypes[index] = INTEGER;
+            regInts[index] = value;
+            regObjects[index] = null;
+        }
+
+        /**
+         * Returns the value of the register as an object. Empty register is
+         * read as {@code 0}.
+         * 
+         * @param index
+         *            register index
+         * @return the value
+         */
+        private Object readValue(int index) {
+            if (regTypes[index] == OBJECT) {
+                return regObjects[index];
+            }
+
+            return readInt(index);
+        }
+
+        /**
+         * Returns the memory address of the encoded memory operand.
+         * 
+         * @param operand
+         *            the encoded memory operand
+         * @return the memory address
+         * @throws IndexOutOfBoundsException
+         *             if address is outside of memory
+         */
+        private int address(int operand) {
+            return checked(readInt(index(operand)) + offset(operand));
+        }
+
+        /**
+         * Checks if the computed memory address is inside the memory.
+         * 
+         * @param location
+         *            the memory address
+         * @return the memory address
+         * @throws IndexOutOfBoundsException
+         *             if address is outside of memory
+         */
+        private int checked(int location) {
+            if (location < 0 || location >= size) {
+                throw new IndexOutOfBoundsException(
+                        String.format(
+                                "Memory location '%d' is outside of memory.",
+                                location));
+            }
+
+            return location;
+        }
+
+        /**
+         * Returns the integer value of the memory location. Empty location
+         * is read as {@code 0}.
+         * 
+         * @param location
+         *            the memory address
+         * @return the integer value
+         * @throws ClassCastException
+         *             if location doesn't hold an integer
+         */
+        private int readMemory(int location) {
+            switch (memTypes[location]) {
+                case INTEGER:
+                    return memInts[location];
+                case EMPTY:
+                    return 0;
+                default:
+                    throw new ClassCastException(
+                            String.format(
+                                    "Memory location '%d' doesn't hold an"
+                                            + " integer.",
+                                    location));
+            }
+        }
+
+        /**
+         * Sets the integer value of the memory location.
+         * 
+         * @param location
+         *            the memory address
+         * @param value
+         *            the value
+         */
+        private void setMemoryInt(int location, int value) {
+            memTypes[location] = INTEGER;
+            memInts[location] = value;
+            memObjects[location] = null;
+        }
+
+        /**
+         * Copies the value of the memory location to the register.
+         * 
+         * @param index
+         *            register index
+         * @param location
+         *            the memory address
+         */
+        private void copyFromMemory(int index, int location) {
+            regTypes[index] = memTypes[location];
+            regInts[index] = memInts[location];
+            regObjects[index] = memObjects[location];
+        }
+
+        /**
+         * Sets the flag to {@code true} if two registers hold equal values.
+         * 
+         * @param first
+         *            index of the first register
+         * @param second
+         *            index of the second register
+         */
+        private void testEquals(int first, int second) {
+            if (regTypes[first] == INTEGER && regTypes[second] == INTEGER) {
+                flag = regInts[first] == regInts[second];
+            } else {
+                flag = readValue(first).equals(readValue(second));
+            }
+        }
+
+        /**
+         * Returns the integer value of the stack register.
+         * 
+         * @return the stack pointer
+         */
+        private int stackPointer() {
+            return regInts[STACK_INDEX];
+        }
+
+        /**
+         * Pushes the return address and jumps to the subroutine.
+         * 
+         * @param from
+         *            address of the calling instruction
+         * @param target
+         *            address of the subroutine
+         */
+        private void call(int from, int target) {
+            int sp = stackPointer();
+            setMemoryInt(checked(sp), from);
+            setInt(STACK_INDEX, sp - 1);
+            pc = target;
+        }
+
+        /**
+         * Pops the return address and jumps after the calling instruction.
+         * 
+         * @throws IllegalStateException
+         *             if return address isn't verified
+         */
+        private void ret() {
+            int sp = stackPointer() + 1;
+            setInt(STACK_INDEX, sp);
+
+            int target = readMemory(checked(sp)) + 1;
+            if (target < 0 || target >= size
+                    || !verification.isReachable(target)) {
+                throw new IllegalStateException(
+                        String.format(
+                                "Return address %d isn't verified.",
+                                target));
+            }
+
+            pc = target;
+        }
+
+        /**
+         * Pushes the value of the register on the stack. Empty register is
+         * pushed as {@code 0}.
+         * 
+         * @param index
+         *            register index
+         */
+        private void push(int index) {
+            int sp = stackPointer();
+            int location = checked(sp);
+
+            if (regTypes[index] == OBJECT) {
+                memTypes[location] = OBJECT;
+                memObjects[location] = regObjects[index];
+            } else {
+                setMemoryInt(location, readInt(index));
+            }
+
+            setInt(STACK_INDEX, sp - 1);
+        }
+
+        /**
+         * Pops the value from the stack to the register.
+         * 
+         * @param index
+         *            register index
+         */
+        private void pop(int index) {
+            int sp = stackPointer() + 1;
+            setInt(STACK_INDEX, sp);
+            copyFromMemory(index, checked(sp));
+        }
+
+        /**
+         * Prints the value addressed by the register descriptor.
+         * 
+         * @param descriptor
+         *            the register descriptor
+         */
+        private void echo(int descriptor) {
+            int index = RegisterUtil.getRegisterIndex(descriptor);
+
+            if (!RegisterUtil.isIndirect(descriptor)) {
+                if (regTypes[index] == OBJECT) {
+                    OutputStreamUtil.print(computer, regObjects[index]);
+                } else {
+                    OutputStreamUtil.print(computer, readInt(index));
+                }
+                return;
+            }
+
+            int location = checked(
+                    readInt(index)
+                            + RegisterUtil.getRegisterOffset(descriptor));
+            if (memTypes[location] == OBJECT) {
+                OutputStreamUtil.print(computer, memObjects[location]);
+            } else {
+                OutputStreamUtil.print(computer, readMemory(location));
+            }
+        }
+
+        /**
+         * Reads an integer from the input into the memory location. Flag is
+         * set to {@code true} if the line holds an integer.
+         * 
+         * @param location
+         *            the memory address
+         */
+        private void input(int location) {
+            long number = InputStreamUtil.readInt(computer);
+
+            if (number == InputChannel.INVALID) {
+                flag = false;
+                return;
+            }
+
+            flag = true;
+            setMemoryInt(location, (int) number);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package hr.fer.zemris.java.simplecomp.impl.fusion;
+
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * {@code FusedInstruction} class represents two consecutive instructions
+ * executed as one. It is written over the first of the two instructions while
+ * the second instruction stays at its address, so jumps to the second
+ * instruction still work.
+ * <p>
+ * The first instruction must not change the program counter. After it is
+ * executed the program counter is moved to the address of the second
+ * instruction and the second instruction is executed, so both instructions
+ * have exactly the same effects as if they were executed one by one.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see SuperinstructionFuser
+ */
+public class FusedInstruction implements Instruction {
+
+    /** First instruction */
+    private Instruction first;
+
+    /** Second instruction */
+    private Instruction second;
+
+    /**
+     * Constructs a new {@code FusedInstruction} object from two instructions.
+     * 
+     * @param first
+     *            the first instruction, which doesn't change the program
+     *            counter
+     * @param second
+     *            the second instruction
+     */
+    public FusedInstruction(Instruction first, Instruction second) {
+        if (first == null || second == null) {
+            throw new IllegalArgumentException("Instructions can't be null!");
+        }
+
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * Executes this instruction on specified computer.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     */
+    @Override
+    public boolean execute(Computer computer) {
+        Registers registers = computer.getRegisters();
+        int pc = registers.getProgramCounter();
+
+        if (first.execute(computer)) {
+            return true;
+        }
+
+        registers.setProgramCounter(pc + 1);
+
+        return second.execute(computer);
+    }
+
+    /**
+     * Returns the first instruction.
+     * 
+     * @return the first instruction
+     */
+    public Instruction getFirst() {
+        return first;
+    }
+
+    /**
+     * Returns the second instruction.
+     * 
+     * @return the second instruction
+     */
+    public Instruction getSecond() {
+        return second;
+    }
+}
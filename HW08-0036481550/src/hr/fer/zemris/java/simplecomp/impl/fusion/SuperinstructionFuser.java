@@ -0,0 +1,86 @@
+package hr.fer.zemris.java.simplecomp.impl.fusion;
+
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractUnaryInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrCall;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJump;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJumpIfTrue;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPop;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPush;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrRet;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrTestEquals;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.Memory;
+
+/**
+ * {@code SuperinstructionFuser} is a load-time pass which replaces common
+ * pairs of instructions in the program image with {@link FusedInstruction}
+ * objects. Fused pairs are:
+ * <ul>
+ * <li>{@code testEquals} followed by {@code jumpIfTrue},</li>
+ * <li>{@code increment} or {@code decrement} followed by {@code jump},</li>
+ * <li>{@code push} followed by {@code call},</li>
+ * <li>{@code pop} followed by {@code ret}.</li>
+ * </ul>
+ * The second instruction of every pair is left in place, so programs jumping
+ * into the middle of a pair behave as before.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see FusedInstruction
+ */
+public class SuperinstructionFuser {
+
+    /**
+     * Private constructor. Class only holds static methods.
+     */
+    private SuperinstructionFuser() {
+    }
+
+    /**
+     * Fuses instruction pairs in the memory.
+     * 
+     * @param memory
+     *            memory holding the program
+     * @param size
+     *            size of the memory
+     * @return the number of fused pairs
+     */
+    public static int fuse(Memory memory, int size) {
+        int fused = 0;
+
+        for (int address = 0; address + 1 < size; address++) {
+            Object first = memory.getLocation(address);
+            Object second = memory.getLocation(address + 1);
+
+            if (canFuse(first, second)) {
+                memory.setLocation(
+                        address,
+                        new FusedInstruction(
+                                (Instruction) first,
+                                (Instruction) second));
+                fused++;
+            }
+        }
+
+        return fused;
+    }
+
+    /**
+     * Checks if two values from consecutive memory locations form one of
+     * fused pairs.
+     * 
+     * @param first
+     *            value of the first location
+     * @param second
+     *            value of the second location
+     * @return {@code true} if values can be fused; {@code false} otherwise
+     */
+    private static boolean canFuse(Object first, Object second) {
+        return first instanceof InstrTestEquals
+                && second instanceof InstrJumpIfTrue
+                || first instanceof AbstractUnaryInstr
+                        && second instanceof InstrJump
+                || first instanceof InstrPush && second instanceof InstrCall
+                || first instanceof InstrPop && second instanceof InstrRet;
+    }
+}
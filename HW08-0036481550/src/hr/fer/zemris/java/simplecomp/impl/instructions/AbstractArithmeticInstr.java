@@ -1,7 +1,7 @@
 package hr.fer.zemris.java.simplecomp.impl.instructions;
 
 import java.util.List;
-import java.util.function.BinaryOperator;
+import java.util.function.IntBinaryOperator;
 
 import hr.fer.zemris.java.simplecomp.RegisterUtil;
 import hr.fer.zemris.java.simplecomp.models.Computer;
@@ -39,7 +39,7 @@ public abstract class AbstractArithmeticInstr implements Instruction {
     /**
      * Arithmetic operation that is going to be performed on the two operands
      */
-    private BinaryOperator<Integer> operation;
+    private IntBinaryOperator operation;
 
     /**
      * Constructs a new {@code AbstractArithmeticInstr} object with given
@@ -51,7 +51,7 @@ public abstract class AbstractArithmeticInstr implements Instruction {
      *            operation of this instruction
      */
     AbstractArithmeticInstr(List<InstructionArgument> arguments,
-            BinaryOperator<Integer> operation) {
+            IntBinaryOperator operation) {
         if (arguments.size() != 3) {
             throw new IllegalArgumentException("Expected 3 arguments!");
         }
@@ -78,14 +78,51 @@ public abstract class AbstractArithmeticInstr implements Instruction {
      */
     @Override
     public boolean execute(Computer computer) {
-        Object val1 = RegisterUtil.getValue(computer, descriptor2);
+        int val1 = RegisterUtil.getIntValue(computer, descriptor2);
 
-        Object val2 = RegisterUtil.getValue(computer, descriptor3);
+        int val2 = RegisterUtil.getIntValue(computer, descriptor3);
 
-        computer.getRegisters().setRegisterValue(
+        RegisterUtil.setIntValue(
+                computer,
                 RegisterUtil.getRegisterIndex(descriptor1),
-                operation.apply((Integer) val1, (Integer) val2));
+                operation.applyAsInt(val1, val2));
 
         return false;
     }
+
+    /**
+     * Returns the register descriptor of the result register.
+     * 
+     * @return the register descriptor of the result register
+     */
+    public int getResultDescriptor() {
+        return descriptor1;
+    }
+
+    /**
+     * Returns the register descriptor of the first operand.
+     * 
+     * @return the register descriptor of the first operand
+     */
+    public int getFirstOperandDescriptor() {
+        return descriptor2;
+    }
+
+    /**
+     * Returns the register descriptor of the second operand.
+     * 
+     * @return the register descriptor of the second operand
+     */
+    public int getSecondOperandDescriptor() {
+        return descriptor3;
+    }
+
+    /**
+     * Returns the arithmetic operation of this instruction.
+     * 
+     * @return the arithmetic operation of this instruction
+     */
+    public IntBinaryOperator getOperation() {
+        return operation;
+    }
 }
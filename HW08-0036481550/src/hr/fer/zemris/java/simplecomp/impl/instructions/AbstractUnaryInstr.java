@@ -1,7 +1,7 @@
 package hr.fer.zemris.java.simplecomp.impl.instructions;
 
 import java.util.List;
-import java.util.function.UnaryOperator;
+import java.util.function.IntUnaryOperator;
 
 import hr.fer.zemris.java.simplecomp.RegisterUtil;
 import hr.fer.zemris.java.simplecomp.models.Computer;
@@ -31,7 +31,7 @@ public abstract class AbstractUnaryInstr implements Instruction {
     private int descriptor;
 
     /** Arithmetic operation that is going to be performed on the operand */
-    private UnaryOperator<Integer> operation;
+    private IntUnaryOperator operation;
 
     /**
      * Constructs a new {@code AbstractUnaryInstr} object with given arguments
@@ -43,7 +43,7 @@ public abstract class AbstractUnaryInstr implements Instruction {
      *            operation of this instruction
      */
     AbstractUnaryInstr(List<InstructionArgument> arguments,
-            UnaryOperator<Integer> operation) {
+            IntUnaryOperator operation) {
         if (arguments.size() != 1) {
             throw new IllegalArgumentException("Expected 1 arguments!");
         }
@@ -66,13 +66,31 @@ public abstract class AbstractUnaryInstr implements Instruction {
      */
     @Override
     public boolean execute(Computer computer) {
-        Object val = RegisterUtil.getValue(computer, descriptor);
+        int val = RegisterUtil.getIntValue(computer, descriptor);
 
-        RegisterUtil.setValue(
+        RegisterUtil.setIntValue(
                 computer,
                 RegisterUtil.getRegisterIndex(descriptor),
-                operation.apply((Integer) val));
+                operation.applyAsInt(val));
 
         return false;
     }
+
+    /**
+     * Returns the register descriptor of the result and operand register.
+     * 
+     * @return the register descriptor of the result and operand register
+     */
+    public int getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * Returns the arithmetic operation of this instruction.
+     * 
+     * @return the arithmetic operation of this instruction
+     */
+    public IntUnaryOperator getOperation() {
+        return operation;
+    }
 }
@@ -1,21 +1,25 @@
 package hr.fer.zemris.java.simplecomp.impl.instructions;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+
+import hr.fer.zemris.java.simplecomp.impl.InputChannel;
+import hr.fer.zemris.java.simplecomp.impl.InteractiveComputer;
+import hr.fer.zemris.java.simplecomp.impl.StreamInputChannel;
+import hr.fer.zemris.java.simplecomp.models.Computer;
 
 /**
- * {@code InputStreamUtil} is a class used to read from standard input.
+ * {@code InputStreamUtil} is a class used to read from standard input or from
+ * the input of an {@link InteractiveComputer}.
  * 
  * @author Karlo Vrbić
  * @version 1.0
  */
 public class InputStreamUtil {
 
-    /** Reader of standarad input */
-    private static final BufferedReader br = new BufferedReader(
-            new InputStreamReader(new BufferedInputStream(System.in)));
+    /** Channel of standarad input */
+    private static final InputChannel STANDARD_INPUT = new StreamInputChannel(
+            System.in);
 
     /**
      * Returns the next line.
@@ -23,24 +27,119 @@ public class InputStreamUtil {
      * @return the next line
      */
     public static String readLine() {
+        return readLine(STANDARD_INPUT);
+    }
+
+    /**
+     * Returns the next line from the input of the computer. Computers without
+     * their own input read from standard input. Output of the computer is
+     * flushed first, so prompts are visible before the program waits.
+     * 
+     * @param computer
+     *            the computer which reads the line
+     * @return the next line
+     * @throws UncheckedIOException
+     *             if computer's own input can't be read
+     */
+    public static String readLine(Computer computer) {
+        OutputStreamUtil.flush(computer);
+
+        return readLine(getInput(computer));
+    }
+
+    /**
+     * Reads the next line from the input of the computer and parses it as an
+     * integer. Output of the computer is flushed first.
+     * 
+     * @param computer
+     *            the computer which reads the integer
+     * @return the integer or {@link InputChannel#INVALID} if line isn't a
+     *         valid integer or if input has ended
+     * @throws UncheckedIOException
+     *             if computer's own input can't be read
+     */
+    public static long readInt(Computer computer) {
+        OutputStreamUtil.flush(computer);
+
+        InputChannel channel = getInput(computer);
+        long number = InputChannel.INVALID;
+        try {
+            number = channel.readInt();
+        } catch (IOException e) {
+            fail(channel, e);
+        }
+
+        return number;
+    }
+
+    /**
+     * Returns the input of the computer. Computers without their own input
+     * read from standard input.
+     * 
+     * @param computer
+     *            the computer
+     * @return the input of the computer
+     */
+    public static InputChannel getInput(Computer computer) {
+        if (computer instanceof InteractiveComputer) {
+            InputChannel input = ((InteractiveComputer) computer).getInput();
+
+            if (input != null) {
+                return input;
+            }
+        }
+
+        return STANDARD_INPUT;
+    }
+
+    /**
+     * Returns the next line from the channel.
+     * 
+     * @param channel
+     *            the channel
+     * @return the next line
+     * @throws UncheckedIOException
+     *             if channel isn't standard input and it can't be read
+     */
+    private static String readLine(InputChannel channel) {
         String line = null;
 
         try {
-            line = br.readLine();
+            line = channel.readLine();
         } catch (IOException e) {
-            System.err.println();
-            System.exit(-3);
+            fail(channel, e);
         }
 
         return line;
     }
 
+    /**
+     * Handles the failed read from the channel. Standard input belongs to the
+     * interactive simulator, so the simulator is terminated. Any other channel
+     * belongs to a single computer, so the error is left to whoever runs it.
+     * 
+     * @param channel
+     *            the channel
+     * @param e
+     *            the error
+     * @throws UncheckedIOException
+     *             if channel isn't standard input
+     */
+    private static void fail(InputChannel channel, IOException e) {
+        if (channel != STANDARD_INPUT) {
+            throw new UncheckedIOException(e);
+        }
+
+        System.err.println();
+        System.exit(-3);
+    }
+
     /**
      * Closes the stream and releases any system resources associated with it.
      */
     public static void close() {
         try {
-            br.close();
+            STANDARD_INPUT.close();
         } catch (IOException ignorable) {
         }
     }
@@ -56,4 +56,13 @@ public class InstrCall implements Instruction {
         return false;
     }
 
+    /**
+     * Returns the memory address of the first line of called subroutine.
+     * 
+     * @return the memory address of the called subroutine
+     */
+    public int getAddress() {
+        return newProgramCounterAddress;
+    }
+
 }
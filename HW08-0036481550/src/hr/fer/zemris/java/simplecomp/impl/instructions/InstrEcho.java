@@ -56,9 +56,18 @@ public class InstrEcho implements Instruction {
     public boolean execute(Computer computer) {
         Object value = RegisterUtil.getValue(computer, descriptor);
 
-        System.out.print(value);
+        OutputStreamUtil.print(computer, value);
 
         return false;
     }
 
+    /**
+     * Returns the register descriptor of the printed register.
+     * 
+     * @return the register descriptor
+     */
+    public int getDescriptor() {
+        return descriptor;
+    }
+
 }
@@ -8,7 +8,8 @@ import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
 
 /**
  * {@code InstrHalt} class represents instruction that halts the proccessor and
- * prevents it from running any more instructions.
+ * prevents it from running any more instructions. Output of the computer is
+ * flushed when it halts.
  * <p>
  * This class is used without arguments.
  * <p>
@@ -41,6 +42,8 @@ public class InstrHalt implements Instruction {
      */
     @Override
     public boolean execute(Computer computer) {
+        OutputStreamUtil.flush(computer);
+
         return true;
     }
 }
\ No newline at end of file
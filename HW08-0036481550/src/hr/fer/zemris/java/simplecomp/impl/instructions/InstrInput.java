@@ -2,6 +2,7 @@ package hr.fer.zemris.java.simplecomp.impl.instructions;
 
 import java.util.List;
 
+import hr.fer.zemris.java.simplecomp.impl.InputChannel;
 import hr.fer.zemris.java.simplecomp.models.Computer;
 import hr.fer.zemris.java.simplecomp.models.Instruction;
 import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
@@ -51,21 +52,29 @@ public class InstrInput implements Instruction {
      */
     @Override
     public boolean execute(Computer computer) {
-        String line = InputStreamUtil.readLine();
+        long number = InputStreamUtil.readInt(computer);
 
-        Integer number = null;
-        try {
-            number = Integer.parseInt(line);
-        } catch (NumberFormatException nfe) {
+        if (number == InputChannel.INVALID) {
             computer.getRegisters().setFlag(false);
             return false;
         }
 
         computer.getRegisters().setFlag(true);
 
-        computer.getMemory().setLocation((int) inputLocation.getValue(), number);
+        computer.getMemory().setLocation(
+                (int) inputLocation.getValue(),
+                (int) number);
 
         return false;
     }
 
+    /**
+     * Returns the memory location where input is stored.
+     * 
+     * @return the memory location where input is stored
+     */
+    public int getLocation() {
+        return (int) inputLocation.getValue();
+    }
+
 }
\ No newline at end of file
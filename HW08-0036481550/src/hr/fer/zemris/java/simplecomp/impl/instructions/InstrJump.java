@@ -55,4 +55,13 @@ public class InstrJump implements Instruction {
 
         return false;
     }
+
+    /**
+     * Returns the memory address of a jump.
+     * 
+     * @return the memory address of a jump
+     */
+    public int getLocation() {
+        return location;
+    }
 }
@@ -57,4 +57,13 @@ public class InstrJumpIfTrue implements Instruction {
 
         return false;
     }
+
+    /**
+     * Returns the memory address of a jump.
+     * 
+     * @return the memory address of a jump
+     */
+    public int getLocation() {
+        return location;
+    }
 }
@@ -70,4 +70,22 @@ public class InstrLoad implements Instruction {
         return false;
     }
 
+    /**
+     * Returns the index of the register in which the value is loaded.
+     * 
+     * @return the register index
+     */
+    public int getRegisterIndex() {
+        return descriptor;
+    }
+
+    /**
+     * Returns the memory location of the loaded value.
+     * 
+     * @return the memory location of the loaded value
+     */
+    public int getLocation() {
+        return valueLocation;
+    }
+
 }
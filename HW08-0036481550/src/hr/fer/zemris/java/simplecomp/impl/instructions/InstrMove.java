@@ -68,6 +68,24 @@ public class InstrMove implements Instruction {
         return false;
     }
 
+    /**
+     * Returns the argument holding information about destination.
+     * 
+     * @return the argument holding information about destination
+     */
+    public InstructionArgument getDestination() {
+        return dest;
+    }
+
+    /**
+     * Returns the argument holding information about source.
+     * 
+     * @return the argument holding information about source
+     */
+    public InstructionArgument getSource() {
+        return src;
+    }
+
     /**
      * If destination argument represents the register this method is called to
      * move value from source.
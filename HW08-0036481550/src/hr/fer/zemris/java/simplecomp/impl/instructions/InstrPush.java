@@ -57,4 +57,13 @@ public class InstrPush implements Instruction {
         return false;
     }
 
+    /**
+     * Returns the register descriptor of this instruction.
+     * 
+     * @return the register descriptor
+     */
+    public int getDescriptor() {
+        return (int) arg.getValue();
+    }
+
 }
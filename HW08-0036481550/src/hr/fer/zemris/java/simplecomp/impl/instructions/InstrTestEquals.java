@@ -3,9 +3,11 @@ package hr.fer.zemris.java.simplecomp.impl.instructions;
 import java.util.List;
 
 import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
 import hr.fer.zemris.java.simplecomp.models.Computer;
 import hr.fer.zemris.java.simplecomp.models.Instruction;
 import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
+import hr.fer.zemris.java.simplecomp.models.Registers;
 
 /**
  * {@code InstrCall} class represents instruction that tests if two given
@@ -60,6 +62,19 @@ public class InstrTestEquals implements Instruction {
      */
     @Override
     public boolean execute(Computer computer) {
+        Registers registers = computer.getRegisters();
+
+        if (registers instanceof PrimitiveRegisters) {
+            PrimitiveRegisters regs = (PrimitiveRegisters) registers;
+            int index1 = RegisterUtil.getRegisterIndex(registerDescriptor1);
+            int index2 = RegisterUtil.getRegisterIndex(registerDescriptor2);
+
+            if (regs.isInteger(index1) && regs.isInteger(index2)) {
+                regs.setFlag(regs.getInt(index1) == regs.getInt(index2));
+                return false;
+            }
+        }
+
         Object value1 = RegisterUtil.getValue(computer, registerDescriptor1);
         Object value2 = RegisterUtil.getValue(computer, registerDescriptor2);
 
@@ -68,4 +83,22 @@ public class InstrTestEquals implements Instruction {
         return false;
     }
 
+    /**
+     * Returns the register descriptor of the first compared register.
+     * 
+     * @return the 1st register descriptor
+     */
+    public int getFirstDescriptor() {
+        return registerDescriptor1;
+    }
+
+    /**
+     * Returns the register descriptor of the second compared register.
+     * 
+     * @return the 2nd register descriptor
+     */
+    public int getSecondDescriptor() {
+        return registerDescriptor2;
+    }
+
 }
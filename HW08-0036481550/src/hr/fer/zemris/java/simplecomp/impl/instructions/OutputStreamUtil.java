@@ -0,0 +1,87 @@
+package hr.fer.zemris.java.simplecomp.impl.instructions;
+
+import java.io.PrintStream;
+
+import hr.fer.zemris.java.simplecomp.impl.InteractiveComputer;
+import hr.fer.zemris.java.simplecomp.impl.OutputSink;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+
+/**
+ * {@code OutputStreamUtil} is a class used to write to standard output or to
+ * the output of an {@link InteractiveComputer}.
+ * <p>
+ * Interactive computers print through their {@link OutputSink}, so the output
+ * must be flushed with {@link #flush(Computer)} when the program halts.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class OutputStreamUtil {
+
+    /**
+     * Returns the output of the computer. Computers without their own output
+     * write to standard output.
+     * 
+     * @param computer
+     *            the computer
+     * @return the output of the computer
+     */
+    public static PrintStream getOutput(Computer computer) {
+        if (computer instanceof InteractiveComputer) {
+            PrintStream output = ((InteractiveComputer) computer).getOutput();
+
+            if (output != null) {
+                return output;
+            }
+        }
+
+        return System.out;
+    }
+
+    /**
+     * Prints the value to the output of the computer.
+     * 
+     * @param computer
+     *            the computer
+     * @param value
+     *            the value
+     */
+    public static void print(Computer computer, Object value) {
+        if (computer instanceof InteractiveComputer) {
+            ((InteractiveComputer) computer).getOutputSink().print(value);
+        } else {
+            System.out.print(value);
+        }
+    }
+
+    /**
+     * Prints the integer to the output of the computer.
+     * 
+     * @param computer
+     *            the computer
+     * @param value
+     *            the integer
+     */
+    public static void print(Computer computer, int value) {
+        if (computer instanceof InteractiveComputer) {
+            ((InteractiveComputer) computer).getOutputSink().print(value);
+        } else {
+            System.out.print(value);
+        }
+    }
+
+    /**
+     * Flushes everything printed to the output of the computer.
+     * 
+     * @param computer
+     *            the computer
+     */
+    public static void flush(Computer computer) {
+        if (computer instanceof InteractiveComputer) {
+            ((InteractiveComputer) computer).getOutputSink().flush();
+        } else {
+            System.out.flush();
+        }
+    }
+
+}
@@ -1,13 +1,20 @@
 package hr.fer.zemris.java.simplecomp.impl.instructions;
 
 import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
 import hr.fer.zemris.java.simplecomp.models.Computer;
 import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
+import hr.fer.zemris.java.simplecomp.models.Memory;
 import hr.fer.zemris.java.simplecomp.models.Registers;
 
 /**
  * {@code StackUtil} is a class used to help other classes with common stack
  * methods such as pop, push...
+ * <p>
+ * If registers and memory of the computer implement {@link PrimitiveRegisters}
+ * and {@link PrimitiveMemory} stack pointer and integer values on the stack are
+ * accessed without boxing.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -26,14 +33,26 @@ public class StackUtil {
      *            argument holding value that needs to be pushed
      */
     public static void push(Computer computer, InstructionArgument arg) {
-        int address = (int) computer
-                .getRegisters()
-                .getRegisterValue(STACK_INDEX);
-        Object value = RegisterUtil.getValue(computer, (int) arg.getValue());
-
-        computer.getMemory().setLocation(address, value); // r15 <- rx
-
-        computer.getRegisters().setRegisterValue(STACK_INDEX, --address);
+        int address = getStackPointer(computer);
+        int descriptor = (int) arg.getValue();
+
+        Registers registers = computer.getRegisters();
+        Memory memory = computer.getMemory();
+        int index = RegisterUtil.getRegisterIndex(descriptor);
+
+        if (registers instanceof PrimitiveRegisters
+                && memory instanceof PrimitiveMemory
+                && ((PrimitiveRegisters) registers).isInteger(index)) {
+            ((PrimitiveMemory) memory).setInt(
+                    address,
+                    ((PrimitiveRegisters) registers).getInt(index));
+        } else {
+            Object value = RegisterUtil.getValue(computer, descriptor);
+
+            memory.setLocation(address, value); // r15 <- rx
+        }
+
+        setStackPointer(computer, --address);
     }
 
     /**
@@ -43,14 +62,17 @@ public class StackUtil {
      *            the computer on which we execute this instruction
      */
     private static void push(Computer computer) {
-        int address = (int) computer
-                .getRegisters()
-                .getRegisterValue(STACK_INDEX);
-        Object value = computer.getRegisters().getProgramCounter();
+        int address = getStackPointer(computer);
+        int value = computer.getRegisters().getProgramCounter();
 
-        computer.getMemory().setLocation(address, value);
+        Memory memory = computer.getMemory();
+        if (memory instanceof PrimitiveMemory) {
+            ((PrimitiveMemory) memory).setInt(address, value);
+        } else {
+            memory.setLocation(address, value);
+        }
 
-        computer.getRegisters().setRegisterValue(STACK_INDEX, --address);
+        setStackPointer(computer, --address);
     }
 
     /**
@@ -63,15 +85,25 @@ public class StackUtil {
      *            store poped value
      */
     public static void pop(Computer computer, InstructionArgument arg) {
-        int address = (int) computer
-                .getRegisters()
-                .getRegisterValue(STACK_INDEX);
+        int address = getStackPointer(computer);
+
+        setStackPointer(computer, ++address);
 
-        computer.getRegisters().setRegisterValue(STACK_INDEX, ++address);
+        Registers registers = computer.getRegisters();
+        Memory memory = computer.getMemory();
+        int descriptor = (int) arg.getValue();
 
-        Object value = computer.getMemory().getLocation(address);
+        if (registers instanceof PrimitiveRegisters
+                && memory instanceof PrimitiveMemory
+                && ((PrimitiveMemory) memory).isInteger(address)) {
+            ((PrimitiveRegisters) registers).setInt(
+                    RegisterUtil.getRegisterIndex(descriptor),
+                    ((PrimitiveMemory) memory).getInt(address));
+        } else {
+            Object value = memory.getLocation(address);
 
-        RegisterUtil.setValue(computer, (int) arg.getValue(), value);
+            RegisterUtil.setValue(computer, descriptor, value);
+        }
     }
 
     /**
@@ -97,14 +129,53 @@ public class StackUtil {
      *            the computer on which we execute this instruction
      */
     public static void ret(Computer computer) {
-        int address = (int) computer
-                .getRegisters()
-                .getRegisterValue(STACK_INDEX);
+        int address = getStackPointer(computer);
 
-        computer.getRegisters().setRegisterValue(STACK_INDEX, ++address);
+        setStackPointer(computer, ++address);
 
-        Object value = computer.getMemory().getLocation(address);
+        Memory memory = computer.getMemory();
+        int value;
+        if (memory instanceof PrimitiveMemory) {
+            value = ((PrimitiveMemory) memory).getInt(address);
+        } else {
+            value = (int) memory.getLocation(address);
+        }
+
+        computer.getRegisters().setProgramCounter(value);
+    }
 
-        computer.getRegisters().setProgramCounter((int) value);
+    /**
+     * Returns the value of the stack register.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return the address of the first empty location on the stack
+     */
+    private static int getStackPointer(Computer computer) {
+        Registers registers = computer.getRegisters();
+
+        if (registers instanceof PrimitiveRegisters) {
+            return ((PrimitiveRegisters) registers).getInt(STACK_INDEX);
+        }
+
+        return (int) registers.getRegisterValue(STACK_INDEX);
+    }
+
+    /**
+     * Sets the new value of the stack register.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @param address
+     *            the address of the first empty location on the stack
+     */
+    private static void setStackPointer(Computer computer, int address) {
+        Registers registers = computer.getRegisters();
+
+        if (registers instanceof PrimitiveRegisters) {
+            ((PrimitiveRegisters) registers).setInt(STACK_INDEX, address);
+        } else {
+            registers.setRegisterValue(STACK_INDEX, address);
+        }
     }
 }
@@ -0,0 +1,364 @@
+package hr.fer.zemris.java.simplecomp.impl.optimizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractArithmeticInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractUnaryInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrCall;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrEcho;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrHalt;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrInput;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJump;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJumpIfTrue;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrLoad;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMove;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPop;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPush;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrRet;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrTestEquals;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.Memory;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * {@code ControlFlowGraph} holds the instructions of a loaded program and the
+ * edges between them.
+ * <p>
+ * Every instruction continues to the next address, except {@code halt},
+ * which has no successors, {@code jump}, which continues to its target,
+ * {@code jumpIfTrue}, which continues to both, and {@code call}, which
+ * continues to the subroutine. {@code ret} continues to the address after
+ * every {@code call} and to the return targets which the
+ * {@link ProgramOptimizer} adds when it can't prove that the stack holds only
+ * addresses pushed by calls.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramOptimizer
+ */
+final class ControlFlowGraph {
+
+    /** Instructions of the program, {@code null} for data locations */
+    private final Instruction[] code;
+
+    /** Addresses after {@code call} instructions */
+    private final int[] returnSites;
+
+    /** Other addresses to which {@code ret} can return */
+    private int[] returnTargets = new int[0];
+
+    /**
+     * Constructs a new {@code ControlFlowGraph} object.
+     * 
+     * @param code
+     *            instructions of the program
+     * @param returnSites
+     *            addresses after {@code call} instructions
+     */
+    private ControlFlowGraph(Instruction[] code, int[] returnSites) {
+        this.code = code;
+        this.returnSites = returnSites;
+    }
+
+    /**
+     * Builds the graph of the program written in the memory.
+     * 
+     * @param memory
+     *            memory holding the program
+     * @param size
+     *            size of the memory
+     * @param registers
+     *            number of registers
+     * @return the graph or {@code null} if program holds an instruction which
+     *         the optimizer doesn't understand, a missing register or a jump
+     *         outside of the memory
+     */
+    static ControlFlowGraph build(Memory memory, int size, int registers) {
+        Instruction[] code = new Instruction[size];
+        List<Integer> returnSites = new ArrayList<>();
+
+        for (int address = 0; address < size; address++) {
+            Object value = memory.getLocation(address);
+            if (!(value instanceof Instruction)) {
+                continue;
+            }
+
+            Instruction instr = (Instruction) value;
+            if (!isSupported(instr, size, registers)) {
+                return null;
+            }
+
+            code[address] = instr;
+            if (instr instanceof InstrCall && address + 1 < size) {
+                returnSites.add(address + 1);
+            }
+        }
+
+        int[] sites = new int[returnSites.size()];
+        for (int i = 0; i < sites.length; i++) {
+            sites[i] = returnSites.get(i);
+        }
+
+        return new ControlFlowGraph(code, sites);
+    }
+
+    /**
+     * Returns the size of the memory.
+     * 
+     * @return the size of the memory
+     */
+    int size() {
+        return code.length;
+    }
+
+    /**
+     * Returns the instruction at the address.
+     * 
+     * @param address
+     *            the address
+     * @return the instruction or {@code null} if location doesn't hold an
+     *         instruction
+     */
+    Instruction get(int address) {
+        return code[address];
+    }
+
+    /**
+     * Replaces the instruction at the address.
+     * 
+     * @param address
+     *            the address
+     * @param instr
+     *            the new instruction or {@code null} to remove it
+     */
+    void set(int address, Instruction instr) {
+        code[address] = instr;
+    }
+
+    /**
+     * Returns the addresses after {@code call} instructions, which are the
+     * successors of every {@code ret}.
+     * 
+     * @return the addresses after calls
+     */
+    int[] getReturnSites() {
+        return returnSites;
+    }
+
+    /**
+     * Returns the addresses other than the addresses after {@code call}
+     * instructions to which {@code ret} can return.
+     * 
+     * @return the return targets
+     */
+    int[] getReturnTargets() {
+        return returnTargets;
+    }
+
+    /**
+     * Adds addresses to which {@code ret} can return.
+     * 
+     * @param targets
+     *            the addresses
+     * @return {@code true} if any address was added; {@code false} otherwise
+     */
+    boolean addReturnTargets(int[] targets) {
+        int[] merged = IntStream.concat(
+                Arrays.stream(returnTargets),
+                Arrays.stream(targets)).distinct().sorted().toArray();
+        if (merged.length == returnTargets.length) {
+            return false;
+        }
+
+        returnTargets = merged;
+        return true;
+    }
+
+    /**
+     * Returns the successors of the instruction at the address. Successor
+     * outside of the memory is left out.
+     * 
+     * @param address
+     *            the address
+     * @return addresses of successors
+     */
+    int[] successors(int address) {
+        Instruction instr = code[address];
+
+        if (instr instanceof InstrHalt) {
+            return new int[0];
+        } else if (instr instanceof InstrJump) {
+            return new int[] { ((InstrJump) instr).getLocation() };
+        } else if (instr instanceof InstrJumpIfTrue) {
+            int target = ((InstrJumpIfTrue) instr).getLocation();
+            return next(address, target);
+        } else if (instr instanceof InstrCall) {
+            return new int[] { ((InstrCall) instr).getAddress() };
+        } else if (instr instanceof InstrRet) {
+            return IntStream.concat(
+                    Arrays.stream(returnSites),
+                    Arrays.stream(returnTargets)).toArray();
+        }
+
+        return next(address);
+    }
+
+    /**
+     * Finds the instructions which can be reached from address {@code 0}.
+     * 
+     * @return flags of reachable instructions
+     */
+    boolean[] reachable() {
+        int size = code.length;
+        boolean[] reachable = new boolean[size];
+        int[] pending = new int[size];
+        int count = 0;
+        boolean returns = false;
+
+        reachable[0] = true;
+        pending[count++] = 0;
+        while (count > 0) {
+            while (count > 0) {
+                int address = pending[--count];
+
+                if (code[address] instanceof InstrRet) {
+                    returns = true;
+                    continue;
+                }
+
+                for (int next : successors(address)) {
+                    if (!reachable[next]) {
+                        reachable[next] = true;
+                        pending[count++] = next;
+                    }
+                }
+            }
+
+            if (returns) {
+                for (int site : returnSites) {
+                    if (reachable[site - 1] && !reachable[site]) {
+                        reachable[site] = true;
+                        pending[count++] = site;
+                    }
+                }
+                for (int target : returnTargets) {
+                    if (!reachable[target]) {
+                        reachable[target] = true;
+                        pending[count++] = target;
+                    }
+                }
+            }
+        }
+
+        return reachable;
+    }
+
+    /**
+     * Returns the address after the instruction, followed by the other
+     * successor if there is one.
+     * 
+     * @param address
+     *            address of the instruction
+     * @param others
+     *            other successors
+     * @return addresses of successors
+     */
+    private int[] next(int address, int... others) {
+        if (address + 1 >= code.length) {
+            return others;
+        }
+
+        int[] successors = new int[others.length + 1];
+        successors[0] = address + 1;
+        System.arraycopy(others, 0, successors, 1, others.length);
+
+        return successors;
+    }
+
+    /**
+     * Checks if the optimizer understands the instruction: its class is known,
+     * its registers exist and its jump target is inside the memory.
+     * 
+     * @param instr
+     *            the instruction
+     * @param size
+     *            size of the memory
+     * @param registers
+     *            number of registers
+     * @return {@code true} if instruction is supported; {@code false}
+     *         otherwise
+     */
+    private static boolean isSupported(
+            Instruction instr,
+            int size,
+            int registers) {
+        int[] descriptors;
+        int target = 0;
+
+        if (instr instanceof InstrLoad) {
+            descriptors = new int[] { ((InstrLoad) instr).getRegisterIndex() };
+        } else if (instr instanceof InstrMove) {
+            InstrMove move = (InstrMove) instr;
+            if (move.getSource().isString()) {
+                return false;
+            }
+
+            int dest = (int) move.getDestination().getValue();
+            descriptors = move.getSource().isRegister()
+                    ? new int[] { dest, (int) move.getSource().getValue() }
+                    : new int[] { dest };
+        } else if (instr instanceof AbstractArithmeticInstr) {
+            AbstractArithmeticInstr arithmetic =
+                    (AbstractArithmeticInstr) instr;
+            descriptors = new int[] {
+                    arithmetic.getResultDescriptor(),
+                    arithmetic.getFirstOperandDescriptor(),
+                    arithmetic.getSecondOperandDescriptor() };
+        } else if (instr instanceof AbstractUnaryInstr) {
+            descriptors = new int[] {
+                    ((AbstractUnaryInstr) instr).getDescriptor() };
+        } else if (instr instanceof InstrTestEquals) {
+            InstrTestEquals test = (InstrTestEquals) instr;
+            descriptors = new int[] {
+                    test.getFirstDescriptor(),
+                    test.getSecondDescriptor() };
+        } else if (instr instanceof InstrEcho) {
+            descriptors = new int[] { ((InstrEcho) instr).getDescriptor() };
+        } else if (instr instanceof InstrPush) {
+            descriptors = new int[] { ((InstrPush) instr).getDescriptor() };
+        } else if (instr instanceof InstrPop) {
+            descriptors = new int[] { ((InstrPop) instr).getDescriptor() };
+        } else if (instr instanceof InstrJump) {
+            descriptors = new int[0];
+            target = ((InstrJump) instr).getLocation();
+        } else if (instr instanceof InstrJumpIfTrue) {
+            descriptors = new int[0];
+            target = ((InstrJumpIfTrue) instr).getLocation();
+        } else if (instr instanceof InstrCall) {
+            descriptors = new int[0];
+            target = ((InstrCall) instr).getAddress();
+        } else if (instr instanceof InstrRet || instr instanceof InstrHalt
+                || instr instanceof InstrInput) {
+            descriptors = new int[0];
+        } else {
+            return false;
+        }
+
+        if (Registers.STACK_REGISTER_INDEX >= registers
+                || target < 0 || target >= size) {
+            return false;
+        }
+
+        for (int descriptor : descriptors) {
+            if (RegisterUtil.getRegisterIndex(descriptor) >= registers) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
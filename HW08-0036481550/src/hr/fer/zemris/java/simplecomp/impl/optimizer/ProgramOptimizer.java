@@ -0,0 +1,1069 @@
+package hr.fer.zemris.java.simplecomp.impl.optimizer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.impl.InstructionArgumentImpl;
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractArithmeticInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.AbstractUnaryInstr;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrCall;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrEcho;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrInput;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJump;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJumpIfTrue;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrLoad;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMove;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPop;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPush;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrRet;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrTestEquals;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
+import hr.fer.zemris.java.simplecomp.models.Memory;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * {@code ProgramOptimizer} is a load-time pass which rewrites the program in
+ * the memory of a computer without changing its output.
+ * <p>
+ * Optimizer builds the {@link ControlFlowGraph} of the program and follows
+ * constants through registers and the flag from address {@code 0}, taking
+ * only the branches which can be taken. Integer memory locations which no
+ * reachable instruction can write to are proven constant: the proof starts by
+ * assuming every integer location is constant and drops every location which
+ * some instruction might write to, including all of them when an indirect
+ * write or a stack write goes to an unknown address, until the assumption
+ * holds. The program is then rewritten:
+ * <ul>
+ * <li>instruction whose result is a known constant, such as {@code load} from
+ * a constant location, becomes {@code move} of the constant,</li>
+ * <li>{@code jumpIfTrue} whose flag is known becomes {@code jump},</li>
+ * <li>instruction which only writes a register or the flag which is never
+ * read afterwards becomes {@code jump} to the next instruction,</li>
+ * <li>jumps and calls to {@code jump} go directly to its target,</li>
+ * <li>instructions which can't be reached are removed from the memory.</li>
+ * </ul>
+ * Addresses of the remaining instructions and data don't change.
+ * <p>
+ * {@code ret} is followed to the instructions after calls only while every
+ * stack location it can pop is written by calls alone, so it holds either a
+ * return address or its initial value, which is followed as well. If the
+ * stack pointer isn't known, or a push, an indirect write or an input can
+ * write such a location, every instruction is a possible successor of
+ * {@code ret}.
+ * <p>
+ * Program is expected not to modify or read its own instructions. Programs
+ * with
+ * instructions which the optimizer doesn't understand, such as
+ * {@code FusedInstruction}, are left unchanged, so the optimizer has to run
+ * before the {@code SuperinstructionFuser}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ControlFlowGraph
+ * @see RegisterState
+ */
+public final class ProgramOptimizer {
+
+    /** Index of the stack register */
+    private static final int STACK_INDEX = Registers.STACK_REGISTER_INDEX;
+
+    /** Graph of the program */
+    private final ControlFlowGraph graph;
+
+    /** Memory holding the program */
+    private final Memory memory;
+
+    /** Size of the memory */
+    private final int size;
+
+    /** Slot of the flag in register states */
+    private final int flag;
+
+    /** Flags of memory locations which are proven constant */
+    private final boolean[] constant;
+
+    /** States before instructions, {@code null} for unreachable addresses */
+    private RegisterState[] states;
+
+    /** Whether execution can reach a location which isn't an instruction */
+    private boolean reachesData;
+
+    /**
+     * Constructs a new {@code ProgramOptimizer} object.
+     * 
+     * @param graph
+     *            graph of the program
+     * @param memory
+     *            memory holding the program
+     * @param registers
+     *            number of registers
+     */
+    private ProgramOptimizer(
+            ControlFlowGraph graph,
+            Memory memory,
+            int registers) {
+        this.graph = graph;
+        this.memory = memory;
+        this.size = graph.size();
+        this.flag = registers;
+        this.constant = new boolean[size];
+
+        for (int address = 0; address < size; address++) {
+            constant[address] = memory.getLocation(address) instanceof Integer;
+        }
+    }
+
+    /**
+     * Optimizes the program written in the computer's memory.
+     * 
+     * @param computer
+     *            the computer holding the loaded program
+     * @param size
+     *            size of the memory
+     * @param registers
+     *            number of registers
+     * @return the number of changed memory locations
+     */
+    public static int optimize(Computer computer, int size, int registers) {
+        Memory memory = computer.getMemory();
+        ControlFlowGraph graph = ControlFlowGraph.build(
+                memory,
+                size,
+                registers);
+        if (graph == null) {
+            return 0;
+        }
+
+        ProgramOptimizer optimizer = new ProgramOptimizer(
+                graph,
+                memory,
+                registers);
+        RegisterState entry = entryState(computer.getRegisters(), registers);
+
+        do {
+            optimizer.propagate(entry);
+        } while (!optimizer.reachesData && (optimizer.widenReturns()
+                || optimizer.dropWrittenLocations()));
+
+        if (optimizer.reachesData) {
+            return 0;
+        }
+
+        return optimizer.rewrite();
+    }
+
+    /**
+     * Returns the state of registers and the flag before the program starts.
+     * Empty registers are read as {@code 0}.
+     * 
+     * @param regs
+     *            registers of the computer
+     * @param registers
+     *            number of registers
+     * @return the state at address {@code 0}
+     */
+    private static RegisterState entryState(Registers regs, int registers) {
+        RegisterState state = new RegisterState(registers + 1);
+
+        for (int index = 0; index < registers; index++) {
+            Object value = regs.getRegisterValue(index);
+
+            if (value == null) {
+                state.setConstant(index, 0);
+            } else if (value instanceof Integer) {
+                state.setConstant(index, (Integer) value);
+            }
+        }
+        state.setConstant(registers, regs.getFlag() ? 1 : 0);
+
+        return state;
+    }
+
+    /**
+     * Follows constants through the program from address {@code 0} and
+     * computes the state before every reachable instruction.
+     * 
+     * @param entry
+     *            the state at address {@code 0}
+     */
+    private void propagate(RegisterState entry) {
+        states = new RegisterState[size];
+        int[] pending = new int[size];
+        boolean[] queued = new boolean[size];
+        int count = 0;
+        RegisterState returns = null;
+
+        states[0] = new RegisterState(entry);
+        pending[count++] = 0;
+        queued[0] = true;
+
+        while (count > 0) {
+            int pc = pending[--count];
+            queued[pc] = false;
+
+            Instruction instr = graph.get(pc);
+            if (instr == null) {
+                reachesData = true;
+                return;
+            }
+
+            RegisterState out = transfer(instr, states[pc]);
+            int[] successors = successors(pc);
+
+            if (instr instanceof InstrRet) {
+                if (returns == null) {
+                    returns = out;
+                } else if (!returns.join(out)) {
+                    continue;
+                }
+
+                out = returns;
+                successors = IntStream.concat(
+                        Arrays.stream(reachableReturnSites()),
+                        Arrays.stream(graph.getReturnTargets())).toArray();
+            } else if (instr instanceof InstrCall && returns != null
+                    && pc + 1 < size) {
+                count = flow(pc + 1, returns, pending, queued, count);
+            }
+
+            for (int next : successors) {
+                count = flow(next, out, pending, queued, count);
+            }
+        }
+    }
+
+    /**
+     * Merges the state into the state before the instruction and schedules
+     * the instruction if its state changed.
+     * 
+     * @param pc
+     *            address of the instruction
+     * @param state
+     *            the state
+     * @param pending
+     *            addresses which have to be visited
+     * @param queued
+     *            flags of scheduled addresses
+     * @param count
+     *            number of scheduled addresses
+     * @return the new number of scheduled addresses
+     */
+    private int flow(
+            int pc,
+            RegisterState state,
+            int[] pending,
+            boolean[] queued,
+            int count) {
+        if (states[pc] == null) {
+            states[pc] = new RegisterState(state);
+        } else if (!states[pc].join(state)) {
+            return count;
+        }
+
+        if (!queued[pc]) {
+            queued[pc] = true;
+            pending[count++] = pc;
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the addresses after reachable {@code call} instructions.
+     * 
+     * @return the return sites
+     */
+    private int[] reachableReturnSites() {
+        return Arrays.stream(graph.getReturnSites())
+                .filter(site -> states[site - 1] != null)
+                .toArray();
+    }
+
+    /**
+     * Returns the successors of the reachable instruction which can be
+     * taken. {@code jumpIfTrue} with a known flag has only one of them.
+     * 
+     * @param pc
+     *            address of the instruction
+     * @return addresses of successors
+     */
+    private int[] successors(int pc) {
+        Instruction instr = graph.get(pc);
+        RegisterState state = states[pc];
+
+        if (instr instanceof InstrJumpIfTrue && state.isConstant(flag)) {
+            if (state.getConstant(flag) != 0) {
+                return new int[] { ((InstrJumpIfTrue) instr).getLocation() };
+            }
+
+            return pc + 1 < size ? new int[] { pc + 1 } : new int[0];
+        }
+
+        return graph.successors(pc);
+    }
+
+    /**
+     * Computes the state after the instruction.
+     * 
+     * @param instr
+     *            the instruction
+     * @param in
+     *            the state before the instruction
+     * @return the state after the instruction
+     */
+    private RegisterState transfer(Instruction instr, RegisterState in) {
+        RegisterState out = new RegisterState(in);
+
+        if (instr instanceof InstrLoad) {
+            InstrLoad load = (InstrLoad) instr;
+            int location = load.getLocation();
+
+            if (isConstant(location)) {
+                out.setConstant(load.getRegisterIndex(), constantAt(location));
+            } else {
+                out.setAny(load.getRegisterIndex());
+            }
+        } else if (instr instanceof InstrMove) {
+            InstrMove move = (InstrMove) instr;
+            int dest = (int) move.getDestination().getValue();
+
+            if (!RegisterUtil.isIndirect(dest)) {
+                move(RegisterUtil.getRegisterIndex(dest), move, in, out);
+            }
+        } else if (instr instanceof AbstractArithmeticInstr) {
+            AbstractArithmeticInstr arithmetic =
+                    (AbstractArithmeticInstr) instr;
+            int first = index(arithmetic.getFirstOperandDescriptor());
+            int second = index(arithmetic.getSecondOperandDescriptor());
+            int result = index(arithmetic.getResultDescriptor());
+
+            if (in.isConstant(first) && in.isConstant(second)) {
+                out.setConstant(
+                        result,
+                        arithmetic.getOperation().applyAsInt(
+                                in.getConstant(first),
+                                in.getConstant(second)));
+            } else {
+                out.setInteger(result);
+            }
+        } else if (instr instanceof AbstractUnaryInstr) {
+            AbstractUnaryInstr unary = (AbstractUnaryInstr) instr;
+            int index = index(unary.getDescriptor());
+
+            if (in.isConstant(index)) {
+                out.setConstant(
+                        index,
+                        unary.getOperation().applyAsInt(
+                                in.getConstant(index)));
+            } else {
+                out.setInteger(index);
+            }
+        } else if (instr instanceof InstrTestEquals) {
+            InstrTestEquals test = (InstrTestEquals) instr;
+            int first = index(test.getFirstDescriptor());
+            int second = index(test.getSecondDescriptor());
+
+            if (in.isConstant(first) && in.isConstant(second)) {
+                out.setConstant(
+                        flag,
+                        in.getConstant(first) == in.getConstant(second)
+                                ? 1 : 0);
+            } else {
+                out.setInteger(flag);
+            }
+        } else if (instr instanceof InstrInput) {
+            out.setInteger(flag);
+        } else if (instr instanceof InstrPush || instr instanceof InstrCall) {
+            moveStackPointer(in, out, -1);
+        } else if (instr instanceof InstrPop) {
+            moveStackPointer(in, out, 1);
+            out.setAny(index(((InstrPop) instr).getDescriptor()));
+        } else if (instr instanceof InstrRet) {
+            moveStackPointer(in, out, 1);
+        }
+
+        return out;
+    }
+
+    /**
+     * Computes the state of the destination register of a {@code move}.
+     * 
+     * @param dest
+     *            index of the destination register
+     * @param move
+     *            the instruction
+     * @param in
+     *            the state before the instruction
+     * @param out
+     *            the state after the instruction
+     */
+    private void move(
+            int dest,
+            InstrMove move,
+            RegisterState in,
+            RegisterState out) {
+        InstructionArgument src = move.getSource();
+
+        if (src.isNumber()) {
+            out.setConstant(dest, (int) src.getValue());
+            return;
+        }
+
+        int descriptor = (int) src.getValue();
+        int source = index(descriptor);
+
+        if (!RegisterUtil.isIndirect(descriptor)) {
+            if (in.isConstant(source)) {
+                out.setConstant(dest, in.getConstant(source));
+            } else {
+                out.setInteger(dest);
+            }
+            return;
+        }
+
+        int location = in.isConstant(source)
+                ? in.getConstant(source)
+                        + RegisterUtil.getRegisterOffset(descriptor)
+                : -1;
+        if (isConstant(location)) {
+            out.setConstant(dest, constantAt(location));
+        } else {
+            out.setInteger(dest);
+        }
+    }
+
+    /**
+     * Moves the stack pointer in the state after the instruction.
+     * 
+     * @param in
+     *            the state before the instruction
+     * @param out
+     *            the state after the instruction
+     * @param delta
+     *            change of the stack pointer
+     */
+    private static void moveStackPointer(
+            RegisterState in,
+            RegisterState out,
+            int delta) {
+        if (in.isConstant(STACK_INDEX)) {
+            out.setConstant(STACK_INDEX, in.getConstant(STACK_INDEX) + delta);
+        } else {
+            out.setInteger(STACK_INDEX);
+        }
+    }
+
+    /**
+     * Adds the addresses to which reachable {@code ret} instructions can
+     * return besides the addresses after calls. {@code ret} can return after
+     * the initial value of every location it pops; if a popped location can
+     * be written by an instruction other than {@code call}, or the address of
+     * a popped or written location isn't known, it can return anywhere.
+     * 
+     * @return {@code true} if any address was added; {@code false} otherwise
+     */
+    private boolean widenReturns() {
+        boolean[] written = new boolean[size];
+        boolean[] popped = new boolean[size];
+        boolean anywhere = false;
+
+        for (int pc = 0; pc < size && !anywhere; pc++) {
+            RegisterState state = states[pc];
+            if (state == null) {
+                continue;
+            }
+
+            Instruction instr = graph.get(pc);
+            boolean[] locations = written;
+            int base = STACK_INDEX;
+            int offset = 0;
+
+            if (instr instanceof InstrInput) {
+                mark(written, ((InstrInput) instr).getLocation());
+                continue;
+            } else if (instr instanceof InstrMove) {
+                int dest = (int) ((InstrMove) instr).getDestination()
+                        .getValue();
+                if (!RegisterUtil.isIndirect(dest)) {
+                    continue;
+                }
+
+                base = index(dest);
+                offset = RegisterUtil.getRegisterOffset(dest);
+            } else if (instr instanceof InstrRet) {
+                locations = popped;
+                offset = 1;
+            } else if (!(instr instanceof InstrPush)) {
+                continue;
+            }
+
+            if (state.isConstant(base)) {
+                mark(locations, state.getConstant(base) + offset);
+            } else {
+                anywhere = true;
+            }
+        }
+
+        IntStream.Builder targets = IntStream.builder();
+        for (int location = 0; location < size && !anywhere; location++) {
+            if (!popped[location]) {
+                continue;
+            }
+
+            Object value = memory.getLocation(location);
+            if (written[location] || value instanceof Instruction) {
+                anywhere = true;
+            } else if (value instanceof Integer) {
+                int target = (Integer) value + 1;
+                if (target >= 0 && target < size) {
+                    targets.add(target);
+                }
+            }
+        }
+
+        if (anywhere) {
+            return graph.addReturnTargets(IntStream.range(0, size)
+                    .filter(address -> graph.get(address) != null)
+                    .toArray());
+        }
+
+        return graph.addReturnTargets(targets.build().toArray());
+    }
+
+    /**
+     * Marks the location if it is inside the memory.
+     * 
+     * @param locations
+     *            flags of locations
+     * @param location
+     *            the location
+     */
+    private void mark(boolean[] locations, int location) {
+        if (location >= 0 && location < size) {
+            locations[location] = true;
+        }
+    }
+
+    /**
+     * Drops every constant location which some reachable instruction might
+     * write to.
+     * 
+     * @return {@code true} if any location was dropped; {@code false}
+     *         otherwise
+     */
+    private boolean dropWrittenLocations() {
+        boolean changed = false;
+
+        for (int pc = 0; pc < size; pc++) {
+            RegisterState state = states[pc];
+            if (state == null) {
+                continue;
+            }
+
+            Instruction instr = graph.get(pc);
+            int base;
+            int offset = 0;
+
+            if (instr instanceof InstrInput) {
+                changed |= drop(((InstrInput) instr).getLocation());
+                continue;
+            } else if (instr instanceof InstrMove) {
+                int dest = (int) ((InstrMove) instr).getDestination()
+                        .getValue();
+                if (!RegisterUtil.isIndirect(dest)) {
+                    continue;
+                }
+
+                base = index(dest);
+                offset = RegisterUtil.getRegisterOffset(dest);
+            } else if (instr instanceof InstrPush
+                    || instr instanceof InstrCall) {
+                base = STACK_INDEX;
+            } else {
+                continue;
+            }
+
+            if (state.isConstant(base)) {
+                changed |= drop(state.getConstant(base) + offset);
+            } else {
+                for (int location = 0; location < size; location++) {
+                    changed |= drop(location);
+                }
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Drops the location from constant locations.
+     * 
+     * @param location
+     *            the location
+     * @return {@code true} if location was constant; {@code false} otherwise
+     */
+    private boolean drop(int location) {
+        if (!isConstant(location)) {
+            return false;
+        }
+
+        constant[location] = false;
+        return true;
+    }
+
+    /**
+     * Rewrites the program in the memory.
+     * 
+     * @return the number of changed memory locations
+     */
+    private int rewrite() {
+        for (int pc = 0; pc < size; pc++) {
+            if (states[pc] != null) {
+                Instruction folded = fold(pc);
+                if (folded != null) {
+                    graph.set(pc, folded);
+                }
+            }
+        }
+
+        removeDeadWrites();
+        threadJumps();
+
+        boolean[] reachable = graph.reachable();
+        boolean[] data = dataLocations(reachable);
+        int changed = 0;
+
+        for (int pc = 0; pc < size; pc++) {
+            Object value = memory.getLocation(pc);
+            if (!(value instanceof Instruction)) {
+                continue;
+            }
+
+            Object instr = reachable[pc] ? graph.get(pc)
+                    : data[pc] ? value : null;
+            if (instr != value) {
+                memory.setLocation(pc, instr);
+                changed++;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Replaces the reachable instruction with a simpler one when its result
+     * is known.
+     * 
+     * @param pc
+     *            address of the instruction
+     * @return the replacement or {@code null} if instruction is kept
+     */
+    private Instruction fold(int pc) {
+        Instruction instr = graph.get(pc);
+        RegisterState in = states[pc];
+
+        if (instr instanceof InstrJumpIfTrue) {
+            if (!in.isConstant(flag)) {
+                return null;
+            }
+
+            return jump(in.getConstant(flag) != 0
+                    ? ((InstrJumpIfTrue) instr).getLocation()
+                    : pc + 1);
+        }
+
+        int dest = destination(instr);
+        if (dest < 0 || dest == flag) {
+            return null;
+        }
+
+        RegisterState out = transfer(instr, in);
+        if (!out.isConstant(dest) || instr instanceof InstrMove
+                && ((InstrMove) instr).getSource().isNumber()) {
+            return null;
+        }
+
+        return new InstrMove(Arrays.asList(
+                InstructionArgumentImpl.register(dest),
+                InstructionArgumentImpl.number(out.getConstant(dest))));
+    }
+
+    /**
+     * Replaces reachable instructions which only write a register or the
+     * flag that is never read afterwards with jumps to the next instruction.
+     * Instructions are removed only if they can't fail, so the register
+     * operands of arithmetic must be known to hold integers.
+     */
+    private void removeDeadWrites() {
+        boolean[] dead = new boolean[size];
+
+        boolean found = true;
+        while (found) {
+            found = false;
+            BitSet[] live = liveness(dead);
+
+            for (int pc = 0; pc + 1 < size; pc++) {
+                if (states[pc] == null || dead[pc]) {
+                    continue;
+                }
+
+                int slot = removableDefinition(pc);
+                if (slot >= 0 && !liveOut(pc, live).get(slot)) {
+                    dead[pc] = true;
+                    found = true;
+                }
+            }
+        }
+
+        for (int pc = 0; pc < size; pc++) {
+            if (dead[pc]) {
+                graph.set(pc, jump(pc + 1));
+            }
+        }
+    }
+
+    /**
+     * Computes registers and the flag which are read before they are written
+     * again after every reachable instruction. Dead instructions neither
+     * read nor write anything.
+     * 
+     * @param dead
+     *            flags of dead instructions
+     * @return slots which are live before every reachable instruction
+     */
+    private BitSet[] liveness(boolean[] dead) {
+        BitSet[] live = new BitSet[size];
+        for (int pc = 0; pc < size; pc++) {
+            if (states[pc] != null) {
+                live[pc] = new BitSet();
+            }
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (int pc = size - 1; pc >= 0; pc--) {
+                if (live[pc] == null) {
+                    continue;
+                }
+
+                BitSet in = liveOut(pc, live);
+                if (!dead[pc]) {
+                    Instruction instr = graph.get(pc);
+                    int dest = destination(instr);
+
+                    if (dest >= 0) {
+                        in.clear(dest);
+                    }
+                    in.or(uses(instr));
+                }
+
+                if (!in.equals(live[pc])) {
+                    live[pc] = in;
+                    changed = true;
+                }
+            }
+        }
+
+        return live;
+    }
+
+    /**
+     * Computes slots which are live after the reachable instruction. Every
+     * slot is live after {@code ret}, because the caller isn't known.
+     * 
+     * @param pc
+     *            address of the instruction
+     * @param live
+     *            slots which are live before reachable instructions
+     * @return slots which are live after the instruction
+     */
+    private BitSet liveOut(int pc, BitSet[] live) {
+        BitSet out = new BitSet();
+
+        if (graph.get(pc) instanceof InstrRet) {
+            out.set(0, flag + 1);
+            return out;
+        }
+
+        for (int next : successors(pc)) {
+            if (live[next] != null) {
+                out.or(live[next]);
+            }
+        }
+
+        return out;
+    }
+
+    /**
+     * Returns the slot which the instruction writes if the instruction
+     * writes nothing else and can't fail.
+     * 
+     * @param pc
+     *            address of the instruction
+     * @return the slot or {@code -1} if instruction can't be removed
+     */
+    private int removableDefinition(int pc) {
+        Instruction instr = graph.get(pc);
+        RegisterState in = states[pc];
+
+        if (instr instanceof InstrLoad) {
+            int location = ((InstrLoad) instr).getLocation();
+
+            return location >= 0 && location < size ? destination(instr) : -1;
+        } else if (instr instanceof InstrMove) {
+            InstructionArgument src = ((InstrMove) instr).getSource();
+
+            if (src.isNumber()) {
+                return destination(instr);
+            }
+
+            int descriptor = (int) src.getValue();
+            return !RegisterUtil.isIndirect(descriptor)
+                    && in.isInteger(index(descriptor)) ? destination(instr)
+                            : -1;
+        } else if (instr instanceof AbstractArithmeticInstr) {
+            AbstractArithmeticInstr arithmetic =
+                    (AbstractArithmeticInstr) instr;
+
+            return in.isInteger(index(arithmetic.getFirstOperandDescriptor()))
+                    && in.isInteger(
+                            index(arithmetic.getSecondOperandDescriptor()))
+                                    ? destination(instr) : -1;
+        } else if (instr instanceof AbstractUnaryInstr) {
+            int index = destination(instr);
+
+            return in.isInteger(index) ? index : -1;
+        } else if (instr instanceof InstrTestEquals) {
+            return flag;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the register or the flag which the instruction overwrites.
+     * Stack pointer moved by stack instructions isn't included.
+     * 
+     * @param instr
+     *            the instruction
+     * @return the slot or {@code -1} if instruction doesn't overwrite any
+     */
+    private int destination(Instruction instr) {
+        if (instr instanceof InstrLoad) {
+            return ((InstrLoad) instr).getRegisterIndex();
+        } else if (instr instanceof InstrMove) {
+            int dest = (int) ((InstrMove) instr).getDestination().getValue();
+
+            return RegisterUtil.isIndirect(dest) ? -1 : index(dest);
+        } else if (instr instanceof AbstractArithmeticInstr) {
+            return index(
+                    ((AbstractArithmeticInstr) instr).getResultDescriptor());
+        } else if (instr instanceof AbstractUnaryInstr) {
+            return index(((AbstractUnaryInstr) instr).getDescriptor());
+        } else if (instr instanceof InstrTestEquals
+                || instr instanceof InstrInput) {
+            return flag;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the registers and the flag which the instruction reads,
+     * including base registers of indirect addresses and the stack pointer.
+     * 
+     * @param instr
+     *            the instruction
+     * @return slots read by the instruction
+     */
+    private BitSet uses(Instruction instr) {
+        BitSet uses = new BitSet();
+
+        if (instr instanceof InstrMove) {
+            InstrMove move = (InstrMove) instr;
+            int dest = (int) move.getDestination().getValue();
+
+            if (RegisterUtil.isIndirect(dest)) {
+                uses.set(index(dest));
+            }
+            if (move.getSource().isRegister()) {
+                uses.set(index((int) move.getSource().getValue()));
+            }
+        } else if (instr instanceof AbstractArithmeticInstr) {
+            AbstractArithmeticInstr arithmetic =
+                    (AbstractArithmeticInstr) instr;
+
+            uses.set(index(arithmetic.getFirstOperandDescriptor()));
+            uses.set(index(arithmetic.getSecondOperandDescriptor()));
+        } else if (instr instanceof AbstractUnaryInstr) {
+            uses.set(index(((AbstractUnaryInstr) instr).getDescriptor()));
+        } else if (instr instanceof InstrTestEquals) {
+            InstrTestEquals test = (InstrTestEquals) instr;
+
+            uses.set(index(test.getFirstDescriptor()));
+            uses.set(index(test.getSecondDescriptor()));
+        } else if (instr instanceof InstrJumpIfTrue) {
+            uses.set(flag);
+        } else if (instr instanceof InstrEcho) {
+            uses.set(index(((InstrEcho) instr).getDescriptor()));
+        } else if (instr instanceof InstrPush) {
+            uses.set(index(((InstrPush) instr).getDescriptor()));
+            uses.set(STACK_INDEX);
+        } else if (instr instanceof InstrPop || instr instanceof InstrCall
+                || instr instanceof InstrRet) {
+            uses.set(STACK_INDEX);
+        }
+
+        return uses;
+    }
+
+    /**
+     * Makes every reachable jump, conditional jump and call whose target is
+     * a {@code jump} go directly to the final target.
+     */
+    private void threadJumps() {
+        for (int pc = 0; pc < size; pc++) {
+            if (states[pc] == null) {
+                continue;
+            }
+
+            Instruction instr = graph.get(pc);
+            if (instr instanceof InstrJump) {
+                int target = ((InstrJump) instr).getLocation();
+                int resolved = resolve(target);
+
+                if (resolved != target) {
+                    graph.set(pc, jump(resolved));
+                }
+            } else if (instr instanceof InstrJumpIfTrue) {
+                int target = ((InstrJumpIfTrue) instr).getLocation();
+                int resolved = resolve(target);
+
+                if (resolved != target) {
+                    graph.set(pc, new InstrJumpIfTrue(target(resolved)));
+                }
+            } else if (instr instanceof InstrCall) {
+                int target = ((InstrCall) instr).getAddress();
+                int resolved = resolve(target);
+
+                if (resolved != target) {
+                    graph.set(pc, new InstrCall(target(resolved)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Follows the chain of jumps starting at the address.
+     * 
+     * @param address
+     *            the address
+     * @return address of the first instruction which isn't a {@code jump}
+     *         or an address in a cycle of jumps
+     */
+    private int resolve(int address) {
+        for (int steps = 0; steps < size
+                && graph.get(address) instanceof InstrJump; steps++) {
+            address = ((InstrJump) graph.get(address)).getLocation();
+        }
+
+        return address;
+    }
+
+    /**
+     * Finds instruction locations which reachable instructions read or write
+     * directly as data, so they aren't removed even if they can't be
+     * executed.
+     * 
+     * @param reachable
+     *            flags of reachable instructions
+     * @return flags of locations used as data
+     */
+    private boolean[] dataLocations(boolean[] reachable) {
+        boolean[] data = new boolean[size];
+
+        for (int pc = 0; pc < size; pc++) {
+            if (!reachable[pc]) {
+                continue;
+            }
+
+            Instruction instr = graph.get(pc);
+            int location = -1;
+            if (instr instanceof InstrLoad) {
+                location = ((InstrLoad) instr).getLocation();
+            } else if (instr instanceof InstrInput) {
+                location = ((InstrInput) instr).getLocation();
+            }
+
+            if (location >= 0 && location < size) {
+                data[location] = true;
+            }
+        }
+
+        return data;
+    }
+
+    /**
+     * Checks if the location is inside the memory and proven constant.
+     * 
+     * @param location
+     *            the location
+     * @return {@code true} if location is constant; {@code false} otherwise
+     */
+    private boolean isConstant(int location) {
+        return location >= 0 && location < size && constant[location];
+    }
+
+    /**
+     * Returns the integer in the constant location.
+     * 
+     * @param location
+     *            the location
+     * @return the integer
+     */
+    private int constantAt(int location) {
+        return (Integer) memory.getLocation(location);
+    }
+
+    /**
+     * Returns the register index from a register descriptor.
+     * 
+     * @param descriptor
+     *            the register descriptor
+     * @return the register index
+     */
+    private static int index(int descriptor) {
+        return RegisterUtil.getRegisterIndex(descriptor);
+    }
+
+    /**
+     * Creates a {@code jump} instruction.
+     * 
+     * @param location
+     *            the jump target
+     * @return the instruction
+     */
+    private static Instruction jump(int location) {
+        return new InstrJump(target(location));
+    }
+
+    /**
+     * Creates the argument list of an instruction with a single address.
+     * 
+     * @param location
+     *            the address
+     * @return the arguments
+     */
+    private static List<InstructionArgument> target(int location) {
+        return Collections.singletonList(
+                InstructionArgumentImpl.number(location));
+    }
+}
@@ -0,0 +1,151 @@
+package hr.fer.zemris.java.simplecomp.impl.optimizer;
+
+import java.util.Arrays;
+
+/**
+ * {@code RegisterState} is what the {@link ProgramOptimizer} knows about the
+ * registers and the flag before an instruction is executed. Every slot is
+ * either a known integer constant, an unknown integer or an unknown value of
+ * any type. The flag is kept in the last slot as the constant {@code 0} or
+ * {@code 1}, or as an unknown integer.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramOptimizer
+ */
+final class RegisterState {
+
+    /** Kind of a slot holding a known integer */
+    private static final int CONSTANT = 0;
+
+    /** Kind of a slot holding an unknown integer */
+    private static final int INTEGER = 1;
+
+    /** Kind of a slot holding an unknown value */
+    private static final int ANY = 2;
+
+    /** Kinds of slots */
+    private final int[] kinds;
+
+    /** Values of constant slots */
+    private final int[] values;
+
+    /**
+     * Constructs a new {@code RegisterState} whose slots all hold an unknown
+     * value.
+     * 
+     * @param slots
+     *            number of slots
+     */
+    RegisterState(int slots) {
+        this.kinds = new int[slots];
+        this.values = new int[slots];
+
+        Arrays.fill(kinds, ANY);
+    }
+
+    /**
+     * Constructs a copy of the state.
+     * 
+     * @param other
+     *            the state
+     */
+    RegisterState(RegisterState other) {
+        this.kinds = other.kinds.clone();
+        this.values = other.values.clone();
+    }
+
+    /**
+     * Checks if the slot holds a known integer.
+     * 
+     * @param slot
+     *            the slot
+     * @return {@code true} if slot holds a known integer; {@code false}
+     *         otherwise
+     */
+    boolean isConstant(int slot) {
+        return kinds[slot] == CONSTANT;
+    }
+
+    /**
+     * Checks if the slot holds an integer, known or not.
+     * 
+     * @param slot
+     *            the slot
+     * @return {@code true} if slot holds an integer; {@code false} otherwise
+     */
+    boolean isInteger(int slot) {
+        return kinds[slot] != ANY;
+    }
+
+    /**
+     * Returns the known integer in the slot.
+     * 
+     * @param slot
+     *            the slot
+     * @return the known integer
+     */
+    int getConstant(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Sets the slot to a known integer.
+     * 
+     * @param slot
+     *            the slot
+     * @param value
+     *            the integer
+     */
+    void setConstant(int slot, int value) {
+        kinds[slot] = CONSTANT;
+        values[slot] = value;
+    }
+
+    /**
+     * Sets the slot to an unknown integer.
+     * 
+     * @param slot
+     *            the slot
+     */
+    void setInteger(int slot) {
+        kinds[slot] = INTEGER;
+    }
+
+    /**
+     * Sets the slot to an unknown value.
+     * 
+     * @param slot
+     *            the slot
+     */
+    void setAny(int slot) {
+        kinds[slot] = ANY;
+    }
+
+    /**
+     * Merges the other state into this one, so this state describes values
+     * which either of states can hold.
+     * 
+     * @param other
+     *            the other state
+     * @return {@code true} if this state was changed; {@code false}
+     *         otherwise
+     */
+    boolean join(RegisterState other) {
+        boolean changed = false;
+
+        for (int slot = 0; slot < kinds.length; slot++) {
+            int kind = Math.max(kinds[slot], other.kinds[slot]);
+            if (kind == CONSTANT && values[slot] != other.values[slot]) {
+                kind = INTEGER;
+            }
+
+            if (kind != kinds[slot]) {
+                kinds[slot] = kind;
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+}
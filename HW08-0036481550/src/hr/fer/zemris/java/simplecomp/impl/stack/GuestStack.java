@@ -0,0 +1,301 @@
+package hr.fer.zemris.java.simplecomp.impl.stack;
+
+import java.util.Arrays;
+
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * {@code GuestStack} class implements stack instructions of a computer
+ * directly on its primitive registers and memory.
+ * <p>
+ * Stack region is taken from the program as it was loaded: it starts at the
+ * address held by the stack register, which is the {@code @stackTop} label,
+ * and spans the locations reserved below it with {@code RESERVE}, which are
+ * empty or hold zero. Region is found once, before the program runs, so the
+ * values the program later writes to its stack don't change it. Pushing
+ * below the region is reported as a stack overflow and popping above it as a
+ * stack underflow. A program which moves the stack register outside of the
+ * region manages its own stack, so such pushes and pops are only checked
+ * against the memory.
+ * <p>
+ * Stack pointer is kept in a field between stack instructions and written
+ * back to the stack register by {@link #release()}, which must be called
+ * before any other instruction reads the register and when the program
+ * stops.
+ * <p>
+ * Return addresses are also kept on a native shadow stack, together with the
+ * stack locations they were pushed to. Every return is verified against the
+ * return address in memory and is taken from the shadow stack only when they
+ * match. Frames which the program released without returning from them are
+ * dropped from the shadow stack, and a program which rewrites its own return
+ * address returns where the memory says and loses the shadow stack.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see StackExecutionUnit
+ */
+final class GuestStack {
+
+    /** Index of the stack register */
+    private static final int STACK_INDEX = Registers.STACK_REGISTER_INDEX;
+
+    /** Initial capacity of the shadow stack */
+    private static final int INITIAL_DEPTH = 16;
+
+    /** Registers of the computer */
+    private final PrimitiveRegisters regs;
+
+    /** Memory of the computer */
+    private final PrimitiveMemory mem;
+
+    /** Highest address of the stack region, {@code -1} if there is none */
+    private final int top;
+
+    /** Lowest address of the stack region */
+    private final int bottom;
+
+    /** The stack pointer, valid while it is cached */
+    private int sp;
+
+    /** Flag which tells if the stack pointer is cached */
+    private boolean cached;
+
+    /** Return addresses of the shadow stack */
+    private int[] returns = new int[INITIAL_DEPTH];
+
+    /** Stack locations to which the return addresses were pushed */
+    private int[] frames = new int[INITIAL_DEPTH];
+
+    /** Number of return addresses on the shadow stack */
+    private int depth;
+
+    /** Number of returns taken from the shadow stack */
+    private int shadowReturns;
+
+    /**
+     * Constructs a new {@code GuestStack} object and finds the stack region
+     * of the loaded program.
+     * 
+     * @param regs
+     *            registers of the computer
+     * @param mem
+     *            memory of the computer
+     */
+    GuestStack(PrimitiveRegisters regs, PrimitiveMemory mem) {
+        this.regs = regs;
+        this.mem = mem;
+
+        int top = -1;
+        int bottom = 0;
+        if (regs.isInteger(STACK_INDEX)) {
+            int start = regs.getInt(STACK_INDEX);
+
+            if (start >= 0 && start < mem.getSize()) {
+                top = start;
+                bottom = start;
+                while (bottom > 0 && isReserved(bottom - 1)) {
+                    bottom--;
+                }
+            }
+        }
+
+        this.top = top;
+        this.bottom = bottom;
+    }
+
+    /**
+     * Pushes the value of the register on the stack.
+     * 
+     * @param index
+     *            register index
+     * @throws IllegalStateException
+     *             if stack overflows
+     */
+    void push(int index) {
+        if (index == STACK_INDEX) {
+            release();
+        }
+
+        int location = pushPointer();
+        if (regs.isInteger(index)) {
+            mem.setInt(location, regs.getInt(index));
+        } else {
+            Object value = regs.getRegisterValue(index);
+            mem.setLocation(
+                    location,
+                    value == null ? Integer.valueOf(0) : value);
+        }
+
+        sp = location - 1;
+    }
+
+    /**
+     * Pops the value from the stack to the register.
+     * 
+     * @param index
+     *            register index
+     * @throws IllegalStateException
+     *             if stack underflows
+     */
+    void pop(int index) {
+        int location = popPointer();
+
+        sp = location;
+        if (index == STACK_INDEX) {
+            release();
+        }
+
+        if (mem.isInteger(location)) {
+            regs.setInt(index, mem.getInt(location));
+        } else {
+            regs.setRegisterValue(index, mem.getLocation(location));
+        }
+    }
+
+    /**
+     * Pushes the return address on the stack and on the shadow stack.
+     * 
+     * @param pc
+     *            address of the calling instruction
+     * @throws IllegalStateException
+     *             if stack overflows
+     */
+    void call(int pc) {
+        int location = pushPointer();
+
+        mem.setInt(location, pc);
+        sp = location - 1;
+
+        if (depth == returns.length) {
+            returns = Arrays.copyOf(returns, depth * 2);
+            frames = Arrays.copyOf(frames, depth * 2);
+        }
+        returns[depth] = pc;
+        frames[depth] = location;
+        depth++;
+    }
+
+    /**
+     * Pops the return address from the stack and verifies it against the
+     * shadow stack.
+     * 
+     * @return address of the calling instruction
+     * @throws IllegalStateException
+     *             if stack underflows
+     * @throws ClassCastException
+     *             if return address isn't an integer
+     */
+    int ret() {
+        int location = popPointer();
+
+        sp = location;
+        while (depth > 0 && frames[depth - 1] < location) {
+            depth--;
+        }
+
+        if (depth > 0
+                && frames[depth - 1] == location
+                && mem.isInteger(location)
+                && mem.getInt(location) == returns[depth - 1]) {
+            shadowReturns++;
+            return returns[--depth];
+        }
+
+        depth = 0;
+        return mem.getInt(location);
+    }
+
+    /**
+     * Returns the number of returns whose address was taken from the shadow
+     * stack.
+     * 
+     * @return the number of returns
+     */
+    int getShadowReturns() {
+        return shadowReturns;
+    }
+
+    /**
+     * Writes the cached stack pointer back to the stack register.
+     */
+    void release() {
+        if (cached) {
+            regs.setInt(STACK_INDEX, sp);
+            cached = false;
+        }
+    }
+
+    /**
+     * Returns the address of the next push and checks it against the stack
+     * region.
+     * 
+     * @return the address of the first empty location on the stack
+     * @throws IllegalStateException
+     *             if stack is full
+     */
+    private int pushPointer() {
+        int location = pointer();
+
+        if (location == bottom - 1 && top >= 0) {
+            throw new IllegalStateException(
+                    String.format(
+                            "Stack overflow at address %d after %d calls.",
+                            location,
+                            depth));
+        }
+
+        return location;
+    }
+
+    /**
+     * Returns the address of the next pop and checks it against the stack
+     * region.
+     * 
+     * @return the address of the last value on the stack
+     * @throws IllegalStateException
+     *             if stack is empty
+     */
+    private int popPointer() {
+        int location = pointer();
+
+        if (location == top) {
+            throw new IllegalStateException(
+                    String.format(
+                            "Stack underflow at address %d.",
+                            location + 1));
+        }
+
+        return location + 1;
+    }
+
+    /**
+     * Returns the stack pointer, reading it from the stack register if it
+     * isn't cached.
+     * 
+     * @return the stack pointer
+     */
+    private int pointer() {
+        if (!cached) {
+            sp = regs.getInt(STACK_INDEX);
+            cached = true;
+        }
+
+        return sp;
+    }
+
+    /**
+     * Checks if the memory location of the loaded program can be a part of
+     * the stack region.
+     * 
+     * @param location
+     *            the memory address
+     * @return {@code true} if location is empty or holds {@code 0};
+     *         {@code false} otherwise
+     */
+    private boolean isReserved(int location) {
+        return mem.isInteger(location) ? mem.getInt(location) == 0
+                : mem.getLocation(location) == null;
+    }
+}
@@ -0,0 +1,175 @@
+package hr.fer.zemris.java.simplecomp.impl.stack;
+
+import hr.fer.zemris.java.simplecomp.RegisterUtil;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
+import hr.fer.zemris.java.simplecomp.impl.fusion.FusedInstruction;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrCall;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPop;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPush;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrRet;
+import hr.fer.zemris.java.simplecomp.impl.instructions.OutputStreamUtil;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+
+/**
+ * {@code StackExecutionUnit} is a execution unit of a computer which executes
+ * stack instructions through a {@link GuestStack} and all other instructions
+ * like the {@link ExecutionUnitImpl}.
+ * <p>
+ * Instructions {@code push}, {@code pop}, {@code call} and {@code ret}, alone
+ * or fused with another instruction, read and write the stack register and
+ * the stack without boxing and keep the program counter in a local variable.
+ * Stack pointer stays in the {@link GuestStack} between stack instructions
+ * and is written back to the stack register before any other instruction.
+ * Stack overflow and underflow stop the program with an
+ * {@link IllegalStateException} instead of overwriting the program or its
+ * data. Return addresses are verified against a native shadow stack, and
+ * the number of returns taken from it is available through
+ * {@link #getShadowReturns()}.
+ * <p>
+ * Execution requires registers and memory which implement
+ * {@link PrimitiveRegisters} and {@link PrimitiveMemory}. Other computers are
+ * run by the {@link ExecutionUnitImpl}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see GuestStack
+ */
+public class StackExecutionUnit implements ExecutionUnit {
+
+    /** Program counter returned by {@link #step} when the program halts */
+    private static final int HALTED = -1;
+
+    /** Number of returns taken from the shadow stack in the last run */
+    private int shadowReturns;
+
+    /**
+     * Runs a program written in the computer's memory. Output of the computer
+     * is flushed when the program stops, even if it fails.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    @Override
+    public boolean go(Computer computer) {
+        try {
+            return run(computer);
+        } finally {
+            OutputStreamUtil.flush(computer);
+        }
+    }
+
+    /**
+     * Runs a program written in the computer's memory.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    private boolean run(Computer computer) {
+        shadowReturns = 0;
+
+        if (!(computer.getRegisters() instanceof PrimitiveRegisters)
+                || !(computer.getMemory() instanceof PrimitiveMemory)) {
+            return new ExecutionUnitImpl().go(computer);
+        }
+
+        PrimitiveRegisters regs = (PrimitiveRegisters) computer.getRegisters();
+        PrimitiveMemory mem = (PrimitiveMemory) computer.getMemory();
+        GuestStack stack = new GuestStack(regs, mem);
+
+        int pc = 0;
+        regs.setProgramCounter(pc);
+        try {
+            while (pc != HALTED) {
+                Instruction instr = (Instruction) mem.getLocation(pc);
+
+                if (instr instanceof FusedInstruction) {
+                    FusedInstruction fused = (FusedInstruction) instr;
+
+                    pc = step(computer, stack, fused.getFirst(), pc);
+                    if (pc != HALTED) {
+                        pc = step(computer, stack, fused.getSecond(), pc);
+                    }
+                } else {
+                    pc = step(computer, stack, instr, pc);
+                }
+            }
+        } catch (RuntimeException e) {
+            regs.setProgramCounter(pc);
+            throw e;
+        } finally {
+            stack.release();
+            shadowReturns = stack.getShadowReturns();
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the number of returns of the last run whose address was taken
+     * from the shadow return-address stack because it matched the return
+     * address in memory.
+     * 
+     * @return the number of returns
+     */
+    public int getShadowReturns() {
+        return shadowReturns;
+    }
+
+    /**
+     * Executes a single instruction.
+     * 
+     * @param computer
+     *            the computer
+     * @param stack
+     *            stack of the computer
+     * @param instr
+     *            the instruction
+     * @param pc
+     *            address of the instruction
+     * @return address of the next instruction or {@link #HALTED} if program
+     *         halted
+     */
+    private static int step(
+            Computer computer,
+            GuestStack stack,
+            Instruction instr,
+            int pc) {
+        if (instr instanceof InstrPush) {
+            stack.push(index(((InstrPush) instr).getDescriptor()));
+            return pc + 1;
+        } else if (instr instanceof InstrPop) {
+            stack.pop(index(((InstrPop) instr).getDescriptor()));
+            return pc + 1;
+        } else if (instr instanceof InstrCall) {
+            stack.call(pc);
+            return ((InstrCall) instr).getAddress();
+        } else if (instr instanceof InstrRet) {
+            return stack.ret() + 1;
+        }
+
+        stack.release();
+        computer.getRegisters().setProgramCounter(pc);
+        if (instr.execute(computer)) {
+            return HALTED;
+        }
+
+        return computer.getRegisters().getProgramCounter() + 1;
+    }
+
+    /**
+     * Returns the register index from the register descriptor.
+     * 
+     * @param descriptor
+     *            the register descriptor
+     * @return the register index
+     */
+    private static int index(int descriptor) {
+        return RegisterUtil.getRegisterIndex(descriptor);
+    }
+}
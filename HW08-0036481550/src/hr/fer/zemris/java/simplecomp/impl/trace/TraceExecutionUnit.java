@@ -0,0 +1,175 @@
+package hr.fer.zemris.java.simplecomp.impl.trace;
+
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveMemory;
+import hr.fer.zemris.java.simplecomp.impl.PrimitiveRegisters;
+import hr.fer.zemris.java.simplecomp.impl.compiler.BytecodeCompiler;
+import hr.fer.zemris.java.simplecomp.impl.compiler.CompiledCode;
+import hr.fer.zemris.java.simplecomp.impl.compiler.CompiledRuntime;
+import hr.fer.zemris.java.simplecomp.impl.instructions.OutputStreamUtil;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+
+/**
+ * {@code TraceExecutionUnit} is a execution unit of a computer which
+ * interprets the program and compiles the path taken through its hot loops.
+ * <p>
+ * Every backward jump counts how many times it was taken to its target. When
+ * the target becomes hot, the next iteration of the loop is recorded by the
+ * {@link TraceRecorder} and compiled by the {@link BytecodeCompiler} into one
+ * straight-line method, with unconditional jumps left out and a guard after
+ * every {@code jumpIfTrue}. From then on, the program runs the trace whenever
+ * it reaches the loop header and returns to the interpreter when a guard
+ * fails.
+ * <p>
+ * Loops which call subroutines or whose iteration is too long are never
+ * compiled. Program is expected not to modify its own instructions.
+ * <p>
+ * Traces require registers and memory which implement
+ * {@link PrimitiveRegisters} and {@link PrimitiveMemory}. Other computers are
+ * run by the {@link ExecutionUnitImpl}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see TraceRecorder
+ */
+public class TraceExecutionUnit implements ExecutionUnit {
+
+    /** Default number of backward jumps after which a loop is recorded */
+    public static final int DEFAULT_THRESHOLD = 50;
+
+    /** Count of a loop header which can't be traced */
+    private static final int BLACKLISTED = -1;
+
+    /** Number of backward jumps after which a loop is recorded */
+    private final int threshold;
+
+    /** Number of traces compiled in the last run */
+    private int traces;
+
+    /**
+     * Constructs a new {@code TraceExecutionUnit} which records loops after
+     * {@link #DEFAULT_THRESHOLD} backward jumps.
+     */
+    public TraceExecutionUnit() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructs a new {@code TraceExecutionUnit}.
+     * 
+     * @param threshold
+     *            number of backward jumps after which a loop is recorded
+     * @throws IllegalArgumentException
+     *             if threshold is less than 1
+     */
+    public TraceExecutionUnit(int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException(
+                    "Threshold must be positive: " + threshold);
+        }
+
+        this.threshold = threshold;
+    }
+
+    /**
+     * Runs a program written in the computer's memory. Output of the computer
+     * is flushed when the program stops, even if it fails.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    @Override
+    public boolean go(Computer computer) {
+        try {
+            return run(computer);
+        } finally {
+            OutputStreamUtil.flush(computer);
+        }
+    }
+
+    /**
+     * Returns the number of traces compiled in the last run.
+     * 
+     * @return the number of traces
+     */
+    public int getTraces() {
+        return traces;
+    }
+
+    /**
+     * Runs a program written in the computer's memory.
+     * 
+     * @param computer
+     *            the computer on which we execute this instruction
+     * @return {@code true} always
+     */
+    private boolean run(Computer computer) {
+        if (!(computer.getRegisters() instanceof PrimitiveRegisters)
+                || !(computer.getMemory() instanceof PrimitiveMemory)) {
+            return new ExecutionUnitImpl().go(computer);
+        }
+
+        Registers regs = computer.getRegisters();
+        PrimitiveMemory mem = (PrimitiveMemory) computer.getMemory();
+        regs.setProgramCounter(0);
+
+        BytecodeCompiler compiler = new BytecodeCompiler(computer);
+        CompiledRuntime runtime = new CompiledRuntime(computer);
+        CompiledCode[] compiled = new CompiledCode[mem.getSize()];
+        int[] counts = new int[mem.getSize()];
+        TraceRecorder recorder = null;
+        traces = 0;
+
+        int pc = 0;
+        while (true) {
+            if (recorder != null && recorder.isComplete(pc)) {
+                compiled[pc] = recorder.compile(compiler);
+                recorder = null;
+                traces++;
+            }
+
+            if (recorder == null && compiled[pc] != null) {
+                int next = compiled[pc].run(runtime, pc);
+
+                if (next == CompiledCode.HALT) {
+                    pc = regs.getProgramCounter();
+                    break;
+                }
+
+                pc = next;
+                continue;
+            }
+
+            Instruction instr = (Instruction) mem.getLocation(pc);
+            regs.setProgramCounter(pc);
+
+            if (instr.execute(computer)) {
+                pc = regs.getProgramCounter();
+                break;
+            }
+
+            int next = regs.getProgramCounter() + 1;
+
+            if (recorder != null) {
+                if (!recorder.record(pc, instr, next)) {
+                    counts[recorder.getStart()] = BLACKLISTED;
+                    recorder = null;
+                }
+            } else if (next <= pc && next >= 0
+                    && counts[next] != BLACKLISTED
+                    && ++counts[next] == threshold) {
+                recorder = new TraceRecorder(next);
+            }
+
+            pc = next;
+        }
+
+        regs.setProgramCounter(pc);
+
+        return true;
+    }
+}
@@ -0,0 +1,132 @@
+package hr.fer.zemris.java.simplecomp.impl.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import hr.fer.zemris.java.simplecomp.impl.compiler.BytecodeCompiler;
+import hr.fer.zemris.java.simplecomp.impl.compiler.CompiledCode;
+import hr.fer.zemris.java.simplecomp.impl.fusion.FusedInstruction;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrCall;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrHalt;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrRet;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+
+/**
+ * {@code TraceRecorder} records instructions executed by the interpreter
+ * during one iteration of a loop.
+ * <p>
+ * Recording starts at the loop header and ends when the program returns to
+ * it. Fused instructions are recorded as the two instructions they consist
+ * of. Recording is abandoned if the iteration is longer than
+ * {@link #MAX_LENGTH} instructions or if it executes {@code call},
+ * {@code ret} or {@code halt}, whose targets aren't fixed.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BytecodeCompiler#compileTrace(int[], Instruction[], int[])
+ */
+final class TraceRecorder {
+
+    /** Maximum number of instructions in a trace */
+    static final int MAX_LENGTH = 256;
+
+    /** Address of the loop header */
+    private final int start;
+
+    /** Recorded instructions */
+    private final List<Instruction> instructions = new ArrayList<>();
+
+    /** Addresses of recorded instructions */
+    private final List<Integer> addresses = new ArrayList<>();
+
+    /** Addresses which followed recorded instructions */
+    private final List<Integer> successors = new ArrayList<>();
+
+    /**
+     * Constructs a new {@code TraceRecorder} for the loop with specified
+     * header.
+     * 
+     * @param start
+     *            address of the loop header
+     */
+    TraceRecorder(int start) {
+        this.start = start;
+    }
+
+    /**
+     * Returns the address of the loop header.
+     * 
+     * @return the address of the loop header
+     */
+    int getStart() {
+        return start;
+    }
+
+    /**
+     * Checks if the iteration is complete, which happens when the program
+     * returns to the loop header.
+     * 
+     * @param pc
+     *            address of the next instruction
+     * @return {@code true} if iteration is complete; {@code false} otherwise
+     */
+    boolean isComplete(int pc) {
+        return pc == start && !instructions.isEmpty();
+    }
+
+    /**
+     * Records the executed instruction.
+     * 
+     * @param pc
+     *            address of the instruction
+     * @param instr
+     *            the instruction
+     * @param next
+     *            address of the instruction executed after it
+     * @return {@code true} if recording can continue; {@code false} if it
+     *         must be abandoned
+     */
+    boolean record(int pc, Instruction instr, int next) {
+        if (instr instanceof FusedInstruction) {
+            FusedInstruction fused = (FusedInstruction) instr;
+
+            return record(pc, fused.getFirst(), pc + 1)
+                    && record(pc + 1, fused.getSecond(), next);
+        }
+
+        if (instr instanceof InstrCall || instr instanceof InstrRet
+                || instr instanceof InstrHalt
+                || instructions.size() == MAX_LENGTH) {
+            return false;
+        }
+
+        instructions.add(instr);
+        addresses.add(pc);
+        successors.add(next);
+        return true;
+    }
+
+    /**
+     * Compiles the recorded iteration into a trace.
+     * 
+     * @param compiler
+     *            compiler of the program
+     * @return the compiled trace, which is run with the address of the loop
+     *         header
+     */
+    CompiledCode compile(BytecodeCompiler compiler) {
+        int length = instructions.size();
+        int[] pcs = new int[length];
+        int[] nexts = new int[length];
+
+        for (int i = 0; i < length; i++) {
+            pcs[i] = addresses.get(i);
+            nexts[i] = successors.get(i);
+        }
+
+        return compiler.compileTrace(
+                pcs,
+                instructions.toArray(new Instruction[length]),
+                nexts);
+    }
+}
@@ -0,0 +1,44 @@
+package hr.fer.zemris.java.simplecomp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * {@code ExecutionEvent} is a flight recorder event which records a run of a
+ * program. Duration of the event is the duration of the run.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramEvents
+ */
+@Name("hr.fer.zemris.simplecomp.Execution")
+@Label("Program Execution")
+@Category("Simple Computer")
+@Description("Program is run by an execution unit")
+public class ExecutionEvent extends Event {
+
+    /** Path to source of the program */
+    @Label("Source")
+    String source;
+
+    /** Identity of the computer */
+    @Label("Computer")
+    int computer;
+
+    /** Name of the execution unit */
+    @Label("Engine")
+    String engine;
+
+    /** Number of executed instructions */
+    @Label("Steps")
+    @Description("Number of executed instructions or -1 if engine doesn't "
+            + "count them")
+    long steps;
+
+    /** Number of executed instructions per second */
+    @Label("Steps per Second")
+    double stepsPerSecond;
+}
@@ -0,0 +1,37 @@
+package hr.fer.zemris.java.simplecomp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+/**
+ * {@code ProgramCounterEvent} is a periodic flight recorder event which
+ * samples the program counter of a running program.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramEvents
+ */
+@Name("hr.fer.zemris.simplecomp.ProgramCounter")
+@Label("Program Counter Sample")
+@Category("Simple Computer")
+@Description("Program counter of a running program, compiled engines update "
+        + "it only when they leave compiled code")
+@Period("20 ms")
+public class ProgramCounterEvent extends Event {
+
+    /** Path to source of the program */
+    @Label("Source")
+    String source;
+
+    /** Identity of the computer */
+    @Label("Computer")
+    int computer;
+
+    /** Value of the program counter */
+    @Label("Program Counter")
+    int programCounter;
+}
@@ -0,0 +1,266 @@
+package hr.fer.zemris.java.simplecomp.jfr;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.profiler.Profiler;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * {@code ProgramEvents} records loading and running of programs as flight
+ * recorder events.
+ * <p>
+ * Every event carries the source of the program and the identity hash code
+ * of its computer. While a program runs its computer is registered so its
+ * program counter can be sampled by the periodic
+ * {@link ProgramCounterEvent}. When events aren't enabled in any recording,
+ * programs are loaded and run without any additional work.
+ * <p>
+ * This class must not be used if {@link #isAvailable()} returns
+ * {@code false}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public final class ProgramEvents {
+
+    /**
+     * Disable creation of instances.
+     */
+    private ProgramEvents() {
+    }
+
+    /**
+     * {@code Loader} loads a program into a computer.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * Loads the program.
+         * 
+         * @throws Exception
+         *             if program can't be loaded
+         */
+        public void load() throws Exception;
+    }
+
+    /**
+     * Checks if flight recorder is available in this virtual machine.
+     * 
+     * @return {@code true} if flight recorder events can be recorded;
+     *         {@code false} otherwise
+     */
+    public static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+
+        return FlightRecorder.isAvailable();
+    }
+
+    /**
+     * Loads the program and records the {@link ProgramLoadEvent}.
+     * 
+     * @param computer
+     *            the computer
+     * @param source
+     *            path to source of the program
+     * @param cached
+     *            if program is loaded from its binary image
+     * @param memorySize
+     *            size of the memory of the computer
+     * @param loader
+     *            loads the program
+     * @throws Exception
+     *             if program can't be loaded
+     */
+    public static void load(
+            Computer computer,
+            Path source,
+            boolean cached,
+            int memorySize,
+            Loader loader) throws Exception {
+        ProgramLoadEvent event = new ProgramLoadEvent();
+        if (!event.isEnabled()) {
+            loader.load();
+            return;
+        }
+
+        event.begin();
+        loader.load();
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.source = source.toString();
+            event.computer = System.identityHashCode(computer);
+            event.cached = cached;
+            event.instructions = countInstructions(computer, memorySize);
+            event.commit();
+        }
+    }
+
+    /**
+     * Runs the program and records the {@link ExecutionEvent}. Program
+     * counter of the computer is sampled while the program runs.
+     * <p>
+     * Interpreter without a profiler is run with a step counter, other
+     * execution units don't count executed instructions.
+     * 
+     * @param unit
+     *            the execution unit
+     * @param computer
+     *            the computer
+     * @param source
+     *            path to source of the program
+     * @return result of the execution unit
+     */
+    public static boolean go(
+            ExecutionUnit unit,
+            Computer computer,
+            Path source) {
+        ExecutionEvent event = new ExecutionEvent();
+        if (!event.isEnabled()) {
+            return unit.go(computer);
+        }
+
+        StepCounter counter = null;
+        String engine = unit.getClass().getSimpleName();
+        if (unit.getClass() == ExecutionUnitImpl.class) {
+            counter = new StepCounter();
+            unit = new ExecutionUnitImpl(counter);
+        }
+
+        Sampler.RUNNING.put(computer, source.toString());
+        event.begin();
+        try {
+            return unit.go(computer);
+        } finally {
+            event.end();
+            Sampler.RUNNING.remove(computer);
+
+            if (event.shouldCommit()) {
+                event.source = source.toString();
+                event.computer = System.identityHashCode(computer);
+                event.engine = engine;
+                event.steps = counter == null ? -1 : counter.steps;
+                event.stepsPerSecond = counter == null ? 0
+                        : counter.steps * 1e9 / counter.nanos;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of instructions in the memory of the computer.
+     * 
+     * @param computer
+     *            the computer
+     * @param memorySize
+     *            size of the memory
+     * @return the number of instructions
+     */
+    private static int countInstructions(Computer computer, int memorySize) {
+        int instructions = 0;
+        for (int i = 0; i < memorySize; i++) {
+            if (computer.getMemory().getLocation(i) instanceof Instruction) {
+                instructions++;
+            }
+        }
+
+        return instructions;
+    }
+
+    /**
+     * {@code Sampler} holds the running programs and samples their program
+     * counters. Periodic event is registered when the first program runs.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class Sampler {
+
+        /** Sources of running programs mapped by their computers */
+        private static final Map<Computer, String> RUNNING =
+                new ConcurrentHashMap<>();
+
+        static {
+            FlightRecorder.addPeriodicEvent(
+                    ProgramCounterEvent.class,
+                    Sampler::sample);
+        }
+
+        /**
+         * Records the program counters of all running programs.
+         */
+        private static void sample() {
+            for (Map.Entry<Computer, String> entry : RUNNING.entrySet()) {
+                ProgramCounterEvent event = new ProgramCounterEvent();
+                event.source = entry.getValue();
+                event.computer = System.identityHashCode(entry.getKey());
+                event.programCounter = entry
+                        .getKey()
+                        .getRegisters()
+                        .getProgramCounter();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * {@code StepCounter} is a profiler which counts executed instructions.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class StepCounter implements Profiler {
+
+        /** Number of executed instructions */
+        private long steps;
+
+        /** Time when the program started */
+        private long start;
+
+        /** Duration of the program in nanoseconds */
+        private long nanos;
+
+        /**
+         * Starts measuring the time.
+         */
+        @Override
+        public void start() {
+            start = System.nanoTime();
+        }
+
+        /**
+         * Counts the instruction.
+         * 
+         * @param address
+         *            address of the instruction
+         * @param instruction
+         *            the instruction
+         */
+        @Override
+        public void step(int address, Instruction instruction) {
+            steps++;
+        }
+
+        /**
+         * Stops measuring the time.
+         */
+        @Override
+        public void stop() {
+            nanos = Math.max(1, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package hr.fer.zemris.java.simplecomp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * {@code ProgramLoadEvent} is a flight recorder event which records parsing
+ * or loading of a program into a computer. Duration of the event is the
+ * duration of the loading.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramEvents
+ */
+@Name("hr.fer.zemris.simplecomp.ProgramLoad")
+@Label("Program Load")
+@Category("Simple Computer")
+@Description("Program is parsed or loaded from its binary image")
+public class ProgramLoadEvent extends Event {
+
+    /** Path to source of the program */
+    @Label("Source")
+    String source;
+
+    /** Identity of the computer */
+    @Label("Computer")
+    int computer;
+
+    /** If program is loaded from its binary image */
+    @Label("Cached")
+    boolean cached;
+
+    /** Number of loaded instructions */
+    @Label("Instructions")
+    int instructions;
+}
@@ -0,0 +1,446 @@
+package hr.fer.zemris.java.simplecomp.profiler;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.java.simplecomp.impl.fusion.FusedInstruction;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrCall;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrRet;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+
+/**
+ * {@code CallGraphProfiler} measures subroutines of a program.
+ * <p>
+ * Profiler keeps a shadow call stack which follows {@link InstrCall} and
+ * {@link InstrRet} instructions. For every subroutine, identified by its entry
+ * address, it counts the calls and measures inclusive and exclusive number of
+ * executed instructions and time. Recursive calls are counted into inclusive
+ * values only once. Calls are also recorded in a tree of call stacks which is
+ * written as folded stacks, the input format of flame graph tools.
+ * <p>
+ * Every call and return takes constant time. Program itself is the
+ * subroutine at address {@code 0}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Profiler
+ */
+public class CallGraphProfiler implements Profiler {
+
+    /** Initial number of subroutine addresses and of stack frames */
+    private static final int INITIAL_SIZE = 64;
+
+    /** Number of calls mapped by entry addresses */
+    private long[] calls = new long[INITIAL_SIZE];
+
+    /** Inclusive number of instructions mapped by entry addresses */
+    private long[] inclusiveSteps = new long[INITIAL_SIZE];
+
+    /** Exclusive number of instructions mapped by entry addresses */
+    private long[] exclusiveSteps = new long[INITIAL_SIZE];
+
+    /** Inclusive time mapped by entry addresses */
+    private long[] inclusiveNanos = new long[INITIAL_SIZE];
+
+    /** Exclusive time mapped by entry addresses */
+    private long[] exclusiveNanos = new long[INITIAL_SIZE];
+
+    /** Number of frames on the stack mapped by entry addresses */
+    private int[] active = new int[INITIAL_SIZE];
+
+    /** Entry addresses of the frames */
+    private int[] entries = new int[INITIAL_SIZE];
+
+    /** Number of executed instructions when frames were entered */
+    private long[] startSteps = new long[INITIAL_SIZE];
+
+    /** Times when frames were entered */
+    private long[] startNanos = new long[INITIAL_SIZE];
+
+    /** Time spent in subroutines called from frames */
+    private long[] childNanos = new long[INITIAL_SIZE];
+
+    /** Call stack nodes of the frames */
+    private Node[] nodes = new Node[INITIAL_SIZE];
+
+    /** Number of frames on the stack */
+    private int depth;
+
+    /** Entry address of the current frame */
+    private int current;
+
+    /** Call stack node of the current frame */
+    private Node node;
+
+    /** Root of the call stack tree */
+    private Node root;
+
+    /** Number of executed instructions */
+    private long steps;
+
+    /**
+     * Enters the program.
+     */
+    @Override
+    public void start() {
+        root = new Node(0);
+        node = root;
+
+        enter(0);
+    }
+
+    /**
+     * Counts the instruction and follows calls and returns.
+     * 
+     * @param address
+     *            address of the instruction
+     * @param instruction
+     *            the instruction
+     */
+    @Override
+    public void step(int address, Instruction instruction) {
+        steps++;
+        exclusiveSteps[current]++;
+        node.steps++;
+
+        if (instruction instanceof FusedInstruction) {
+            instruction = ((FusedInstruction) instruction).getSecond();
+        }
+
+        if (instruction instanceof InstrCall) {
+            enter(((InstrCall) instruction).getAddress());
+        } else if (instruction instanceof InstrRet && depth > 1) {
+            leave();
+        }
+    }
+
+    /**
+     * Leaves all subroutines on the stack and the program.
+     */
+    @Override
+    public void stop() {
+        while (depth > 0) {
+            leave();
+        }
+    }
+
+    /**
+     * Returns the number of executed instructions.
+     * 
+     * @return the number of executed instructions
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Returns the number of calls of the subroutine.
+     * 
+     * @param entry
+     *            entry address of the subroutine
+     * @return the number of calls
+     */
+    public long getCalls(int entry) {
+        return entry < calls.length ? calls[entry] : 0;
+    }
+
+    /**
+     * Returns the number of instructions executed in the subroutine and in
+     * subroutines it called.
+     * 
+     * @param entry
+     *            entry address of the subroutine
+     * @return the inclusive number of instructions
+     */
+    public long getInclusiveSteps(int entry) {
+        return entry < calls.length ? inclusiveSteps[entry] : 0;
+    }
+
+    /**
+     * Returns the number of instructions executed in the subroutine itself.
+     * 
+     * @param entry
+     *            entry address of the subroutine
+     * @return the exclusive number of instructions
+     */
+    public long getExclusiveSteps(int entry) {
+        return entry < calls.length ? exclusiveSteps[entry] : 0;
+    }
+
+    /**
+     * Prints the report of subroutines ordered from the one with the most
+     * inclusive instructions.
+     * 
+     * @param out
+     *            stream to which report is printed
+     * @param labels
+     *            labels of the program
+     */
+    public void report(PrintStream out, ProgramLabels labels) {
+        List<Integer> subroutines = new ArrayList<>();
+        for (int i = 0; i < calls.length; i++) {
+            if (calls[i] != 0) {
+                subroutines.add(i);
+            }
+        }
+        subroutines.sort(
+                (a, b) -> Long.compare(inclusiveSteps[b], inclusiveSteps[a]));
+
+        out.printf(
+                "%-20s %10s %14s %14s %12s %12s%n",
+                "subroutine",
+                "calls",
+                "inclusive",
+                "exclusive",
+                "incl. ms",
+                "excl. ms");
+        for (int entry : subroutines) {
+            out.printf(
+                    "%-20s %10d %14d %14d %12.3f %12.3f%n",
+                    name(entry, labels),
+                    calls[entry],
+                    inclusiveSteps[entry],
+                    exclusiveSteps[entry],
+                    inclusiveNanos[entry] / 1e6,
+                    exclusiveNanos[entry] / 1e6);
+        }
+    }
+
+    /**
+     * Writes the folded call stacks to the file. Every line holds a call
+     * stack, with subroutines separated by semicolons, and the number of
+     * instructions executed in the last subroutine of the stack.
+     * 
+     * @param file
+     *            path to the file
+     * @param labels
+     *            labels of the program
+     * @throws IOException
+     *             if file can't be written
+     */
+    public void writeFolded(Path file, ProgramLabels labels)
+            throws IOException {
+        try (Writer writer = Files
+                .newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeFolded(writer, labels);
+        }
+    }
+
+    /**
+     * Writes the folded call stacks.
+     * 
+     * @param out
+     *            the output
+     * @param labels
+     *            labels of the program
+     * @throws IOException
+     *             if output can't be written
+     */
+    public void writeFolded(Appendable out, ProgramLabels labels)
+            throws IOException {
+        if (root != null) {
+            writeFolded(out, labels, root, new StringBuilder());
+        }
+    }
+
+    /**
+     * Writes the folded call stacks of the node and its children.
+     * 
+     * @param out
+     *            the output
+     * @param labels
+     *            labels of the program
+     * @param node
+     *            the node
+     * @param stack
+     *            call stack of the parent
+     * @throws IOException
+     *             if output can't be written
+     */
+    private void writeFolded(
+            Appendable out,
+            ProgramLabels labels,
+            Node node,
+            StringBuilder stack) throws IOException {
+        int length = stack.length();
+        if (length != 0) {
+            stack.append(';');
+        }
+        stack.append(name(node.entry, labels));
+
+        if (node.steps != 0) {
+            out.append(stack).append(' ')
+                    .append(Long.toString(node.steps)).append('\n');
+        }
+
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                writeFolded(out, labels, child, stack);
+            }
+        }
+
+        stack.setLength(length);
+    }
+
+    /**
+     * Returns the name of the subroutine.
+     * 
+     * @param entry
+     *            entry address of the subroutine
+     * @param labels
+     *            labels of the program
+     * @return the name of the subroutine
+     */
+    private static String name(int entry, ProgramLabels labels) {
+        String label = labels.getLabel(entry);
+
+        if (label != null) {
+            return label;
+        }
+
+        return entry == 0 ? "main" : "sub_" + entry;
+    }
+
+    /**
+     * Pushes the frame of the subroutine.
+     * 
+     * @param entry
+     *            entry address of the subroutine
+     */
+    private void enter(int entry) {
+        if (entry >= calls.length) {
+            growSubroutines(entry);
+        }
+        if (depth == entries.length) {
+            growStack();
+        }
+
+        calls[entry]++;
+        active[entry]++;
+
+        if (depth > 0) {
+            node = node.child(entry);
+        }
+
+        entries[depth] = entry;
+        startSteps[depth] = steps;
+        startNanos[depth] = System.nanoTime();
+        childNanos[depth] = 0;
+        nodes[depth] = node;
+        depth++;
+
+        current = entry;
+    }
+
+    /**
+     * Pops the frame of the current subroutine.
+     */
+    private void leave() {
+        depth--;
+
+        int entry = entries[depth];
+        long nanos = System.nanoTime() - startNanos[depth];
+
+        if (--active[entry] == 0) {
+            inclusiveSteps[entry] += steps - startSteps[depth];
+            inclusiveNanos[entry] += nanos;
+        }
+        exclusiveNanos[entry] += nanos - childNanos[depth];
+
+        if (depth > 0) {
+            childNanos[depth - 1] += nanos;
+            current = entries[depth - 1];
+            node = nodes[depth - 1];
+        }
+    }
+
+    /**
+     * Grows the statistics so the subroutine can be measured.
+     * 
+     * @param entry
+     *            entry address of the subroutine
+     */
+    private void growSubroutines(int entry) {
+        int size = Math.max(entry + 1, calls.length * 2);
+
+        calls = Arrays.copyOf(calls, size);
+        inclusiveSteps = Arrays.copyOf(inclusiveSteps, size);
+        exclusiveSteps = Arrays.copyOf(exclusiveSteps, size);
+        inclusiveNanos = Arrays.copyOf(inclusiveNanos, size);
+        exclusiveNanos = Arrays.copyOf(exclusiveNanos, size);
+        active = Arrays.copyOf(active, size);
+    }
+
+    /**
+     * Doubles the capacity of the shadow stack.
+     */
+    private void growStack() {
+        int size = entries.length * 2;
+
+        entries = Arrays.copyOf(entries, size);
+        startSteps = Arrays.copyOf(startSteps, size);
+        startNanos = Arrays.copyOf(startNanos, size);
+        childNanos = Arrays.copyOf(childNanos, size);
+        nodes = Arrays.copyOf(nodes, size);
+    }
+
+    /**
+     * {@code Node} is a node of the call stack tree. Path from the root to a
+     * node is a call stack.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class Node {
+
+        /** Entry address of the subroutine */
+        private int entry;
+
+        /** Number of instructions executed in this call stack */
+        private long steps;
+
+        /** Children mapped by entry addresses or {@code null} */
+        private Map<Integer, Node> children;
+
+        /**
+         * Constructs a new {@code Node} object.
+         * 
+         * @param entry
+         *            entry address of the subroutine
+         */
+        private Node(int entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * Returns the child for the called subroutine, creating it on the
+         * first call.
+         * 
+         * @param entry
+         *            entry address of the called subroutine
+         * @return the child
+         */
+        private Node child(int entry) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+
+            Node child = children.get(entry);
+            if (child == null) {
+                child = new Node(entry);
+                children.put(entry, child);
+            }
+
+            return child;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package hr.fer.zemris.java.simplecomp.profiler;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+
+/**
+ * {@code ExecutionProfiler} counts executed instructions per memory address
+ * and per instruction class, and measures the time the program runs.
+ * <p>
+ * Profiler is given to the {@link ExecutionUnitImpl}, which then runs the
+ * program in a separate loop calling {@link #step(int, Instruction)} before
+ * every instruction. Execution units without a profiler don't pay for it.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramLabels
+ */
+public class ExecutionProfiler implements Profiler {
+
+    /** Initial number of counted addresses */
+    private static final int INITIAL_SIZE = 256;
+
+    /** Number of executions mapped by addresses */
+    private long[] counts = new long[INITIAL_SIZE];
+
+    /** Classes of instructions last executed at addresses */
+    private Class<?>[] classes = new Class<?>[INITIAL_SIZE];
+
+    /** Counters of the classes of instructions at addresses */
+    private long[][] classCounters = new long[INITIAL_SIZE][];
+
+    /** Counters of instruction classes mapped by classes */
+    private Map<Class<?>, long[]> perClass = new LinkedHashMap<>();
+
+    /** Number of executed instructions */
+    private long steps;
+
+    /** Time when the program started */
+    private long start;
+
+    /** Duration of the program in nanoseconds */
+    private long nanos;
+
+    /**
+     * Starts measuring the time.
+     */
+    @Override
+    public void start() {
+        start = System.nanoTime();
+    }
+
+    /**
+     * Stops measuring the time.
+     */
+    @Override
+    public void stop() {
+        nanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Counts the instruction executed at the address.
+     * 
+     * @param address
+     *            address of the instruction
+     * @param instruction
+     *            the instruction
+     */
+    @Override
+    public void step(int address, Instruction instruction) {
+        if (address >= counts.length) {
+            grow(address);
+        }
+
+        counts[address]++;
+        steps++;
+
+        if (classes[address] != instruction.getClass()) {
+            classes[address] = instruction.getClass();
+            classCounters[address] = perClass.computeIfAbsent(
+                    instruction.getClass(),
+                    c -> new long[1]);
+        }
+        classCounters[address][0]++;
+    }
+
+    /**
+     * Returns the number of executed instructions.
+     * 
+     * @return the number of executed instructions
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Returns the duration of the program in nanoseconds.
+     * 
+     * @return the duration of the program
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns the number of executions of the instruction at the address.
+     * 
+     * @param address
+     *            the address
+     * @return the number of executions
+     */
+    public long getCount(int address) {
+        return address < counts.length ? counts[address] : 0;
+    }
+
+    /**
+     * Returns the number of executions of instructions of the class.
+     * 
+     * @param instruction
+     *            class of instructions
+     * @return the number of executions
+     */
+    public long getCount(Class<? extends Instruction> instruction) {
+        long[] counter = perClass.get(instruction);
+
+        return counter == null ? 0 : counter[0];
+    }
+
+    /**
+     * Returns the executed addresses ordered from the most executed one.
+     * 
+     * @return the executed addresses
+     */
+    public List<Integer> getHotAddresses() {
+        List<Integer> addresses = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                addresses.add(i);
+            }
+        }
+
+        addresses.sort(Comparator.comparingLong((Integer a) -> counts[a])
+                .reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        return addresses;
+    }
+
+    /**
+     * Prints the ranked report of hot addresses and instruction classes.
+     * 
+     * @param out
+     *            stream to which report is printed
+     * @param labels
+     *            labels of the program
+     * @param limit
+     *            maximum number of printed addresses
+     */
+    public void report(PrintStream out, ProgramLabels labels, int limit) {
+        out.printf(
+                "Executed %d instructions in %.3f ms%n",
+                steps,
+                nanos / 1e6);
+
+        out.printf("%nHot addresses:%n");
+        out.printf(
+                "%5s %8s  %-20s %-18s %12s %7s%n",
+                "rank",
+                "address",
+                "label",
+                "instruction",
+                "count",
+                "share");
+
+        List<Integer> hot = getHotAddresses();
+        for (int i = 0; i < hot.size() && i < limit; i++) {
+            int address = hot.get(i);
+
+            out.printf(
+                    "%5d %8d  %-20s %-18s %12d %6.2f%%%n",
+                    i + 1,
+                    address,
+                    labels.describe(address),
+                    classes[address].getSimpleName(),
+                    counts[address],
+                    share(counts[address]));
+        }
+
+        out.printf("%nInstructions:%n");
+
+        List<Map.Entry<Class<?>, long[]>> entries = new ArrayList<>(
+                perClass.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        for (Map.Entry<Class<?>, long[]> entry : entries) {
+            out.printf(
+                    "  %-18s %12d %6.2f%%%n",
+                    entry.getKey().getSimpleName(),
+                    entry.getValue()[0],
+                    share(entry.getValue()[0]));
+        }
+    }
+
+    /**
+     * Exports the counts of all executed addresses as CSV.
+     * 
+     * @param file
+     *            path to the exported file
+     * @param labels
+     *            labels of the program
+     * @throws IOException
+     *             if file can't be written
+     */
+    public void export(Path file, ProgramLabels labels) throws IOException {
+        try (Writer writer = Files
+                .newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("address,label,instruction,count\n");
+
+            for (int address : getHotAddresses()) {
+                writer.write(
+                        String.format(
+                                "%d,%s,%s,%d%n",
+                                address,
+                                labels.describe(address),
+                                classes[address].getSimpleName(),
+                                counts[address]));
+            }
+        }
+    }
+
+    /**
+     * Returns the share of the count in all executed instructions.
+     * 
+     * @param count
+     *            the count
+     * @return the share in percents
+     */
+    private double share(long count) {
+        return steps == 0 ? 0 : count * 100.0 / steps;
+    }
+
+    /**
+     * Grows the counters so the address can be counted.
+     * 
+     * @param address
+     *            the address
+     */
+    private void grow(int address) {
+        int size = Math.max(address + 1, counts.length * 2);
+
+        counts = Arrays.copyOf(counts, size);
+        classes = Arrays.copyOf(classes, size);
+        classCounters = Arrays.copyOf(classCounters, size);
+    }
+}
@@ -0,0 +1,39 @@
+package hr.fer.zemris.java.simplecomp.profiler;
+
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+
+/**
+ * {@code Profiler} observes a program run by the {@link ExecutionUnitImpl}.
+ * <p>
+ * Execution unit calls {@link #start()} before the first instruction,
+ * {@link #step(int, Instruction)} before every instruction and
+ * {@link #stop()} when the program stops.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExecutionProfiler
+ * @see CallGraphProfiler
+ */
+public interface Profiler {
+
+    /**
+     * Called before the first instruction is executed.
+     */
+    public void start();
+
+    /**
+     * Called before the instruction at the address is executed.
+     * 
+     * @param address
+     *            address of the instruction
+     * @param instruction
+     *            the instruction
+     */
+    public void step(int address, Instruction instruction);
+
+    /**
+     * Called when the program stops, even if it fails.
+     */
+    public void stop();
+}
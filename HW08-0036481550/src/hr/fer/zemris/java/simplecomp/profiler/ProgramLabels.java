@@ -0,0 +1,166 @@
+package hr.fer.zemris.java.simplecomp.profiler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code ProgramLabels} holds the labels of a program mapped by memory
+ * addresses.
+ * <p>
+ * Parser doesn't expose the labels it finds, so they are found by scanning
+ * the source the same way the parser places the program in memory: every line
+ * holding an instruction, {@code DEFINT} or {@code DEFSTR} takes one location
+ * and {@code RESERVE:n} takes {@code n} locations.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class ProgramLabels {
+
+    /** Labels mapped by memory addresses */
+    private TreeMap<Integer, String> labels = new TreeMap<>();
+
+    /**
+     * Constructs a new {@code ProgramLabels} object without labels.
+     */
+    public ProgramLabels() {
+    }
+
+    /**
+     * Scans the source of the program.
+     * 
+     * @param source
+     *            path to the source
+     * @return labels of the program
+     * @throws IOException
+     *             if source can't be read
+     */
+    public static ProgramLabels scan(Path source) throws IOException {
+        return scan(Files.readAllLines(source, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Scans the lines of the program.
+     * 
+     * @param lines
+     *            lines of the program
+     * @return labels of the program
+     */
+    public static ProgramLabels scan(List<String> lines) {
+        ProgramLabels labels = new ProgramLabels();
+
+        int address = 0;
+        for (String line : lines) {
+            line = stripComment(line).trim();
+
+            if (line.startsWith("@")) {
+                int colon = line.indexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+
+                labels.labels.putIfAbsent(address, line.substring(0, colon));
+                line = line.substring(colon + 1).trim();
+            }
+
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            address += size(line);
+        }
+
+        return labels;
+    }
+
+    /**
+     * Returns the label at the memory address.
+     * 
+     * @param address
+     *            the memory address
+     * @return the label or {@code null} if address doesn't have a label
+     */
+    public String getLabel(int address) {
+        return labels.get(address);
+    }
+
+    /**
+     * Describes the memory address relative to the closest label before it,
+     * for example {@code @loop+2}.
+     * 
+     * @param address
+     *            the memory address
+     * @return description of the address or an empty string if there is no
+     *         label before it
+     */
+    public String describe(int address) {
+        Map.Entry<Integer, String> entry = labels.floorEntry(address);
+
+        if (entry == null) {
+            return "";
+        }
+
+        int offset = address - entry.getKey();
+
+        return offset == 0 ? entry.getValue()
+                : entry.getValue() + "+" + offset;
+    }
+
+    /**
+     * Returns the number of memory locations taken by the line.
+     * 
+     * @param line
+     *            the line without label and comment
+     * @return the number of memory locations
+     */
+    private static int size(String line) {
+        if (!line.startsWith("RESERVE")) {
+            return 1;
+        }
+
+        int colon = line.indexOf(':');
+        if (colon < 0) {
+            return 1;
+        }
+
+        try {
+            return Integer.parseInt(line.substring(colon + 1).trim());
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Removes the comment from the line. Comments start with {@code #} at the
+     * beginning of the line or with {@code ;} outside of strings.
+     * 
+     * @param line
+     *            the line
+     * @return the line without comment
+     */
+    private static String stripComment(String line) {
+        if (line.trim().startsWith("#")) {
+            return "";
+        }
+
+        boolean string = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (c == '\\' && string) {
+                i++;
+            } else if (c == '"') {
+                string = !string;
+            } else if (c == ';' && !string) {
+                return line.substring(0, i);
+            }
+        }
+
+        return line;
+    }
+}
@@ -0,0 +1,61 @@
+package hr.fer.zemris.java.simplecomp.registry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrAdd;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrCall;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrDecrement;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrEcho;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrHalt;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrIncrement;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrInput;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJump;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJumpIfTrue;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrLoad;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMove;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMul;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPop;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrPush;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrRet;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrTestEquals;
+
+/**
+ * {@code DefaultInstructionSet} holds every instruction from the
+ * {@code hr.fer.zemris.java.simplecomp.impl.instructions} package.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see InstructionSet
+ */
+public class DefaultInstructionSet implements InstructionSet {
+
+    /**
+     * Returns the factories of instructions mapped by mnemonics.
+     * 
+     * @return the factories mapped by mnemonics
+     */
+    @Override
+    public Map<String, InstructionFactory> getInstructions() {
+        Map<String, InstructionFactory> instructions = new LinkedHashMap<>();
+
+        instructions.put("halt", InstrHalt::new);
+        instructions.put("load", InstrLoad::new);
+        instructions.put("move", InstrMove::new);
+        instructions.put("add", InstrAdd::new);
+        instructions.put("mul", InstrMul::new);
+        instructions.put("increment", InstrIncrement::new);
+        instructions.put("decrement", InstrDecrement::new);
+        instructions.put("testEquals", InstrTestEquals::new);
+        instructions.put("jump", InstrJump::new);
+        instructions.put("jumpIfTrue", InstrJumpIfTrue::new);
+        instructions.put("call", InstrCall::new);
+        instructions.put("ret", InstrRet::new);
+        instructions.put("push", InstrPush::new);
+        instructions.put("pop", InstrPop::new);
+        instructions.put("echo", InstrEcho::new);
+        instructions.put("input", InstrInput::new);
+
+        return instructions;
+    }
+}
@@ -0,0 +1,30 @@
+package hr.fer.zemris.java.simplecomp.registry;
+
+import java.util.List;
+
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
+
+/**
+ * {@code InstructionFactory} constructs an instruction from its parsed
+ * arguments. Usually it is a reference to the constructor of the instruction,
+ * for example {@code InstrAdd::new}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see InstructionSet
+ */
+@FunctionalInterface
+public interface InstructionFactory {
+
+    /**
+     * Constructs the instruction.
+     * 
+     * @param arguments
+     *            the arguments of the instruction
+     * @return the instruction
+     * @throws IllegalArgumentException
+     *             if arguments are invalid
+     */
+    public Instruction create(List<InstructionArgument> arguments);
+}
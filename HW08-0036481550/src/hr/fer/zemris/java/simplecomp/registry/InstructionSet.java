@@ -0,0 +1,28 @@
+package hr.fer.zemris.java.simplecomp.registry;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * {@code InstructionSet} is a set of instructions which can be used in
+ * programs.
+ * <p>
+ * Besides the {@link DefaultInstructionSet}, instruction sets are found with
+ * the {@link ServiceLoader}: a jar adds instructions by listing its
+ * implementation of this interface in the provider configuration file under
+ * {@code META-INF/services}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see RegistryInstructionCreator
+ */
+public interface InstructionSet {
+
+    /**
+     * Returns the factories of instructions mapped by mnemonics. Mnemonics
+     * are case sensitive except for the first letter.
+     * 
+     * @return the factories mapped by mnemonics
+     */
+    public Map<String, InstructionFactory> getInstructions();
+}
@@ -0,0 +1,140 @@
+package hr.fer.zemris.java.simplecomp.registry;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.InstructionArgument;
+import hr.fer.zemris.java.simplecomp.models.InstructionCreator;
+
+/**
+ * {@code RegistryInstructionCreator} is an {@link InstructionCreator} which
+ * creates instructions with factories from a registry instead of looking up
+ * classes and constructors by reflection for every parsed line.
+ * <p>
+ * Registry is built once, when it is first used, from the
+ * {@link DefaultInstructionSet} and from every {@link InstructionSet} found by
+ * the {@link ServiceLoader}. Like the reflective creator, the first letter of
+ * a mnemonic isn't case sensitive.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see InstructionSet
+ */
+public class RegistryInstructionCreator implements InstructionCreator {
+
+    /**
+     * Creates a new instruction.
+     * 
+     * @param mnemonic
+     *            mnemonic of the instruction
+     * @param arguments
+     *            arguments of the instruction
+     * @return the instruction
+     * @throws IllegalArgumentException
+     *             if instruction with specified mnemonic doesn't exist or
+     *             arguments are invalid
+     */
+    @Override
+    public Instruction getInstruction(
+            String mnemonic,
+            List<InstructionArgument> arguments) {
+        InstructionFactory factory = Registry.FACTORIES.get(key(mnemonic));
+
+        if (factory == null) {
+            throw new IllegalArgumentException(
+                    "Unknown instruction " + mnemonic + "!");
+        }
+
+        return factory.create(arguments);
+    }
+
+    /**
+     * Returns the mnemonics of all registered instructions.
+     * 
+     * @return the mnemonics
+     */
+    public static Iterable<String> getMnemonics() {
+        return Collections.unmodifiableSet(Registry.FACTORIES.keySet());
+    }
+
+    /**
+     * Returns the registry key of the mnemonic.
+     * 
+     * @param mnemonic
+     *            the mnemonic
+     * @return the key
+     */
+    private static String key(String mnemonic) {
+        if (mnemonic.isEmpty() || Character.isUpperCase(mnemonic.charAt(0))) {
+            return mnemonic;
+        }
+
+        return Character.toUpperCase(mnemonic.charAt(0))
+                + mnemonic.substring(1);
+    }
+
+    /**
+     * {@code Registry} holds factories of all instructions. It is a separate
+     * class so the registry is built lazily and exactly once.
+     * 
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class Registry {
+
+        /** Factories mapped by keys of mnemonics */
+        private static final Map<String, InstructionFactory> FACTORIES =
+                build();
+
+        /**
+         * Builds the registry.
+         * 
+         * @return factories mapped by keys of mnemonics
+         * @throws IllegalStateException
+         *             if two instruction sets register the same mnemonic
+         */
+        private static Map<String, InstructionFactory> build() {
+            Map<String, InstructionFactory> factories = new HashMap<>();
+
+            register(factories, new DefaultInstructionSet());
+            for (InstructionSet set : ServiceLoader
+                    .load(InstructionSet.class)) {
+                if (!(set instanceof DefaultInstructionSet)) {
+                    register(factories, set);
+                }
+            }
+
+            return factories;
+        }
+
+        /**
+         * Registers all instructions from the instruction set.
+         * 
+         * @param factories
+         *            factories mapped by keys of mnemonics
+         * @param set
+         *            the instruction set
+         * @throws IllegalStateException
+         *             if mnemonic is already registered
+         */
+        private static void register(
+                Map<String, InstructionFactory> factories,
+                InstructionSet set) {
+            for (Map.Entry<String, InstructionFactory> entry : set
+                    .getInstructions()
+                    .entrySet()) {
+                String key = key(entry.getKey());
+
+                if (factories.putIfAbsent(key, entry.getValue()) != null) {
+                    throw new IllegalStateException(
+                            "Instruction " + entry.getKey()
+                                    + " is already registered!");
+                }
+            }
+        }
+    }
+}
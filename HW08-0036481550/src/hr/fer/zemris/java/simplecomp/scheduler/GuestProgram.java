@@ -0,0 +1,175 @@
+package hr.fer.zemris.java.simplecomp.scheduler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+
+/**
+ * {@code GuestProgram} is a program submitted to a {@link Scheduler}. It is
+ * used to follow the program and to wait until it halts.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Scheduler
+ */
+public class GuestProgram {
+
+    /**
+     * State of a guest program.
+     */
+    public enum State {
+        /** Program waits for a carrier thread */
+        READY,
+        /** Program is running on a carrier thread */
+        RUNNING,
+        /** Program waits for its input */
+        PARKED,
+        /** Program has halted */
+        HALTED,
+        /** Program has thrown an exception */
+        FAILED
+    }
+
+    /** Computer running the program */
+    private final ComputerImpl computer;
+
+    /** Priority of the program */
+    private final int priority;
+
+    /** Latch released when program stops */
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /** State of the program, guarded by the scheduler */
+    State state = State.READY;
+
+    /** Order in which program became ready, guarded by the scheduler */
+    long sequence;
+
+    /** Number of executed instructions */
+    private volatile long steps;
+
+    /** Number of quanta the program has run */
+    private volatile long quanta;
+
+    /** Exception thrown by the program */
+    private volatile Throwable error;
+
+    /**
+     * Constructs a new {@code GuestProgram} object.
+     * 
+     * @param computer
+     *            computer running the program
+     * @param priority
+     *            priority of the program
+     */
+    GuestProgram(ComputerImpl computer, int priority) {
+        this.computer = computer;
+        this.priority = priority;
+    }
+
+    /**
+     * Returns the computer running the program.
+     * 
+     * @return the computer
+     */
+    public ComputerImpl getComputer() {
+        return computer;
+    }
+
+    /**
+     * Returns the priority of the program.
+     * 
+     * @return the priority
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Returns the number of executed instructions.
+     * 
+     * @return the number of executed instructions
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Returns the number of quanta the program has run.
+     * 
+     * @return the number of quanta
+     */
+    public long getQuanta() {
+        return quanta;
+    }
+
+    /**
+     * Returns the exception thrown by the program.
+     * 
+     * @return the exception or {@code null} if program hasn't failed
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Checks if program has halted or failed.
+     * 
+     * @return {@code true} if program has stopped; {@code false} otherwise
+     */
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * Waits until program halts or fails.
+     * 
+     * @throws InterruptedException
+     *             if the waiting thread is interrupted
+     */
+    public void await() throws InterruptedException {
+        done.await();
+    }
+
+    /**
+     * Waits until program halts or fails, or until the timeout elapses.
+     * 
+     * @param timeout
+     *            the maximum time to wait
+     * @param unit
+     *            unit of the timeout
+     * @return {@code true} if program has stopped; {@code false} if timeout
+     *         has elapsed
+     * @throws InterruptedException
+     *             if the waiting thread is interrupted
+     */
+    public boolean await(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    /**
+     * Adds executed instructions of one quantum. Called only by the carrier
+     * running the program.
+     * 
+     * @param executed
+     *            number of instructions executed in the quantum
+     */
+    void addQuantum(long executed) {
+        steps += executed;
+        quanta++;
+    }
+
+    /**
+     * Marks the program as stopped.
+     * 
+     * @param error
+     *            exception thrown by the program or {@code null} if it has
+     *            halted
+     */
+    void finish(Throwable error) {
+        this.error = error;
+        done.countDown();
+    }
+}
@@ -0,0 +1,360 @@
+package hr.fer.zemris.java.simplecomp.scheduler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.InputChannel;
+import hr.fer.zemris.java.simplecomp.impl.PipeInputChannel;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrInput;
+import hr.fer.zemris.java.simplecomp.impl.instructions.OutputStreamUtil;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.models.Memory;
+import hr.fer.zemris.java.simplecomp.models.Registers;
+import hr.fer.zemris.java.simplecomp.scheduler.GuestProgram.State;
+
+/**
+ * {@code Scheduler} runs many computers on a few carrier threads.
+ * <p>
+ * Every carrier takes a ready program, runs at most one quantum of its
+ * instructions and puts it back, so a long program never keeps a carrier to
+ * itself. Programs continue from their current program counter, which is
+ * {@code 0} for a freshly loaded program. Output of a program is flushed at
+ * the end of every quantum.
+ * <p>
+ * A program about to execute {@link InstrInput} while its
+ * {@link PipeInputChannel} has no complete line is parked without taking a
+ * carrier, and becomes ready again when the line is written or the pipe is
+ * closed. Programs reading any other input may block their carrier.
+ * <p>
+ * Programs which are ready or parked when the scheduler is closed fail with
+ * an {@link IllegalStateException}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see GuestProgram
+ * @see SchedulingPolicy
+ */
+public class Scheduler implements AutoCloseable {
+
+    /** Default number of instructions in a quantum */
+    public static final int DEFAULT_QUANTUM = 10_000;
+
+    /** Lock guarding the ready queue and states of programs */
+    private final Object lock = new Object();
+
+    /** Ready programs in the order in which they are run */
+    private final PriorityQueue<GuestProgram> ready;
+
+    /** Programs which haven't stopped */
+    private final Set<GuestProgram> programs = new HashSet<>();
+
+    /** Carrier threads */
+    private final Thread[] carriers;
+
+    /** Number of instructions in a quantum */
+    private final int quantum;
+
+    /** Counter used to order ready programs */
+    private long sequence;
+
+    /** Flag which tells if the scheduler is closed */
+    private boolean closed;
+
+    /**
+     * Constructs a new {@code Scheduler} with default quantum and round-robin
+     * policy.
+     * 
+     * @param carriers
+     *            number of carrier threads
+     * @throws IllegalArgumentException
+     *             if number of carriers is less than 1
+     */
+    public Scheduler(int carriers) {
+        this(carriers, DEFAULT_QUANTUM, SchedulingPolicy.ROUND_ROBIN);
+    }
+
+    /**
+     * Constructs a new {@code Scheduler} and starts its carrier threads.
+     * 
+     * @param carriers
+     *            number of carrier threads
+     * @param quantum
+     *            number of instructions in a quantum
+     * @param policy
+     *            policy which decides which program runs next
+     * @throws IllegalArgumentException
+     *             if number of carriers or quantum is less than 1
+     */
+    public Scheduler(int carriers, int quantum, SchedulingPolicy policy) {
+        if (carriers < 1 || quantum < 1) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Carriers and quantum must be greater than 0. You"
+                                    + " provided %d and %d.",
+                            carriers,
+                            quantum));
+        }
+
+        Comparator<GuestProgram> order = Comparator
+                .comparingLong(p -> p.sequence);
+        if (policy == SchedulingPolicy.PRIORITY) {
+            order = Comparator
+                    .comparingInt(GuestProgram::getPriority)
+                    .reversed()
+                    .thenComparing(order);
+        }
+
+        this.quantum = quantum;
+        this.ready = new PriorityQueue<>(order);
+        this.carriers = new Thread[carriers];
+
+        for (int i = 0; i < carriers; i++) {
+            Thread carrier = new Thread(this::carry, "carrier-" + i);
+            carrier.setDaemon(true);
+            carrier.start();
+            this.carriers[i] = carrier;
+        }
+    }
+
+    /**
+     * Submits the computer with priority {@code 0}.
+     * 
+     * @param computer
+     *            computer holding the loaded program
+     * @return the submitted program
+     * @throws IllegalStateException
+     *             if scheduler is closed
+     */
+    public GuestProgram submit(ComputerImpl computer) {
+        return submit(computer, 0);
+    }
+
+    /**
+     * Submits the computer. Computer must not be used by anyone else until
+     * the program stops.
+     * 
+     * @param computer
+     *            computer holding the loaded program
+     * @param priority
+     *            priority of the program, higher runs first
+     * @return the submitted program
+     * @throws IllegalStateException
+     *             if scheduler is closed
+     */
+    public GuestProgram submit(ComputerImpl computer, int priority) {
+        GuestProgram program = new GuestProgram(computer, priority);
+
+        InputChannel input = computer.getInput();
+        if (input instanceof PipeInputChannel) {
+            ((PipeInputChannel) input).setListener(() -> wake(program));
+        }
+
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Scheduler is closed!");
+            }
+
+            programs.add(program);
+            enqueue(program);
+        }
+
+        return program;
+    }
+
+    /**
+     * Stops the carriers after their current quanta and waits for them.
+     * Programs which haven't stopped fail, so nobody waits for them forever.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+
+        for (Thread carrier : carriers) {
+            try {
+                carrier.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        List<GuestProgram> abandoned;
+        synchronized (lock) {
+            abandoned = new ArrayList<>(programs);
+            for (GuestProgram program : abandoned) {
+                program.state = State.FAILED;
+            }
+
+            programs.clear();
+            ready.clear();
+        }
+
+        for (GuestProgram program : abandoned) {
+            finish(program, new IllegalStateException("Scheduler is closed!"));
+        }
+    }
+
+    /**
+     * Loop of a carrier thread.
+     */
+    private void carry() {
+        while (true) {
+            GuestProgram program;
+            synchronized (lock) {
+                while (ready.isEmpty() && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                if (closed) {
+                    return;
+                }
+
+                program = ready.poll();
+                program.state = State.RUNNING;
+            }
+
+            State next;
+            Throwable error = null;
+            try {
+                next = runQuantum(program);
+            } catch (RuntimeException e) {
+                next = State.FAILED;
+                error = e;
+            }
+
+            if (next == State.HALTED || next == State.FAILED) {
+                synchronized (lock) {
+                    program.state = next;
+                    programs.remove(program);
+                }
+
+                finish(program, error);
+                continue;
+            }
+
+            synchronized (lock) {
+                // input may have arrived after the quantum has seen it missing
+                if (next == State.PARKED
+                        && !isInputReady(program.getComputer())) {
+                    program.state = State.PARKED;
+                } else {
+                    enqueue(program);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs one quantum of the program.
+     * 
+     * @param program
+     *            the program
+     * @return {@link State#READY} if quantum has elapsed, {@link State#PARKED}
+     *         if program waits for input or {@link State#HALTED} if it has
+     *         halted
+     */
+    private State runQuantum(GuestProgram program) {
+        ComputerImpl computer = program.getComputer();
+        Registers registers = computer.getRegisters();
+        Memory memory = computer.getMemory();
+
+        long executed = 0;
+        try {
+            while (executed < quantum) {
+                Instruction instr = (Instruction) memory
+                        .getLocation(registers.getProgramCounter());
+
+                if (instr instanceof InstrInput && !isInputReady(computer)) {
+                    return State.PARKED;
+                }
+
+                executed++;
+                if (instr.execute(computer)) {
+                    return State.HALTED;
+                }
+
+                registers.incrementProgramCounter();
+            }
+
+            return State.READY;
+        } finally {
+            program.addQuantum(executed);
+            OutputStreamUtil.flush(computer);
+        }
+    }
+
+    /**
+     * Finishes the stopped program and detaches it from its pipe.
+     * 
+     * @param program
+     *            the program
+     * @param error
+     *            error which has stopped the program or {@code null} if it
+     *            has halted
+     */
+    private static void finish(GuestProgram program, Throwable error) {
+        InputChannel input = program.getComputer().getInput();
+        if (input instanceof PipeInputChannel) {
+            ((PipeInputChannel) input).setListener(null);
+        }
+
+        program.finish(error);
+    }
+
+    /**
+     * Makes the parked program ready. Called by the pipe of the program when
+     * a line is written or the pipe is closed.
+     * 
+     * @param program
+     *            the program
+     */
+    private void wake(GuestProgram program) {
+        synchronized (lock) {
+            if (program.state == State.PARKED && !closed) {
+                enqueue(program);
+            }
+        }
+    }
+
+    /**
+     * Adds the program to the ready queue. Must be called while holding the
+     * lock.
+     * 
+     * @param program
+     *            the program
+     */
+    private void enqueue(GuestProgram program) {
+        program.state = State.READY;
+        program.sequence = sequence++;
+        ready.add(program);
+        lock.notify();
+    }
+
+    /**
+     * Checks if the next line of the computer's input can be read without
+     * blocking.
+     * 
+     * @param computer
+     *            the computer
+     * @return {@code true} if input is ready or isn't a pipe; {@code false}
+     *         otherwise
+     */
+    private static boolean isInputReady(ComputerImpl computer) {
+        InputChannel input = computer.getInput();
+
+        return !(input instanceof PipeInputChannel)
+                || ((PipeInputChannel) input).isReady();
+    }
+}
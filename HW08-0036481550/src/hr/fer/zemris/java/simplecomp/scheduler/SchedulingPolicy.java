@@ -0,0 +1,25 @@
+package hr.fer.zemris.java.simplecomp.scheduler;
+
+/**
+ * {@code SchedulingPolicy} decides which ready program a {@link Scheduler}
+ * runs next.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Scheduler
+ */
+public enum SchedulingPolicy {
+
+    /**
+     * Programs are run in the order in which they became ready; priorities
+     * are ignored.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Program with the highest priority is run first and programs with the
+     * same priority are run in round-robin order. Programs with a lower
+     * priority run only while no program with a higher priority is ready.
+     */
+    PRIORITY
+}
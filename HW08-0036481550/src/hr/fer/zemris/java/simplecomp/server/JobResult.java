@@ -0,0 +1,193 @@
+package hr.fer.zemris.java.simplecomp.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@code JobResult} is the result of a job run by a {@link SimulationServer}:
+ * everything the program printed, its timing and the error if it failed.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see SimulationServer
+ * @see SimulationClient
+ */
+public class JobResult {
+
+    /** Everything the program printed */
+    private final String output;
+
+    /** Number of executed instructions */
+    private final long steps;
+
+    /** Time spent parsing the program in nanoseconds */
+    private final long loadNanos;
+
+    /** Time spent running the program in nanoseconds */
+    private final long runNanos;
+
+    /** Message of the error or {@code null} if program halted */
+    private final String error;
+
+    /**
+     * Constructs a new {@code JobResult} object.
+     * 
+     * @param output
+     *            everything the program printed
+     * @param steps
+     *            number of executed instructions
+     * @param loadNanos
+     *            time spent parsing the program in nanoseconds
+     * @param runNanos
+     *            time spent running the program in nanoseconds
+     * @param error
+     *            message of the error or {@code null} if program halted
+     */
+    public JobResult(
+            String output,
+            long steps,
+            long loadNanos,
+            long runNanos,
+            String error) {
+        this.output = output;
+        this.steps = steps;
+        this.loadNanos = loadNanos;
+        this.runNanos = runNanos;
+        this.error = error;
+    }
+
+    /**
+     * Returns everything the program printed.
+     * 
+     * @return the output
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * Returns the number of executed instructions.
+     * 
+     * @return the number of executed instructions
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Returns the time spent parsing the program in nanoseconds.
+     * 
+     * @return the load time
+     */
+    public long getLoadNanos() {
+        return loadNanos;
+    }
+
+    /**
+     * Returns the time from the start of the program until it stopped in
+     * nanoseconds, including the time it waited for input.
+     * 
+     * @return the run time
+     */
+    public long getRunNanos() {
+        return runNanos;
+    }
+
+    /**
+     * Returns the message of the error.
+     * 
+     * @return the message or {@code null} if program halted
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Checks if program was parsed and halted without an error.
+     * 
+     * @return {@code true} if program halted; {@code false} otherwise
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    /**
+     * Writes the result to the stream.
+     * 
+     * @param out
+     *            the stream
+     * @throws IOException
+     *             if result can't be written
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeBoolean(error == null);
+        out.writeLong(steps);
+        out.writeLong(loadNanos);
+        out.writeLong(runNanos);
+        writeString(out, output);
+        if (error != null) {
+            writeString(out, error);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a result from the stream.
+     * 
+     * @param in
+     *            the stream
+     * @return the result
+     * @throws IOException
+     *             if result can't be read
+     */
+    static JobResult read(DataInputStream in) throws IOException {
+        boolean successful = in.readBoolean();
+        long steps = in.readLong();
+        long loadNanos = in.readLong();
+        long runNanos = in.readLong();
+        String output = readString(in);
+        String error = successful ? null : readString(in);
+
+        return new JobResult(output, steps, loadNanos, runNanos, error);
+    }
+
+    /**
+     * Writes a string as its length and UTF-8 bytes.
+     * 
+     * @param out
+     *            the stream
+     * @param value
+     *            the string
+     * @throws IOException
+     *             if string can't be written
+     */
+    private static void writeString(DataOutputStream out, String value)
+            throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by
+     * {@link #writeString(DataOutputStream, String)}.
+     * 
+     * @param in
+     *            the stream
+     * @return the string
+     * @throws IOException
+     *             if string can't be read
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid length " + length + ".");
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,116 @@
+package hr.fer.zemris.java.simplecomp.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * {@code SimulationClient} sends a program and its input to a
+ * {@link SimulationServer} and returns the result of the job.
+ * <p>
+ * When started as a program, it takes the port and the path to the program,
+ * sends standard input as the input of the program, prints the output to
+ * standard output and the timing of the job to standard error.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see SimulationServer
+ */
+public final class SimulationClient {
+
+    /**
+     * Private constructor. Class only holds static methods.
+     */
+    private SimulationClient() {
+    }
+
+    /**
+     * Starting point of a program.
+     * 
+     * @param args
+     *            Command-line argument
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.printf(
+                    "You should provide 2 arguments! You provided %d.",
+                    args.length);
+            System.exit(1);
+        }
+
+        JobResult result = null;
+        try {
+            result = run(
+                    Integer.parseInt(args[0]),
+                    Files.readAllBytes(Paths.get(args[1])),
+                    System.in);
+        } catch (NumberFormatException e) {
+            System.err.printf("Invalid port '%s'!", args[0]);
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.printf("Job can't be run: %s", e.getMessage());
+            System.exit(2);
+        }
+
+        System.out.print(result.getOutput());
+        System.out.flush();
+        System.err.printf(
+                "%nParsed in %.3f ms, ran %d instructions in %.3f ms.%n",
+                result.getLoadNanos() / 1e6,
+                result.getSteps(),
+                result.getRunNanos() / 1e6);
+
+        if (!result.isSuccessful()) {
+            System.err.printf("Failed: %s%n", result.getError());
+            System.exit(3);
+        }
+    }
+
+    /**
+     * Runs the program on the server listening on the loopback address.
+     * 
+     * @param port
+     *            port of the server
+     * @param program
+     *            the UTF-8 source of the program
+     * @param input
+     *            input of the program, sent until its end
+     * @return the result
+     * @throws IOException
+     *             if job can't be sent or result can't be read
+     */
+    public static JobResult run(int port, byte[] program, InputStream input)
+            throws IOException {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(
+                InetAddress.getLoopbackAddress(),
+                port))) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(
+                            Channels.newOutputStream(channel)));
+
+            out.writeInt(program.length);
+            out.write(program);
+            out.flush();
+
+            byte[] chunk = new byte[8192];
+            int length;
+            while ((length = input.read(chunk)) != -1) {
+                out.write(chunk, 0, length);
+                out.flush();
+            }
+            channel.shutdownOutput();
+
+            return JobResult.read(new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(channel))));
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package hr.fer.zemris.java.simplecomp.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import hr.fer.zemris.java.simplecomp.impl.ArrayMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.PipeInputChannel;
+import hr.fer.zemris.java.simplecomp.impl.RegistersImpl;
+import hr.fer.zemris.java.simplecomp.impl.fusion.SuperinstructionFuser;
+import hr.fer.zemris.java.simplecomp.parser.ProgramParser;
+import hr.fer.zemris.java.simplecomp.registry.RegistryInstructionCreator;
+import hr.fer.zemris.java.simplecomp.scheduler.GuestProgram;
+import hr.fer.zemris.java.simplecomp.scheduler.Scheduler;
+
+/**
+ * {@code SimulationServer} runs programs sent over a local socket, so short
+ * programs don't pay for the start and warm-up of a new JVM.
+ * <p>
+ * Server listens on the loopback address only. A client sends the length of
+ * the program source as an {@code int}, the UTF-8 source and then the input
+ * of the program until it shuts down its output. Every job is parsed into its
+ * own computer and run as a green thread of the server's {@link Scheduler},
+ * reading the input as it arrives. When the program stops, the server sends
+ * back a {@link JobResult} with the output and timing of the job.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see SimulationClient
+ */
+public class SimulationServer implements Closeable {
+
+    /** Maximum size of a program source in bytes */
+    public static final int MAX_PROGRAM_SIZE = 1 << 20;
+
+    /** Size of the memory of every computer */
+    private static final int MEMORY_SIZE = 256;
+
+    /** Number of registers of every computer */
+    private static final int REGISTERS = 16;
+
+    /** Channel accepting connections */
+    private final ServerSocketChannel channel;
+
+    /** Scheduler running the jobs */
+    private final Scheduler scheduler;
+
+    /** Threads reading requests and writing results */
+    private final ExecutorService connections;
+
+    /** Thread accepting connections */
+    private final Thread acceptor;
+
+    /** If common instruction pairs are fused before programs are run */
+    private final boolean fuse;
+
+    /**
+     * Constructs a new {@code SimulationServer} and starts accepting
+     * connections.
+     * 
+     * @param port
+     *            port on the loopback address or {@code 0} for any free port
+     * @param carriers
+     *            number of carrier threads running the jobs
+     * @param fuse
+     *            if common instruction pairs are fused before programs are run
+     * @throws IOException
+     *             if port can't be bound
+     * @throws IllegalArgumentException
+     *             if number of carriers is less than 1
+     */
+    public SimulationServer(int port, int carriers, boolean fuse)
+            throws IOException {
+        this.scheduler = new Scheduler(carriers);
+        this.fuse = fuse;
+
+        this.channel = ServerSocketChannel.open();
+        try {
+            channel.bind(new InetSocketAddress(
+                    InetAddress.getLoopbackAddress(),
+                    port));
+        } catch (IOException e) {
+            channel.close();
+            scheduler.close();
+            throw e;
+        }
+
+        this.connections = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.acceptor = new Thread(this::accept, "acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Returns the port on which server listens.
+     * 
+     * @return the port
+     */
+    public int getPort() {
+        return channel.socket().getLocalPort();
+    }
+
+    /**
+     * Waits until the server is closed.
+     * 
+     * @throws InterruptedException
+     *             if the waiting thread is interrupted
+     */
+    public void await() throws InterruptedException {
+        acceptor.join();
+    }
+
+    /**
+     * Stops accepting connections and stops the scheduler. Running jobs are
+     * abandoned.
+     * 
+     * @throws IOException
+     *             if channel can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        connections.shutdownNow();
+        scheduler.close();
+    }
+
+    /**
+     * Runs one job.
+     * 
+     * @param program
+     *            the UTF-8 source of the program
+     * @param input
+     *            input of the program, read until its end
+     * @return the result
+     * @throws IOException
+     *             if input can't be read, in which case the program sees the
+     *             end of its input and finishes on its own
+     */
+    public JobResult run(byte[] program, InputStream input)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(bytes);
+        PipeInputChannel pipe = new PipeInputChannel();
+
+        ComputerImpl comp = new ComputerImpl(
+                new ArrayMemoryImpl(MEMORY_SIZE),
+                new RegistersImpl(REGISTERS));
+        comp.setInput(pipe);
+        comp.setOutput(output);
+
+        long start = System.nanoTime();
+        try {
+            ProgramParser.parse(
+                    new InputStreamReader(
+                            new ByteArrayInputStream(program),
+                            StandardCharsets.UTF_8),
+                    comp,
+                    new RegistryInstructionCreator());
+
+            if (fuse) {
+                SuperinstructionFuser.fuse(comp.getMemory(), MEMORY_SIZE);
+            }
+        } catch (Exception e) {
+            return new JobResult(
+                    "",
+                    0,
+                    System.nanoTime() - start,
+                    0,
+                    "Program can't be parsed: " + e);
+        }
+        long loaded = System.nanoTime();
+
+        GuestProgram guest = scheduler.submit(comp);
+
+        // input is read to its end even if program halts before it
+        try {
+            byte[] chunk = new byte[8192];
+            int length;
+            while ((length = input.read(chunk)) != -1) {
+                pipe.write(chunk, 0, length);
+            }
+        } finally {
+            // a disconnected client ends the input, so guest doesn't park
+            pipe.close();
+        }
+
+        try {
+            guest.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for job!");
+        }
+        long stopped = System.nanoTime();
+
+        output.flush();
+        return new JobResult(
+                bytes.toString(),
+                guest.getSteps(),
+                loaded - start,
+                stopped - loaded,
+                guest.getError() == null ? null : guest.getError().toString());
+    }
+
+    /**
+     * Loop of the thread accepting connections.
+     */
+    private void accept() {
+        while (true) {
+            SocketChannel client;
+            try {
+                client = channel.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                continue;
+            }
+
+            try {
+                connections.execute(() -> serve(client));
+            } catch (RuntimeException e) {
+                closeQuietly(client);
+            }
+        }
+    }
+
+    /**
+     * Reads a request from the client, runs the job and writes the result.
+     * 
+     * @param client
+     *            channel of the client
+     */
+    private void serve(SocketChannel client) {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(client)));
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(
+                            Channels.newOutputStream(client)));
+
+            int size = in.readInt();
+            if (size < 0 || size > MAX_PROGRAM_SIZE) {
+                new JobResult(
+                        "",
+                        0,
+                        0,
+                        0,
+                        "Invalid program size " + size + ".").write(out);
+                return;
+            }
+
+            byte[] program = new byte[size];
+            in.readFully(program);
+
+            run(program, in).write(out);
+        } catch (IOException e) {
+            // client has disconnected
+        } finally {
+            closeQuietly(client);
+        }
+    }
+
+    /**
+     * Closes the channel, ignoring errors.
+     * 
+     * @param client
+     *            the channel
+     */
+    private static void closeQuietly(SocketChannel client) {
+        try {
+            client.close();
+        } catch (IOException ignorable) {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ArrayMemoryImpl;
+
+/**
+ * Test class for {@link ArrayMemoryImpl} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ArrayMemoryImpl
+ */
+@SuppressWarnings("javadoc")
+public class ArrayMemoryImplTests {
+
+    @Test
+    public void testEmptyLocation() {
+        ArrayMemoryImpl mem = new ArrayMemoryImpl(10);
+
+        assertNull(mem.getLocation(3));
+        assertFalse(mem.isInteger(3));
+    }
+
+    @Test
+    public void testIntegerThroughObjectAccess() {
+        ArrayMemoryImpl mem = new ArrayMemoryImpl(10);
+
+        mem.setLocation(3, 42);
+
+        assertEquals(42, mem.getLocation(3));
+        assertTrue(mem.isInteger(3));
+        assertEquals(42, mem.getInt(3));
+    }
+
+    @Test
+    public void testIntegerThroughPrimitiveAccess() {
+        ArrayMemoryImpl mem = new ArrayMemoryImpl(10);
+
+        mem.setInt(9, -7);
+
+        assertEquals(-7, mem.getLocation(9));
+        assertEquals(-7, mem.getInt(9));
+    }
+
+    @Test
+    public void testOverwriteIntegerWithString() {
+        ArrayMemoryImpl mem = new ArrayMemoryImpl(10);
+
+        mem.setInt(0, 5);
+        mem.setLocation(0, "Hello");
+
+        assertEquals("Hello", mem.getLocation(0));
+        assertFalse(mem.isInteger(0));
+
+        mem.setLocation(0, null);
+        assertNull(mem.getLocation(0));
+    }
+
+    @Test
+    public void testReadEmptyLocationAsZero() {
+        ArrayMemoryImpl mem = new ArrayMemoryImpl(10);
+
+        assertEquals(0, mem.getIntOrZero(3));
+        assertNull(mem.getLocation(3));
+
+        mem.setInt(3, 7);
+        assertEquals(7, mem.getIntOrZero(3));
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void testGetIntOrZeroFromString() {
+        ArrayMemoryImpl mem = new ArrayMemoryImpl(10);
+
+        mem.setLocation(0, "Hello");
+        mem.getIntOrZero(0);
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void testGetIntFromString() {
+        ArrayMemoryImpl mem = new ArrayMemoryImpl(10);
+
+        mem.setLocation(0, "Hello");
+        mem.getInt(0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfBounds() {
+        new ArrayMemoryImpl(10).getLocation(10);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNegativeLocation() {
+        new ArrayMemoryImpl(10).setInt(-1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new ArrayMemoryImpl(0);
+    }
+}
@@ -0,0 +1,136 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.batch.BatchResult;
+import hr.fer.zemris.java.simplecomp.batch.BatchRunner;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+
+/**
+ * Test class for {@link BatchRunner} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BatchRunner
+ */
+@SuppressWarnings("javadoc")
+public class BatchRunnerTests {
+
+    private static final byte[] INPUT = "abc\n7\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void testListDirectory() throws Exception {
+        List<Path> programs = BatchRunner.listPrograms(Paths.get("examples"));
+
+        assertEquals(8, programs.size());
+        assertEquals(Paths.get("examples/asmProgram1.txt"), programs.get(0));
+    }
+
+    @Test
+    public void testOutputsAreSeparated() throws Exception {
+        List<Path> programs = BatchRunner.listPrograms(Paths.get("examples"));
+
+        BatchRunner runner = new BatchRunner(
+                ExecutionUnitImpl::new,
+                INPUT,
+                4,
+                false);
+
+        // every program is run 3 times so runs overlap
+        List<Path> jobs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            jobs.addAll(programs);
+        }
+
+        List<BatchResult> results = runner.run(jobs);
+
+        assertEquals(jobs.size(), results.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            BatchResult result = results.get(i);
+            BatchResult expected = runner.run(jobs.get(i));
+
+            assertTrue(result.isSuccessful());
+            assertEquals(jobs.get(i), result.getProgram());
+            assertEquals(expected.getOutput(), result.getOutput());
+        }
+    }
+
+    @Test
+    public void testRunInputsOnForks() throws Exception {
+        Path program = Paths.get("examples/prim2.txt");
+        List<byte[]> inputs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            inputs.add((i + "\n").getBytes(StandardCharsets.US_ASCII));
+        }
+
+        for (boolean fuse : new boolean[] { false, true }) {
+            BatchRunner runner = new BatchRunner(
+                    ExecutionUnitImpl::new,
+                    INPUT,
+                    4,
+                    fuse);
+
+            List<BatchResult> results = runner.run(program, inputs);
+
+            assertEquals(inputs.size(), results.size());
+            for (int i = 0; i < inputs.size(); i++) {
+                BatchResult expected = new BatchRunner(
+                        ExecutionUnitImpl::new,
+                        inputs.get(i),
+                        1,
+                        fuse).run(program);
+
+                assertTrue(results.get(i).isSuccessful());
+                assertEquals(program, results.get(i).getProgram());
+                assertEquals(expected.getOutput(), results.get(i).getOutput());
+                assertTrue(results.get(i).getOutput().contains(i + 4 + "\n"));
+            }
+        }
+    }
+
+    @Test
+    public void testRunInputsParseError() throws Exception {
+        BatchRunner runner = new BatchRunner(
+                ExecutionUnitImpl::new,
+                INPUT,
+                2,
+                false);
+
+        List<BatchResult> results = runner.run(
+                Paths.get("examples/missing.txt"),
+                Arrays.asList(new byte[0], new byte[0]));
+
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).isSuccessful());
+        assertFalse(results.get(1).isSuccessful());
+    }
+
+    @Test
+    public void testParseError() throws Exception {
+        BatchRunner runner = new BatchRunner(
+                ExecutionUnitImpl::new,
+                INPUT,
+                1,
+                false);
+
+        BatchResult result = runner.run(Paths.get("examples/missing.txt"));
+
+        assertFalse(result.isSuccessful());
+        assertEquals("", result.getOutput());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidParallelism() {
+        new BatchRunner(ExecutionUnitImpl::new, INPUT, 0, false);
+    }
+}
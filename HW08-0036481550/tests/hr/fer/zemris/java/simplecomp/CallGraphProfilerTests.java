@@ -0,0 +1,99 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.MemoryInputChannel;
+import hr.fer.zemris.java.simplecomp.impl.fusion.SuperinstructionFuser;
+import hr.fer.zemris.java.simplecomp.parser.ProgramParser;
+import hr.fer.zemris.java.simplecomp.profiler.CallGraphProfiler;
+import hr.fer.zemris.java.simplecomp.profiler.ProgramLabels;
+import hr.fer.zemris.java.simplecomp.registry.RegistryInstructionCreator;
+
+/**
+ * Test class for {@link CallGraphProfiler} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see CallGraphProfiler
+ */
+@SuppressWarnings("javadoc")
+public class CallGraphProfilerTests {
+
+    @Test
+    public void testSubroutine() throws Exception {
+        CallGraphProfiler profiler = run("examples/prim2.txt", false);
+
+        assertEquals(52, profiler.getSteps());
+        assertEquals(1, profiler.getCalls(0));
+        assertEquals(52, profiler.getInclusiveSteps(0));
+        assertEquals(46, profiler.getExclusiveSteps(0));
+        assertEquals(1, profiler.getCalls(18));
+        assertEquals(6, profiler.getInclusiveSteps(18));
+        assertEquals(6, profiler.getExclusiveSteps(18));
+    }
+
+    @Test
+    public void testRecursion() throws Exception {
+        CallGraphProfiler profiler = run("examples/asmProgram5.txt", false);
+
+        assertEquals(4, profiler.getCalls(6));
+        assertEquals(46, profiler.getInclusiveSteps(6));
+        assertEquals(46, profiler.getExclusiveSteps(6));
+        assertEquals(6, profiler.getExclusiveSteps(0));
+
+        assertEquals(
+                "main 6\n"
+                        + "main;@sum 13\n"
+                        + "main;@sum;@sum 13\n"
+                        + "main;@sum;@sum;@sum 13\n"
+                        + "main;@sum;@sum;@sum;@sum 7\n",
+                folded(profiler, "examples/asmProgram5.txt"));
+    }
+
+    @Test
+    public void testFusedCalls() throws Exception {
+        CallGraphProfiler plain = run("examples/asmProgram5.txt", false);
+        CallGraphProfiler fused = run("examples/asmProgram5.txt", true);
+
+        assertEquals(plain.getCalls(6), fused.getCalls(6));
+        assertTrue(fused.getSteps() < plain.getSteps());
+        assertEquals(
+                folded(plain, "examples/asmProgram5.txt")
+                        .replaceAll(" \\d+", ""),
+                folded(fused, "examples/asmProgram5.txt")
+                        .replaceAll(" \\d+", ""));
+    }
+
+    private static String folded(CallGraphProfiler profiler, String program)
+            throws Exception {
+        StringBuilder sb = new StringBuilder();
+        profiler.writeFolded(sb, ProgramLabels.scan(Paths.get(program)));
+        return sb.toString();
+    }
+
+    private static CallGraphProfiler run(String program, boolean fuse)
+            throws Exception {
+        ComputerImpl comp = newComputer();
+        ProgramParser.parse(program, comp, new RegistryInstructionCreator());
+        comp.setInput(new MemoryInputChannel("5\n".getBytes()));
+        comp.setOutput(new PrintStream(new ByteArrayOutputStream()));
+
+        if (fuse) {
+            SuperinstructionFuser.fuse(comp.getMemory(), MEMORY_SIZE);
+        }
+
+        CallGraphProfiler profiler = new CallGraphProfiler();
+        new ExecutionUnitImpl(profiler).go(comp);
+
+        return profiler;
+    }
+}
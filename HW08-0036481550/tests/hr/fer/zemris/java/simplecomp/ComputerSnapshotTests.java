@@ -0,0 +1,152 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.image.ComputerSnapshot;
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.fusion.SuperinstructionFuser;
+
+/**
+ * Test class for {@link ComputerSnapshot} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ComputerSnapshot
+ */
+@SuppressWarnings("javadoc")
+public class ComputerSnapshotTests {
+
+    private static final String[] PROGRAMS = {
+            "examples/asmProgram1.txt",
+            "examples/asmProgram2.txt",
+            "examples/asmProgram3.txt",
+            "examples/asmProgram4.txt",
+            "examples/asmProgram5.txt",
+            "examples/prim1.txt"
+    };
+
+    @Test
+    public void testResumeAfterRestart() throws Exception {
+        for (String program : PROGRAMS) {
+            for (int steps = 1; steps <= 41; steps += 20) {
+                ComputerImpl first = load(program);
+                ByteArrayOutputStream firstOut = capture(first);
+                ByteArrayOutputStream secondOut = new ByteArrayOutputStream();
+
+                if (!new ExecutionUnitImpl().resume(first, steps)) {
+                    ComputerSnapshot snapshot = writeAndRead(
+                            ComputerSnapshot.take(first, 256, 16));
+
+                    ComputerImpl second = newComputer();
+                    secondOut = capture(second);
+                    snapshot.restore(second);
+                    assertTrue(program, new ExecutionUnitImpl()
+                            .resume(second, Long.MAX_VALUE));
+                }
+
+                assertEquals(
+                        program + " after " + steps,
+                        run(load(program)),
+                        firstOut.toString() + secondOut.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testStateIsRestored() throws Exception {
+        ComputerImpl comp = load("examples/asmProgram5.txt");
+        capture(comp);
+        assertFalse(new ExecutionUnitImpl().resume(comp, 30));
+        comp.getRegisters().setFlag(true);
+        int pc = comp.getRegisters().getProgramCounter();
+
+        ComputerSnapshot snapshot = writeAndRead(
+                ComputerSnapshot.take(comp, 256, 16));
+        assertEquals(256, snapshot.getMemorySize());
+        assertEquals(16, snapshot.getRegisterCount());
+        assertEquals(pc, snapshot.getProgramCounter());
+        assertTrue(snapshot.getFlag());
+
+        ComputerImpl restored = newComputer();
+        restored.getMemory().setLocation(255, "garbage");
+        snapshot.restore(restored);
+
+        assertEquals(pc, restored.getRegisters().getProgramCounter());
+        assertTrue(restored.getRegisters().getFlag());
+        for (int i = 0; i < 16; i++) {
+            assertEquals(
+                    comp.getRegisters().getRegisterValue(i),
+                    restored.getRegisters().getRegisterValue(i));
+        }
+        for (int address = 0; address < 256; address++) {
+            Object expected = comp.getMemory().getLocation(address);
+            Object actual = restored.getMemory().getLocation(address);
+            if (expected instanceof Integer || expected instanceof String) {
+                assertEquals(expected, actual);
+            } else {
+                assertEquals(expected == null, actual == null);
+            }
+        }
+    }
+
+    @Test
+    public void testFusedProgram() throws Exception {
+        ComputerImpl comp = load("examples/asmProgram3.txt");
+        SuperinstructionFuser.fuse(comp.getMemory(), 256);
+
+        ComputerSnapshot snapshot = writeAndRead(
+                ComputerSnapshot.take(comp, 256, 16));
+        ComputerImpl restored = newComputer();
+        snapshot.restore(restored);
+
+        assertEquals(run(load("examples/asmProgram3.txt")), run(restored));
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidSnapshot() throws Exception {
+        Path file = Files.createTempFile("computer", ".snap");
+        try {
+            Files.write(file, new byte[] { 'S', 'C', 'I', 'M', 0, 0 });
+            ComputerSnapshot.read(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedSnapshot() throws Exception {
+        ComputerImpl comp = load("examples/prim1.txt");
+
+        Path file = Files.createTempFile("computer", ".snap");
+        try {
+            ComputerSnapshot.take(comp, 256, 16).write(file);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+            ComputerSnapshot.read(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static ComputerSnapshot writeAndRead(ComputerSnapshot snapshot)
+            throws IOException {
+        Path file = Files.createTempFile("computer", ".snap");
+        try {
+            snapshot.write(file);
+            return ComputerSnapshot.read(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
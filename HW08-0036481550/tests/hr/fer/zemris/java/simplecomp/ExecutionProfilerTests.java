@@ -0,0 +1,105 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.MemoryInputChannel;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrEcho;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrTestEquals;
+import hr.fer.zemris.java.simplecomp.parser.ProgramParser;
+import hr.fer.zemris.java.simplecomp.profiler.ExecutionProfiler;
+import hr.fer.zemris.java.simplecomp.profiler.ProgramLabels;
+import hr.fer.zemris.java.simplecomp.registry.RegistryInstructionCreator;
+
+/**
+ * Test class for {@link ExecutionProfiler} and {@link ProgramLabels} classes.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExecutionProfiler
+ */
+@SuppressWarnings("javadoc")
+public class ExecutionProfilerTests {
+
+    @Test
+    public void testCountsInstructions() throws Exception {
+        ExecutionProfiler profiler = run("examples/prim2.txt");
+
+        assertEquals(52, profiler.getSteps());
+        assertEquals(6, profiler.getCount(10));
+        assertEquals(5, profiler.getCount(16));
+        assertEquals(0, profiler.getCount(1));
+        assertEquals(12, profiler.getCount(InstrEcho.class));
+        assertEquals(6, profiler.getCount(InstrTestEquals.class));
+        assertTrue(profiler.getNanos() > 0);
+
+        List<Integer> hot = profiler.getHotAddresses();
+        assertEquals(Arrays.asList(10, 11, 12), hot.subList(0, 3));
+    }
+
+    @Test
+    public void testLabels() throws Exception {
+        ProgramLabels labels = ProgramLabels
+                .scan(Paths.get("examples/prim2.txt"));
+
+        assertEquals("@loop", labels.getLabel(10));
+        assertEquals("@loop+3", labels.describe(13));
+        assertEquals("@stackTop", labels.getLabel(50));
+        assertNull(labels.getLabel(11));
+        assertEquals("", labels.describe(0));
+    }
+
+    @Test
+    public void testLabelsWithComments() {
+        ProgramLabels labels = ProgramLabels.scan(Arrays.asList(
+                "# comment",
+                "@a:\tDEFSTR \"; not a comment\" ; comment",
+                "",
+                "\tRESERVE:3",
+                "@b:",
+                "@c:\thalt"));
+
+        assertEquals("@a", labels.getLabel(0));
+        assertEquals("@b", labels.getLabel(4));
+        assertEquals("@b", labels.describe(4));
+        assertEquals("@a+3", labels.describe(3));
+    }
+
+    @Test
+    public void testReport() throws Exception {
+        ExecutionProfiler profiler = run("examples/prim2.txt");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        profiler.report(
+                new PrintStream(bytes, true),
+                ProgramLabels.scan(Paths.get("examples/prim2.txt")),
+                3);
+
+        String report = bytes.toString();
+        assertTrue(report.contains("Executed 52 instructions"));
+        assertTrue(report.contains("@loop+2"));
+        assertFalse(report.contains("@loop+3"));
+    }
+
+    private static ExecutionProfiler run(String program) throws Exception {
+        ComputerImpl comp = newComputer();
+        ProgramParser.parse(program, comp, new RegistryInstructionCreator());
+        comp.setInput(new MemoryInputChannel("5\n".getBytes()));
+        comp.setOutput(new PrintStream(new ByteArrayOutputStream()));
+
+        ExecutionProfiler profiler = new ExecutionProfiler();
+        new ExecutionUnitImpl(profiler).go(comp);
+
+        return profiler;
+    }
+}
@@ -0,0 +1,248 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.closure.ClosureExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.compiler.CompiledExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.compiler.TieredExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.encoded.SwitchExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.encoded.TrustedExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.fusion.SuperinstructionFuser;
+import hr.fer.zemris.java.simplecomp.impl.stack.StackExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.trace.TraceExecutionUnit;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+
+/**
+ * Test class for implementations of a {@link ExecutionUnit} interface. Every
+ * execution unit must leave the computer in the same state and print the same
+ * output as the {@link ExecutionUnitImpl}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExecutionUnit
+ */
+@SuppressWarnings("javadoc")
+public class ExecutionUnitTests {
+
+    private static final String[] PROGRAMS = {
+            "examples/asmProgram1.txt",
+            "examples/asmProgram2.txt",
+            "examples/asmProgram3.txt",
+            "examples/asmProgram4.txt",
+            "examples/asmProgram5.txt",
+            "examples/prim1.txt"
+    };
+
+    @Test
+    public void testClosureExecutionUnit() throws Exception {
+        for (String program : PROGRAMS) {
+            assertSameAsInterpreter(program, new ClosureExecutionUnit());
+        }
+    }
+
+    @Test
+    public void testCompiledExecutionUnit() throws Exception {
+        for (String program : PROGRAMS) {
+            assertSameAsInterpreter(program, new CompiledExecutionUnit());
+        }
+    }
+
+    @Test
+    public void testTieredExecutionUnit() throws Exception {
+        for (String program : PROGRAMS) {
+            assertSameAsInterpreter(program, new TieredExecutionUnit(1));
+        }
+    }
+
+    @Test
+    public void testSwitchExecutionUnit() throws Exception {
+        for (String program : PROGRAMS) {
+            assertSameAsInterpreter(program, new SwitchExecutionUnit());
+        }
+    }
+
+    @Test
+    public void testTrustedExecutionUnit() throws Exception {
+        for (String program : PROGRAMS) {
+            assertSameAsInterpreter(program, new TrustedExecutionUnit());
+        }
+    }
+
+    @Test
+    public void testStackExecutionUnit() throws Exception {
+        for (String program : PROGRAMS) {
+            assertSameAsInterpreter(program, new StackExecutionUnit());
+        }
+    }
+
+    @Test
+    public void testTraceExecutionUnit() throws Exception {
+        for (String program : PROGRAMS) {
+            assertSameAsInterpreter(program, new TraceExecutionUnit(1));
+        }
+    }
+
+    @Test
+    public void testFusedInstructions() throws Exception {
+        ExecutionUnit[] units = {
+                new ExecutionUnitImpl(),
+                new ClosureExecutionUnit(),
+                new CompiledExecutionUnit(),
+                new TieredExecutionUnit(1),
+                new SwitchExecutionUnit(),
+                new TrustedExecutionUnit(),
+                new StackExecutionUnit(),
+                new TraceExecutionUnit(1)
+        };
+
+        for (ExecutionUnit unit : units) {
+            for (String program : PROGRAMS) {
+                assertSameAsInterpreter(program, fused(unit));
+            }
+        }
+    }
+
+    @Test
+    public void testReadsDontChangeEmptyLocations() throws Exception {
+        ExecutionUnit[] units = {
+                new ExecutionUnitImpl(),
+                new ClosureExecutionUnit(),
+                new CompiledExecutionUnit(),
+                new TieredExecutionUnit(1),
+                new SwitchExecutionUnit(),
+                new TrustedExecutionUnit(),
+                new StackExecutionUnit(),
+                new TraceExecutionUnit(1)
+        };
+        String source = "move r0, r1\n"
+                + "add r2, r3, r4\n"
+                + "move r5, [r6+10]\n"
+                + "echo [r6+11]\n"
+                + "halt\n";
+
+        for (ExecutionUnit unit : units) {
+            ComputerImpl comp = parse(source);
+
+            assertEquals("0", run(unit, comp));
+            assertEquals(0, comp.getRegisters().getRegisterValue(0));
+            assertEquals(0, comp.getRegisters().getRegisterValue(2));
+            assertEquals(0, comp.getRegisters().getRegisterValue(5));
+            for (int i : new int[] { 1, 3, 4, 6 }) {
+                assertNull(comp.getRegisters().getRegisterValue(i));
+            }
+            assertNull(comp.getMemory().getLocation(10));
+            assertNull(comp.getMemory().getLocation(11));
+        }
+    }
+
+    @Test
+    public void testCompiledRegistersHoldingStrings() throws Exception {
+        ExecutionUnit[] units = {
+                new CompiledExecutionUnit(),
+                new TieredExecutionUnit(1)
+        };
+        String source = "load r0, @text\n"
+                + "echo r0\n"
+                + "move r0, 3\n"
+                + "increment r0\n"
+                + "echo r0\n"
+                + "load r0, @text\n"
+                + "echo r0\n"
+                + "move r1, r0\n"
+                + "halt\n"
+                + "@text: DEFSTR \"text\"\n";
+
+        for (ExecutionUnit unit : units) {
+            ComputerImpl comp = parse(source);
+            ByteArrayOutputStream output = capture(comp);
+
+            try {
+                unit.go(comp);
+                fail("Expected ClassCastException.");
+            } catch (ClassCastException expected) {
+            }
+
+            assertEquals("text4text", output.toString());
+            assertEquals("text", comp.getRegisters().getRegisterValue(0));
+            assertNull(comp.getRegisters().getRegisterValue(1));
+        }
+    }
+
+    @Test
+    public void testCompiledRegistersStoredOnException() throws Exception {
+        ExecutionUnit[] units = {
+                new CompiledExecutionUnit(),
+                new TieredExecutionUnit(1)
+        };
+        String source = "move r1, 7\n"
+                + "add r2, r1, r1\n"
+                + "move r3, [r1+1000]\n"
+                + "halt\n";
+
+        for (ExecutionUnit unit : units) {
+            ComputerImpl comp = parse(source);
+
+            try {
+                unit.go(comp);
+                fail("Expected IndexOutOfBoundsException.");
+            } catch (IndexOutOfBoundsException expected) {
+            }
+
+            assertEquals(7, comp.getRegisters().getRegisterValue(1));
+            assertEquals(14, comp.getRegisters().getRegisterValue(2));
+            assertNull(comp.getRegisters().getRegisterValue(3));
+        }
+    }
+
+    private static void assertSameAsInterpreter(
+            String program,
+            ExecutionUnit exec) throws Exception {
+        ComputerImpl expected = load(program);
+        String expectedOutput = run(new ExecutionUnitImpl(), expected);
+
+        ComputerImpl actual = load(program);
+        String actualOutput = run(exec, actual);
+
+        assertEquals(program, expectedOutput, actualOutput);
+        assertEquals(
+                program,
+                expected.getRegisters().getProgramCounter(),
+                actual.getRegisters().getProgramCounter());
+        assertEquals(
+                program,
+                expected.getRegisters().getFlag(),
+                actual.getRegisters().getFlag());
+
+        for (int i = 0; i < 16; i++) {
+            assertEquals(
+                    program + " r" + i,
+                    expected.getRegisters().getRegisterValue(i),
+                    actual.getRegisters().getRegisterValue(i));
+        }
+
+        for (int i = 0; i < 256; i++) {
+            Object value = expected.getMemory().getLocation(i);
+
+            if (value instanceof Integer || value instanceof String) {
+                assertEquals(
+                        program + " @" + i,
+                        value,
+                        actual.getMemory().getLocation(i));
+            }
+        }
+    }
+
+    private static ExecutionUnit fused(ExecutionUnit exec) {
+        return computer -> {
+            SuperinstructionFuser.fuse(computer.getMemory(), 256);
+            return exec.go(computer);
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.InputChannel;
+import hr.fer.zemris.java.simplecomp.impl.MappedInputChannel;
+import hr.fer.zemris.java.simplecomp.impl.MemoryInputChannel;
+import hr.fer.zemris.java.simplecomp.impl.PipeInputChannel;
+import hr.fer.zemris.java.simplecomp.impl.StreamInputChannel;
+
+/**
+ * Test class for {@link InputChannel} class and its implementations.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see InputChannel
+ */
+@SuppressWarnings("javadoc")
+public class InputChannelTests {
+
+    private static final String[] LINES = {
+            "0", "7", "-7", "+7", "007", "-0", "2147483647", "-2147483648",
+            "2147483648", "-2147483649", "99999999999999999999", "", "-", "+",
+            "abc", "12a", " 12", "12 ", "1.5", "--1", "٣٤", "č"
+    };
+
+    @Test
+    public void testParsesLikeParseInt() throws Exception {
+        InputChannel channel = new MemoryInputChannel(
+                String.join("\n", LINES).getBytes(StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8);
+
+        for (String line : LINES) {
+            assertEquals(line, parse(line), channel.readInt());
+        }
+        assertEquals(InputChannel.INVALID, channel.readInt());
+    }
+
+    @Test
+    public void testLineTerminators() throws Exception {
+        InputChannel channel = new MemoryInputChannel(
+                "a\nb\r\nc\rd\r\r\ne".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("a", channel.readLine());
+        assertEquals("b", channel.readLine());
+        assertEquals("c", channel.readLine());
+        assertEquals("d", channel.readLine());
+        assertEquals("", channel.readLine());
+        assertEquals("e", channel.readLine());
+        assertNull(channel.readLine());
+    }
+
+    @Test
+    public void testStreamAcrossBuffers() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            sb.append(i * 7919).append("\r\n");
+        }
+
+        InputChannel channel = new StreamInputChannel(
+                new ByteArrayInputStream(sb.toString().getBytes()));
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i * 7919, channel.readInt());
+        }
+        assertNull(channel.readLine());
+    }
+
+    @Test
+    public void testFiles() throws Exception {
+        Path file = Files.createTempFile("input", ".txt");
+        try {
+            Files.write(file, "abc\n42\n-5".getBytes());
+
+            try (InputChannel channel = new MappedInputChannel(file)) {
+                assertEquals("abc", channel.readLine());
+                assertEquals(42, channel.readInt());
+                assertEquals(-5, channel.readInt());
+                assertNull(channel.readLine());
+            }
+
+            try (InputChannel channel = new StreamInputChannel(file)) {
+                assertEquals(InputChannel.INVALID, channel.readInt());
+                assertEquals("42", channel.readLine());
+                assertEquals(-5, channel.readInt());
+                assertEquals(InputChannel.INVALID, channel.readInt());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testPipe() throws Exception {
+        PipeInputChannel pipe = new PipeInputChannel();
+        int[] notified = new int[1];
+        pipe.setListener(() -> notified[0]++);
+
+        assertFalse(pipe.isReady());
+        pipe.write("12".getBytes());
+        assertFalse(pipe.isReady());
+        assertEquals(0, notified[0]);
+
+        pipe.write("\r\nabc\n".getBytes());
+        assertTrue(pipe.isReady());
+        assertEquals(1, notified[0]);
+        assertEquals(12, pipe.readInt());
+        assertEquals("abc", pipe.readLine());
+        assertFalse(pipe.isReady());
+
+        Thread writer = new Thread(() -> pipe.writeLine("-3"));
+        writer.start();
+        assertEquals(-3, pipe.readInt());
+        writer.join();
+
+        pipe.close();
+        assertTrue(pipe.isReady());
+        assertEquals(3, notified[0]);
+        assertNull(pipe.readLine());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWriteToClosedPipe() {
+        PipeInputChannel pipe = new PipeInputChannel();
+        pipe.close();
+
+        pipe.writeLine("1");
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testFailedComputerInput() throws Exception {
+        ComputerImpl comp = TestComputers.parse("input 10\nhalt\n");
+        comp.setInput(new StreamInputChannel(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Input is closed.");
+            }
+        }));
+
+        new ExecutionUnitImpl().go(comp);
+    }
+
+    private static long parse(String line) {
+        try {
+            return Integer.parseInt(line);
+        } catch (NumberFormatException nfe) {
+            return InputChannel.INVALID;
+        }
+    }
+}
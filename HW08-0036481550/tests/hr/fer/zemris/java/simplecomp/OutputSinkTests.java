@@ -0,0 +1,99 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.OutputSink;
+
+/**
+ * Test class for {@link OutputSink} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see OutputSink
+ */
+@SuppressWarnings("javadoc")
+public class OutputSinkTests {
+
+    @Test
+    public void testFormatsIntegers() {
+        int[] values = {
+                0, 7, -7, 10, 99, 100, 123456789, 1000000000,
+                Integer.MAX_VALUE, -Integer.MAX_VALUE, Integer.MIN_VALUE
+        };
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputSink sink = new OutputSink(bytes);
+        StringBuilder expected = new StringBuilder();
+
+        for (int value : values) {
+            sink.print(value);
+            sink.print(" ");
+            expected.append(value).append(' ');
+        }
+        sink.flush();
+
+        assertEquals(expected.toString(), bytes.toString());
+    }
+
+    @Test
+    public void testPrintsObjects() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputSink sink = new OutputSink(bytes);
+
+        sink.print((Object) 42);
+        sink.print((Object) "Hello\n");
+        sink.print((Object) null);
+        sink.print((Object) 'c');
+        sink.flush();
+
+        assertEquals("42Hello\nnullc", bytes.toString());
+    }
+
+    @Test
+    public void testBuffersUntilFlush() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputSink sink = new OutputSink(bytes);
+
+        sink.print("Hello");
+        assertEquals(0, bytes.size());
+
+        sink.flush();
+        assertEquals("Hello", bytes.toString());
+    }
+
+    @Test
+    public void testSmallBuffer() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputSink sink = new OutputSink(
+                Channels.newChannel(bytes),
+                StandardCharsets.UTF_8,
+                16);
+        StringBuilder expected = new StringBuilder();
+
+        for (int i = -500; i < 500; i++) {
+            sink.print(i);
+            sink.print("čć long string longer than the buffer\n");
+            expected.append(i)
+                    .append("čć long string longer than the buffer\n");
+        }
+        sink.flush();
+
+        assertEquals(
+                expected.toString(),
+                new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new OutputSink(
+                Channels.newChannel(new ByteArrayOutputStream()),
+                StandardCharsets.UTF_8,
+                4);
+    }
+}
@@ -0,0 +1,147 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ArrayMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.PagedMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.RegistersImpl;
+
+/**
+ * Test class for {@link PagedMemoryImpl} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see PagedMemoryImpl
+ */
+@SuppressWarnings("javadoc")
+public class PagedMemoryImplTests {
+
+    @Test
+    public void testEmptyLocation() {
+        PagedMemoryImpl mem = new PagedMemoryImpl(100);
+
+        assertNull(mem.getLocation(99));
+        assertFalse(mem.isInteger(99));
+        assertEquals(0, mem.getPrivatePages());
+    }
+
+    @Test
+    public void testValues() {
+        PagedMemoryImpl mem = new PagedMemoryImpl(100);
+
+        mem.setInt(3, 42);
+        mem.setLocation(99, "Hello");
+
+        assertEquals(42, mem.getLocation(3));
+        assertEquals(42, mem.getInt(3));
+        assertTrue(mem.isInteger(3));
+        assertEquals("Hello", mem.getLocation(99));
+        assertEquals(2, mem.getPrivatePages());
+
+        mem.setLocation(3, null);
+        assertNull(mem.getLocation(3));
+    }
+
+    @Test
+    public void testForkSharesPages() {
+        PagedMemoryImpl mem = new PagedMemoryImpl(256);
+        for (int i = 0; i < 256; i++) {
+            mem.setInt(i, i);
+        }
+
+        PagedMemoryImpl fork = mem.fork();
+        assertEquals(0, fork.getPrivatePages());
+        assertEquals(0, mem.getPrivatePages());
+        assertEquals(200, fork.getInt(200));
+
+        fork.setInt(200, -1);
+        assertEquals(1, fork.getPrivatePages());
+        assertEquals(-1, fork.getInt(200));
+        assertEquals(200, mem.getInt(200));
+        assertEquals(201, fork.getInt(201));
+    }
+
+    @Test
+    public void testReadsDontCopyPages() {
+        PagedMemoryImpl mem = new PagedMemoryImpl(256);
+        mem.setInt(0, 1);
+
+        PagedMemoryImpl fork = mem.fork();
+        assertEquals(0, fork.getIntOrZero(1));
+        assertEquals(0, fork.getIntOrZero(200));
+        assertEquals(1, fork.getIntOrZero(0));
+        assertEquals(0, fork.getPrivatePages());
+        assertNull(fork.getLocation(200));
+    }
+
+    @Test
+    public void testWritesAreIsolated() {
+        PagedMemoryImpl mem = new PagedMemoryImpl(256);
+        mem.setInt(0, 1);
+
+        PagedMemoryImpl first = mem.fork();
+        PagedMemoryImpl second = mem.fork();
+        PagedMemoryImpl nested = first.fork();
+
+        mem.setInt(0, 2);
+        first.setInt(0, 3);
+
+        assertEquals(2, mem.getInt(0));
+        assertEquals(3, first.getInt(0));
+        assertEquals(1, second.getInt(0));
+        assertEquals(1, nested.getInt(0));
+    }
+
+    @Test
+    public void testForkComputer() {
+        ComputerImpl comp = new ComputerImpl(
+                new PagedMemoryImpl(256),
+                new RegistersImpl(16));
+        comp.getMemory().setLocation(10, "data");
+        comp.getRegisters().setRegisterValue(1, 5);
+        comp.getRegisters().setProgramCounter(7);
+        comp.getRegisters().setFlag(true);
+
+        ComputerImpl fork = comp.fork();
+        fork.getRegisters().setRegisterValue(1, 6);
+        fork.getMemory().setLocation(10, "changed");
+
+        assertEquals(5, comp.getRegisters().getRegisterValue(1));
+        assertEquals("data", comp.getMemory().getLocation(10));
+        assertEquals(6, fork.getRegisters().getRegisterValue(1));
+        assertEquals(7, fork.getRegisters().getProgramCounter());
+        assertTrue(fork.getRegisters().getFlag());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testForkArrayMemory() {
+        new ComputerImpl(new ArrayMemoryImpl(256), new RegistersImpl(16))
+                .fork();
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void testGetIntFromString() {
+        PagedMemoryImpl mem = new PagedMemoryImpl(10);
+
+        mem.setLocation(0, "Hello");
+        mem.getInt(0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfBounds() {
+        new PagedMemoryImpl(100).getLocation(100);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNegativeLocation() {
+        new PagedMemoryImpl(10).setInt(-1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new PagedMemoryImpl(0);
+    }
+}
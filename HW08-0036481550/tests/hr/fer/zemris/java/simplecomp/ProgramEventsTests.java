@@ -0,0 +1,113 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.encoded.SwitchExecutionUnit;
+import hr.fer.zemris.java.simplecomp.jfr.ProgramEvents;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+import hr.fer.zemris.java.simplecomp.parser.ProgramParser;
+import hr.fer.zemris.java.simplecomp.registry.RegistryInstructionCreator;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Test class for {@link ProgramEvents} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramEvents
+ */
+@SuppressWarnings("javadoc")
+public class ProgramEventsTests {
+
+    private static final String LOAD = "hr.fer.zemris.simplecomp.ProgramLoad";
+
+    private static final String EXECUTION =
+            "hr.fer.zemris.simplecomp.Execution";
+
+    @Test
+    public void testRecordsEvents() throws Exception {
+        assumeTrue(ProgramEvents.isAvailable());
+
+        List<RecordedEvent> events = record(new ExecutionUnitImpl());
+
+        RecordedEvent load = find(events, LOAD);
+        assertEquals("examples/asmProgram5.txt", load.getString("source"));
+        assertEquals(19, load.getInt("instructions"));
+        assertFalse(load.getBoolean("cached"));
+
+        RecordedEvent execution = find(events, EXECUTION);
+        assertEquals(load.getInt("computer"), execution.getInt("computer"));
+        assertEquals("ExecutionUnitImpl", execution.getString("engine"));
+        assertEquals(52, execution.getLong("steps"));
+        assertTrue(execution.getDouble("stepsPerSecond") > 0);
+    }
+
+    @Test
+    public void testEngineWithoutSteps() throws Exception {
+        assumeTrue(ProgramEvents.isAvailable());
+
+        RecordedEvent execution = find(
+                record(new SwitchExecutionUnit()),
+                EXECUTION);
+        assertEquals("SwitchExecutionUnit", execution.getString("engine"));
+        assertEquals(-1, execution.getLong("steps"));
+    }
+
+    private static List<RecordedEvent> record(ExecutionUnit unit)
+            throws Exception {
+        Path file = Files.createTempFile("recording", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(LOAD);
+            recording.enable(EXECUTION);
+            recording.start();
+
+            ComputerImpl comp = newComputer();
+            comp.setOutput(new PrintStream(new ByteArrayOutputStream()));
+            Path source = Paths.get("examples/asmProgram5.txt");
+
+            ProgramEvents.load(
+                    comp,
+                    source,
+                    false,
+                    MEMORY_SIZE,
+                    () -> ProgramParser.parse(
+                            source.toString(),
+                            comp,
+                            new RegistryInstructionCreator()));
+            ProgramEvents.go(unit, comp, source);
+
+            recording.stop();
+            recording.dump(file);
+
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                return event;
+            }
+        }
+
+        fail("Missing event " + name);
+        return null;
+    }
+}
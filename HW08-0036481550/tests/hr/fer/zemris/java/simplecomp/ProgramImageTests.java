@@ -0,0 +1,111 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.image.ProgramImage;
+import hr.fer.zemris.java.simplecomp.image.ProgramImageCache;
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+
+/**
+ * Test class for {@link ProgramImage} and {@link ProgramImageCache} classes.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramImage
+ */
+@SuppressWarnings("javadoc")
+public class ProgramImageTests {
+
+    private static final String[] PROGRAMS = {
+            "examples/asmProgram1.txt",
+            "examples/asmProgram2.txt",
+            "examples/asmProgram3.txt",
+            "examples/asmProgram4.txt",
+            "examples/asmProgram5.txt",
+            "examples/prim1.txt"
+    };
+
+    @Test
+    public void testImageRunsLikeSource() throws Exception {
+        for (String program : PROGRAMS) {
+            ComputerImpl parsed = load(program);
+            byte[] hash = hash(program);
+
+            Path image = Files.createTempFile("program", ".img");
+            try {
+                Files.write(image, ProgramImage.write(parsed, hash, 256, 16));
+
+                ComputerImpl loaded = newComputer();
+                assertTrue(ProgramImage.read(image, loaded, hash, 256, 16));
+
+                for (int i = 0; i < 16; i++) {
+                    assertEquals(
+                            program + " r" + i,
+                            parsed.getRegisters().getRegisterValue(i),
+                            loaded.getRegisters().getRegisterValue(i));
+                }
+
+                assertEquals(program, run(load(program)), run(loaded));
+            } finally {
+                Files.delete(image);
+            }
+        }
+    }
+
+    @Test
+    public void testStaleImage() throws Exception {
+        ComputerImpl parsed = load(PROGRAMS[0]);
+
+        Path image = Files.createTempFile("program", ".img");
+        try {
+            Files.write(
+                    image,
+                    ProgramImage.write(parsed, hash(PROGRAMS[0]), 256, 16));
+
+            ComputerImpl loaded = newComputer();
+            assertFalse(ProgramImage
+                    .read(image, loaded, hash(PROGRAMS[1]), 256, 16));
+            assertNull(loaded.getMemory().getLocation(0));
+        } finally {
+            Files.delete(image);
+        }
+    }
+
+    @Test
+    public void testCacheWritesAndReadsImage() throws Exception {
+        Path dir = Files.createTempDirectory("images");
+        Path source = dir.resolve("prim1.txt");
+        Files.copy(Paths.get("examples/prim1.txt"), source);
+        Path image = ProgramImageCache.getImagePath(source);
+
+        try {
+            assertFalse(ProgramImageCache
+                    .load(source, newComputer(), 256, 16, creator()));
+            assertTrue(Files.exists(image));
+
+            ComputerImpl loaded = newComputer();
+            assertTrue(ProgramImageCache
+                    .load(source, loaded, 256, 16, creator()));
+            assertEquals(run(load("examples/prim1.txt")), run(loaded));
+
+            Files.write(source, "\thalt\n".getBytes());
+            assertFalse(ProgramImageCache
+                    .load(source, newComputer(), 256, 16, creator()));
+        } finally {
+            Files.deleteIfExists(image);
+            Files.delete(source);
+            Files.delete(dir);
+        }
+    }
+
+    private static byte[] hash(String program) throws Exception {
+        return ProgramImage.hash(Files.readAllBytes(Paths.get(program)));
+    }
+}
@@ -0,0 +1,255 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.MemoryInputChannel;
+import hr.fer.zemris.java.simplecomp.impl.closure.ClosureExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.compiler.CompiledExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.encoded.TrustedExecutionUnit;
+import hr.fer.zemris.java.simplecomp.impl.fusion.SuperinstructionFuser;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrJump;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrLoad;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrMove;
+import hr.fer.zemris.java.simplecomp.impl.optimizer.ProgramOptimizer;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+
+/**
+ * Test class for {@link ProgramOptimizer} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramOptimizer
+ */
+@SuppressWarnings("javadoc")
+public class ProgramOptimizerTests {
+
+    private static final String[] PROGRAMS = {
+            "examples/asmProgram1.txt",
+            "examples/asmProgram2.txt",
+            "examples/asmProgram3.txt",
+            "examples/asmProgram4.txt",
+            "examples/asmProgram5.txt",
+            "examples/prim1.txt",
+            "examples/prim2.txt",
+            "examples/prim3.txt"
+    };
+
+    private static final String INPUT = "abc\n7\n";
+
+    @Test
+    public void testExamplesKeepTheirOutput() throws Exception {
+        ExecutionUnit[] units = {
+                new ExecutionUnitImpl(),
+                new ClosureExecutionUnit(),
+                new CompiledExecutionUnit(),
+                new TrustedExecutionUnit()
+        };
+
+        for (String program : PROGRAMS) {
+            String source = new String(
+                    Files.readAllBytes(Paths.get(program)),
+                    StandardCharsets.UTF_8);
+            String expected = run(parseWithInput(source));
+
+            for (ExecutionUnit unit : units) {
+                ComputerImpl comp = parseWithInput(source);
+                ProgramOptimizer.optimize(comp, 256, 16);
+
+                assertEquals(program, expected, run(unit, comp));
+            }
+        }
+    }
+
+    @Test
+    public void testLoadFromConstantIsFolded() throws Exception {
+        ComputerImpl comp = parse("load r0, @three\n"
+                + "echo r0\n"
+                + "halt\n"
+                + "@three: DEFINT 3\n");
+
+        assertTrue(ProgramOptimizer.optimize(comp, 256, 16) > 0);
+        assertTrue(comp.getMemory().getLocation(0) instanceof InstrMove);
+        assertEquals("3", run(new ExecutionUnitImpl(), comp));
+    }
+
+    @Test
+    public void testLoadFromWrittenLocationIsKept() throws Exception {
+        ComputerImpl comp = parse("load r0, @zero\n"
+                + "move r1, 5\n"
+                + "move [r0+7], r1\n"
+                + "load r2, @value\n"
+                + "echo r2\n"
+                + "halt\n"
+                + "@zero: DEFINT 0\n"
+                + "@value: DEFINT 1\n");
+
+        ProgramOptimizer.optimize(comp, 256, 16);
+
+        assertTrue(comp.getMemory().getLocation(3) instanceof InstrLoad);
+        assertEquals("5", run(new ExecutionUnitImpl(), comp));
+    }
+
+    @Test
+    public void testUnknownIndirectWriteKeepsLoads() throws Exception {
+        ComputerImpl comp = parse("input @address\n"
+                + "load r0, @address\n"
+                + "move r1, 5\n"
+                + "move [r0+0], r1\n"
+                + "load r2, @value\n"
+                + "echo r2\n"
+                + "halt\n"
+                + "@address: DEFINT 0\n"
+                + "@value: DEFINT 1\n");
+        comp.setInput(new MemoryInputChannel(
+                "8\n".getBytes(StandardCharsets.UTF_8)));
+
+        ProgramOptimizer.optimize(comp, 256, 16);
+
+        assertTrue(comp.getMemory().getLocation(4) instanceof InstrLoad);
+        assertEquals("5", run(new ExecutionUnitImpl(), comp));
+    }
+
+    @Test
+    public void testUnreachableCodeIsRemoved() throws Exception {
+        ComputerImpl comp = parse("move r0, 1\n"
+                + "echo r0\n"
+                + "halt\n"
+                + "echo r0\n"
+                + "halt\n");
+
+        ProgramOptimizer.optimize(comp, 256, 16);
+
+        assertNull(comp.getMemory().getLocation(3));
+        assertNull(comp.getMemory().getLocation(4));
+        assertEquals("1", run(new ExecutionUnitImpl(), comp));
+    }
+
+    @Test
+    public void testCodeAfterReturnSiteIsRemoved() throws Exception {
+        ComputerImpl comp = parse("call @sub\n"
+                + "halt\n"
+                + "echo r0\n"
+                + "halt\n"
+                + "@sub: move r0, 1\n"
+                + "echo r0\n"
+                + "ret\n"
+                + "RESERVE:3\n"
+                + "@stackTop: RESERVE\n");
+
+        ProgramOptimizer.optimize(comp, 256, 16);
+
+        assertNull(comp.getMemory().getLocation(2));
+        assertNull(comp.getMemory().getLocation(3));
+        assertEquals("1", run(new ExecutionUnitImpl(), comp));
+    }
+
+    @Test
+    public void testRewrittenReturnAddressIsFollowed() throws Exception {
+        String source = "call @sub\n"
+                + "halt\n"
+                + "echo r0\n"
+                + "halt\n"
+                + "@sub: move r0, 1\n"
+                + "move [r15+1], r0\n"
+                + "move r0, 5\n"
+                + "ret\n"
+                + "RESERVE:3\n"
+                + "@stackTop: RESERVE\n";
+        ComputerImpl comp = parse(source);
+
+        ProgramOptimizer.optimize(comp, 256, 16);
+
+        assertEquals("5", run(parse(source)));
+        assertEquals("5", run(new ExecutionUnitImpl(), comp));
+    }
+
+    @Test
+    public void testPushedReturnAddressIsFollowed() throws Exception {
+        String source = "move r1, 3\n"
+                + "push r1\n"
+                + "ret\n"
+                + "halt\n"
+                + "move r0, 9\n"
+                + "echo r0\n"
+                + "halt\n"
+                + "RESERVE:3\n"
+                + "@stackTop: RESERVE\n";
+        ComputerImpl comp = parse(source);
+
+        ProgramOptimizer.optimize(comp, 256, 16);
+
+        assertEquals("9", run(parse(source)));
+        assertEquals("9", run(new ExecutionUnitImpl(), comp));
+    }
+
+    @Test
+    public void testKnownBranchIsResolved() throws Exception {
+        ComputerImpl comp = parse("move r0, 1\n"
+                + "move r1, 1\n"
+                + "testEquals r0, r1\n"
+                + "jumpIfTrue @equal\n"
+                + "echo r0\n"
+                + "@equal: echo r1\n"
+                + "halt\n");
+
+        ProgramOptimizer.optimize(comp, 256, 16);
+
+        assertNull(comp.getMemory().getLocation(4));
+        assertEquals("1", run(new ExecutionUnitImpl(), comp));
+    }
+
+    @Test
+    public void testDeadWriteIsRemoved() throws Exception {
+        ComputerImpl comp = parse("move r0, 1\n"
+                + "move r0, 2\n"
+                + "echo r0\n"
+                + "halt\n");
+
+        ProgramOptimizer.optimize(comp, 256, 16);
+
+        assertTrue(comp.getMemory().getLocation(0) instanceof InstrJump);
+        assertEquals("2", run(new ExecutionUnitImpl(), comp));
+    }
+
+    @Test
+    public void testWriteWhichCanFailIsKept() throws Exception {
+        ComputerImpl comp = parse("load r0, @text\n"
+                + "increment r0\n"
+                + "halt\n"
+                + "@text: DEFSTR \"text\"\n");
+
+        ProgramOptimizer.optimize(comp, 256, 16);
+
+        assertFalse(comp.getMemory().getLocation(1) instanceof InstrJump);
+    }
+
+    @Test
+    public void testFusedProgramIsUnchanged() throws Exception {
+        ComputerImpl comp = parse("load r0, @three\n"
+                + "testEquals r0, r0\n"
+                + "jumpIfTrue @end\n"
+                + "@end: halt\n"
+                + "@three: DEFINT 3\n");
+        SuperinstructionFuser.fuse(comp.getMemory(), 256);
+
+        assertEquals(0, ProgramOptimizer.optimize(comp, 256, 16));
+        assertTrue(comp.getMemory().getLocation(0) instanceof InstrLoad);
+    }
+
+    private static ComputerImpl parseWithInput(String source)
+            throws Exception {
+        ComputerImpl comp = parse(source);
+        comp.setInput(new MemoryInputChannel(
+                INPUT.getBytes(StandardCharsets.UTF_8)));
+        return comp;
+    }
+}
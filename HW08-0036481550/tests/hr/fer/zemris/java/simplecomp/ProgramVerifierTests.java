@@ -0,0 +1,160 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.encoded.ProgramVerification;
+import hr.fer.zemris.java.simplecomp.impl.encoded.ProgramVerifier;
+import hr.fer.zemris.java.simplecomp.impl.encoded.TrustedExecutionUnit;
+
+/**
+ * Test class for {@link ProgramVerifier} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ProgramVerifier
+ */
+@SuppressWarnings("javadoc")
+public class ProgramVerifierTests {
+
+    private static final String[] PROGRAMS = {
+            "examples/asmProgram1.txt",
+            "examples/asmProgram2.txt",
+            "examples/asmProgram3.txt",
+            "examples/asmProgram4.txt",
+            "examples/asmProgram5.txt",
+            "examples/prim1.txt",
+            "examples/prim2.txt"
+    };
+
+    @Test
+    public void testExamplesAreVerified() throws Exception {
+        for (String program : PROGRAMS) {
+            ComputerImpl comp = load(program);
+
+            ProgramVerification result = verify(comp);
+            assertTrue(
+                    program + " " + result.getErrors(),
+                    result.isVerified());
+        }
+    }
+
+    @Test
+    public void testProvenOperands() throws Exception {
+        ProgramVerification result = verify(
+                parse(
+                        "load r0, @msg\n"
+                                + "move r1, 5\n"
+                                + "add r2, r1, r1\n"
+                                + "add r3, r0, r1\n"
+                                + "halt\n"
+                                + "@msg: DEFSTR \"Hi\"\n"));
+
+        assertTrue(result.getErrors().toString(), result.isVerified());
+        assertTrue(result.isProven(2));
+        assertFalse(result.isProven(3));
+        assertTrue(result.isReachable(4));
+        assertFalse(result.isReachable(5));
+    }
+
+    @Test
+    public void testPushedObjectWidensMemory() throws Exception {
+        ProgramVerification result = verify(
+                parse(
+                        "load r0, @num\n"
+                                + "add r1, r0, r0\n"
+                                + "load r2, @msg\n"
+                                + "push r2\n"
+                                + "halt\n"
+                                + "@num: DEFINT 5\n"
+                                + "@msg: DEFSTR \"Hi\"\n"));
+
+        assertTrue(result.getErrors().toString(), result.isVerified());
+        assertFalse(result.isProven(1));
+    }
+
+    @Test
+    public void testPoppedAndReturnedRegisters() throws Exception {
+        ProgramVerification result = verify(
+                parse(
+                        "move r0, 1\n"
+                                + "call @sub\n"
+                                + "add r1, r0, r0\n"
+                                + "pop r2\n"
+                                + "add r3, r2, r2\n"
+                                + "halt\n"
+                                + "@sub: load r0, @msg\n"
+                                + "ret\n"
+                                + "@msg: DEFSTR \"Hi\"\n"));
+
+        assertTrue(result.getErrors().toString(), result.isVerified());
+        assertFalse(result.isProven(2));
+        assertFalse(result.isProven(4));
+    }
+
+    @Test
+    public void testInputIntoEmptyLocation() throws Exception {
+        ProgramVerification result = verify(parse("input 10\nhalt\n"));
+
+        assertTrue(result.isVerified());
+    }
+
+    @Test
+    public void testJumpOutsideOfMemory() throws Exception {
+        ProgramVerification result = verify(parse("jump 300\n"));
+
+        assertFalse(result.isVerified());
+        assertEquals(1, result.getErrors().size());
+    }
+
+    @Test
+    public void testExecutionReachesData() throws Exception {
+        ProgramVerification result = verify(
+                parse("load r0, @num\n@num: DEFINT 5\n"));
+
+        assertFalse(result.isVerified());
+        assertEquals(
+                "Execution reaches data at address 1.",
+                result.getErrors().get(0));
+    }
+
+    @Test
+    public void testInputOverInstruction() throws Exception {
+        ProgramVerification result = verify(parse("@x: input @x\nhalt\n"));
+
+        assertFalse(result.isVerified());
+    }
+
+    @Test
+    public void testUnverifiedProgramStillRuns() throws Exception {
+        ComputerImpl comp = parse(
+                "load r0, @msg\necho r0\nmove r1, 3\n@msg: DEFSTR \"Hi\"\n");
+        ByteArrayOutputStream out = capture(comp);
+
+        try {
+            new TrustedExecutionUnit().go(comp);
+            fail();
+        } catch (ClassCastException expected) {
+            assertEquals("Hi", out.toString());
+        }
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void testUnprovenOperandIsChecked() throws Exception {
+        new TrustedExecutionUnit().go(
+                parse(
+                        "load r0, @msg\n"
+                                + "add r1, r0, r0\n"
+                                + "halt\n"
+                                + "@msg: DEFSTR \"Hi\"\n"));
+    }
+
+    private static ProgramVerification verify(ComputerImpl comp) {
+        return ProgramVerifier.verify(comp.getMemory(), 256, 16);
+    }
+}
@@ -4,6 +4,11 @@ import static org.junit.Assert.*;
 
 import org.junit.Test;
 
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.MemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.RegistersImpl;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+
 /**
  * Test class for {@link RegisterUtil} class.
  * 
@@ -52,4 +57,19 @@ public class RegisterUtilTests {
         assertEquals(true, RegisterUtil.isIndirect(registerDescriptor));
     }
 
+    @Test
+    public void testReadingEmptyRegisterDoesntWrite() {
+        Computer comp = new ComputerImpl(
+                new MemoryImpl(16),
+                new RegistersImpl(16));
+
+        assertEquals(0, RegisterUtil.getValue(comp, 3));
+        assertEquals(0, RegisterUtil.getIntValue(comp, 3));
+        assertEquals(0, RegisterUtil.getValue(comp, 0x1000503));
+        assertEquals(0, RegisterUtil.getIntValue(comp, 0x1000503));
+
+        assertNull(comp.getRegisters().getRegisterValue(3));
+        assertNull(comp.getMemory().getLocation(5));
+    }
+
 }
@@ -0,0 +1,107 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.InstructionArgumentImpl;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrAdd;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrHalt;
+import hr.fer.zemris.java.simplecomp.impl.instructions.InstrTestEquals;
+import hr.fer.zemris.java.simplecomp.models.Computer;
+import hr.fer.zemris.java.simplecomp.models.Instruction;
+import hr.fer.zemris.java.simplecomp.parser.ProgramParser;
+import hr.fer.zemris.java.simplecomp.registry.RegistryInstructionCreator;
+
+/**
+ * Test class for {@link RegistryInstructionCreator} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see RegistryInstructionCreator
+ */
+@SuppressWarnings("javadoc")
+public class RegistryInstructionCreatorTests {
+
+    private static final String[] PROGRAMS = {
+            "examples/asmProgram1.txt",
+            "examples/asmProgram2.txt",
+            "examples/asmProgram3.txt",
+            "examples/asmProgram4.txt",
+            "examples/asmProgram5.txt",
+            "examples/prim1.txt",
+            "examples/prim2.txt",
+            "examples/prim3.txt"
+    };
+
+    @Test
+    public void testCreatesInstructions() {
+        RegistryInstructionCreator creator = new RegistryInstructionCreator();
+
+        assertTrue(creator.getInstruction("halt",
+                Collections.emptyList()) instanceof InstrHalt);
+        assertTrue(creator.getInstruction("Add", Arrays.asList(
+                InstructionArgumentImpl.register(1),
+                InstructionArgumentImpl.register(2),
+                InstructionArgumentImpl.register(3))) instanceof InstrAdd);
+        assertTrue(creator.getInstruction("testEquals", Arrays.asList(
+                InstructionArgumentImpl.register(1),
+                InstructionArgumentImpl.register(2)))
+                instanceof InstrTestEquals);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownInstruction() {
+        new RegistryInstructionCreator()
+                .getInstruction("jumpIfFalse", Collections.emptyList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidArguments() {
+        new RegistryInstructionCreator()
+                .getInstruction("add", Collections.emptyList());
+    }
+
+    @Test
+    public void testRegistersEveryInstruction() {
+        int count = 0;
+        for (String mnemonic : RegistryInstructionCreator.getMnemonics()) {
+            assertTrue(mnemonic, Character.isUpperCase(mnemonic.charAt(0)));
+            count++;
+        }
+
+        assertEquals(16, count);
+    }
+
+    @Test
+    public void testParsesLikeReflection() throws Exception {
+        for (String program : PROGRAMS) {
+            Computer reflective = newComputer();
+            ProgramParser.parse(program, reflective, creator());
+
+            Computer registry = newComputer();
+            ProgramParser.parse(
+                    program,
+                    registry,
+                    new RegistryInstructionCreator());
+
+            for (int i = 0; i < MEMORY_SIZE; i++) {
+                Object expected = reflective.getMemory().getLocation(i);
+                Object actual = registry.getMemory().getLocation(i);
+
+                if (expected instanceof Instruction) {
+                    assertEquals(
+                            program + " @" + i,
+                            expected.getClass(),
+                            actual.getClass());
+                } else {
+                    assertEquals(program + " @" + i, expected, actual);
+                }
+            }
+        }
+    }
+}
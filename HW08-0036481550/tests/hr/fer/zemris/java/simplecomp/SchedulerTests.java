@@ -0,0 +1,206 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ArrayMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.MemoryInputChannel;
+import hr.fer.zemris.java.simplecomp.impl.PipeInputChannel;
+import hr.fer.zemris.java.simplecomp.impl.RegistersImpl;
+import hr.fer.zemris.java.simplecomp.impl.StreamInputChannel;
+import hr.fer.zemris.java.simplecomp.scheduler.GuestProgram;
+import hr.fer.zemris.java.simplecomp.scheduler.Scheduler;
+import hr.fer.zemris.java.simplecomp.scheduler.SchedulingPolicy;
+
+/**
+ * Test class for {@link Scheduler} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Scheduler
+ */
+@SuppressWarnings("javadoc")
+public class SchedulerTests {
+
+    private static final String[] PROGRAMS = {
+            "examples/asmProgram1.txt",
+            "examples/asmProgram2.txt",
+            "examples/asmProgram3.txt",
+            "examples/asmProgram4.txt",
+            "examples/asmProgram5.txt",
+            "examples/prim1.txt",
+            "examples/prim2.txt"
+    };
+
+    private static final byte[] INPUT = "abc\n7\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void testTimeSlicedRunsLikeInterpreter() throws Exception {
+        try (Scheduler scheduler = new Scheduler(
+                2,
+                7,
+                SchedulingPolicy.ROUND_ROBIN)) {
+            List<GuestProgram> programs = new ArrayList<>();
+            List<ByteArrayOutputStream> outputs = new ArrayList<>();
+
+            for (int i = 0; i < 10; i++) {
+                for (String program : PROGRAMS) {
+                    ComputerImpl comp = load(program);
+                    comp.setInput(new MemoryInputChannel(INPUT));
+                    outputs.add(capture(comp));
+                    programs.add(scheduler.submit(comp));
+                }
+            }
+
+            for (int i = 0; i < programs.size(); i++) {
+                GuestProgram program = programs.get(i);
+                String source = PROGRAMS[i % PROGRAMS.length];
+
+                assertTrue(program.await(10, TimeUnit.SECONDS));
+                assertNull(program.getError());
+                assertEquals(
+                        (program.getSteps() + 6) / 7,
+                        program.getQuanta());
+                assertEquals(
+                        source,
+                        interpret(source),
+                        outputs.get(i).toString());
+            }
+        }
+    }
+
+    @Test
+    public void testParkedProgramFreesCarrier() throws Exception {
+        try (Scheduler scheduler = new Scheduler(1)) {
+            PipeInputChannel pipe = new PipeInputChannel();
+            ComputerImpl waiting = load("examples/prim2.txt");
+            waiting.setInput(pipe);
+            ByteArrayOutputStream output = capture(waiting);
+
+            ComputerImpl otherComp = load("examples/asmProgram1.txt");
+            capture(otherComp);
+
+            GuestProgram parked = scheduler.submit(waiting);
+            GuestProgram other = scheduler.submit(otherComp);
+
+            assertTrue(other.await(10, TimeUnit.SECONDS));
+            assertFalse(parked.isDone());
+
+            pipe.writeLine("5");
+            assertTrue(parked.await(10, TimeUnit.SECONDS));
+            assertNull(parked.getError());
+            assertTrue(output.toString().endsWith("5\n6\n7\n8\n9\n"));
+        }
+    }
+
+    @Test
+    public void testCloseFailsParkedProgram() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        ComputerImpl waiting = load("examples/prim2.txt");
+        waiting.setInput(new PipeInputChannel());
+        capture(waiting);
+
+        ComputerImpl otherComp = load("examples/asmProgram1.txt");
+        capture(otherComp);
+
+        GuestProgram parked = scheduler.submit(waiting);
+        GuestProgram other = scheduler.submit(otherComp);
+        assertTrue(other.await(10, TimeUnit.SECONDS));
+
+        scheduler.close();
+
+        assertTrue(parked.await(10, TimeUnit.SECONDS));
+        assertTrue(parked.getError() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testClosedPipeEndsInput() throws Exception {
+        try (Scheduler scheduler = new Scheduler(1)) {
+            PipeInputChannel pipe = new PipeInputChannel();
+            ComputerImpl comp = load("examples/prim2.txt");
+            comp.setInput(pipe);
+            ByteArrayOutputStream output = capture(comp);
+
+            GuestProgram program = scheduler.submit(comp);
+            pipe.writeLine("x");
+            pipe.writeLine("10");
+            pipe.close();
+
+            assertTrue(program.await(10, TimeUnit.SECONDS));
+            assertTrue(output.toString().endsWith("10\n11\n12\n13\n14\n"));
+        }
+    }
+
+    @Test
+    public void testPriority() throws Exception {
+        try (Scheduler scheduler = new Scheduler(
+                1,
+                Scheduler.DEFAULT_QUANTUM,
+                SchedulingPolicy.PRIORITY)) {
+            // gate blocks the only carrier until both programs are ready
+            Pipe gateInput = Pipe.open();
+            ComputerImpl gate = load("examples/prim2.txt");
+            gate.setInput(new StreamInputChannel(
+                    gateInput.source(),
+                    StandardCharsets.US_ASCII));
+            capture(gate);
+            scheduler.submit(gate, 0);
+
+            ComputerImpl lowComp = load("examples/asmProgram2.txt");
+            capture(lowComp);
+            GuestProgram low = scheduler.submit(lowComp, 0);
+
+            ComputerImpl highComp = load("examples/asmProgram2.txt");
+            capture(highComp);
+            GuestProgram high = scheduler.submit(highComp, 5);
+
+            gateInput.sink().write(ByteBuffer.wrap("1\n".getBytes()));
+
+            assertTrue(low.await(10, TimeUnit.SECONDS));
+            assertTrue(high.isDone());
+        }
+    }
+
+    @Test
+    public void testFailedProgram() throws Exception {
+        try (Scheduler scheduler = new Scheduler(1)) {
+            GuestProgram program = scheduler.submit(new ComputerImpl(
+                    new ArrayMemoryImpl(16),
+                    new RegistersImpl(16)));
+
+            assertTrue(program.await(10, TimeUnit.SECONDS));
+            assertNotNull(program.getError());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSubmitToClosed() throws Exception {
+        Scheduler scheduler = new Scheduler(1);
+        scheduler.close();
+
+        scheduler.submit(load("examples/prim1.txt"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidQuantum() {
+        new Scheduler(1, 0, SchedulingPolicy.ROUND_ROBIN);
+    }
+
+    private static String interpret(String program) throws Exception {
+        ComputerImpl comp = load(program);
+        comp.setInput(new MemoryInputChannel(INPUT));
+        return run(comp);
+    }
+}
@@ -0,0 +1,136 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.batch.BatchRunner;
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.MemoryInputChannel;
+import hr.fer.zemris.java.simplecomp.parser.ProgramParser;
+import hr.fer.zemris.java.simplecomp.registry.RegistryInstructionCreator;
+import hr.fer.zemris.java.simplecomp.server.JobResult;
+import hr.fer.zemris.java.simplecomp.server.SimulationClient;
+import hr.fer.zemris.java.simplecomp.server.SimulationServer;
+
+/**
+ * Test class for {@link SimulationServer} and {@link SimulationClient}
+ * classes.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see SimulationServer
+ */
+@SuppressWarnings("javadoc")
+public class SimulationServerTests {
+
+    private static final byte[] INPUT = "abc\n7\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void testJobsRunLikeInterpreter() throws Exception {
+        List<Path> programs = BatchRunner.listPrograms(Paths.get("examples"));
+
+        try (SimulationServer server = new SimulationServer(0, 2, false)) {
+            for (Path program : programs) {
+                JobResult result = SimulationClient.run(
+                        server.getPort(),
+                        Files.readAllBytes(program),
+                        new ByteArrayInputStream(INPUT));
+
+                assertTrue(program.toString(), result.isSuccessful());
+                assertEquals(program.toString(), run(program), result
+                        .getOutput());
+                assertTrue(result.getSteps() > 0);
+                assertTrue(result.getLoadNanos() > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentClients() throws Exception {
+        Path program = Paths.get("examples/prim2.txt");
+        byte[] source = Files.readAllBytes(program);
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+
+        try (SimulationServer server = new SimulationServer(0, 2, true)) {
+            List<Future<JobResult>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                byte[] input = (i + "\n").getBytes(StandardCharsets.US_ASCII);
+                results.add(clients.submit(() -> SimulationClient.run(
+                        server.getPort(),
+                        source,
+                        new ByteArrayInputStream(input))));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                JobResult result = results.get(i).get();
+
+                assertTrue(result.isSuccessful());
+                assertTrue(result.getOutput().endsWith(i + 4 + "\n"));
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    @Test
+    public void testParseError() throws Exception {
+        try (SimulationServer server = new SimulationServer(0, 1, false)) {
+            JobResult result = SimulationClient.run(
+                    server.getPort(),
+                    "\tunknown r1\n".getBytes(StandardCharsets.UTF_8),
+                    new ByteArrayInputStream(new byte[0]));
+
+            assertFalse(result.isSuccessful());
+            assertEquals("", result.getOutput());
+        }
+    }
+
+    @Test
+    public void testInvalidProgramSize() throws Exception {
+        try (SimulationServer server = new SimulationServer(0, 1, false);
+                Socket socket = new Socket(
+                        InetAddress.getLoopbackAddress(),
+                        server.getPort())) {
+            new DataOutputStream(socket.getOutputStream()).writeInt(-1);
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            assertFalse(in.readBoolean());
+        }
+    }
+
+    private static String run(Path program) throws Exception {
+        ComputerImpl comp = newComputer();
+        ProgramParser.parse(
+                program.toString(),
+                comp,
+                new RegistryInstructionCreator());
+        comp.setInput(new MemoryInputChannel(INPUT));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        comp.setOutput(new PrintStream(bytes, true));
+        new ExecutionUnitImpl().go(comp);
+
+        return bytes.toString();
+    }
+}
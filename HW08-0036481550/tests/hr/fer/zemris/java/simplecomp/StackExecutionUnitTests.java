@@ -0,0 +1,151 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.stack.StackExecutionUnit;
+
+/**
+ * Test class for {@link StackExecutionUnit} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see StackExecutionUnit
+ */
+@SuppressWarnings("javadoc")
+public class StackExecutionUnitTests {
+
+    @Test
+    public void testOverflowDoesntOverwriteData() throws Exception {
+        ComputerImpl comp = parse(
+                "@f: call @f\n"
+                        + "DEFSTR \"data\"\n"
+                        + "RESERVE:3\n"
+                        + "@stackTop: RESERVE\n");
+
+        try {
+            new StackExecutionUnit().go(comp);
+            fail();
+        } catch (IllegalStateException expected) {
+            assertEquals("data", comp.getMemory().getLocation(1));
+            assertEquals(1, comp.getRegisters().getRegisterValue(15));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnderflow() throws Exception {
+        new StackExecutionUnit().go(parse("ret\n@stackTop: RESERVE\n"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPopFromEmptyStack() throws Exception {
+        new StackExecutionUnit().go(
+                parse("push r0\npop r1\npop r2\n@stackTop: RESERVE:2\n"));
+    }
+
+    @Test
+    public void testRewrittenReturnAddress() throws Exception {
+        String source = "call @sub\n"
+                + "halt\n"
+                + "halt\n"
+                + "@sub: move r0, 1\n"
+                + "move [r15+1], r0\n"
+                + "ret\n"
+                + "RESERVE:3\n"
+                + "@stackTop: RESERVE\n";
+
+        ComputerImpl expected = parse(source);
+        new ExecutionUnitImpl().go(expected);
+
+        ComputerImpl actual = parse(source);
+        StackExecutionUnit exec = new StackExecutionUnit();
+        exec.go(actual);
+
+        assertEquals(0, exec.getShadowReturns());
+        assertEquals(2, actual.getRegisters().getProgramCounter());
+        assertEquals(
+                expected.getRegisters().getProgramCounter(),
+                actual.getRegisters().getProgramCounter());
+        assertEquals(
+                expected.getRegisters().getRegisterValue(15),
+                actual.getRegisters().getRegisterValue(15));
+    }
+
+    @Test
+    public void testRecursiveReturnsUseShadowStack() throws Exception {
+        String source = "move r0, 40\n"
+                + "move r1, 0\n"
+                + "move r2, 0\n"
+                + "call @f\n"
+                + "echo r2\n"
+                + "halt\n"
+                + "@f: testEquals r0, r1\n"
+                + "jumpIfTrue @done\n"
+                + "decrement r0\n"
+                + "call @f\n"
+                + "increment r2\n"
+                + "@done: ret\n"
+                + "RESERVE:41\n"
+                + "@stackTop: RESERVE\n";
+
+        ComputerImpl expected = parse(source);
+        assertEquals("40", run(expected));
+
+        ComputerImpl actual = parse(source);
+        StackExecutionUnit exec = new StackExecutionUnit();
+        assertEquals("40", run(exec, actual));
+
+        assertEquals(41, exec.getShadowReturns());
+        assertEquals(
+                expected.getRegisters().getRegisterValue(15),
+                actual.getRegisters().getRegisterValue(15));
+    }
+
+    @Test
+    public void testReleasedLocalDoesntShrinkStack() throws Exception {
+        String source = "decrement r15\n"
+                + "call @sub\n"
+                + "increment r15\n"
+                + "move r0, 1\n"
+                + "push r0\n"
+                + "move r0, 2\n"
+                + "push r0\n"
+                + "push r0\n"
+                + "pop r1\n"
+                + "pop r2\n"
+                + "pop r3\n"
+                + "add r1, r1, r2\n"
+                + "add r1, r1, r3\n"
+                + "echo r1\n"
+                + "halt\n"
+                + "@sub: ret\n"
+                + "RESERVE:2\n"
+                + "@stackTop: RESERVE\n";
+
+        assertEquals("5", run(parse(source)));
+        assertEquals("5", run(new StackExecutionUnit(), parse(source)));
+    }
+
+    @Test
+    public void testStackCanBeMoved() throws Exception {
+        ComputerImpl comp = parse(
+                "move r0, 7\n"
+                        + "push r0\n"
+                        + "move r15, @other\n"
+                        + "push r0\n"
+                        + "pop r1\n"
+                        + "halt\n"
+                        + "@stackTop: RESERVE:2\n"
+                        + "RESERVE:2\n"
+                        + "@other: RESERVE\n");
+
+        new StackExecutionUnit().go(comp);
+
+        assertEquals(7, comp.getRegisters().getRegisterValue(1));
+    }
+}
@@ -0,0 +1,126 @@
+package hr.fer.zemris.java.simplecomp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+import hr.fer.zemris.java.simplecomp.impl.ArrayMemoryImpl;
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.RegistersImpl;
+import hr.fer.zemris.java.simplecomp.models.ExecutionUnit;
+import hr.fer.zemris.java.simplecomp.parser.InstructionCreatorImpl;
+import hr.fer.zemris.java.simplecomp.parser.ProgramParser;
+
+/**
+ * {@code TestComputers} creates the computers which tests load programs into
+ * and runs them with captured output. Every computer has the same memory and
+ * registers as the computer created by the {@link Simulator}.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+final class TestComputers {
+
+    /** Size of the memory */
+    static final int MEMORY_SIZE = 256;
+
+    /** Number of registers */
+    static final int REGISTERS = 16;
+
+    /**
+     * Private constructor. Class only holds static methods.
+     */
+    private TestComputers() {
+    }
+
+    /**
+     * Creates an empty computer.
+     * 
+     * @return the computer
+     */
+    static ComputerImpl newComputer() {
+        return new ComputerImpl(
+                new ArrayMemoryImpl(MEMORY_SIZE),
+                new RegistersImpl(REGISTERS));
+    }
+
+    /**
+     * Creates the instruction creator used by the parser.
+     * 
+     * @return the instruction creator
+     */
+    static InstructionCreatorImpl creator() {
+        return new InstructionCreatorImpl(
+                "hr.fer.zemris.java.simplecomp.impl.instructions");
+    }
+
+    /**
+     * Creates a computer and loads the program from the file into it.
+     * 
+     * @param path
+     *            path to source of the program
+     * @return the computer
+     * @throws Exception
+     *             if program can't be parsed
+     */
+    static ComputerImpl load(String path) throws Exception {
+        ComputerImpl comp = newComputer();
+        ProgramParser.parse(path, comp, creator());
+        return comp;
+    }
+
+    /**
+     * Creates a computer and loads the program source into it.
+     * 
+     * @param source
+     *            source of the program
+     * @return the computer
+     * @throws Exception
+     *             if program can't be parsed
+     */
+    static ComputerImpl parse(String source) throws Exception {
+        ComputerImpl comp = newComputer();
+        ProgramParser.parse(new StringReader(source), comp, creator());
+        return comp;
+    }
+
+    /**
+     * Redirects the output of the computer into a buffer.
+     * 
+     * @param comp
+     *            the computer
+     * @return the buffer
+     */
+    static ByteArrayOutputStream capture(ComputerImpl comp) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        comp.setOutput(new PrintStream(bytes, true));
+        return bytes;
+    }
+
+    /**
+     * Runs the computer in the interpreter.
+     * 
+     * @param comp
+     *            the computer
+     * @return the output of the program
+     */
+    static String run(ComputerImpl comp) {
+        return run(new ExecutionUnitImpl(), comp);
+    }
+
+    /**
+     * Runs the computer in the execution unit.
+     * 
+     * @param exec
+     *            the execution unit
+     * @param comp
+     *            the computer
+     * @return the output of the program
+     */
+    static String run(ExecutionUnit exec, ComputerImpl comp) {
+        ByteArrayOutputStream bytes = capture(comp);
+        exec.go(comp);
+        return bytes.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.compiler.TieredExecutionUnit;
+
+/**
+ * Test class for {@link TieredExecutionUnit} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see TieredExecutionUnit
+ */
+@SuppressWarnings("javadoc")
+public class TieredExecutionUnitTests {
+
+    private static final String LOOP = "move r0, 0\n"
+            + "move r1, 3000000\n"
+            + "@loop: testEquals r0, r1\n"
+            + "jumpIfTrue @end\n"
+            + "increment r0\n"
+            + "jump @loop\n"
+            + "@end: echo r0\n"
+            + "halt\n";
+
+    @Test
+    public void testHotLoopIsCompiled() throws Exception {
+        TieredExecutionUnit exec = new TieredExecutionUnit(10, false);
+        ComputerImpl comp = parse(LOOP);
+
+        assertEquals("3000000", run(exec, comp));
+        assertEquals(2, exec.getCompiledBlocks());
+        assertEquals(7, comp.getRegisters().getProgramCounter());
+    }
+
+    @Test
+    public void testBackgroundCompilation() throws Exception {
+        TieredExecutionUnit exec = new TieredExecutionUnit(10);
+        ComputerImpl comp = parse(LOOP);
+
+        assertEquals("3000000", run(exec, comp));
+        assertEquals(7, comp.getRegisters().getProgramCounter());
+    }
+
+    @Test
+    public void testColdProgramIsInterpreted() throws Exception {
+        TieredExecutionUnit exec = new TieredExecutionUnit(
+                Integer.MAX_VALUE);
+
+        assertEquals("3000000", run(exec, parse(LOOP)));
+        assertEquals(0, exec.getCompiledBlocks());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreshold() {
+        new TieredExecutionUnit(0);
+    }
+}
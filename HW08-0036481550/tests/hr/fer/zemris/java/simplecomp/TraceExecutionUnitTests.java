@@ -0,0 +1,123 @@
+package hr.fer.zemris.java.simplecomp;
+
+import static hr.fer.zemris.java.simplecomp.TestComputers.*;
+import static org.junit.Assert.*;
+
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.simplecomp.impl.ComputerImpl;
+import hr.fer.zemris.java.simplecomp.impl.ExecutionUnitImpl;
+import hr.fer.zemris.java.simplecomp.impl.trace.TraceExecutionUnit;
+
+/**
+ * Test class for {@link TraceExecutionUnit} class.
+ * 
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see TraceExecutionUnit
+ */
+@SuppressWarnings("javadoc")
+public class TraceExecutionUnitTests {
+
+    private static final String LOOP = "move r0, 0\n"
+            + "move r1, 100000\n"
+            + "@loop: testEquals r0, r1\n"
+            + "jumpIfTrue @end\n"
+            + "increment r0\n"
+            + "jump @loop\n"
+            + "@end: echo r0\n"
+            + "halt\n";
+
+    private static final String NESTED = "move r0, 0\n"
+            + "move r1, 0\n"
+            + "move r2, 100\n"
+            + "move r4, 1\n"
+            + "@outer: move r3, 0\n"
+            + "@inner: add r1, r1, r3\n"
+            + "increment r3\n"
+            + "testEquals r3, r2\n"
+            + "jumpIfTrue @next\n"
+            + "jump @inner\n"
+            + "@next: add r0, r0, r4\n"
+            + "testEquals r0, r2\n"
+            + "jumpIfTrue @end\n"
+            + "jump @outer\n"
+            + "@end: echo r1\n"
+            + "halt\n";
+
+    @Test
+    public void testHotLoopIsTraced() throws Exception {
+        TraceExecutionUnit exec = new TraceExecutionUnit(10);
+        ComputerImpl comp = parse(LOOP);
+
+        assertEquals("100000", run(exec, comp));
+        assertEquals(1, exec.getTraces());
+        assertEquals(7, comp.getRegisters().getProgramCounter());
+    }
+
+    @Test
+    public void testNestedLoopsLeaveTraces() throws Exception {
+        TraceExecutionUnit exec = new TraceExecutionUnit(5);
+
+        assertEquals(
+                run(new ExecutionUnitImpl(), parse(NESTED)),
+                run(exec, parse(NESTED)));
+        assertTrue(exec.getTraces() > 0);
+    }
+
+    @Test
+    public void testTraceCallsInstructions() throws Exception {
+        String source = "move r0, 0\n"
+                + "move r1, 20\n"
+                + "load r2, @text\n"
+                + "@loop: testEquals r0, r1\n"
+                + "jumpIfTrue @end\n"
+                + "echo r2\n"
+                + "increment r0\n"
+                + "move r2, r0\n"
+                + "jump @loop\n"
+                + "@end: halt\n"
+                + "@text: DEFSTR \"text\"\n";
+        TraceExecutionUnit exec = new TraceExecutionUnit(5);
+        ComputerImpl comp = parse(source);
+
+        assertEquals(run(parse(source)), run(exec, comp));
+        assertEquals(1, exec.getTraces());
+        assertEquals(20, comp.getRegisters().getRegisterValue(2));
+        assertEquals(9, comp.getRegisters().getProgramCounter());
+    }
+
+    @Test
+    public void testColdProgramIsInterpreted() throws Exception {
+        TraceExecutionUnit exec = new TraceExecutionUnit(Integer.MAX_VALUE);
+
+        assertEquals("100000", run(exec, parse(LOOP)));
+        assertEquals(0, exec.getTraces());
+    }
+
+    @Test
+    public void testLoopWithCallIsntTraced() throws Exception {
+        TraceExecutionUnit exec = new TraceExecutionUnit(1);
+        ComputerImpl comp = parse("move r0, 0\n"
+                + "move r1, 100\n"
+                + "@loop: call @inc\n"
+                + "testEquals r0, r1\n"
+                + "jumpIfTrue @end\n"
+                + "jump @loop\n"
+                + "@end: echo r0\n"
+                + "halt\n"
+                + "@inc: increment r0\n"
+                + "ret\n"
+                + "RESERVE:3\n"
+                + "@stackTop: RESERVE\n");
+
+        assertEquals("100", run(exec, comp));
+        assertEquals(0, exec.getTraces());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreshold() {
+        new TraceExecutionUnit(0);
+    }
+}